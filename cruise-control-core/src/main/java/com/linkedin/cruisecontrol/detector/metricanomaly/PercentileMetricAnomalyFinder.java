@@ -11,11 +11,11 @@ import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapola
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +32,16 @@ import static com.linkedin.cruisecontrol.detector.metricanomaly.PercentileMetric
  * upper percentile threshold or falls below the lower percentile threshold, that value will be considered as
  * an anomaly.
  *
+ * The percentiles of the historical metric values of each entity are tracked with a {@link SlidingWindowPercentile},
+ * which is updated incrementally as the history windows roll, so each check reads the percentiles without sorting the
+ * history.
+ *
  * @param <E> The entity-level at which the metric anomaly analysis will be performed -- e.g. broker-level.
  */
 public abstract class PercentileMetricAnomalyFinder<E extends Entity> implements MetricAnomalyFinder<E> {
   private static final Logger LOG = LoggerFactory.getLogger(PercentileMetricAnomalyFinder.class);
-  private final Percentile _percentile;
+  // The percentiles of the history of each interested metric of each entity.
+  private final Map<E, Map<Short, SlidingWindowPercentile>> _historyPercentiles;
   protected double _anomalyUpperMargin;
   protected double _anomalyLowerMargin;
   protected Double _anomalyUpperPercentile;
@@ -44,7 +49,7 @@ public abstract class PercentileMetricAnomalyFinder<E extends Entity> implements
   protected Set<String> _interestedMetrics;
 
   public PercentileMetricAnomalyFinder() {
-    _percentile = new Percentile();
+    _historyPercentiles = new HashMap<>();
   }
 
   /**
@@ -67,15 +72,17 @@ public abstract class PercentileMetricAnomalyFinder<E extends Entity> implements
       // No history metric values exist for the given metricId.
       return null;
     }
-    _percentile.setData(historyMetricValues.doubleArray());
+    SlidingWindowPercentile historyPercentile =
+        _historyPercentiles.computeIfAbsent(entity, e -> new HashMap<>()).computeIfAbsent(metricId, m -> new SlidingWindowPercentile());
+    historyPercentile.update(history.windows(), historyMetricValues);
 
-    double upperPercentileMetricValue = _percentile.evaluate(_anomalyUpperPercentile);
+    double upperPercentileMetricValue = historyPercentile.evaluate(_anomalyUpperPercentile);
     if (upperPercentileMetricValue <= SIGNIFICANT_METRIC_VALUE_THRESHOLD) {
       return null;
     }
 
     double upperThreshold = upperPercentileMetricValue * (1 + _anomalyUpperMargin);
-    double lowerThreshold = _percentile.evaluate(_anomalyLowerPercentile) * _anomalyLowerMargin;
+    double lowerThreshold = historyPercentile.evaluate(_anomalyLowerPercentile) * _anomalyLowerMargin;
     double currentMetricValue = current.metricValues().valuesFor(metricId).latest();
 
     long currentWindow = current.window(0);
@@ -145,6 +152,8 @@ public abstract class PercentileMetricAnomalyFinder<E extends Entity> implements
                           _anomalyUpperPercentile, _anomalyLowerPercentile)) {
       return Collections.emptySet();
     }
+    // Stop tracking the history of the entities that are gone.
+    _historyPercentiles.keySet().retainAll(metricsHistoryByEntity.keySet());
 
     Set<MetricAnomaly<E>> metricAnomalies = new HashSet<>();
     for (Map.Entry<E, ValuesAndExtrapolations> entry : currentMetricsByEntity.entrySet()) {
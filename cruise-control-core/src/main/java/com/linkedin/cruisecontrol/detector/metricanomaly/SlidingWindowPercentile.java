@@ -0,0 +1,179 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.detector.metricanomaly;
+
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+
+/**
+ * The percentiles of the values of a metric in a sliding range of time windows, e.g. the history windows of a metric
+ * of an entity in a metric sample aggregator.
+ * <p>
+ * The values are kept sorted and updated incrementally as the windows roll: each {@link #update(List, MetricValues)}
+ * only inserts the values of the new windows, removes the values of the windows that rolled out, and replaces the
+ * values of the windows whose value has changed. Evaluating a percentile is then a constant time read of the sorted
+ * values instead of a copy and a selection over all the values in the windows. The percentiles are computed in the
+ * same way as the default {@link org.apache.commons.math3.stat.descriptive.rank.Percentile}, i.e. with the legacy
+ * estimation and the {@link Double#NaN} values removed.
+ * </p>
+ * This class is not thread safe.
+ */
+public class SlidingWindowPercentile {
+  // The tracked windows from the newest to the oldest, and the value of each window.
+  private long[] _windows;
+  private double[] _windowValues;
+  private int _numWindows;
+  // The scratch arrays to build the tracked windows of the next update.
+  private long[] _nextWindows;
+  private double[] _nextWindowValues;
+  // The non-NaN values of the tracked windows in ascending order.
+  private double[] _sortedValues;
+  private int _numValues;
+
+  public SlidingWindowPercentile() {
+    _windows = new long[0];
+    _windowValues = new double[0];
+    _nextWindows = new long[0];
+    _nextWindowValues = new double[0];
+    _sortedValues = new double[0];
+    _numWindows = 0;
+    _numValues = 0;
+  }
+
+  /**
+   * Update the tracked windows to the given windows and values.
+   *
+   * @param windows The windows from the newest to the oldest, as in
+   * {@link com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations#windows()}.
+   * @param values The values of the windows, i.e. the value at index i is the value of the window at index i.
+   */
+  public void update(List<Long> windows, MetricValues values) {
+    update(windows, values::get);
+  }
+
+  /**
+   * Update the tracked windows to the given windows and the values derived for them, e.g. a ratio of two metrics. A window
+   * whose value is {@link Double#NaN} is tracked but excluded from the percentiles.
+   *
+   * @param windows The windows from the newest to the oldest, as in
+   * {@link com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations#windows()}.
+   * @param valueAt The function returning the value of the window at the given index.
+   */
+  public void update(List<Long> windows, IntToDoubleFunction valueAt) {
+    int numNextWindows = windows.size();
+    ensureCapacity(numNextWindows);
+    int i = 0;
+    for (int j = 0; j < numNextWindows; j++) {
+      long window = windows.get(j);
+      double value = valueAt.applyAsDouble(j);
+      // The tracked windows newer than this window are no longer in the range.
+      while (i < _numWindows && _windows[i] > window) {
+        remove(_windowValues[i++]);
+      }
+      if (i < _numWindows && _windows[i] == window) {
+        if (Double.compare(_windowValues[i], value) != 0) {
+          remove(_windowValues[i]);
+          insert(value);
+        }
+        i++;
+      } else {
+        insert(value);
+      }
+      _nextWindows[j] = window;
+      _nextWindowValues[j] = value;
+    }
+    // The remaining tracked windows rolled out.
+    while (i < _numWindows) {
+      remove(_windowValues[i++]);
+    }
+    swapWindows(numNextWindows);
+  }
+
+  /**
+   * Evaluate the given percentile of the values in the tracked windows.
+   *
+   * @param percentile The percentile to evaluate, between 0 and 100.
+   * @return The given percentile of the values in the tracked windows, or {@link Double#NaN} if there is no value.
+   */
+  public double evaluate(double percentile) {
+    if (percentile < 0.0 || percentile > 100.0) {
+      throw new IllegalArgumentException("Percentile " + percentile + " is out of range [0, 100].");
+    }
+    if (_numValues == 0) {
+      return Double.NaN;
+    }
+    if (_numValues == 1) {
+      return _sortedValues[0];
+    }
+    double p = percentile / 100.0;
+    double pos = p == 0.0 ? 0.0 : p == 1.0 ? _numValues : p * (_numValues + 1);
+    if (pos < 1) {
+      return _sortedValues[0];
+    }
+    if (pos >= _numValues) {
+      return _sortedValues[_numValues - 1];
+    }
+    double fpos = Math.floor(pos);
+    int intPos = (int) fpos;
+    double lower = _sortedValues[intPos - 1];
+    double upper = _sortedValues[intPos];
+    return lower + (pos - fpos) * (upper - lower);
+  }
+
+  /**
+   * @return The number of non-NaN values in the tracked windows.
+   */
+  public int numValues() {
+    return _numValues;
+  }
+
+  private void insert(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    int index = Arrays.binarySearch(_sortedValues, 0, _numValues, value);
+    int insertionPoint = index >= 0 ? index : -(index + 1);
+    System.arraycopy(_sortedValues, insertionPoint, _sortedValues, insertionPoint + 1, _numValues - insertionPoint);
+    _sortedValues[insertionPoint] = value;
+    _numValues++;
+  }
+
+  private void remove(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    int index = Arrays.binarySearch(_sortedValues, 0, _numValues, value);
+    if (index < 0) {
+      throw new IllegalStateException("Value " + value + " is not tracked.");
+    }
+    System.arraycopy(_sortedValues, index + 1, _sortedValues, index, _numValues - index - 1);
+    _numValues--;
+  }
+
+  private void ensureCapacity(int numNextWindows) {
+    if (_nextWindows.length < numNextWindows) {
+      _nextWindows = new long[numNextWindows];
+      _nextWindowValues = new double[numNextWindows];
+    }
+    // The values of both the tracked and the next windows may be in the sorted values during an update.
+    int maxNumValues = _numValues + numNextWindows;
+    if (_sortedValues.length < maxNumValues) {
+      _sortedValues = Arrays.copyOf(_sortedValues, maxNumValues);
+    }
+  }
+
+  private void swapWindows(int numNextWindows) {
+    long[] windows = _windows;
+    double[] windowValues = _windowValues;
+    _windows = _nextWindows;
+    _windowValues = _nextWindowValues;
+    _nextWindows = windows;
+    _nextWindowValues = windowValues;
+    _numWindows = numNextWindows;
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+
+/**
+ * The serializer used to write and read the entities of a
+ * {@link com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregator} when its state is persisted.
+ *
+ * @param <E> the entity type.
+ */
+public interface EntitySerializer<E extends Entity<?>> {
+
+  /**
+   * Write the given entity to the output.
+   *
+   * @param entity the entity to write.
+   * @param out the output to write to.
+   * @throws IOException
+   */
+  void write(E entity, DataOutput out) throws IOException;
+
+  /**
+   * Read an entity written by {@link #write(Entity, DataOutput)}.
+   *
+   * @param in the input to read from.
+   * @return The entity read from the input.
+   * @throws IOException
+   */
+  E read(DataInput in) throws IOException;
+}
@@ -8,7 +8,11 @@ import com.linkedin.cruisecontrol.common.LongGenerationed;
 import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.model.Entity;
+import com.linkedin.cruisecontrol.model.EntitySerializer;
 import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -149,29 +153,79 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
       return false;
     }
     boolean newWindowsRolledOut = maybeRollOutNewWindow(windowIndex);
-    RawMetricValues rawMetricValues =
-        _rawMetrics.computeIfAbsent(identity(sample.entity()), k -> {
-          // Need to grab the lock to make sure the raw value for this partition is updated correctly when
-          // the raw values was created in an existing window while a new window is being rolled out.
-          _windowRollingLock.lock();
-          try {
-            RawMetricValues rawValues = new RawMetricValues(_numWindowsToKeep, _minSamplesPerWindow, _metricDef.size());
-            rawValues.updateOldestWindowIndex(_oldestWindowIndex);
-            return rawValues;
-          } finally {
-            _windowRollingLock.unlock();
-          }
-        });
     LOG.trace("Adding sample {} to window index {}", sample, windowIndex);
-    rawMetricValues.addSample(sample, windowIndex, _metricDef);
+    rawMetricValues(sample.entity()).addSample(sample, windowIndex, _metricDef);
+    maybeUpdateWindowGeneration(windowIndex, newWindowsRolledOut);
+    return true;
+  }
+
+  /**
+   * Add the metric values of a sample to the metric aggregator without a {@link MetricSample} object. This is used
+   * when the metric values are read in place, e.g. when loading the serialized samples from a sample store, so that
+   * no sample object has to be created for each sample. The sample is valid only if it has all the metrics in the
+   * metric definition, i.e. none of the given values is {@link Double#NaN}.
+   *
+   * @param entity The entity of the sample.
+   * @param sampleTime The time of the sample.
+   * @param valuesByMetricId The metric values of the sample, indexed by metric id, {@link Double#NaN} if the sample
+   *                         does not have the metric. The array is not retained and can be reused by the caller.
+   * @return True if the sample is accepted, false if the sample is ignored.
+   */
+  public boolean addSample(E entity, long sampleTime, double[] valuesByMetricId) {
+    if (!isValid(valuesByMetricId)) {
+      LOG.debug("The metric sample of {} at {} is discarded due to missing metrics.", entity, sampleTime);
+      return false;
+    }
+    long windowIndex = windowIndex(sampleTime);
+    // Skip the samples that are too old.
+    if (windowIndex < _oldestWindowIndex) {
+      return false;
+    }
+    boolean newWindowsRolledOut = maybeRollOutNewWindow(windowIndex);
+    rawMetricValues(entity).addSample(valuesByMetricId, windowIndex, _metricDef);
+    maybeUpdateWindowGeneration(windowIndex, newWindowsRolledOut);
+    return true;
+  }
+
+  private boolean isValid(double[] valuesByMetricId) {
+    if (valuesByMetricId.length != _metricDef.size()) {
+      return false;
+    }
+    for (double value : valuesByMetricId) {
+      if (Double.isNaN(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private RawMetricValues rawMetricValues(E entity) {
+    // Look up first to avoid creating the mapping function for the entities that already have raw values.
+    RawMetricValues existingRawValues = _rawMetrics.get(entity);
+    if (existingRawValues != null) {
+      return existingRawValues;
+    }
+    return _rawMetrics.computeIfAbsent(identity(entity), k -> {
+      // Need to grab the lock to make sure the raw value for this partition is updated correctly when
+      // the raw values was created in an existing window while a new window is being rolled out.
+      _windowRollingLock.lock();
+      try {
+        RawMetricValues rawValues = new RawMetricValues(_numWindowsToKeep, _minSamplesPerWindow, _metricDef.size());
+        rawValues.updateOldestWindowIndex(_oldestWindowIndex);
+        return rawValues;
+      } finally {
+        _windowRollingLock.unlock();
+      }
+    });
+  }
+
+  private void maybeUpdateWindowGeneration(long windowIndex, boolean newWindowsRolledOut) {
     if (newWindowsRolledOut || windowIndex != _currentWindowIndex) {
       // Either new window(s) rolled out or the data has been inserted to an old window. Both cases affect the historical
       // load information that Cruise Control is interested in. Hence, they require bumping up the generation of the
       // window index of the added sample.
       _aggregatorState.updateWindowGeneration(windowIndex, _generation.incrementAndGet());
     }
-
-    return true;
   }
 
   /**
@@ -348,6 +402,20 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
     return _rawMetrics.isEmpty() ? null : _oldestWindowIndex * _windowMs;
   }
 
+  /**
+   * Get the earliest sample time that the MetricSampleAggregator still accepts at the given time, i.e. the start time
+   * of the oldest window to keep once the window of the given time has been rolled out. Samples taken before this time
+   * are ignored by {@link #addSample(MetricSample)}, so they do not need to be kept or loaded.
+   *
+   * @param nowMs The current time.
+   * @return The earliest sample time that is still accepted at the given time.
+   */
+  public long earliestAcceptedSampleTimeMs(long nowMs) {
+    long currentWindowIndex = Math.max(windowIndex(nowMs), _currentWindowIndex);
+    // The first possible window index is 1, which starts at time 0.
+    return (Math.max(1, currentWindowIndex - _numWindows) - 1) * _windowMs;
+  }
+
   /**
    * Get the total number of samples that is currently aggregated by the MetricSampleAggregator. The number
    * only includes the windows that are still maintained by the MetricSampleAggregator. The evicted windows
@@ -421,6 +489,91 @@ public class MetricSampleAggregator<G, E extends Entity<G>> extends LongGenerati
     }
   }
 
+  /**
+   * Write the windows and raw metric values of all the entities in this MetricSampleAggregator to the given output,
+   * so that they can later be restored with {@link #readFrom(DataInput, EntitySerializer)}. Window rolling is blocked
+   * while writing.
+   * The protocol is:
+   * 4 bytes - number of windows
+   * 8 bytes - window size in milliseconds
+   * 8 bytes - oldest window index
+   * 8 bytes - current window index
+   * 4 bytes - number of entities (N)
+   * N * (entity bytes + raw metric values bytes) - see {@link EntitySerializer#write(Entity, DataOutput)} and
+   * {@link RawMetricValues#writeTo(DataOutput)}.
+   *
+   * @param out the output to write to.
+   * @param entitySerializer the serializer to write the entities with.
+   * @throws IOException
+   */
+  public void writeTo(DataOutput out, EntitySerializer<E> entitySerializer) throws IOException {
+    _windowRollingLock.lock();
+    try {
+      // Take a copy of the entries so the number of entities written matches the header.
+      List<Map.Entry<E, RawMetricValues>> entries = new ArrayList<>(_rawMetrics.entrySet());
+      out.writeInt(_numWindows);
+      out.writeLong(_windowMs);
+      out.writeLong(_oldestWindowIndex);
+      out.writeLong(_currentWindowIndex);
+      out.writeInt(entries.size());
+      for (Map.Entry<E, RawMetricValues> entry : entries) {
+        entitySerializer.write(entry.getKey(), out);
+        entry.getValue().writeTo(out);
+      }
+    } finally {
+      _windowRollingLock.unlock();
+    }
+  }
+
+  /**
+   * Replace the state of this MetricSampleAggregator with the state written by {@link #writeTo(DataOutput, EntitySerializer)}.
+   * The state is ignored if it was written by a MetricSampleAggregator with a different number of windows or window
+   * size.
+   *
+   * @param in the input to read from.
+   * @param entitySerializer the serializer to read the entities with, which must be the one the state was written with.
+   * @return True if the state has been restored, false if the state is incompatible with this MetricSampleAggregator.
+   * @throws IOException
+   */
+  public boolean readFrom(DataInput in, EntitySerializer<E> entitySerializer) throws IOException {
+    int numWindows = in.readInt();
+    long windowMs = in.readLong();
+    if (numWindows != _numWindows || windowMs != _windowMs) {
+      LOG.warn("{} Aggregator ignores the stored state with {} windows of {} ms, the aggregator has {} windows of {} ms.",
+               _sampleType, numWindows, windowMs, _numWindows, _windowMs);
+      return false;
+    }
+    long oldestWindowIndex = in.readLong();
+    long currentWindowIndex = in.readLong();
+    int numEntities = in.readInt();
+    Map<E, RawMetricValues> rawMetrics = new HashMap<>(numEntities);
+    for (int i = 0; i < numEntities; i++) {
+      E entity = entitySerializer.read(in);
+      rawMetrics.put(entity, RawMetricValues.readFrom(in, _numWindowsToKeep, _minSamplesPerWindow, _metricDef.size()));
+    }
+
+    _windowRollingLock.lock();
+    try {
+      _rawMetrics.clear();
+      _aggregatorState.clear();
+      _oldestWindowIndex = oldestWindowIndex;
+      _currentWindowIndex = currentWindowIndex;
+      if (oldestWindowIndex > 0) {
+        _aggregatorState.updateOldestWindowIndex(oldestWindowIndex);
+      }
+      rawMetrics.forEach((entity, rawValues) -> _rawMetrics.put(identity(entity), rawValues));
+      // Bump up the generation of all the restored windows so that their window states get recomputed.
+      for (long windowIndex = oldestWindowIndex; windowIndex <= currentWindowIndex; windowIndex++) {
+        _aggregatorState.updateWindowGeneration(windowIndex, _generation.incrementAndGet());
+      }
+      LOG.info("{} Aggregator restored {} entities, current window range [{}, {}].", _sampleType, numEntities,
+               _oldestWindowIndex * _windowMs, _currentWindowIndex * _windowMs);
+      return true;
+    } finally {
+      _windowRollingLock.unlock();
+    }
+  }
+
   /**
    * Package private for testing.
    */
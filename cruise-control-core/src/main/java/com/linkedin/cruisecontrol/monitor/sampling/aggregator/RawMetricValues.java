@@ -8,6 +8,10 @@ import com.linkedin.cruisecontrol.common.WindowIndexedArrays;
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
 import com.linkedin.cruisecontrol.metricdef.MetricInfo;
 import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -120,11 +124,8 @@ public class RawMetricValues extends WindowIndexedArrays {
    */
   public synchronized void addSample(MetricSample<?, ?> sample, long windowIndex, MetricDef metricDef) {
     // This sample is being added during window rolling.
-    if (windowIndex < _oldestWindowIndex) {
+    if (!canAddSampleTo(windowIndex)) {
       return;
-    } else if (windowIndex > currentWindowIndex()) {
-      throw new IllegalArgumentException("Cannot add sample to window index " + windowIndex + ", which is larger "
-                                             + "than the current window index " + currentWindowIndex());
     }
 
     int arrayIndex = updateWindowValueAndCount(sample, windowIndex, metricDef);
@@ -138,6 +139,47 @@ public class RawMetricValues extends WindowIndexedArrays {
     }
   }
 
+  /**
+   * Add the metric values of a sample to the raw metric values without a {@link MetricSample} object. This is used
+   * when the metric values are read in place, e.g. from the serialized samples in a sample store.
+   *
+   * @param valuesByMetricId The metric values of the sample, indexed by metric id. The array is not retained.
+   * @param windowIndex the window index of the metric sample.
+   * @param metricDef the metric definitions.
+   */
+  public synchronized void addSample(double[] valuesByMetricId, long windowIndex, MetricDef metricDef) {
+    // This sample is being added during window rolling.
+    if (!canAddSampleTo(windowIndex)) {
+      return;
+    }
+
+    int arrayIndex = arrayIndex(windowIndex);
+    for (short id = 0; id < valuesByMetricId.length; id++) {
+      if (!_windowValuesByMetricId.containsKey(id)) {
+        _windowValuesByMetricId.put(id, new float[_counts.length]);
+      }
+      updateWindowValueForMetric(valuesByMetricId[id], metricDef.metricInfo(id), arrayIndex);
+    }
+    _counts[arrayIndex]++;
+    maybeUpdateValidityAndExtrapolationFor(arrayIndex);
+    maybeUpdateValidityAndExtrapolationOfPrevAndNextFor(arrayIndex);
+
+    if (LOG.isTraceEnabled()) {
+      LOG.trace("Added metric values {} to window index {}, array index is {}, current count : {}",
+                Arrays.toString(valuesByMetricId), windowIndex, arrayIndex, _counts[arrayIndex]);
+    }
+  }
+
+  private boolean canAddSampleTo(long windowIndex) {
+    if (windowIndex < _oldestWindowIndex) {
+      return false;
+    } else if (windowIndex > currentWindowIndex()) {
+      throw new IllegalArgumentException("Cannot add sample to window index " + windowIndex + ", which is larger "
+                                             + "than the current window index " + currentWindowIndex());
+    }
+    return true;
+  }
+
   /**
    * Update the oldest window index. This usually happens when a new window is rolled out.
    * The oldest window index should be monotonically increasing.
@@ -356,6 +398,79 @@ public class RawMetricValues extends WindowIndexedArrays {
     return count;
   }
 
+  /**
+   * Write the state of this RawMetricValues to the given output using a simple protocol.
+   * 8 bytes - oldest window index
+   * 4 bytes - number of metric ids (M)
+   * M * (2 + 4 * numWindowsToKeep) bytes - metric id followed by its cyclic buffer of window values
+   * numWindowsToKeep bytes - sample counts per window
+   * 4 + 8 * N bytes - the extrapolation bit set as a long array
+   * 4 + 8 * N bytes - the validity bit set as a long array
+   *
+   * @param out the output to write to.
+   * @throws IOException
+   */
+  public synchronized void writeTo(DataOutput out) throws IOException {
+    out.writeLong(_oldestWindowIndex);
+    out.writeInt(_windowValuesByMetricId.size());
+    for (Map.Entry<Short, float[]> entry : _windowValuesByMetricId.entrySet()) {
+      out.writeShort(entry.getKey());
+      for (float value : entry.getValue()) {
+        out.writeFloat(value);
+      }
+    }
+    out.write(_counts);
+    writeBitSet(_extrapolations, out);
+    writeBitSet(_validity, out);
+  }
+
+  /**
+   * Read a RawMetricValues written by {@link #writeTo(DataOutput)}.
+   *
+   * @param in the input to read from.
+   * @param numWindowsToKeep the total number of windows to keep track of.
+   * @param minSamplesPerWindow the minimum required samples for a window to not involve any {@link Extrapolation}.
+   * @param numMetricTypesInSample the total number of raw metric types stored by {@link #_windowValuesByMetricId}
+   * @return The RawMetricValues read from the given input.
+   * @throws IOException
+   */
+  public static RawMetricValues readFrom(DataInput in,
+                                         int numWindowsToKeep,
+                                         byte minSamplesPerWindow,
+                                         int numMetricTypesInSample) throws IOException {
+    RawMetricValues rawValues = new RawMetricValues(numWindowsToKeep, minSamplesPerWindow, numMetricTypesInSample);
+    rawValues._oldestWindowIndex = in.readLong();
+    int numMetricIds = in.readInt();
+    for (int i = 0; i < numMetricIds; i++) {
+      short metricId = in.readShort();
+      float[] values = new float[numWindowsToKeep];
+      for (int j = 0; j < numWindowsToKeep; j++) {
+        values[j] = in.readFloat();
+      }
+      rawValues._windowValuesByMetricId.put(metricId, values);
+    }
+    in.readFully(rawValues._counts);
+    rawValues._extrapolations.or(readBitSet(in));
+    rawValues._validity.or(readBitSet(in));
+    return rawValues;
+  }
+
+  private static void writeBitSet(BitSet bitSet, DataOutput out) throws IOException {
+    long[] words = bitSet.toLongArray();
+    out.writeInt(words.length);
+    for (long word : words) {
+      out.writeLong(word);
+    }
+  }
+
+  private static BitSet readBitSet(DataInput in) throws IOException {
+    long[] words = new long[in.readInt()];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readLong();
+    }
+    return BitSet.valueOf(words);
+  }
+
   private float getValue(MetricInfo info, int index, float[] values) {
     if (_counts[index] == 0) {
       return 0;
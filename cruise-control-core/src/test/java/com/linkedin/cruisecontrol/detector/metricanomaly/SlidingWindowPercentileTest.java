@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.cruisecontrol.detector.metricanomaly;
+
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link SlidingWindowPercentile}.
+ */
+public class SlidingWindowPercentileTest {
+  private static final int NUM_WINDOWS = 20;
+  private static final double[] PERCENTILES = {1.0, 5.0, 25.0, 50.0, 90.0, 95.0, 99.0, 100.0};
+
+  @Test
+  public void testPercentilesOfRollingWindows() {
+    Random random = new Random(0);
+    SlidingWindowPercentile slidingWindowPercentile = new SlidingWindowPercentile();
+    Percentile percentile = new Percentile();
+    long newestWindow = 0;
+    while (newestWindow < 5 * NUM_WINDOWS) {
+      // The windows grow to NUM_WINDOWS, then roll one window at a time, sometimes with a few windows skipped.
+      newestWindow += random.nextInt(10) == 0 ? 1 + random.nextInt(3) : 1;
+      List<Long> windows = new ArrayList<>();
+      for (long window = newestWindow; window >= 0 && windows.size() < NUM_WINDOWS; window--) {
+        windows.add(window);
+      }
+      MetricValues values = new MetricValues(windows.size());
+      for (int i = 0; i < windows.size(); i++) {
+        // Values repeat and the newest windows change between updates.
+        values.set(i, i < 2 ? random.nextInt(50) : windows.get(i) % 7);
+      }
+      slidingWindowPercentile.update(windows, values);
+
+      percentile.setData(values.doubleArray());
+      assertEquals(windows.size(), slidingWindowPercentile.numValues());
+      for (double p : PERCENTILES) {
+        assertEquals(percentile.evaluate(p), slidingWindowPercentile.evaluate(p), 1E-9);
+      }
+    }
+  }
+
+  @Test
+  public void testExcludeNaNValues() {
+    SlidingWindowPercentile slidingWindowPercentile = new SlidingWindowPercentile();
+    List<Long> windows = new ArrayList<>();
+    for (long window = 10; window > 0; window--) {
+      windows.add(window);
+    }
+    // Only the odd windows have a value.
+    slidingWindowPercentile.update(windows, i -> windows.get(i) % 2 == 1 ? windows.get(i) : Double.NaN);
+    assertEquals(5, slidingWindowPercentile.numValues());
+    assertEquals(9.0, slidingWindowPercentile.evaluate(100.0), 0.0);
+    // Roll out the two oldest windows and give a value to all the windows.
+    slidingWindowPercentile.update(windows.subList(0, 8), i -> windows.get(i));
+    assertEquals(8, slidingWindowPercentile.numValues());
+    assertEquals(3.0, slidingWindowPercentile.evaluate(1.0), 0.0);
+  }
+
+  @Test
+  public void testNoValue() {
+    SlidingWindowPercentile slidingWindowPercentile = new SlidingWindowPercentile();
+    assertTrue(Double.isNaN(slidingWindowPercentile.evaluate(50.0)));
+    MetricValues values = new MetricValues(1);
+    values.set(0, 1.0);
+    slidingWindowPercentile.update(Collections.singletonList(1L), values);
+    assertEquals(1.0, slidingWindowPercentile.evaluate(50.0), 0.0);
+    slidingWindowPercentile.update(Collections.emptyList(), new MetricValues(0));
+    assertEquals(0, slidingWindowPercentile.numValues());
+  }
+}
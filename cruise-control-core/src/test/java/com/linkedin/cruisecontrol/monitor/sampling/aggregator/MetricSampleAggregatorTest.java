@@ -87,6 +87,44 @@ public class MetricSampleAggregatorTest {
     assertEquals(NUM_WINDOWS, aggregator.numAvailableWindows());
   }
 
+  @Test
+  public void testAddSampleOfMetricValues() throws NotEnoughValidWindowsException {
+    MetricSampleAggregator<String, IntegerEntity> expectedAggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW, 0, _metricDef);
+    CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, expectedAggregator,
+                                                        ENTITY1, 0, WINDOW_MS, _metricDef);
+    // Add the same samples as metric values, reusing the value array.
+    double[] values = new double[_metricDef.size()];
+    for (int i = 0; i < NUM_WINDOWS + 1; i++) {
+      for (int j = 0; j < MIN_SAMPLES_PER_WINDOW; j++) {
+        for (MetricInfo info : _metricDef.all()) {
+          values[info.id()] = i * 10 + j;
+        }
+        assertTrue(aggregator.addSample(ENTITY1, i * WINDOW_MS + 1, values));
+      }
+    }
+    // A sample with a missing metric is not accepted.
+    values[0] = Double.NaN;
+    assertFalse(aggregator.addSample(ENTITY2, NUM_WINDOWS * WINDOW_MS + 1, values));
+    assertEquals(expectedAggregator.numSamples(), aggregator.numSamples());
+
+    AggregationOptions<String, IntegerEntity> options =
+        new AggregationOptions<>(1, 1, NUM_WINDOWS, 5,
+                                 Collections.emptySet(), AggregationOptions.Granularity.ENTITY_GROUP, true);
+    ValuesAndExtrapolations expected =
+        expectedAggregator.aggregate(-1, Long.MAX_VALUE, options).valuesAndExtrapolations().get(ENTITY1);
+    ValuesAndExtrapolations actual = aggregator.aggregate(-1, Long.MAX_VALUE, options).valuesAndExtrapolations().get(ENTITY1);
+    assertEquals(expected.windows(), actual.windows());
+    for (MetricInfo info : _metricDef.all()) {
+      for (int i = 0; i < NUM_WINDOWS; i++) {
+        assertEquals(expected.metricValues().valuesFor(info.id()).get(i),
+                     actual.metricValues().valuesFor(info.id()).get(i), EPSILON);
+      }
+    }
+  }
+
   @Test
   public void testGeneration() {
     MetricSampleAggregator<String, IntegerEntity> aggregator =
@@ -144,6 +182,22 @@ public class MetricSampleAggregatorTest {
     assertEquals(2 * WINDOW_MS, aggregator.earliestWindow().longValue());
   }
 
+  @Test
+  public void testEarliestAcceptedSampleTime() {
+    MetricSampleAggregator<String, IntegerEntity> aggregator =
+        new MetricSampleAggregator<>(NUM_WINDOWS, WINDOW_MS, MIN_SAMPLES_PER_WINDOW,
+                                     0, _metricDef);
+    assertEquals(0L, aggregator.earliestAcceptedSampleTimeMs(NUM_WINDOWS * WINDOW_MS - 1));
+    long now = 3 * NUM_WINDOWS * WINDOW_MS + WINDOW_MS / 2;
+    long earliestAcceptedSampleTimeMs = aggregator.earliestAcceptedSampleTimeMs(now);
+    assertEquals(2 * NUM_WINDOWS * WINDOW_MS, earliestAcceptedSampleTimeMs);
+    // Roll out the window of the given time, then samples from the earliest accepted time onwards are accepted.
+    CruiseControlUnitTestUtils.populateSampleAggregator(1, MIN_SAMPLES_PER_WINDOW,
+                                                        aggregator, ENTITY1, (int) (now / WINDOW_MS), WINDOW_MS,
+                                                        _metricDef);
+    assertEquals(earliestAcceptedSampleTimeMs + WINDOW_MS, aggregator.earliestWindow().longValue());
+  }
+
   @Test
   public void testAllWindows() {
     MetricSampleAggregator<String, IntegerEntity> aggregator =
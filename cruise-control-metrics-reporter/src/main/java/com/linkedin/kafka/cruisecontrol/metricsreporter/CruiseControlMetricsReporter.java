@@ -11,8 +11,14 @@ import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.MetricSerde;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.TopicMetric;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.YammerMetricProcessor;
 import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Histogram;
+import com.yammer.metrics.core.Meter;
 import com.yammer.metrics.core.Metric;
+import com.yammer.metrics.core.MetricsRegistry;
+import com.yammer.metrics.core.MetricsRegistryListener;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,11 +47,13 @@ import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.config.ConfigResource;
 import org.apache.kafka.common.errors.InterruptException;
 import org.apache.kafka.common.errors.TopicExistsException;
 import org.apache.kafka.common.metrics.KafkaMetric;
 import org.apache.kafka.common.metrics.MetricsReporter;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.apache.kafka.common.utils.KafkaThread;
 import org.slf4j.Logger;
@@ -56,15 +64,35 @@ import static com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetr
 
 public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
   private static final Logger LOG = LoggerFactory.getLogger(CruiseControlMetricsReporter.class);
+  // The group and type of the yammer metrics of the reporter itself.
+  public static final String SELF_METRIC_GROUP = "kafka.cruisecontrol";
+  public static final String SELF_METRIC_TYPE = "CruiseControlMetricsReporter";
+  public static final String REPORTING_TIME_MS = "ReportingTimeMs";
+  public static final String REPORTED_METRICS_PER_SEC = "ReportedMetricsPerSec";
+  public static final String PRODUCED_BYTES_PER_SEC = "ProducedBytesPerSec";
+  public static final String DROPPED_METRICS_PER_SEC = "DroppedMetricsPerSec";
   private YammerMetricProcessor _yammerMetricProcessor;
   private Map<org.apache.kafka.common.MetricName, KafkaMetric> _interestedMetrics = new ConcurrentHashMap<>();
+  private final Map<com.yammer.metrics.core.MetricName, Metric> _interestedYammerMetrics = new ConcurrentHashMap<>();
+  private MetricsRegistryListener _yammerMetricsListener;
+  private Histogram _reportingTimeMs;
+  private Meter _reportedMetricRate;
+  private Meter _producedBytesRate;
+  private Meter _droppedMetricRate;
   private KafkaThread _metricsReporterRunner;
-  private KafkaProducer<String, CruiseControlMetric> _producer;
+  private KafkaProducer<String, byte[]> _producer;
   private String _cruiseControlMetricsTopic;
   private long _reportingIntervalMs;
   private int _brokerId;
+  // Whether to send all the metrics of this broker to the same metrics topic partition.
+  private boolean _partitionByBroker;
+  // The metrics topic partition to send the metrics of this broker to, or null to let the producer pick the partition.
+  private volatile Integer _metricsTopicPartition = null;
   private long _lastReportingTime = System.currentTimeMillis();
   private int _numMetricSendFailure = 0;
+  private int _maxMetricsPerRecord;
+  // The metrics of the current reporting interval which are not sent yet, only accessed by the reporter thread.
+  private final List<CruiseControlMetric> _pendingMetrics = new ArrayList<>();
   private volatile boolean _shutdown = false;
   private NewTopic _metricsTopic;
   private AdminClient _adminClient;
@@ -79,9 +107,41 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
     LOG.info("Added {} Kafka metrics for Cruise Control metrics during initialization.", _interestedMetrics.size());
     _metricsReporterRunner = new KafkaThread("CruiseControlMetricsReporterRunner", this, true);
     _yammerMetricProcessor = new YammerMetricProcessor();
+    registerSelfMetrics();
+    // Track the interested yammer metrics as they are added to and removed from the registry, so each reporting round
+    // only visits the interested metrics instead of the whole registry. Adding the listener replays the existing metrics.
+    _yammerMetricsListener = new MetricsRegistryListener() {
+      @Override
+      public void onMetricAdded(com.yammer.metrics.core.MetricName name, Metric metric) {
+        _yammerMetricProcessor.invalidate(name);
+        if (_yammerMetricProcessor.isInterested(name)) {
+          _interestedYammerMetrics.put(name, metric);
+        }
+      }
+
+      @Override
+      public void onMetricRemoved(com.yammer.metrics.core.MetricName name) {
+        _interestedYammerMetrics.remove(name);
+        _yammerMetricProcessor.invalidate(name);
+      }
+    };
+    Metrics.defaultRegistry().addListener(_yammerMetricsListener);
+    LOG.info("Added {} Yammer metrics for Cruise Control metrics during initialization.", _interestedYammerMetrics.size());
     _metricsReporterRunner.start();
   }
 
+  private void registerSelfMetrics() {
+    MetricsRegistry registry = Metrics.defaultRegistry();
+    _reportingTimeMs = registry.newHistogram(selfMetricName(REPORTING_TIME_MS), true);
+    _reportedMetricRate = registry.newMeter(selfMetricName(REPORTED_METRICS_PER_SEC), "metrics", TimeUnit.SECONDS);
+    _producedBytesRate = registry.newMeter(selfMetricName(PRODUCED_BYTES_PER_SEC), "bytes", TimeUnit.SECONDS);
+    _droppedMetricRate = registry.newMeter(selfMetricName(DROPPED_METRICS_PER_SEC), "metrics", TimeUnit.SECONDS);
+  }
+
+  private static com.yammer.metrics.core.MetricName selfMetricName(String name) {
+    return new com.yammer.metrics.core.MetricName(SELF_METRIC_GROUP, SELF_METRIC_TYPE, name);
+  }
+
   @Override
   public void metricChange(KafkaMetric metric) {
     addMetricIfInterested(metric);
@@ -99,6 +159,12 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
     if (_metricsReporterRunner != null) {
       _metricsReporterRunner.interrupt();
     }
+    if (_yammerMetricsListener != null) {
+      Metrics.defaultRegistry().removeListener(_yammerMetricsListener);
+      for (String name : Arrays.asList(REPORTING_TIME_MS, REPORTED_METRICS_PER_SEC, PRODUCED_BYTES_PER_SEC, DROPPED_METRICS_PER_SEC)) {
+        Metrics.defaultRegistry().removeMetric(selfMetricName(name));
+      }
+    }
     if (_producer != null) {
       _producer.close(PRODUCER_CLOSE_TIMEOUT);
     }
@@ -137,7 +203,8 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
     setIfAbsent(producerProps, ProducerConfig.RETRIES_CONFIG, "5");
     setIfAbsent(producerProps, ProducerConfig.COMPRESSION_TYPE_CONFIG, "gzip");
     setIfAbsent(producerProps, ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
-    setIfAbsent(producerProps, ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, MetricSerde.class.getName());
+    // The metrics are serialized by the reporter, either one metric or a batch of metrics per record.
+    producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class.getName());
     setIfAbsent(producerProps, ProducerConfig.ACKS_CONFIG, "all");
     _producer = new KafkaProducer<>(producerProps);
 
@@ -145,6 +212,9 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
 
     _cruiseControlMetricsTopic = reporterConfig.getString(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_TOPIC_CONFIG);
     _reportingIntervalMs = reporterConfig.getLong(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_REPORTER_INTERVAL_MS_CONFIG);
+    _maxMetricsPerRecord = reporterConfig.getInt(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD_CONFIG);
+    _partitionByBroker =
+        reporterConfig.getBoolean(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED_CONFIG);
 
     if (reporterConfig.getBoolean(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_TOPIC_AUTO_CREATE_CONFIG)) {
       try {
@@ -256,9 +326,14 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
           if (now > _lastReportingTime + _reportingIntervalMs) {
             _numMetricSendFailure = 0;
             _lastReportingTime = now;
+            if (_partitionByBroker) {
+              refreshMetricsTopicPartition();
+            }
             reportYammerMetrics(now);
             reportKafkaMetrics(now);
             reportCpuUtils(now);
+            sendPendingMetrics();
+            _reportingTimeMs.update(System.currentTimeMillis() - now);
           }
           try {
             _producer.flush();
@@ -275,6 +350,7 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
         // Log failures if there is any.
         if (_numMetricSendFailure > 0) {
           LOG.warn("Failed to send {} metrics for time {}", _numMetricSendFailure, now);
+          _droppedMetricRate.mark(_numMetricSendFailure);
         }
         _numMetricSendFailure = 0;
         long nextReportTime = now + _reportingIntervalMs;
@@ -297,23 +373,70 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
   }
 
   /**
-   * Send a CruiseControlMetric to the Kafka topic.
+   * Refresh the metrics topic partition that this broker sends its metrics to. All the metrics of broker {@code b} go to
+   * partition {@code b % P} of the metrics topic with {@code P} partitions, so that a metric sampler consuming only a
+   * subset of the metrics topic partitions sees either all or none of the metrics of a broker. Only used if partitioning
+   * by broker is enabled.
+   */
+  private void refreshMetricsTopicPartition() {
+    try {
+      int numPartitions = _producer.partitionsFor(_cruiseControlMetricsTopic).size();
+      _metricsTopicPartition = numPartitions > 0 ? Math.floorMod(_brokerId, numPartitions) : null;
+    } catch (KafkaException e) {
+      LOG.warn("Unable to get the partitions of Cruise Control metrics topic {}.", _cruiseControlMetricsTopic, e);
+    }
+  }
+
+  /**
+   * Send a CruiseControlMetric to the Kafka topic. If more than one metric is allowed per record, the metric is
+   * buffered and sent in a batch once the batch is full or the metrics of the reporting interval are all collected.
    * @param ccm the Cruise Control metric to send.
    */
   public void sendCruiseControlMetric(CruiseControlMetric ccm) {
-    // Use topic name as key if existing so that the same sampler will be able to collect all the information
-    // of a topic.
-    String key = ccm.metricClassId() == CruiseControlMetric.MetricClassId.TOPIC_METRIC ?
-        ((TopicMetric) ccm).topic() : Integer.toString(ccm.brokerId());
-    ProducerRecord<String, CruiseControlMetric> producerRecord =
-        new ProducerRecord<>(_cruiseControlMetricsTopic, null, ccm.time(), key, ccm);
     LOG.debug("Sending Cruise Control metric {}.", ccm);
+    _reportedMetricRate.mark();
+    if (_maxMetricsPerRecord <= 1) {
+      // Unless the metrics are partitioned by broker, use topic name as key if existing so that the topic metrics are
+      // spread over the metrics topic partitions.
+      String key = !_partitionByBroker && ccm.metricClassId() == CruiseControlMetric.MetricClassId.TOPIC_METRIC
+                   ? ((TopicMetric) ccm).topic() : Integer.toString(ccm.brokerId());
+      send(key, ccm.time(), MetricSerde.toBytes(ccm), 1);
+    } else {
+      _pendingMetrics.add(ccm);
+      if (_pendingMetrics.size() >= _maxMetricsPerRecord) {
+        sendPendingMetrics();
+      }
+    }
+  }
+
+  /**
+   * Send the buffered metrics in a single metric batch record.
+   */
+  private void sendPendingMetrics() {
+    if (_pendingMetrics.isEmpty()) {
+      return;
+    }
+    try {
+      long time = Long.MAX_VALUE;
+      for (CruiseControlMetric metric : _pendingMetrics) {
+        time = Math.min(time, metric.time());
+      }
+      send(Integer.toString(_brokerId), time, MetricSerde.batchToBytes(_pendingMetrics), _pendingMetrics.size());
+    } finally {
+      _pendingMetrics.clear();
+    }
+  }
+
+  private void send(String key, long time, byte[] value, int numMetrics) {
+    ProducerRecord<String, byte[]> producerRecord =
+        new ProducerRecord<>(_cruiseControlMetricsTopic, _metricsTopicPartition, time, key, value);
+    _producedBytesRate.mark(key.length() + value.length);
     _producer.send(producerRecord, new Callback() {
       @Override
       public void onCompletion(RecordMetadata recordMetadata, Exception e) {
         if (e != null) {
-          LOG.warn("Failed to send Cruise Control metric {}", ccm);
-          _numMetricSendFailure++;
+          LOG.warn("Failed to send {} Cruise Control metric(s) for time {}", numMetrics, time);
+          _numMetricSendFailure += numMetrics;
         }
       }
     });
@@ -322,7 +445,7 @@ public class CruiseControlMetricsReporter implements MetricsReporter, Runnable {
   private void reportYammerMetrics(long now) throws Exception {
     LOG.debug("Reporting yammer metrics.");
     YammerMetricProcessor.Context context = new YammerMetricProcessor.Context(this, now, _brokerId, _reportingIntervalMs);
-    for (Map.Entry<com.yammer.metrics.core.MetricName, Metric> entry : Metrics.defaultRegistry().allMetrics().entrySet()) {
+    for (Map.Entry<com.yammer.metrics.core.MetricName, Metric> entry : _interestedYammerMetrics.entrySet()) {
       LOG.trace("Processing yammer metric {}, scope = {}", entry.getKey(), entry.getKey().getScope());
       entry.getValue().processWith(_yammerMetricProcessor, entry.getKey(), context);
     }
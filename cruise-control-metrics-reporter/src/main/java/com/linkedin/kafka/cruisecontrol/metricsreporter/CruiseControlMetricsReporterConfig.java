@@ -45,6 +45,18 @@ public class CruiseControlMetricsReporterConfig extends AbstractConfig {
   public static final String CRUISE_CONTROL_METRICS_REPORTER_BATCH_SIZE_CONFIG = PREFIX + "batch.size";
   private static final String CRUISE_CONTROL_METRICS_REPORTER_BATCH_SIZE_DOC = "The batch.size configuration of KafkaProducer used in Cruise "
       + "Control metrics reporter. Set this config and cruise.control.metrics.reporter.linger.ms to a large number to have better batching.";
+  public static final String CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD_CONFIG = PREFIX + "max.metrics.per.record";
+  private static final String CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD_DOC = "The maximum number of metrics "
+      + "of a reporting interval that Cruise Control metrics reporter packs into a single record of the metrics topic. "
+      + "Packing the metrics of a broker into a few large records shares the topic names and the record overhead among "
+      + "the metrics. Setting it to 1 sends each metric in its own record, which is the only format that the metric "
+      + "samplers of older Cruise Control versions understand.";
+  public static final String CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED_CONFIG = PREFIX + "partition.by.broker.enabled";
+  private static final String CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED_DOC = "Whether Cruise Control metrics "
+      + "reporter sends all the metrics of broker b to partition b % P of the metrics topic with P partitions. This must be "
+      + "enabled on all the brokers for Cruise Control to run more than one metric fetcher (num.metric.fetchers > 1), "
+      + "because each fetcher only consumes its own subset of the metrics topic partitions. When disabled, the producer "
+      + "picks the partitions, which spreads the metrics over all the partitions of the metrics topic.";
   // Default values
   public static final String DEFAULT_CRUISE_CONTROL_METRICS_TOPIC = "__CruiseControlMetrics";
   public static final Integer DEFAULT_CRUISE_CONTROL_METRICS_TOPIC_NUM_PARTITIONS = -1;
@@ -56,6 +68,8 @@ public class CruiseControlMetricsReporterConfig extends AbstractConfig {
   public static final int DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_LINGER_MS = 30 * 1000;
   public static final int DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_MAX_BLOCK_MS = 60 * 1000;
   public static final int DEFAULT_CRUISE_CONTROL_METRICS_BATCH_SIZE = 800 * 1000;
+  public static final int DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD = 1;
+  public static final boolean DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED = false;
 
   public CruiseControlMetricsReporterConfig(Map<?, ?> originals, boolean doLog) {
     super(CONFIG, originals, doLog);
@@ -113,7 +127,18 @@ public class CruiseControlMetricsReporterConfig extends AbstractConfig {
                 ConfigDef.Type.INT,
                 DEFAULT_CRUISE_CONTROL_METRICS_BATCH_SIZE,
                 ConfigDef.Importance.LOW,
-                CRUISE_CONTROL_METRICS_REPORTER_BATCH_SIZE_DOC);
+                CRUISE_CONTROL_METRICS_REPORTER_BATCH_SIZE_DOC)
+        .define(CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD_CONFIG,
+                ConfigDef.Type.INT,
+                DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                CRUISE_CONTROL_METRICS_REPORTER_MAX_METRICS_PER_RECORD_DOC)
+        .define(CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED_CONFIG,
+                ConfigDef.Type.BOOLEAN,
+                DEFAULT_CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED,
+                ConfigDef.Importance.LOW,
+                CRUISE_CONTROL_METRICS_REPORTER_PARTITION_BY_BROKER_ENABLED_DOC);
   }
 
   /**
@@ -69,9 +69,11 @@ public abstract class CruiseControlMetric {
   /**
    * An enum that list all the implementations of the interface. This id will be store in the serialized
    * metrics to help the metric sampler to decide using which class to deserialize the metric bytes.
+   * {@link #METRIC_BATCH} is not a metric class itself, it marks a record packing several metrics of a broker,
+   * see {@link MetricSerde#batchToBytes(java.util.List)}.
    */
   public enum MetricClassId {
-    BROKER_METRIC((byte) 0), TOPIC_METRIC((byte) 1), PARTITION_METRIC((byte) 2);
+    BROKER_METRIC((byte) 0), TOPIC_METRIC((byte) 1), PARTITION_METRIC((byte) 2), METRIC_BATCH((byte) 3);
 
     private final byte _id;
 
@@ -5,17 +5,53 @@
 package com.linkedin.kafka.cruisecontrol.metricsreporter.metric;
 
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.kafka.common.serialization.Deserializer;
 import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.utils.ByteUtils;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 
+
+/**
+ * Serialize and deserialize Cruise Control metrics. A record either contains a single metric, or a batch of metrics
+ * of the same broker serialized by {@link #batchToBytes(List)}. The first byte of both is the {@link
+ * CruiseControlMetric.MetricClassId}, so {@link #metricsFromBytes(byte[])} reads both formats.
+ * <p>
+ * The metric batch has the following format:
+ * </p>
+ * <pre>
+ * 1 byte  - {@link CruiseControlMetric.MetricClassId#METRIC_BATCH}
+ * 1 byte  - batch version
+ * varint  - broker id
+ * varlong - base time
+ * varint  - number of topics in the dictionary (D)
+ * D * (varint + bytes) - the UTF-8 bytes of each topic in the dictionary
+ * varint  - number of metrics (N)
+ * N * (1 byte    - raw metric type id
+ *      varlong   - time, as the delta from the base time
+ *      varint    - topic dictionary index (topic and partition metrics only)
+ *      varint    - partition (partition metrics only)
+ *      8 bytes   - value)
+ * </pre>
+ */
 public class MetricSerde implements Serializer<CruiseControlMetric>, Deserializer<CruiseControlMetric> {
+  public static final byte METRIC_BATCH_VERSION = 0;
 
   // The overhead of the type bytes
   private static final int METRIC_TYPE_OFFSET = 0;
   private static final int HEADER_LENGTH = 1;
+  // The estimated size of a metric in a batch, i.e. type, time delta, topic index, partition and value.
+  private static final int ESTIMATED_BATCHED_METRIC_SIZE = 16;
 
   /**
    * Serialize the Cruise Control metric to a byte array.
@@ -30,7 +66,87 @@ public class MetricSerde implements Serializer<CruiseControlMetric>, Deserialize
   }
 
   /**
-   * Deserialize from byte array to Cruise Control metric
+   * Serialize the given Cruise Control metrics of the same broker into a single metric batch.
+   *
+   * @param metrics Metrics to be serialized, all of them must be reported by the same broker.
+   * @return Serialized metric batch as a byte array.
+   */
+  public static byte[] batchToBytes(List<CruiseControlMetric> metrics) {
+    if (metrics.isEmpty()) {
+      throw new IllegalArgumentException("Cannot serialize an empty metric batch.");
+    }
+    int brokerId = metrics.get(0).brokerId();
+    long baseTime = Long.MAX_VALUE;
+    Map<String, Integer> topicIndices = new HashMap<>();
+    List<String> topics = new ArrayList<>();
+    for (CruiseControlMetric metric : metrics) {
+      if (metric.brokerId() != brokerId) {
+        throw new IllegalArgumentException("All the metrics in a batch must be reported by broker " + brokerId
+                                           + ", found " + metric);
+      }
+      baseTime = Math.min(baseTime, metric.time());
+      String topic = topicOf(metric);
+      if (topic != null && !topicIndices.containsKey(topic)) {
+        topicIndices.put(topic, topics.size());
+        topics.add(topic);
+      }
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + metrics.size() * ESTIMATED_BATCHED_METRIC_SIZE);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(CruiseControlMetric.MetricClassId.METRIC_BATCH.id());
+      out.writeByte(METRIC_BATCH_VERSION);
+      ByteUtils.writeVarint(brokerId, out);
+      ByteUtils.writeVarlong(baseTime, out);
+      ByteUtils.writeVarint(topics.size(), out);
+      for (String topic : topics) {
+        byte[] topicBytes = topic.getBytes(UTF_8);
+        ByteUtils.writeVarint(topicBytes.length, out);
+        out.write(topicBytes);
+      }
+      ByteUtils.writeVarint(metrics.size(), out);
+      for (CruiseControlMetric metric : metrics) {
+        out.writeByte(metric.rawMetricType().id());
+        ByteUtils.writeVarlong(metric.time() - baseTime, out);
+        switch (metric.metricClassId()) {
+          case TOPIC_METRIC:
+            ByteUtils.writeVarint(topicIndices.get(topicOf(metric)), out);
+            break;
+          case PARTITION_METRIC:
+            ByteUtils.writeVarint(topicIndices.get(topicOf(metric)), out);
+            ByteUtils.writeVarint(((PartitionMetric) metric).partition(), out);
+            break;
+          default:
+            break;
+        }
+        out.writeDouble(metric.value());
+      }
+    } catch (IOException e) {
+      // Writing to a ByteArrayOutputStream never throws an IOException.
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserialize from byte array to Cruise Control metrics. The byte array can either be a single metric serialized
+   * by {@link #toBytes(CruiseControlMetric)} or a metric batch serialized by {@link #batchToBytes(List)}.
+   *
+   * @param bytes Bytes array corresponding to a Cruise Control metric or a metric batch.
+   * @return Deserialized Cruise Control metrics, empty if the metric is of an unknown type.
+   */
+  public static List<CruiseControlMetric> metricsFromBytes(byte[] bytes) throws UnknownVersionException {
+    if (bytes.length > 0 && bytes[METRIC_TYPE_OFFSET] == CruiseControlMetric.MetricClassId.METRIC_BATCH.id()) {
+      return batchFromBuffer(ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH));
+    }
+    CruiseControlMetric metric = fromBytes(bytes);
+    return metric == null ? Collections.emptyList() : Collections.singletonList(metric);
+  }
+
+  /**
+   * Deserialize from byte array to Cruise Control metric. Metric batches are ignored and should be deserialized
+   * with {@link #metricsFromBytes(byte[])}.
+   *
    * @param bytes Bytes array corresponding to Cruise Control metric.
    * @return Deserialized byte array as Cruise Control metric.
    */
@@ -43,6 +159,9 @@ public class MetricSerde implements Serializer<CruiseControlMetric>, Deserialize
         return TopicMetric.fromBuffer(buffer);
       case PARTITION_METRIC:
         return PartitionMetric.fromBuffer(buffer);
+      case METRIC_BATCH:
+        // A metric batch cannot be returned as a single metric.
+        return null;
       default:
         // This could happen when a new type of metric is added but we are still running the old code.
         // simply ignore the metric by returning a null.
@@ -50,6 +169,56 @@ public class MetricSerde implements Serializer<CruiseControlMetric>, Deserialize
     }
   }
 
+  private static List<CruiseControlMetric> batchFromBuffer(ByteBuffer buffer) throws UnknownVersionException {
+    byte version = buffer.get();
+    if (version != METRIC_BATCH_VERSION) {
+      throw new UnknownVersionException("Cannot deserialize the metric batch for version " + version + ". "
+                                        + "Current version is " + METRIC_BATCH_VERSION);
+    }
+    int brokerId = ByteUtils.readVarint(buffer);
+    long baseTime = ByteUtils.readVarlong(buffer);
+    String[] topics = new String[ByteUtils.readVarint(buffer)];
+    for (int i = 0; i < topics.length; i++) {
+      byte[] topicBytes = new byte[ByteUtils.readVarint(buffer)];
+      buffer.get(topicBytes);
+      topics[i] = new String(topicBytes, UTF_8);
+    }
+    int numMetrics = ByteUtils.readVarint(buffer);
+    List<CruiseControlMetric> metrics = new ArrayList<>(numMetrics);
+    for (int i = 0; i < numMetrics; i++) {
+      RawMetricType rawMetricType = RawMetricType.forId(buffer.get());
+      long time = baseTime + ByteUtils.readVarlong(buffer);
+      switch (rawMetricType.metricScope()) {
+        case BROKER:
+          metrics.add(new BrokerMetric(rawMetricType, time, brokerId, buffer.getDouble()));
+          break;
+        case TOPIC:
+          String topic = topics[ByteUtils.readVarint(buffer)];
+          metrics.add(new TopicMetric(rawMetricType, time, brokerId, topic, buffer.getDouble()));
+          break;
+        case PARTITION:
+          String partitionTopic = topics[ByteUtils.readVarint(buffer)];
+          int partition = ByteUtils.readVarint(buffer);
+          metrics.add(new PartitionMetric(rawMetricType, time, brokerId, partitionTopic, partition, buffer.getDouble()));
+          break;
+        default:
+          throw new IllegalStateException("Unrecognized metric scope " + rawMetricType.metricScope());
+      }
+    }
+    return metrics;
+  }
+
+  private static String topicOf(CruiseControlMetric metric) {
+    switch (metric.metricClassId()) {
+      case TOPIC_METRIC:
+        return ((TopicMetric) metric).topic();
+      case PARTITION_METRIC:
+        return ((PartitionMetric) metric).topic();
+      default:
+        return null;
+    }
+  }
+
   @Override
   public CruiseControlMetric deserialize(String topic, byte[] bytes) {
     try {
@@ -170,6 +170,27 @@ public class MetricsUtils {
                         yammerMetricScopeToTags(metricName.getScope()));
   }
 
+  /**
+   * Resolve the raw metric types, topic and partition of a yammer metric name once, so that converting the metric
+   * values in each reporting interval does not need to parse the metric name again.
+   *
+   * @param metricName The yammer metric name to resolve.
+   * @return The resolved metric name, or null if the yammer metric name is not an interested metric.
+   */
+  public static ResolvedYammerMetricName resolve(com.yammer.metrics.core.MetricName metricName) {
+    Map<String, String> tags = yammerMetricScopeToTags(metricName.getScope());
+    if (!isInterested(metricName.getGroup(), metricName.getName(), metricName.getType(), tags)) {
+      return null;
+    }
+    RawMetricType[] rawMetricTypes = new RawMetricType[ResolvedYammerMetricName.ATTRIBUTES.length];
+    for (int i = 0; i < rawMetricTypes.length; i++) {
+      rawMetricTypes[i] = toRawMetricType(metricName.getName(), tags, ResolvedYammerMetricName.ATTRIBUTES[i]);
+    }
+    String partition = tags.get(PARTITION_KEY);
+    return new ResolvedYammerMetricName(metricName, rawMetricTypes, tags.get(TOPIC_KEY),
+                                        partition == null ? -1 : Integer.parseInt(partition));
+  }
+
   /**
    * Convert a yammer metrics scope to a tags map.
    */
@@ -223,103 +244,142 @@ public class MetricsUtils {
                                                            Map<String, String> tags,
                                                            double value,
                                                            String attribute) {
+    RawMetricType rawMetricType = toRawMetricType(name, tags, attribute);
+    if (rawMetricType == null) {
+      return null;
+    }
+    int partition = rawMetricType.metricScope() == RawMetricType.MetricScope.PARTITION
+                    ? Integer.parseInt(tags.get(PARTITION_KEY)) : -1;
+    return toCruiseControlMetric(rawMetricType, now, brokerId, tags.get(TOPIC_KEY), partition, value);
+  }
+
+  /**
+   * build a CruiseControlMetric object of the given raw metric type.
+   */
+  static CruiseControlMetric toCruiseControlMetric(RawMetricType rawMetricType,
+                                                   long now,
+                                                   int brokerId,
+                                                   String topic,
+                                                   int partition,
+                                                   double value) {
+    switch (rawMetricType.metricScope()) {
+      case BROKER:
+        return new BrokerMetric(rawMetricType, now, brokerId, value);
+      case TOPIC:
+        return new TopicMetric(rawMetricType, now, brokerId, topic, value);
+      case PARTITION:
+        return new PartitionMetric(rawMetricType, now, brokerId, topic, partition, value);
+      default:
+        throw new IllegalStateException("Unrecognized metric scope " + rawMetricType.metricScope());
+    }
+  }
+
+  /**
+   * Get the raw metric type of a metric with the given name, tags and attribute. A request metric without a request type
+   * tag, or with an attribute that is not reported, does not map to a raw metric type. The public conversion methods
+   * turn such a null result into an {@link IllegalArgumentException}.
+   * @return The raw metric type, or null if the metric does not map to a raw metric type.
+   */
+  private static RawMetricType toRawMetricType(String name, Map<String, String> tags, String attribute) {
     String topic = tags.get(TOPIC_KEY);
+    String requestType = tags.getOrDefault(REQUEST_TYPE_KEY, "");
+    String attributeOrEmpty = attribute == null ? "" : attribute;
     switch (name) {
       case BYTES_IN_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_BYTES_IN, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_BYTES_IN;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_IN, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_BYTES_IN;
         }
       case BYTES_OUT_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_BYTES_OUT, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_BYTES_OUT;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_OUT, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_BYTES_OUT;
         }
       case REPLICATION_BYTES_IN_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_REPLICATION_BYTES_IN, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_REPLICATION_BYTES_IN;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_REPLICATION_BYTES_IN, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_REPLICATION_BYTES_IN;
         }
       case REPLICATION_BYTES_OUT_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_REPLICATION_BYTES_OUT, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_REPLICATION_BYTES_OUT;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_REPLICATION_BYTES_OUT, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_REPLICATION_BYTES_OUT;
         }
       case TOTAL_FETCH_REQUEST_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_FETCH_REQUEST_RATE, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_FETCH_REQUEST_RATE;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_FETCH_REQUEST_RATE, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_FETCH_REQUEST_RATE;
         }
       case TOTAL_PRODUCE_REQUEST_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_PRODUCE_REQUEST_RATE, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_PRODUCE_REQUEST_RATE;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_PRODUCE_REQUEST_RATE, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_PRODUCE_REQUEST_RATE;
         }
       case MESSAGES_IN_PER_SEC:
         if (topic != null) {
-          return new TopicMetric(RawMetricType.TOPIC_MESSAGES_IN_PER_SEC, now, brokerId, topic, value);
+          return RawMetricType.TOPIC_MESSAGES_IN_PER_SEC;
         } else {
-          return new BrokerMetric(RawMetricType.ALL_TOPIC_MESSAGES_IN_PER_SEC, now, brokerId, value);
+          return RawMetricType.ALL_TOPIC_MESSAGES_IN_PER_SEC;
         }
       case REQUESTS_PER_SEC:
-        switch (tags.get(REQUEST_TYPE_KEY)) {
+        switch (requestType) {
           case PRODUCE_REQUEST_TYPE:
-            return new BrokerMetric(RawMetricType.BROKER_PRODUCE_REQUEST_RATE, now, brokerId, value);
+            return RawMetricType.BROKER_PRODUCE_REQUEST_RATE;
           case CONSUMER_FETCH_REQUEST_TYPE:
-            return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_RATE, now, brokerId, value);
+            return RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_RATE;
           case FOLLOWER_FETCH_REQUEST_TYPE:
-            return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_RATE, now, brokerId, value);
+            return RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_RATE;
           default:
             return null;
         }
       case REQUEST_QUEUE_SIZE:
-        return new BrokerMetric(RawMetricType.BROKER_REQUEST_QUEUE_SIZE, now, brokerId, value);
+        return RawMetricType.BROKER_REQUEST_QUEUE_SIZE;
       case RESPONSE_QUEUE_SIZE:
-        return new BrokerMetric(RawMetricType.BROKER_RESPONSE_QUEUE_SIZE, now, brokerId, value);
+        return RawMetricType.BROKER_RESPONSE_QUEUE_SIZE;
       case REQUEST_QUEUE_TIME_MS:
-        switch (tags.get(REQUEST_TYPE_KEY)) {
+        switch (requestType) {
           case PRODUCE_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_999TH;
               default:
                 return null;
             }
           case CONSUMER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_REQUEST_QUEUE_TIME_MS_999TH;
               default:
                 return null;
             }
           case FOLLOWER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_REQUEST_QUEUE_TIME_MS_999TH;
               default:
                 return null;
             }
@@ -327,43 +387,43 @@ public class MetricsUtils {
             return null;
         }
       case LOCAL_TIME_MS:
-        switch (tags.get(REQUEST_TYPE_KEY)) {
+        switch (requestType) {
           case PRODUCE_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_LOCAL_TIME_MS_999TH;
               default:
                 return null;
             }
           case CONSUMER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_LOCAL_TIME_MS_999TH;
               default:
                 return null;
             }
           case FOLLOWER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_LOCAL_TIME_MS_999TH;
               default:
                 return null;
             }
@@ -371,43 +431,43 @@ public class MetricsUtils {
             return null;
         }
       case TOTAL_TIME_MS:
-        switch (tags.get(REQUEST_TYPE_KEY)) {
+        switch (requestType) {
           case PRODUCE_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_PRODUCE_TOTAL_TIME_MS_999TH;
               default:
                 return null;
             }
           case CONSUMER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_CONSUMER_FETCH_TOTAL_TIME_MS_999TH;
               default:
                 return null;
             }
           case FOLLOWER_FETCH_REQUEST_TYPE:
-            switch (attribute) {
+            switch (attributeOrEmpty) {
               case ATTRIBUTE_MAX:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_MAX, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_MAX;
               case ATTRIBUTE_MEAN:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_MEAN, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_MEAN;
               case ATTRIBUTE_50TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_50TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_50TH;
               case ATTRIBUTE_999TH_PERCENTILE:
-                return new BrokerMetric(RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_999TH, now, brokerId, value);
+                return RawMetricType.BROKER_FOLLOWER_FETCH_TOTAL_TIME_MS_999TH;
               default:
                 return null;
             }
@@ -415,27 +475,26 @@ public class MetricsUtils {
             return null;
         }
       case SIZE:
-        int partition = Integer.parseInt(tags.get(PARTITION_KEY));
-        return new PartitionMetric(RawMetricType.PARTITION_SIZE, now, brokerId, topic, partition, value);
+        return RawMetricType.PARTITION_SIZE;
       case LOG_FLUSH_RATE_AND_TIME_MS:
         if (attribute == null) {
-          return new BrokerMetric(RawMetricType.BROKER_LOG_FLUSH_RATE, now, brokerId, value);
+          return RawMetricType.BROKER_LOG_FLUSH_RATE;
         } else {
-          switch (attribute) {
+          switch (attributeOrEmpty) {
             case ATTRIBUTE_MAX:
-              return new BrokerMetric(RawMetricType.BROKER_LOG_FLUSH_TIME_MS_MAX, now, brokerId, value);
+              return RawMetricType.BROKER_LOG_FLUSH_TIME_MS_MAX;
             case ATTRIBUTE_MEAN:
-              return new BrokerMetric(RawMetricType.BROKER_LOG_FLUSH_TIME_MS_MEAN, now, brokerId, value);
+              return RawMetricType.BROKER_LOG_FLUSH_TIME_MS_MEAN;
             case ATTRIBUTE_50TH_PERCENTILE:
-              return new BrokerMetric(RawMetricType.BROKER_LOG_FLUSH_TIME_MS_50TH, now, brokerId, value);
+              return RawMetricType.BROKER_LOG_FLUSH_TIME_MS_50TH;
             case ATTRIBUTE_999TH_PERCENTILE:
-              return new BrokerMetric(RawMetricType.BROKER_LOG_FLUSH_TIME_MS_999TH, now, brokerId, value);
+              return RawMetricType.BROKER_LOG_FLUSH_TIME_MS_999TH;
             default:
               return null;
           }
         }
       case REQUEST_HANDLER_AVG_IDLE_PERCENT:
-        return new BrokerMetric(RawMetricType.BROKER_REQUEST_HANDLER_AVG_IDLE_PERCENT, now, brokerId, value);
+        return RawMetricType.BROKER_REQUEST_HANDLER_AVG_IDLE_PERCENT;
       default:
         return null;
     }
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.metricsreporter.metric;
+
+import com.yammer.metrics.core.MetricName;
+
+
+/**
+ * A yammer metric name resolved to the raw metric type of each reported attribute, along with the topic and partition
+ * of the metric. See {@link MetricsUtils#resolve(MetricName)}.
+ */
+public final class ResolvedYammerMetricName {
+  // The index of each reported attribute in the resolved raw metric types.
+  static final int NO_ATTRIBUTE = 0;
+  static final int MAX = 1;
+  static final int MEAN = 2;
+  static final int PERCENTILE_50TH = 3;
+  static final int PERCENTILE_999TH = 4;
+  static final String[] ATTRIBUTES = {null,
+                                      MetricsUtils.ATTRIBUTE_MAX,
+                                      MetricsUtils.ATTRIBUTE_MEAN,
+                                      MetricsUtils.ATTRIBUTE_50TH_PERCENTILE,
+                                      MetricsUtils.ATTRIBUTE_999TH_PERCENTILE};
+  private final MetricName _metricName;
+  private final RawMetricType[] _rawMetricTypes;
+  private final String _topic;
+  private final int _partition;
+
+  ResolvedYammerMetricName(MetricName metricName, RawMetricType[] rawMetricTypes, String topic, int partition) {
+    _metricName = metricName;
+    _rawMetricTypes = rawMetricTypes;
+    _topic = topic;
+    _partition = partition;
+  }
+
+  /**
+   * @param now The time of the metric.
+   * @param brokerId The broker reporting the metric.
+   * @param value The metric value.
+   * @param attribute The index of the reported attribute, e.g. {@link #MAX}.
+   * @return The Cruise Control metric of the given attribute of this yammer metric.
+   */
+  CruiseControlMetric toCruiseControlMetric(long now, int brokerId, double value, int attribute) {
+    RawMetricType rawMetricType = _rawMetricTypes[attribute];
+    if (rawMetricType == null) {
+      throw new IllegalArgumentException(String.format("Cannot convert yammer metric %s to a Cruise Control metric for "
+                                                       + "broker %d at time %d for tag %s", _metricName, brokerId, now,
+                                                       ATTRIBUTES[attribute]));
+    }
+    return MetricsUtils.toCruiseControlMetric(rawMetricType, now, brokerId, _topic, _partition, value);
+  }
+}
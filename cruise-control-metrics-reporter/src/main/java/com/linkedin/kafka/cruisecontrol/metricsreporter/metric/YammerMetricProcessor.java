@@ -13,6 +13,9 @@ import com.yammer.metrics.core.MetricName;
 import com.yammer.metrics.core.MetricProcessor;
 import com.yammer.metrics.core.Timer;
 import com.yammer.metrics.stats.Snapshot;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,13 +23,53 @@ import org.slf4j.LoggerFactory;
 /**
  * A Yammer metric processor that process the yammer metrics. Currently all the interested metrics are of type
  * Meter (BytesInRate, BytesOutRate) or Gauge (Partition Size).
+ * <p>
+ * The processor caches the resolution of each yammer metric name, so the metric name and scope are parsed only once
+ * rather than in every reporting interval. The owner of the processor should {@link #invalidate(MetricName)} the
+ * metric names that are added to or removed from the metrics registry.
+ * </p>
  */
 public class YammerMetricProcessor implements MetricProcessor<YammerMetricProcessor.Context> {
   private static final Logger LOG = LoggerFactory.getLogger(YammerMetricProcessor.class);
+  // Resolved yammer metric names, with NOT_INTERESTED for the metrics Cruise Control is not interested in.
+  private static final Optional<ResolvedYammerMetricName> NOT_INTERESTED = Optional.empty();
+  private final Map<MetricName, Optional<ResolvedYammerMetricName>> _resolvedMetricNames = new ConcurrentHashMap<>();
+
+  /**
+   * @param metricName The yammer metric name.
+   * @return True if the yammer metric is an interested metric, false otherwise.
+   */
+  public boolean isInterested(MetricName metricName) {
+    return resolve(metricName).isPresent();
+  }
+
+  /**
+   * Drop the cached resolution of the given metric name, e.g. when the metric is added to or removed from the metrics
+   * registry.
+   * @param metricName The yammer metric name.
+   */
+  public void invalidate(MetricName metricName) {
+    _resolvedMetricNames.remove(metricName);
+  }
+
+  private Optional<ResolvedYammerMetricName> resolve(MetricName metricName) {
+    Optional<ResolvedYammerMetricName> resolved = _resolvedMetricNames.get(metricName);
+    if (resolved == null) {
+      ResolvedYammerMetricName resolvedMetricName = MetricsUtils.resolve(metricName);
+      resolved = resolvedMetricName == null ? NOT_INTERESTED : Optional.of(resolvedMetricName);
+      _resolvedMetricNames.put(metricName, resolved);
+    }
+    return resolved;
+  }
+
+  private static void send(Context context, ResolvedYammerMetricName resolved, double value, int attribute) {
+    context.reporter().sendCruiseControlMetric(resolved.toCruiseControlMetric(context.time(), context.brokerId(), value, attribute));
+  }
 
   @Override
   public void processMeter(MetricName metricName, Metered metered, Context context) {
-    if (MetricsUtils.isInterested(metricName)) {
+    Optional<ResolvedYammerMetricName> resolved = resolve(metricName);
+    if (resolved.isPresent()) {
       LOG.trace("Processing metric {} of type Meter.", metricName);
       double value;
       if (context.reportingInterval() <= 60000L) {
@@ -36,117 +79,61 @@ public class YammerMetricProcessor implements MetricProcessor<YammerMetricProces
       } else {
         value = metered.fifteenMinuteRate();
       }
-      CruiseControlMetric ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                                                   context.brokerId(),
-                                                                   metricName,
-                                                                   value);
-      context.reporter().sendCruiseControlMetric(ccm);
+      send(context, resolved.get(), value, ResolvedYammerMetricName.NO_ATTRIBUTE);
     }
   }
 
   @Override
   public void processCounter(MetricName metricName, Counter counter, Context context) {
-    if (MetricsUtils.isInterested(metricName)) {
+    if (resolve(metricName).isPresent()) {
       LOG.warn("Not processing metric {} of type Counter.", metricName);
     }
   }
 
   @Override
   public void processHistogram(MetricName metricName, Histogram histogram, Context context) {
-    if (MetricsUtils.isInterested(metricName)) {
+    Optional<ResolvedYammerMetricName> resolved = resolve(metricName);
+    if (resolved.isPresent()) {
       LOG.trace("Processing metric {} of type Histogram.", metricName);
-      // Get max metric value
-      CruiseControlMetric ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                                                   context.brokerId(),
-                                                                   metricName,
-                                                                   histogram.max(),
-                                                                   MetricsUtils.ATTRIBUTE_MAX);
-      context.reporter().sendCruiseControlMetric(ccm);
-
-      // Get mean metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               histogram.mean(),
-                                               MetricsUtils.ATTRIBUTE_MEAN);
-      context.reporter().sendCruiseControlMetric(ccm);
+      // Get max and mean metric value
+      send(context, resolved.get(), histogram.max(), ResolvedYammerMetricName.MAX);
+      send(context, resolved.get(), histogram.mean(), ResolvedYammerMetricName.MEAN);
 
       Snapshot snapshot = histogram.getSnapshot();
-      // Get 50th percentile (i.e. median) metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               snapshot.getMedian(),
-                                               MetricsUtils.ATTRIBUTE_50TH_PERCENTILE);
-      context.reporter().sendCruiseControlMetric(ccm);
-
-      // Get 999th percentile metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               snapshot.get999thPercentile(),
-                                               MetricsUtils.ATTRIBUTE_999TH_PERCENTILE);
-      context.reporter().sendCruiseControlMetric(ccm);
+      // Get 50th percentile (i.e. median) and 999th percentile metric value
+      send(context, resolved.get(), snapshot.getMedian(), ResolvedYammerMetricName.PERCENTILE_50TH);
+      send(context, resolved.get(), snapshot.get999thPercentile(), ResolvedYammerMetricName.PERCENTILE_999TH);
     }
   }
 
   @Override
   public void processTimer(MetricName metricName, Timer timer, Context context) {
-    if (MetricsUtils.isInterested(metricName)) {
+    Optional<ResolvedYammerMetricName> resolved = resolve(metricName);
+    if (resolved.isPresent()) {
       LOG.trace("Processing metric {} of type Timer.", metricName);
-
-      CruiseControlMetric ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                                                   context.brokerId(),
-                                                                   metricName,
-                                                                   timer.fiveMinuteRate());
-      context.reporter().sendCruiseControlMetric(ccm);
-      // Get max metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               timer.max(),
-                                               MetricsUtils.ATTRIBUTE_MAX);
-      context.reporter().sendCruiseControlMetric(ccm);
-      // Get mean metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               timer.mean(),
-                                               MetricsUtils.ATTRIBUTE_MEAN);
-      context.reporter().sendCruiseControlMetric(ccm);
+      send(context, resolved.get(), timer.fiveMinuteRate(), ResolvedYammerMetricName.NO_ATTRIBUTE);
+      // Get max and mean metric value
+      send(context, resolved.get(), timer.max(), ResolvedYammerMetricName.MAX);
+      send(context, resolved.get(), timer.mean(), ResolvedYammerMetricName.MEAN);
 
       Snapshot snapshot = timer.getSnapshot();
-      // Get 50th percentile (i.e. median) metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               snapshot.getMedian(),
-                                               MetricsUtils.ATTRIBUTE_50TH_PERCENTILE);
-      context.reporter().sendCruiseControlMetric(ccm);
-
-      // Get 999th percentile metric value
-      ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                               context.brokerId(),
-                                               metricName,
-                                               snapshot.get999thPercentile(),
-                                               MetricsUtils.ATTRIBUTE_999TH_PERCENTILE);
-      context.reporter().sendCruiseControlMetric(ccm);
+      // Get 50th percentile (i.e. median) and 999th percentile metric value
+      send(context, resolved.get(), snapshot.getMedian(), ResolvedYammerMetricName.PERCENTILE_50TH);
+      send(context, resolved.get(), snapshot.get999thPercentile(), ResolvedYammerMetricName.PERCENTILE_999TH);
     }
   }
 
   @Override
   public void processGauge(MetricName metricName, Gauge<?> gauge, Context context) {
-    if (MetricsUtils.isInterested(metricName)) {
+    Optional<ResolvedYammerMetricName> resolved = resolve(metricName);
+    if (resolved.isPresent()) {
       LOG.trace("Processing metric {} of type Gauge.", metricName);
-      if (!(gauge.value() instanceof Number)) {
+      Object value = gauge.value();
+      if (!(value instanceof Number)) {
         throw new IllegalStateException(String.format("The value of yammer metric %s is %s, which is not a number",
-                                                      metricName, gauge.value()));
+                                                      metricName, value));
       }
-      CruiseControlMetric ccm = MetricsUtils.toCruiseControlMetric(context.time(),
-                                                                   context.brokerId(),
-                                                                   metricName,
-                                                                   ((Number) gauge.value()).doubleValue());
-      context.reporter().sendCruiseControlMetric(ccm);
+      send(context, resolved.get(), ((Number) value).doubleValue(), ResolvedYammerMetricName.NO_ATTRIBUTE);
     }
   }
 
@@ -8,6 +8,9 @@ import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.CruiseControlMetr
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.MetricSerde;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCEmbeddedBroker;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCKafkaClientsIntegrationTestHarness;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Meter;
+import com.yammer.metrics.core.MetricName;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.time.Duration;
@@ -43,6 +46,7 @@ import static com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetr
 import static com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_TOPIC_REPLICATION_FACTOR_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 public class CruiseControlMetricsReporterTest extends CCKafkaClientsIntegrationTestHarness {
@@ -176,6 +180,12 @@ public class CruiseControlMetricsReporterTest extends CCKafkaClientsIntegrationT
       }
     }
     assertEquals("Expected " + expectedMetricTypes + ", but saw " + metricTypes, expectedMetricTypes, metricTypes);
+
+    // The reporter tracks its own cost.
+    Meter producedBytesRate = (Meter) Metrics.defaultRegistry().allMetrics().get(
+        new MetricName(CruiseControlMetricsReporter.SELF_METRIC_GROUP, CruiseControlMetricsReporter.SELF_METRIC_TYPE,
+                       CruiseControlMetricsReporter.PRODUCED_BYTES_PER_SEC));
+    assertTrue(producedBytesRate.count() > 0);
   }
 
   @Test
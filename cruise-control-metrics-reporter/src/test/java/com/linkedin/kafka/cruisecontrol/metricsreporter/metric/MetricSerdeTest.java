@@ -5,9 +5,12 @@
 package com.linkedin.kafka.cruisecontrol.metricsreporter.metric;
 
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 
 public class MetricSerdeTest {
@@ -52,4 +55,43 @@ public class MetricSerdeTest {
     assertEquals(PARTITION, ((PartitionMetric) deserialized).partition());
     assertEquals(VALUE, deserialized.value(), 0.000001);
   }
+
+  @Test
+  public void testMetricBatchSerde() throws UnknownVersionException {
+    List<CruiseControlMetric> metrics = Arrays.asList(
+        new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_IN, TIME, BROKER_ID, VALUE),
+        new TopicMetric(RawMetricType.TOPIC_BYTES_IN, TIME + 1, BROKER_ID, TOPIC, VALUE + 1),
+        new PartitionMetric(RawMetricType.PARTITION_SIZE, TIME, BROKER_ID, TOPIC, PARTITION, VALUE + 2),
+        new PartitionMetric(RawMetricType.PARTITION_SIZE, TIME + 2, BROKER_ID, "another-topic", PARTITION + 1, VALUE + 3));
+    byte[] bytes = MetricSerde.batchToBytes(metrics);
+    // The single metric deserializer ignores a metric batch.
+    assertNull(MetricSerde.fromBytes(bytes));
+
+    List<CruiseControlMetric> deserialized = MetricSerde.metricsFromBytes(bytes);
+    assertEquals(metrics.size(), deserialized.size());
+    for (int i = 0; i < metrics.size(); i++) {
+      CruiseControlMetric metric = metrics.get(i);
+      CruiseControlMetric deserializedMetric = deserialized.get(i);
+      assertEquals(metric.metricClassId(), deserializedMetric.metricClassId());
+      assertEquals(metric.rawMetricType(), deserializedMetric.rawMetricType());
+      assertEquals(metric.time(), deserializedMetric.time());
+      assertEquals(metric.brokerId(), deserializedMetric.brokerId());
+      assertEquals(metric.value(), deserializedMetric.value(), 0.000001);
+      if (metric instanceof TopicMetric) {
+        assertEquals(((TopicMetric) metric).topic(), ((TopicMetric) deserializedMetric).topic());
+      } else if (metric instanceof PartitionMetric) {
+        assertEquals(((PartitionMetric) metric).topic(), ((PartitionMetric) deserializedMetric).topic());
+        assertEquals(((PartitionMetric) metric).partition(), ((PartitionMetric) deserializedMetric).partition());
+      }
+    }
+
+    // A single metric is read as a list of one metric.
+    assertEquals(1, MetricSerde.metricsFromBytes(MetricSerde.toBytes(metrics.get(0))).size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMetricBatchOfMultipleBrokers() {
+    MetricSerde.batchToBytes(Arrays.asList(new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_IN, TIME, BROKER_ID, VALUE),
+                                           new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_IN, TIME, BROKER_ID + 1, VALUE)));
+  }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.metricsreporter.metric;
+
+import com.yammer.metrics.core.MetricName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+
+public class MetricsUtilsTest {
+  private static final long TIME = 123L;
+  private static final int BROKER_ID = 0;
+  private static final double VALUE = 0.1;
+
+  @Test
+  public void testRequestMetricWithRequestType() {
+    MetricName metricName = new MetricName("kafka.network", "RequestChannel", "RequestQueueTimeMs", "request.Produce");
+    ResolvedYammerMetricName resolved = MetricsUtils.resolve(metricName);
+    assertNotNull(resolved);
+    assertEquals(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MAX,
+                 resolved.toCruiseControlMetric(TIME, BROKER_ID, VALUE, ResolvedYammerMetricName.MAX).rawMetricType());
+    assertEquals(RawMetricType.BROKER_PRODUCE_REQUEST_QUEUE_TIME_MS_MAX,
+                 MetricsUtils.toCruiseControlMetric(TIME, BROKER_ID, metricName, VALUE, MetricsUtils.ATTRIBUTE_MAX).rawMetricType());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRequestMetricWithoutRequestType() {
+    MetricName metricName = new MetricName("kafka.network", "RequestChannel", "RequestQueueTimeMs");
+    MetricsUtils.toCruiseControlMetric(TIME, BROKER_ID, metricName, VALUE, MetricsUtils.ATTRIBUTE_MAX);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testResolvedRequestMetricWithoutRequestType() {
+    // The metric is interested, but none of its attributes maps to a raw metric type without a request type tag.
+    ResolvedYammerMetricName resolved =
+        MetricsUtils.resolve(new MetricName("kafka.network", "RequestChannel", "RequestQueueTimeMs"));
+    assertNotNull(resolved);
+    resolved.toCruiseControlMetric(TIME, BROKER_ID, VALUE, ResolvedYammerMetricName.MAX);
+  }
+
+  @Test
+  public void testRequestsPerSecWithoutRequestTypeIsNotInterested() {
+    MetricName metricName = new MetricName("kafka.network", "RequestMetrics", "RequestsPerSec");
+    assertNull(MetricsUtils.resolve(metricName));
+  }
+}
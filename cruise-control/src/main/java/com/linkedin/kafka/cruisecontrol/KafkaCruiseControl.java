@@ -162,6 +162,8 @@ public class KafkaCruiseControl {
   public void startUp() {
     LOG.info("Starting Kafka Cruise Control...");
     _loadMonitor.startUp();
+    // Resume the execution interrupted by the previous shutdown (if any) before the anomaly detector may start a new one.
+    _executor.resumeJournaledExecution(_loadMonitor);
     _anomalyDetector.startDetection();
     _goalOptimizerExecutor.submit(_goalOptimizer);
     LOG.info("Kafka Cruise Control started.");
@@ -171,6 +171,9 @@ public class KafkaCruiseControlConfig extends AbstractConfig {
    *     {@link ExecutorConfig#NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_CONFIG}</li>
    *   <li>{@link ExecutorConfig#MAX_NUM_CLUSTER_MOVEMENTS_CONFIG} >=
    *   {@link ExecutorConfig#NUM_CONCURRENT_LEADER_MOVEMENTS_CONFIG}</li>
+   *   <li>{@link ExecutorConfig#NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_CONFIG} is missing or positive</li>
+   *   <li>{@link ExecutorConfig#CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG} >=
+   *   {@link ExecutorConfig#CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG}</li>
    * </ul>
    */
   private void sanityCheckConcurrency() {
@@ -190,12 +193,26 @@ public class KafkaCruiseControlConfig extends AbstractConfig {
                                 + maxClusterPartitionMovementConcurrency + "].");
     }
 
+    Integer intraBrokerPartitionMovementConcurrencyPerDisk =
+        getInt(ExecutorConfig.NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_CONFIG);
+    if (intraBrokerPartitionMovementConcurrencyPerDisk != null && intraBrokerPartitionMovementConcurrencyPerDisk < 1) {
+      throw new ConfigException("Intra-broker partition movement concurrency per disk [" + intraBrokerPartitionMovementConcurrencyPerDisk
+                                + "] must be positive.");
+    }
+
     int leadershipMovementConcurrency = getInt(ExecutorConfig.NUM_CONCURRENT_LEADER_MOVEMENTS_CONFIG);
     if (leadershipMovementConcurrency > maxClusterPartitionMovementConcurrency) {
       throw new ConfigException("Leadership movement concurrency [" + leadershipMovementConcurrency
                                 + "] cannot be greater than the maximum number of allowed movements in cluster ["
                                 + maxClusterPartitionMovementConcurrency + "].");
     }
+
+    int minAdjustedConcurrency = getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG);
+    int maxAdjustedConcurrency = getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG);
+    if (minAdjustedConcurrency > maxAdjustedConcurrency) {
+      throw new ConfigException("Minimum inter-broker partition movement concurrency of the concurrency adjuster ["
+                                + minAdjustedConcurrency + "] cannot be greater than its maximum [" + maxAdjustedConcurrency + "].");
+    }
   }
 
   /**
@@ -13,11 +13,23 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import kafka.server.ConfigType;
-import kafka.zk.AdminZkClient;
+import kafka.zk.ConfigEntityChangeNotificationSequenceZNode;
+import kafka.zk.ConfigEntityChangeNotificationZNode;
+import kafka.zk.ConfigEntityTypeZNode;
 import kafka.zk.KafkaZkClient;
+import kafka.zookeeper.StateChangeHandler;
+import kafka.zookeeper.ZNodeChildChangeHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Option;
 import scala.collection.JavaConversions;
 
 
@@ -30,14 +42,32 @@ import scala.collection.JavaConversions;
  *   }
  * </pre>
  *
+ * The topic configs are read from ZooKeeper and cached. The cache is kept current with ZooKeeper child watches on the
+ * topic config entities (for created and deleted topics) and on the config change notifications that Kafka writes for
+ * every topic config change. The watches only mark the cache as stale; the changes are applied on the next read, which
+ * only reads the configs of the created topics and the topics with a config change notification since the last read.
+ * A refresh builds a new cache and swaps it in, and the callers get copies of the cached configs, so the returned
+ * configs are never changed by a later refresh.
  */
 public class KafkaTopicConfigProvider implements TopicConfigProvider {
+  private static final Logger LOG = LoggerFactory.getLogger(KafkaTopicConfigProvider.class);
   public static final String CLUSTER_CONFIGS_FILE = "cluster.configs.file";
   public static final String ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_GROUP = "KafkaTopicConfigProvider";
   public static final String ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_TYPE = "GetAllActiveTopicConfigs";
+  private static final String TOPIC_CONFIG_PATH = ConfigEntityTypeZNode.path(ConfigType.Topic());
+  private static final String CONFIG_CHANGES_PATH = ConfigEntityChangeNotificationZNode.path();
+  private static final String CONFIG_CHANGE_PREFIX = ConfigEntityChangeNotificationSequenceZNode.SequenceNumberPrefix();
   private String _connectString;
   private boolean _zkSecurityEnabled;
   private static Properties _clusterConfigs;
+  private KafkaZkClient _kafkaZkClient;
+  // Never modified after it is published; a refresh publishes a new map.
+  private volatile Map<String, Properties> _topicConfigs = Collections.emptyMap();
+  // Set by the ZooKeeper watchers, cleared when the corresponding change is applied to the cache.
+  private final AtomicBoolean _reloadAll = new AtomicBoolean(true);
+  private final AtomicBoolean _topicsChanged = new AtomicBoolean(false);
+  private final AtomicBoolean _configsChanged = new AtomicBoolean(false);
+  private long _lastConfigChangeSequence = -1L;
 
   @Override
   public Properties clusterConfigs() {
@@ -46,30 +76,147 @@ public class KafkaTopicConfigProvider implements TopicConfigProvider {
 
   @Override
   public Properties topicConfigs(String topic) {
-    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(_connectString,
-                                                                              ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_GROUP,
-                                                                              ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_TYPE,
-                                                                              _zkSecurityEnabled);
-    try {
-      AdminZkClient adminZkClient = new AdminZkClient(kafkaZkClient);
-      return adminZkClient.fetchEntityConfig(ConfigType.Topic(), topic);
-    } finally {
-      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(kafkaZkClient);
-    }
+    maybeRefreshTopicConfigs();
+    return copyOf(_topicConfigs.get(topic));
   }
 
   @Override
   public Map<String, Properties> allTopicConfigs() {
-    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(_connectString,
-                                                                              ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_GROUP,
-                                                                              ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_TYPE,
-                                                                              _zkSecurityEnabled);
+    maybeRefreshTopicConfigs();
+    Map<String, Properties> topicConfigs = _topicConfigs;
+    Map<String, Properties> allTopicConfigs = new HashMap<>(topicConfigs.size());
+    topicConfigs.forEach((topic, configs) -> allTopicConfigs.put(topic, copyOf(configs)));
+    return allTopicConfigs;
+  }
+
+  private static Properties copyOf(Properties configs) {
+    Properties copy = new Properties();
+    if (configs != null) {
+      copy.putAll(configs);
+    }
+    return copy;
+  }
+
+  /**
+   * Apply the topic config changes signaled by the ZooKeeper watchers since the last refresh to the cache. Reading the
+   * watched paths again re-arms their watches.
+   */
+  private synchronized void maybeRefreshTopicConfigs() {
     try {
-      AdminZkClient adminZkClient = new AdminZkClient(kafkaZkClient);
-      return JavaConversions.mapAsJavaMap(adminZkClient.getAllTopicConfigs());
-    } finally {
-      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(kafkaZkClient);
+      if (_kafkaZkClient == null) {
+        _kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(_connectString,
+                                                                     ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_GROUP,
+                                                                     ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_TYPE,
+                                                                     _zkSecurityEnabled);
+        _kafkaZkClient.registerStateChangeHandler(new SessionChangeHandler());
+        _kafkaZkClient.registerZNodeChildChangeHandler(new ChildChangeHandler(TOPIC_CONFIG_PATH, _topicsChanged));
+        _kafkaZkClient.registerZNodeChildChangeHandler(new ChildChangeHandler(CONFIG_CHANGES_PATH, _configsChanged));
+      }
+      if (_reloadAll.getAndSet(false)) {
+        _topicsChanged.set(false);
+        _configsChanged.set(false);
+        // Read the notifications first so that no config change after them is missed by the full reload.
+        processConfigChangeNotifications(false, null);
+        Map<String, Properties> topicConfigs = new HashMap<>();
+        refreshTopics(topicConfigs);
+        _topicConfigs = topicConfigs;
+        LOG.info("Loaded the configs of {} topics.", topicConfigs.size());
+        return;
+      }
+      boolean topicsChanged = _topicsChanged.getAndSet(false);
+      boolean configsChanged = _configsChanged.getAndSet(false);
+      if (topicsChanged || configsChanged) {
+        Map<String, Properties> topicConfigs = new HashMap<>(_topicConfigs);
+        if (topicsChanged) {
+          refreshTopics(topicConfigs);
+        }
+        if (configsChanged) {
+          processConfigChangeNotifications(true, topicConfigs);
+        }
+        _topicConfigs = topicConfigs;
+      }
+    } catch (RuntimeException e) {
+      // The cache may have missed some changes, reload it from scratch next time.
+      _reloadAll.set(true);
+      throw e;
+    }
+  }
+
+  /**
+   * Drop the configs of the deleted topics and load the configs of the created topics.
+   *
+   * @param topicConfigs The topic configs to update.
+   */
+  private void refreshTopics(Map<String, Properties> topicConfigs) {
+    Set<String> topics = new HashSet<>(JavaConversions.seqAsJavaList(_kafkaZkClient.getChildren(TOPIC_CONFIG_PATH)));
+    topicConfigs.keySet().retainAll(topics);
+    for (String topic : topics) {
+      if (!topicConfigs.containsKey(topic)) {
+        topicConfigs.put(topic, _kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic));
+      }
+    }
+  }
+
+  /**
+   * Process the config change notifications written since the last processed one.
+   *
+   * @param reloadChangedTopics True to reload the configs of the topics with a config change notification, false to only
+   *                            record the last processed notification.
+   * @param topicConfigs The topic configs to update, only used if the changed topics are reloaded.
+   */
+  private void processConfigChangeNotifications(boolean reloadChangedTopics, Map<String, Properties> topicConfigs) {
+    long lastSequence = _lastConfigChangeSequence;
+    Set<String> changedTopics = new HashSet<>();
+    for (String notification : JavaConversions.seqAsJavaList(_kafkaZkClient.getChildren(CONFIG_CHANGES_PATH))) {
+      if (!notification.startsWith(CONFIG_CHANGE_PREFIX)) {
+        continue;
+      }
+      long sequence = Long.parseLong(notification.substring(CONFIG_CHANGE_PREFIX.length()));
+      if (sequence <= _lastConfigChangeSequence) {
+        continue;
+      }
+      lastSequence = Math.max(lastSequence, sequence);
+      if (reloadChangedTopics) {
+        Option<byte[]> data = _kafkaZkClient.getDataAndVersion(CONFIG_CHANGES_PATH + "/" + notification)._1();
+        if (data.isDefined()) {
+          String topic = changedTopic(data.get());
+          if (topic != null) {
+            changedTopics.add(topic);
+          }
+        }
+      }
+    }
+    _lastConfigChangeSequence = lastSequence;
+    for (String topic : changedTopics) {
+      // Configs of the created topics are loaded by the topic refresh, and those of the deleted topics are dropped.
+      if (topicConfigs.containsKey(topic)) {
+        topicConfigs.put(topic, _kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic));
+      }
+    }
+  }
+
+  /**
+   * Get the topic from the given config change notification.
+   *
+   * @param notification The content of a config change notification.
+   * @return The topic whose config has changed, or null if the notification is not about a topic config change.
+   */
+  @SuppressWarnings("unchecked")
+  static String changedTopic(byte[] notification) {
+    Map<String, Object> content = new Gson().fromJson(new String(notification, StandardCharsets.UTF_8), Map.class);
+    if (content == null) {
+      return null;
+    }
+    // Version 2 notifications have the entity path, e.g. "topics/foo"; version 1 notifications the entity type and name.
+    Object entityPath = content.get("entity_path");
+    if (entityPath != null) {
+      String prefix = ConfigType.Topic() + "/";
+      String path = entityPath.toString();
+      return path.startsWith(prefix) ? path.substring(prefix.length()) : null;
     }
+    Object entityType = content.get("entity_type");
+    Object entityName = content.get("entity_name");
+    return ConfigType.Topic().equals(entityType) && entityName != null ? entityName.toString() : null;
   }
 
   private void loadClusterConfigs(String clusterConfigsFile) throws FileNotFoundException {
@@ -99,7 +246,59 @@ public class KafkaTopicConfigProvider implements TopicConfigProvider {
   }
 
   @Override
-  public void close() {
-    // nothing to do.
+  public synchronized void close() {
+    if (_kafkaZkClient != null) {
+      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(_kafkaZkClient);
+      _kafkaZkClient = null;
+    }
+  }
+
+  /**
+   * Marks the given flag on a change of the children of the given path. It must not read ZooKeeper, because it is
+   * called from the ZooKeeper event thread.
+   */
+  private static class ChildChangeHandler implements ZNodeChildChangeHandler {
+    private final String _path;
+    private final AtomicBoolean _changed;
+
+    ChildChangeHandler(String path, AtomicBoolean changed) {
+      _path = path;
+      _changed = changed;
+    }
+
+    @Override
+    public String path() {
+      return _path;
+    }
+
+    @Override
+    public void handleChildChange() {
+      _changed.set(true);
+    }
+  }
+
+  /**
+   * Reloads the cache after a new ZooKeeper session, because the changes during the session expiration are not notified.
+   */
+  private class SessionChangeHandler implements StateChangeHandler {
+    @Override
+    public String name() {
+      return ZK_KAFKA_TOPIC_CONFIG_PROVIDER_METRIC_GROUP;
+    }
+
+    @Override
+    public void beforeInitializingSession() {
+      // nothing to do.
+    }
+
+    @Override
+    public void afterInitializingSession() {
+      _reloadAll.set(true);
+    }
+
+    @Override
+    public void onAuthFailure() {
+      // nothing to do.
+    }
   }
 }
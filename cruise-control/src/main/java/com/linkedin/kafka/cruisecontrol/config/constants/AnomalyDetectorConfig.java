@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.StringJoiner;
 import org.apache.kafka.common.config.ConfigDef;
 
+import static org.apache.kafka.common.config.ConfigDef.Range.atLeast;
 import static org.apache.kafka.common.config.ConfigDef.Range.between;
 
 
@@ -163,6 +164,28 @@ public class AnomalyDetectorConfig {
       + "detector will run to detect goal violations. If this interval time is not specified, goal violation detector "
       + "will run with interval specified in " + ANOMALY_DETECTION_INTERVAL_MS_CONFIG + ".";
 
+  /**
+   * <code>goal.violation.load.change.check.interval.ms</code>
+   */
+  public static final String GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_CONFIG = "goal.violation.load.change.check.interval.ms";
+  public static final long DEFAULT_GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS = 60000L;
+  public static final String GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_DOC = "The interval in millisecond to check whether "
+      + "the cluster metadata or the broker load has changed enough to trigger goal violation detection. Only used if "
+      + "goal.violation.load.change.threshold is set.";
+
+  /**
+   * <code>goal.violation.load.change.threshold</code>
+   */
+  public static final String GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD_CONFIG = "goal.violation.load.change.threshold";
+  public static final Double DEFAULT_GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD = null;
+  public static final String GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD_DOC = "If set, goal violation detection is triggered by "
+      + "changes instead of running at a fixed rate. Every " + GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_CONFIG + ", the detection "
+      + "is triggered if the cluster metadata has changed, or if a new broker metric window has rolled out and the utilization "
+      + "of any resource of any broker in that window differs from its utilization at the last detection by more than this "
+      + "ratio (e.g. 0.1 for 10%). The detection also runs if " + GOAL_VIOLATION_DETECTION_INTERVAL_MS_CONFIG + " has "
+      + "elapsed since the last detection. If not set, goal violation detection runs every "
+      + GOAL_VIOLATION_DETECTION_INTERVAL_MS_CONFIG + ".";
+
   /**
    * <code>metric.anomaly.detection.interval.ms</code>
    */
@@ -302,6 +325,17 @@ public class AnomalyDetectorConfig {
                             DEFAULT_GOAL_VIOLATION_DETECTION_INTERVAL_MS,
                             ConfigDef.Importance.LOW,
                             GOAL_VIOLATION_DETECTION_INTERVAL_MS_DOC)
+                    .define(GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD_CONFIG,
+                            ConfigDef.Type.DOUBLE,
+                            DEFAULT_GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD,
+                            ConfigDef.Importance.LOW,
+                            GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD_DOC)
+                    .define(GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_DOC)
                     .define(METRIC_ANOMALY_DETECTION_INTERVAL_MS_CONFIG,
                             ConfigDef.Type.LONG,
                             DEFAULT_METRIC_ANOMALY_DETECTION_INTERVAL_MS,
@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.config.constants;
 import com.linkedin.kafka.cruisecontrol.executor.ExecutorNoopNotifier;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PostponeUrpReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeBottleneckBrokerReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeLargeReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.PrioritizeSmallReplicaMovementStrategy;
 import java.util.StringJoiner;
@@ -15,6 +16,7 @@ import org.apache.kafka.common.config.ConfigDef;
 
 import static com.linkedin.kafka.cruisecontrol.servlet.parameters.ParameterUtils.REASON_PARAM;
 import static org.apache.kafka.common.config.ConfigDef.Range.atLeast;
+import static org.apache.kafka.common.config.ConfigDef.Range.between;
 
 
 /**
@@ -59,6 +61,19 @@ public class ExecutorConfig {
       + "executor will at most allow 10 partitions to move across disks within a broker at any given point. This is to avoid "
       + "overwhelming the cluster by intra-broker partition movements.";
 
+  /**
+   * <code>num.concurrent.intra.broker.partition.movements.per.disk</code>
+   */
+  public static final String NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_CONFIG =
+      "num.concurrent.intra.broker.partition.movements.per.disk";
+  public static final Integer DEFAULT_NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK = null;
+  public static final String NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_DOC = "The maximum number of "
+      + "partitions the executor will move from or to a disk of a broker at the same time. The partition movements across "
+      + "disks within a broker are started in execution order as long as both their source and destination disks are below "
+      + "this limit, so the movements on disjoint disks run in parallel while a single disk is not overwhelmed. The number "
+      + "of movements within a broker is still bounded by " + NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_CONFIG + ". If "
+      + "this config is missing, the movements are not limited per disk.";
+
   /**
    * <code>num.concurrent.leader.movements</code>
    */
@@ -95,6 +110,7 @@ public class ExecutorConfig {
       .add(PostponeUrpReplicaMovementStrategy.class.getName())
       .add(PrioritizeLargeReplicaMovementStrategy.class.getName())
       .add(PrioritizeSmallReplicaMovementStrategy.class.getName())
+      .add(PrioritizeBottleneckBrokerReplicaMovementStrategy.class.getName())
       .add(BaseReplicaMovementStrategy.class.getName()).toString();
   public static final String REPLICA_MOVEMENT_STRATEGIES_DOC = "A list of supported strategies used to determine execution"
       + " order for generated partition movement tasks.";
@@ -113,7 +129,8 @@ public class ExecutorConfig {
   public static final String EXECUTION_PROGRESS_CHECK_INTERVAL_MS_CONFIG = "execution.progress.check.interval.ms";
   public static final long DEFAULT_EXECUTION_PROGRESS_CHECK_INTERVAL_MS = 10000L;
   public static final String EXECUTION_PROGRESS_CHECK_INTERVAL_MS_DOC = "The interval in milliseconds that the executor "
-      + "will check on the execution progress.";
+      + "will check on the execution progress. The progress of inter-broker replica movements and leadership movements is "
+      + "also checked as soon as the controller updates their zNodes in ZooKeeper.";
   /*
    * <code>executor.notifier.class</code>
    */
@@ -196,6 +213,118 @@ public class ExecutorConfig {
   public static final String REMOVAL_HISTORY_RETENTION_TIME_MS_DOC = "The maximum time in milliseconds to retain the"
       + " removal history of brokers.";
 
+  /**
+   * <code>concurrency.adjuster.enabled</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_ENABLED_CONFIG = "concurrency.adjuster.enabled";
+  public static final boolean DEFAULT_CONCURRENCY_ADJUSTER_ENABLED = false;
+  public static final String CONCURRENCY_ADJUSTER_ENABLED_DOC = "Enable the adjustment of the inter-broker partition movement "
+      + "concurrency per broker during an execution, unless the execution explicitly requests a concurrency. The adjustment "
+      + "stops for the rest of the execution once the concurrency is changed through the admin endpoint. The concurrency "
+      + "starts from " + NUM_CONCURRENT_PARTITION_MOVEMENTS_PER_BROKER_CONFIG + " and is adjusted at every execution progress "
+      + "check with additive increase / multiplicative decrease based on the health of the cluster.";
+
+  /**
+   * <code>concurrency.adjuster.min.partition.movements.per.broker</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG =
+      "concurrency.adjuster.min.partition.movements.per.broker";
+  public static final int DEFAULT_CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER = 1;
+  public static final String CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_DOC = "The minimum inter-broker partition "
+      + "movement concurrency per broker that the concurrency adjuster can decrease to.";
+
+  /**
+   * <code>concurrency.adjuster.max.partition.movements.per.broker</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG =
+      "concurrency.adjuster.max.partition.movements.per.broker";
+  public static final int DEFAULT_CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER = 12;
+  public static final String CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_DOC = "The maximum inter-broker partition "
+      + "movement concurrency per broker that the concurrency adjuster can increase to. It is also capped below "
+      + MAX_NUM_CLUSTER_MOVEMENTS_CONFIG + ".";
+
+  /**
+   * <code>concurrency.adjuster.additive.increase</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE_CONFIG = "concurrency.adjuster.additive.increase";
+  public static final int DEFAULT_CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE = 1;
+  public static final String CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE_DOC = "The amount by which the concurrency adjuster "
+      + "increases the inter-broker partition movement concurrency per broker when the cluster is healthy and the concurrency "
+      + "limits the execution.";
+
+  /**
+   * <code>concurrency.adjuster.multiplicative.decrease</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE_CONFIG = "concurrency.adjuster.multiplicative.decrease";
+  public static final int DEFAULT_CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE = 2;
+  public static final String CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE_DOC = "The factor by which the concurrency adjuster "
+      + "divides the inter-broker partition movement concurrency per broker when the cluster is unhealthy.";
+
+  /**
+   * <code>concurrency.adjuster.limit.under.replicated.partitions</code>
+   */
+  public static final String CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS_CONFIG =
+      "concurrency.adjuster.limit.under.replicated.partitions";
+  public static final int DEFAULT_CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS = 0;
+  public static final String CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS_DOC = "The maximum number of under "
+      + "replicated partitions, excluding the partitions being moved by the execution, for the concurrency adjuster to take "
+      + "the cluster as healthy.";
+
+  /**
+   * <code>dynamic.replication.throttle.enabled</code>
+   */
+  public static final String DYNAMIC_REPLICATION_THROTTLE_ENABLED_CONFIG = "dynamic.replication.throttle.enabled";
+  public static final boolean DEFAULT_DYNAMIC_REPLICATION_THROTTLE_ENABLED = false;
+  public static final String DYNAMIC_REPLICATION_THROTTLE_ENABLED_DOC = "Enable the replication throttle of each broker "
+      + "participating in inter-broker partition movements to be set to its spare network capacity, i.e. the network "
+      + "capacity allowed by dynamic.replication.throttle.network.capacity.threshold minus its network utilization "
+      + "before the execution. The leader throttle uses the spare outbound and the follower throttle the spare inbound "
+      + "capacity. The throttles of the brokers that send or receive the data of the in-flight movements are lowered to "
+      + "what the other end of these movements can use, and updated as movements start and finish. The requested "
+      + "replication throttle is only used for the brokers without a spare network capacity, e.g. the brokers without "
+      + "metrics.";
+
+  /**
+   * <code>dynamic.replication.throttle.network.capacity.threshold</code>
+   */
+  public static final String DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD_CONFIG =
+      "dynamic.replication.throttle.network.capacity.threshold";
+  public static final double DEFAULT_DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD = 0.8;
+  public static final String DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD_DOC = "The fraction of the network "
+      + "capacity of a broker that the traffic of the broker, including the replication of the moved partitions, is allowed "
+      + "to use when the dynamic replication throttle is enabled.";
+
+  /**
+   * <code>dynamic.replication.throttle.min.rate</code>
+   */
+  public static final String DYNAMIC_REPLICATION_THROTTLE_MIN_RATE_CONFIG = "dynamic.replication.throttle.min.rate";
+  public static final long DEFAULT_DYNAMIC_REPLICATION_THROTTLE_MIN_RATE = 10485760L;
+  public static final String DYNAMIC_REPLICATION_THROTTLE_MIN_RATE_DOC = "The minimum replication throttle (bytes/second) "
+      + "set by the dynamic replication throttle, so that partition movements make progress on the brokers without spare "
+      + "network capacity.";
+
+  /**
+   * <code>pipelined.leadership.movement.enabled</code>
+   */
+  public static final String PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_CONFIG = "pipelined.leadership.movement.enabled";
+  public static final boolean DEFAULT_PIPELINED_LEADERSHIP_MOVEMENT_ENABLED = false;
+  public static final String PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_DOC = "Enable moving the leaderships with a sliding "
+      + "window of up to " + NUM_CONCURRENT_LEADER_MOVEMENTS_CONFIG + " in-flight leadership movements, instead of in "
+      + "batches. The executor starts a preferred leader election for the pending leadership movements that fit in the "
+      + "window as soon as the controller completes the previous election, rather than after all the leadership movements "
+      + "of the previous batch are completed.";
+
+  /**
+   * <code>execution.journal.dir</code>
+   */
+  public static final String EXECUTION_JOURNAL_DIR_CONFIG = "execution.journal.dir";
+  public static final String DEFAULT_EXECUTION_JOURNAL_DIR = "";
+  public static final String EXECUTION_JOURNAL_DIR_DOC = "The local directory to keep the journal of the ongoing execution "
+      + "in. The journal contains the pending and in-progress proposals and the replication throttles applied by the "
+      + "execution. Upon startup, an execution interrupted by a restart is resumed from the journal, after reconciling the "
+      + "journaled proposals with the ongoing partition reassignments and the current replica assignment, and clearing "
+      + "the replication throttles that are no longer needed. An empty value disables the journal.";
+
   /**
    * Define configs for Executor.
    *
@@ -224,6 +353,11 @@ public class ExecutorConfig {
                             atLeast(1),
                             ConfigDef.Importance.MEDIUM,
                             NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_DOC)
+                    .define(NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK,
+                            ConfigDef.Importance.MEDIUM,
+                            NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_DOC)
                     .define(NUM_CONCURRENT_LEADER_MOVEMENTS_CONFIG,
                             ConfigDef.Type.INT,
                             DEFAULT_NUM_CONCURRENT_LEADER_MOVEMENTS,
@@ -303,6 +437,68 @@ public class ExecutorConfig {
                             DEFAULT_REMOVAL_HISTORY_RETENTION_TIME_MS,
                             atLeast(0),
                             ConfigDef.Importance.MEDIUM,
-                            REMOVAL_HISTORY_RETENTION_TIME_MS_DOC);
+                            REMOVAL_HISTORY_RETENTION_TIME_MS_DOC)
+                    .define(CONCURRENCY_ADJUSTER_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_CONCURRENCY_ADJUSTER_ENABLED,
+                            ConfigDef.Importance.MEDIUM,
+                            CONCURRENCY_ADJUSTER_ENABLED_DOC)
+                    .define(CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_DOC)
+                    .define(CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_DOC)
+                    .define(CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE_DOC)
+                    .define(CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE,
+                            atLeast(2),
+                            ConfigDef.Importance.LOW,
+                            CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE_DOC)
+                    .define(CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS_CONFIG,
+                            ConfigDef.Type.INT,
+                            DEFAULT_CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS_DOC)
+                    .define(DYNAMIC_REPLICATION_THROTTLE_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_DYNAMIC_REPLICATION_THROTTLE_ENABLED,
+                            ConfigDef.Importance.MEDIUM,
+                            DYNAMIC_REPLICATION_THROTTLE_ENABLED_DOC)
+                    .define(DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD_CONFIG,
+                            ConfigDef.Type.DOUBLE,
+                            DEFAULT_DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD,
+                            between(0, 1),
+                            ConfigDef.Importance.LOW,
+                            DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD_DOC)
+                    .define(DYNAMIC_REPLICATION_THROTTLE_MIN_RATE_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_DYNAMIC_REPLICATION_THROTTLE_MIN_RATE,
+                            atLeast(1),
+                            ConfigDef.Importance.LOW,
+                            DYNAMIC_REPLICATION_THROTTLE_MIN_RATE_DOC)
+                    .define(PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_CONFIG,
+                            ConfigDef.Type.BOOLEAN,
+                            DEFAULT_PIPELINED_LEADERSHIP_MOVEMENT_ENABLED,
+                            ConfigDef.Importance.MEDIUM,
+                            PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_DOC)
+                    .define(EXECUTION_JOURNAL_DIR_CONFIG,
+                            ConfigDef.Type.STRING,
+                            DEFAULT_EXECUTION_JOURNAL_DIR,
+                            ConfigDef.Importance.LOW,
+                            EXECUTION_JOURNAL_DIR_DOC);
   }
 }
@@ -120,6 +120,25 @@ public class MonitorConfig {
   public static final boolean DEFAULT_SKIP_LOADING_SAMPLES = false;
   public static final String SKIP_LOADING_SAMPLES_DOC = "Specify if sample loading will be skipped upon startup.";
 
+  /**
+   * <code>metric.sample.aggregator.checkpoint.dir</code>
+   */
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG = "metric.sample.aggregator.checkpoint.dir";
+  public static final String DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR = "";
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_DOC = "The local directory to periodically "
+      + "checkpoint the state of the partition and broker metric sample aggregators to. Upon startup, the aggregators "
+      + "are restored from the latest checkpoint and only the samples newer than the checkpoint are loaded from the "
+      + "sample store. An empty value disables checkpointing.";
+
+  /**
+   * <code>metric.sample.aggregator.checkpoint.interval.ms</code>
+   */
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG =
+      "metric.sample.aggregator.checkpoint.interval.ms";
+  public static final long DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS = 300000L;
+  public static final String METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_DOC = "The minimum interval between two "
+      + "checkpoints of the metric sample aggregators. A checkpoint is taken at the end of a successful sampling round.";
+
   /**
    * <code>min.samples.per.partition.metrics.window</code>
    */
@@ -194,12 +213,15 @@ public class MonitorConfig {
       + "maintain.";
 
   /**
-   * @deprecated (i.e. cannot be configured to a value other than 1).
    * <code>num.metric.fetchers</code>
    */
   public static final String NUM_METRIC_FETCHERS_CONFIG = "num.metric.fetchers";
   public static final int DEFAULT_NUM_METRIC_FETCHERS = 1;
-  public static final String NUM_METRIC_FETCHERS_DOC = "The number of metric fetchers to fetch from the Kafka cluster.";
+  public static final String NUM_METRIC_FETCHERS_DOC = "The number of metric fetchers to fetch from the Kafka cluster. Each "
+      + "metric fetcher uses its own metric sampler instance and samples a disjoint set of partitions assigned by the "
+      + "metric sampler partition assignor. The fetchers of a sampling round run concurrently. With "
+      + "CruiseControlMetricsReporterSampler, more than one fetcher requires the metrics reporters to enable "
+      + "cruise.control.metrics.reporter.partition.by.broker.enabled.";
 
   /**
    * <code>metric.sampler.class</code>
@@ -328,6 +350,16 @@ public class MonitorConfig {
       + "class name. The broker capacity configuration resolver is responsible for getting the broker capacity. The "
       + "default implementation is a file based solution.";
 
+  /**
+   * <code>logdir.info.cache.ttl.ms</code>
+   */
+  public static final String LOGDIR_INFO_CACHE_TTL_MS_CONFIG = "logdir.info.cache.ttl.ms";
+  public static final long DEFAULT_LOGDIR_INFO_CACHE_TTL_MS = 30000L;
+  public static final String LOGDIR_INFO_CACHE_TTL_MS_DOC = "The maximum time in ms to reuse the logdir information of a "
+      + "broker for the cluster model generation and the disk failure detection. The cached logdir information of all "
+      + "brokers is invalidated when the cluster metadata changes or an execution finishes. Setting it to 0 describes "
+      + "the logdirs of the brokers every time.";
+
 
   /**
    * Define configs for Monitor.
@@ -407,6 +439,17 @@ public class MonitorConfig {
                             DEFAULT_SKIP_LOADING_SAMPLES,
                             ConfigDef.Importance.MEDIUM,
                             SKIP_LOADING_SAMPLES_DOC)
+                    .define(METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG,
+                            ConfigDef.Type.STRING,
+                            DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR,
+                            ConfigDef.Importance.LOW,
+                            METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_DOC)
+                    .define(METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_DOC)
                     .define(MIN_SAMPLES_PER_PARTITION_METRICS_WINDOW_CONFIG,
                             ConfigDef.Type.INT,
                             DEFAULT_MIN_SAMPLES_PER_PARTITION_METRICS_WINDOW,
@@ -458,6 +501,7 @@ public class MonitorConfig {
                     .define(NUM_METRIC_FETCHERS_CONFIG,
                             ConfigDef.Type.INT,
                             DEFAULT_NUM_METRIC_FETCHERS,
+                            atLeast(1),
                             ConfigDef.Importance.HIGH,
                             NUM_METRIC_FETCHERS_DOC)
                     .define(METRIC_SAMPLER_CLASS_CONFIG,
@@ -541,6 +585,12 @@ public class MonitorConfig {
                             ConfigDef.Type.CLASS,
                             DEFAULT_BROKER_CAPACITY_CONFIG_RESOLVER_CLASS,
                             ConfigDef.Importance.MEDIUM,
-                            BROKER_CAPACITY_CONFIG_RESOLVER_CLASS_DOC);
+                            BROKER_CAPACITY_CONFIG_RESOLVER_CLASS_DOC)
+                    .define(LOGDIR_INFO_CACHE_TTL_MS_CONFIG,
+                            ConfigDef.Type.LONG,
+                            DEFAULT_LOGDIR_INFO_CACHE_TTL_MS,
+                            atLeast(0),
+                            ConfigDef.Importance.LOW,
+                            LOGDIR_INFO_CACHE_TTL_MS_DOC);
   }
 }
@@ -9,7 +9,6 @@ import com.codahale.metrics.MetricRegistry;
 import com.linkedin.cruisecontrol.detector.Anomaly;
 import com.linkedin.cruisecontrol.detector.AnomalyType;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
-import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
 import com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig;
@@ -29,7 +28,6 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.common.utils.SystemTime;
 import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
@@ -58,9 +56,10 @@ public class AnomalyDetector {
   private static final Logger OPERATION_LOG = LoggerFactory.getLogger(OPERATION_LOGGER);
   private final KafkaCruiseControl _kafkaCruiseControl;
   private final AnomalyNotifier _anomalyNotifier;
-  private final AdminClient _adminClient;
   // Detectors
   private final GoalViolationDetector _goalViolationDetector;
+  private final GoalViolationDetectionTrigger _goalViolationDetectionTrigger;
+  private final long _goalViolationLoadChangeCheckIntervalMs;
   private final BrokerFailureDetector _brokerFailureDetector;
   private final MetricAnomalyDetector _metricAnomalyDetector;
   private final DiskFailureDetector _diskFailureDetector;
@@ -84,7 +83,6 @@ public class AnomalyDetector {
     // otherwise, handle anomaly in order of detected time.
     _anomalies = new PriorityBlockingQueue<>(ANOMALY_QUEUE_INITIAL_CAPACITY, anomalyComparator());
     KafkaCruiseControlConfig config = kafkaCruiseControl.config();
-    _adminClient = KafkaCruiseControlUtils.createAdminClient(KafkaCruiseControlUtils.parseAdminClientConfigs(config));
     Long anomalyDetectionIntervalMs = config.getLong(AnomalyDetectorConfig.ANOMALY_DETECTION_INTERVAL_MS_CONFIG);
     _anomalyDetectionIntervalMsByType = new HashMap<>(KafkaAnomalyType.cachedValues().size() - 1);
     Long goalViolationDetectionIntervalMs = config.getLong(AnomalyDetectorConfig.GOAL_VIOLATION_DETECTION_INTERVAL_MS_CONFIG);
@@ -106,9 +104,17 @@ public class AnomalyDetector {
     _selfHealingGoals = getSelfHealingGoalNames(config);
     sanityCheckGoals(_selfHealingGoals, false, config);
     _goalViolationDetector = new GoalViolationDetector(_anomalies, _kafkaCruiseControl);
+    Double goalViolationLoadChangeThreshold = config.getDouble(AnomalyDetectorConfig.GOAL_VIOLATION_LOAD_CHANGE_THRESHOLD_CONFIG);
+    _goalViolationDetectionTrigger = goalViolationLoadChangeThreshold == null
+                                     ? null : new GoalViolationDetectionTrigger(_goalViolationDetector,
+                                                                                _kafkaCruiseControl,
+                                                                                goalViolationLoadChangeThreshold,
+                                                                                _anomalyDetectionIntervalMsByType.get(GOAL_VIOLATION));
+    _goalViolationLoadChangeCheckIntervalMs =
+        config.getLong(AnomalyDetectorConfig.GOAL_VIOLATION_LOAD_CHANGE_CHECK_INTERVAL_MS_CONFIG);
     _brokerFailureDetector = new BrokerFailureDetector(_anomalies, _kafkaCruiseControl);
     _metricAnomalyDetector = new MetricAnomalyDetector(_anomalies, _kafkaCruiseControl);
-    _diskFailureDetector = new DiskFailureDetector(_adminClient, _anomalies, _kafkaCruiseControl);
+    _diskFailureDetector = new DiskFailureDetector(_anomalies, _kafkaCruiseControl);
     _topicAnomalyDetector = new TopicAnomalyDetector(_anomalies, _kafkaCruiseControl);
     _detectorScheduler = Executors.newScheduledThreadPool(NUM_ANOMALY_DETECTION_THREADS,
                                                           new KafkaCruiseControlThreadFactory(METRIC_REGISTRY_NAME, false, LOG));
@@ -132,7 +138,6 @@ public class AnomalyDetector {
    * Package private constructor for unit test.
    */
   AnomalyDetector(PriorityBlockingQueue<Anomaly> anomalies,
-                  AdminClient adminClient,
                   long anomalyDetectionIntervalMs,
                   KafkaCruiseControl kafkaCruiseControl,
                   AnomalyNotifier anomalyNotifier,
@@ -143,7 +148,6 @@ public class AnomalyDetector {
                   TopicAnomalyDetector topicAnomalyDetector,
                   ScheduledExecutorService detectorScheduler) {
     _anomalies = anomalies;
-    _adminClient = adminClient;
     _anomalyDetectionIntervalMsByType = new HashMap<>(KafkaAnomalyType.cachedValues().size() - 1);
     KafkaAnomalyType.cachedValues().stream().filter(type -> type != BROKER_FAILURE)
                     .forEach(type -> _anomalyDetectionIntervalMsByType.put(type, anomalyDetectionIntervalMs));
@@ -151,6 +155,8 @@ public class AnomalyDetector {
     _brokerFailureDetectionBackoffMs = anomalyDetectionIntervalMs;
     _anomalyNotifier = anomalyNotifier;
     _goalViolationDetector = goalViolationDetector;
+    _goalViolationDetectionTrigger = null;
+    _goalViolationLoadChangeCheckIntervalMs = anomalyDetectionIntervalMs;
     _brokerFailureDetector = brokerFailureDetector;
     _metricAnomalyDetector = metricAnomalyDetector;
     _diskFailureDetector = diskFailureDetector;
@@ -191,11 +197,20 @@ public class AnomalyDetector {
     _brokerFailureDetector.startDetection();
     int jitter = new Random().nextInt(INIT_JITTER_BOUND);
     LOG.debug("Starting goal violation detector with delay of {} ms", jitter);
-    long goalViolationDetectionIntervalMs = _anomalyDetectionIntervalMsByType.get(GOAL_VIOLATION);
-    _detectorScheduler.scheduleAtFixedRate(_goalViolationDetector,
-                                           goalViolationDetectionIntervalMs / 2 + jitter,
-                                           goalViolationDetectionIntervalMs,
-                                           TimeUnit.MILLISECONDS);
+    if (_goalViolationDetectionTrigger != null) {
+      // Goal violation detection is triggered by the changes of the cluster, and still runs at least once in every
+      // goal violation detection interval.
+      _detectorScheduler.scheduleAtFixedRate(_goalViolationDetectionTrigger,
+                                             _goalViolationLoadChangeCheckIntervalMs / 2 + jitter,
+                                             _goalViolationLoadChangeCheckIntervalMs,
+                                             TimeUnit.MILLISECONDS);
+    } else {
+      long goalViolationDetectionIntervalMs = _anomalyDetectionIntervalMsByType.get(GOAL_VIOLATION);
+      _detectorScheduler.scheduleAtFixedRate(_goalViolationDetector,
+                                             goalViolationDetectionIntervalMs / 2 + jitter,
+                                             goalViolationDetectionIntervalMs,
+                                             TimeUnit.MILLISECONDS);
+    }
     jitter = new Random().nextInt(INIT_JITTER_BOUND);
     long metricAnomalyDetectionIntervalMs = _anomalyDetectionIntervalMsByType.get(METRIC_ANOMALY);
     LOG.debug("Starting metric anomaly detector with delay of {} ms", jitter);
@@ -233,7 +248,6 @@ public class AnomalyDetector {
     // priority queue and notify anomaly handler immediately.
     _anomalies.add(SHUTDOWN_ANOMALY);
     _detectorScheduler.shutdown();
-    KafkaCruiseControlUtils.closeAdminClientWithTimeout(_adminClient);
     try {
       _detectorScheduler.awaitTermination(SCHEDULER_SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
       if (!_detectorScheduler.isTerminated()) {
@@ -7,22 +7,15 @@ package com.linkedin.kafka.cruisecontrol.detector;
 import com.linkedin.cruisecontrol.detector.Anomaly;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
-import org.apache.kafka.clients.admin.AdminClient;
-import org.apache.kafka.common.Node;
 import org.apache.kafka.common.protocol.Errors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig.LOGDIR_RESPONSE_TIMEOUT_MS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig.DISK_FAILURES_CLASS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.MAX_METADATA_WAIT_MS;
 import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.shouldSkipAnomalyDetection;
@@ -36,15 +29,12 @@ public class DiskFailureDetector implements Runnable {
   private static final Logger LOG = LoggerFactory.getLogger(DiskFailureDetector.class);
   public static final String FAILED_DISKS_OBJECT_CONFIG = "failed.disks.object";
   private final KafkaCruiseControl _kafkaCruiseControl;
-  private final AdminClient _adminClient;
   private final Queue<Anomaly> _anomalies;
   private int _lastCheckedClusterGeneration;
   private final KafkaCruiseControlConfig _config;
 
-  public DiskFailureDetector(AdminClient adminClient,
-                             Queue<Anomaly> anomalies,
+  public DiskFailureDetector(Queue<Anomaly> anomalies,
                              KafkaCruiseControl kafkaCruiseControl) {
-    _adminClient = adminClient;
     _anomalies = anomalies;
     _lastCheckedClusterGeneration = -1;
     _kafkaCruiseControl = kafkaCruiseControl;
@@ -88,18 +78,15 @@ public class DiskFailureDetector implements Runnable {
         return;
       }
       Map<Integer, Map<String, Long>> failedDisksByBroker = new HashMap<>();
-      Set<Integer> aliveBrokers = _kafkaCruiseControl.kafkaCluster().nodes().stream().mapToInt(Node::id).boxed().collect(Collectors.toSet());
-      _adminClient.describeLogDirs(aliveBrokers).values().forEach((broker, future) -> {
-        try {
-          future.get(_config.getLong(LOGDIR_RESPONSE_TIMEOUT_MS_CONFIG), TimeUnit.MILLISECONDS).forEach((logdir, info) -> {
-            if (info.error != Errors.NONE) {
-              failedDisksByBroker.putIfAbsent(broker, new HashMap<>());
-              failedDisksByBroker.get(broker).put(logdir, _kafkaCruiseControl.timeMs());
-            }
-          });
-        } catch (TimeoutException | InterruptedException | ExecutionException e) {
-          LOG.warn("Retrieving logdir information for broker {} encountered exception {}.", broker, e);
-        }
+      LoadMonitor loadMonitor = _kafkaCruiseControl.loadMonitor();
+      // Brokers that fail to describe their logdirs in time are left out and checked again in the next detection.
+      loadMonitor.logDirInfoCache().logDirInfo(loadMonitor.refreshClusterAndGeneration()).forEach((broker, logDirInfo) -> {
+        logDirInfo.forEach((logdir, info) -> {
+          if (info.error != Errors.NONE) {
+            failedDisksByBroker.putIfAbsent(broker, new HashMap<>());
+            failedDisksByBroker.get(broker).put(logdir, _kafkaCruiseControl.timeMs());
+          }
+        });
       });
       if (!failedDisksByBroker.isEmpty()) {
         Map<String, Object> parameterConfigOverrides = new HashMap<>(3);
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.detector;
+
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations;
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
+import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class will be scheduled to run periodically to check whether the cluster has changed enough since the last goal
+ * violation detection to run the {@link GoalViolationDetector} again. The goal violation detection is triggered if any of
+ * the following is true:
+ * <ul>
+ * <li>The goal violation detection has not run for the given maximum detection interval.</li>
+ * <li>The cluster metadata generation has changed since the last goal violation detection.</li>
+ * <li>A new broker metric window has rolled out, and the utilization of any resource of any broker in the newest window
+ * differs from its utilization at the last goal violation detection by at least the given load change threshold.</li>
+ * </ul>
+ *
+ * The check only aggregates the broker metrics when a new broker metric window has rolled out, which is much cheaper than
+ * the cluster model generation of a goal violation detection.
+ */
+public class GoalViolationDetectionTrigger implements Runnable {
+  private static final Logger LOG = LoggerFactory.getLogger(GoalViolationDetectionTrigger.class);
+  private static final long NO_WINDOW = -1L;
+  private final GoalViolationDetector _goalViolationDetector;
+  private final KafkaCruiseControl _kafkaCruiseControl;
+  private final double _loadChangeThreshold;
+  private final long _maxDetectionIntervalMs;
+  // The utilization of each resource of each broker, indexed by resource id, in the newest checked broker metric window.
+  private Map<Integer, double[]> _latestUtilization;
+  private long _latestCheckedWindow;
+  // The state of the cluster at the last goal violation detection.
+  private Map<Integer, double[]> _utilizationAtLastDetection;
+  private int _clusterGenerationAtLastDetection;
+  private long _lastDetectionMs;
+
+  /**
+   * @param goalViolationDetector The goal violation detector to trigger.
+   * @param kafkaCruiseControl The Kafka Cruise Control instance.
+   * @param loadChangeThreshold The minimum relative change of the utilization of a resource of a broker to trigger the
+   *                            goal violation detection.
+   * @param maxDetectionIntervalMs The maximum interval between two goal violation detections.
+   */
+  public GoalViolationDetectionTrigger(GoalViolationDetector goalViolationDetector,
+                                       KafkaCruiseControl kafkaCruiseControl,
+                                       double loadChangeThreshold,
+                                       long maxDetectionIntervalMs) {
+    if (loadChangeThreshold < 0.0) {
+      throw new IllegalArgumentException("The load change threshold " + loadChangeThreshold + " cannot be negative.");
+    }
+    _goalViolationDetector = goalViolationDetector;
+    _kafkaCruiseControl = kafkaCruiseControl;
+    _loadChangeThreshold = loadChangeThreshold;
+    _maxDetectionIntervalMs = maxDetectionIntervalMs;
+    _latestUtilization = Collections.emptyMap();
+    _latestCheckedWindow = NO_WINDOW;
+    _utilizationAtLastDetection = Collections.emptyMap();
+    _clusterGenerationAtLastDetection = -1;
+    _lastDetectionMs = -1L;
+  }
+
+  @Override
+  public void run() {
+    try {
+      long now = _kafkaCruiseControl.timeMs();
+      if (shouldTriggerDetection(now)) {
+        _goalViolationDetector.run();
+      }
+    } catch (Exception e) {
+      LOG.error("Unexpected exception", e);
+    }
+  }
+
+  /**
+   * Check whether the goal violation detection should be triggered, and if so, take the current state of the cluster as
+   * the state at the last goal violation detection.
+   *
+   * @param now The current time in milliseconds.
+   * @return True to trigger the goal violation detection, false otherwise.
+   */
+  boolean shouldTriggerDetection(long now) {
+    LoadMonitor loadMonitor = _kafkaCruiseControl.loadMonitor();
+    int clusterGeneration = loadMonitor.refreshClusterAndGeneration().generation();
+    boolean newWindowRolledOut = maybeRefreshLatestUtilization(loadMonitor);
+
+    String reason = null;
+    if (_lastDetectionMs < 0 || now - _lastDetectionMs >= _maxDetectionIntervalMs) {
+      reason = "the maximum detection interval has elapsed";
+    } else if (clusterGeneration != _clusterGenerationAtLastDetection) {
+      reason = String.format("the cluster generation changed from %d to %d", _clusterGenerationAtLastDetection, clusterGeneration);
+    } else if (newWindowRolledOut) {
+      double maxLoadChange = maxLoadChange(_utilizationAtLastDetection, _latestUtilization);
+      if (maxLoadChange >= _loadChangeThreshold) {
+        reason = String.format("the broker load changed by %.3f", maxLoadChange);
+      }
+    }
+
+    if (reason == null) {
+      LOG.debug("Skipping goal violation detection because the cluster has not changed enough since the last detection.");
+      return false;
+    }
+    LOG.debug("Triggering goal violation detection because {}.", reason);
+    _utilizationAtLastDetection = _latestUtilization;
+    _clusterGenerationAtLastDetection = clusterGeneration;
+    _lastDetectionMs = now;
+    return true;
+  }
+
+  /**
+   * Refresh the latest utilization of the brokers if a new broker metric window has rolled out since the last check.
+   *
+   * @param loadMonitor The load monitor to get the broker metrics from.
+   * @return True if a new broker metric window has rolled out since the last check, false otherwise.
+   */
+  private boolean maybeRefreshLatestUtilization(LoadMonitor loadMonitor) {
+    List<Long> windows = loadMonitor.availableBrokerMetricWindows();
+    long newestWindow = windows.isEmpty() ? NO_WINDOW : windows.get(windows.size() - 1);
+    if (newestWindow == _latestCheckedWindow) {
+      return false;
+    }
+    _latestCheckedWindow = newestWindow;
+    Map<BrokerEntity, ValuesAndExtrapolations> valuesByBroker = loadMonitor.brokerMetrics().valuesAndExtrapolations();
+    Map<Integer, double[]> latestUtilization = new HashMap<>(valuesByBroker.size());
+    for (Map.Entry<BrokerEntity, ValuesAndExtrapolations> entry : valuesByBroker.entrySet()) {
+      AggregatedMetricValues metricValues = entry.getValue().metricValues();
+      if (metricValues.isEmpty()) {
+        continue;
+      }
+      double[] utilization = new double[Resource.cachedValues().size()];
+      for (Resource resource : Resource.cachedValues()) {
+        // Index 0 is the newest window.
+        utilization[resource.id()] =
+            metricValues.valuesForGroup(resource.name(), KafkaMetricDef.brokerMetricDef(), true).get(0);
+      }
+      latestUtilization.put(entry.getKey().brokerId(), utilization);
+    }
+    _latestUtilization = latestUtilization;
+    return true;
+  }
+
+  /**
+   * Package private for unit test.
+   *
+   * @param baseline The utilization of each resource of each broker at the last goal violation detection.
+   * @param current The current utilization of each resource of each broker.
+   * @return The maximum relative change of the utilization of a resource of a broker, in [0, 1]. A broker without
+   * a baseline utilization is considered as a change of 1.
+   */
+  static double maxLoadChange(Map<Integer, double[]> baseline, Map<Integer, double[]> current) {
+    double maxLoadChange = 0.0;
+    for (Map.Entry<Integer, double[]> entry : current.entrySet()) {
+      double[] baselineUtilization = baseline.get(entry.getKey());
+      if (baselineUtilization == null) {
+        return 1.0;
+      }
+      double[] currentUtilization = entry.getValue();
+      for (int i = 0; i < currentUtilization.length; i++) {
+        double denominator = Math.max(Math.abs(baselineUtilization[i]), Math.abs(currentUtilization[i]));
+        if (denominator > 0.0) {
+          maxLoadChange = Math.max(maxLoadChange, Math.abs(currentUtilization[i] - baselineUtilization[i]) / denominator);
+        }
+      }
+    }
+    return maxLoadChange;
+  }
+}
@@ -13,6 +13,7 @@ import com.linkedin.kafka.cruisecontrol.exception.KafkaCruiseControlException;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
 import com.linkedin.kafka.cruisecontrol.model.Partition;
 import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
+import com.linkedin.kafka.cruisecontrol.monitor.ModelGeneration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +44,10 @@ import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.ANO
  *   <li>{@link #TOPIC_PARTITION_SIZE_ANOMALY_CLASS_CONFIG}: The config for the topic anomaly class name,
  *   default value is set to {@link #DEFAULT_TOPIC_PARTITION_SIZE_ANOMALY_CLASS}.
  * </ul>
+ *
+ * The cluster model is only generated again when the model generation has changed since the last check, i.e. the
+ * partitions with large size found by the last check are reused as long as neither the cluster metadata nor the
+ * partition metric samples have changed.
  */
 public class PartitionSizeAnomalyFinder implements TopicAnomalyFinder {
   private static final Logger LOG = LoggerFactory.getLogger(PartitionSizeAnomalyFinder.class);
@@ -58,9 +63,16 @@ public class PartitionSizeAnomalyFinder implements TopicAnomalyFinder {
   private Pattern _topicExcludedFromCheck;
   private Class<?> _topicPartitionSizeAnomalyClass;
   private boolean _allowCapacityEstimation;
+  private ModelGeneration _lastCheckedModelGeneration;
+  private Map<TopicPartition, Double> _partitionsWithLargeSize;
 
   @Override
   public Set<TopicAnomaly> topicAnomalies() {
+    ModelGeneration modelGeneration = _kafkaCruiseControl.loadMonitor().clusterModelGeneration();
+    if (modelGeneration.equals(_lastCheckedModelGeneration)) {
+      LOG.debug("Reusing the partitions with large size of unchanged model generation {}.", modelGeneration);
+      return partitionSizeAnomalies(_partitionsWithLargeSize);
+    }
     Map<TopicPartition, Double> partitionsWithLargeSize = new HashMap<>();
     OperationProgress operationProgress = new OperationProgress();
     ClusterModel clusterModel;
@@ -79,6 +91,8 @@ public class PartitionSizeAnomalyFinder implements TopicAnomalyFinder {
           }
         }
       }
+      _lastCheckedModelGeneration = clusterModel.generation();
+      _partitionsWithLargeSize = partitionsWithLargeSize;
     } catch (NotEnoughValidWindowsException nevwe) {
       LOG.debug("Skipping topic partition size anomaly detection because there are not enough valid windows.", nevwe);
     } catch (KafkaCruiseControlException kcce) {
@@ -86,6 +100,10 @@ public class PartitionSizeAnomalyFinder implements TopicAnomalyFinder {
     } catch (Exception e) {
       LOG.error("Unexpected exception", e);
     }
+    return partitionSizeAnomalies(partitionsWithLargeSize);
+  }
+
+  private Set<TopicAnomaly> partitionSizeAnomalies(Map<TopicPartition, Double> partitionsWithLargeSize) {
     if (!partitionsWithLargeSize.isEmpty()) {
       return Collections.singleton(createTopicPartitionSizeAnomaly(partitionsWithLargeSize));
     }
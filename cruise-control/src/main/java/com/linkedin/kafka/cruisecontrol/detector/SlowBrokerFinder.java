@@ -7,18 +7,18 @@ package com.linkedin.kafka.cruisecontrol.detector;
 import com.linkedin.cruisecontrol.common.config.ConfigException;
 import com.linkedin.cruisecontrol.detector.metricanomaly.MetricAnomaly;
 import com.linkedin.cruisecontrol.detector.metricanomaly.MetricAnomalyFinder;
+import com.linkedin.cruisecontrol.detector.metricanomaly.SlidingWindowPercentile;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
 import com.linkedin.kafka.cruisecontrol.config.constants.AnomalyDetectorConfig;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
@@ -70,6 +70,9 @@ import static com.linkedin.kafka.cruisecontrol.detector.MetricAnomalyDetector.ME
  *        Once "slowness score" reaches zero, the broker is dropped from scoring system.</li>
  * </ul>
  *
+ * The historical values of each broker are kept in a {@link SlidingWindowPercentile}, which is updated as the history
+ * windows roll, so each round of detection does not rebuild and sort the history of every broker.
+ *
  * Note: if there are too many brokers being confirmed as slow broker in the same run, the finder will report the {@link SlowBrokers}
  * anomaly as unfixable. Because this often indicates some serious issue in the cluster and probably requires administrator's
  * intervention to decide the right remediation strategy.
@@ -118,6 +121,7 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
   public static final int DEFAULT_SLOW_BROKER_DECOMMISSION_SCORE = 50;
   public static final String SLOW_BROKER_SELF_HEALING_UNFIXABLE_RATIO_CONFIG = "slow.broker.self.healing.unfixable.ratio";
   private static final double DEFAULT_SLOW_BROKER_SELF_HEALING_UNFIXABLE_RATIO = 0.1;
+  private static final double MIN_HISTORICAL_LOG_FLUSH_TIME_MS = 5.0;
   private static final short BROKER_LOG_FLUSH_TIME_MS_999TH_ID =
       KafkaMetricDef.brokerMetricDef().metricInfo(KafkaMetricDef.BROKER_LOG_FLUSH_TIME_MS_999TH.name()).id();
   private static final short LEADER_BYTES_IN_ID =
@@ -129,6 +133,10 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
   private final Map<BrokerEntity, Integer> _brokerSlownessScore;
   private final Map<BrokerEntity, Long> _detectedSlowBrokers;
   private final Percentile _percentile;
+  // The history of the interested metrics of each broker, updated as the history windows roll.
+  private final Map<BrokerEntity, SlidingWindowPercentile> _historicalLogFlushTime;
+  private final Map<BrokerEntity, SlidingWindowPercentile> _historicalPerByteLogFlushTime;
+  private double[] _peerValues;
   private double _bytesInRateDetectionThreshold;
   private double _metricHistoryPercentile;
   private double _metricHistoryMargin;
@@ -142,39 +150,36 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
     _brokerSlownessScore = new HashMap<>();
     _detectedSlowBrokers = new HashMap<>();
     _percentile = new Percentile();
+    _historicalLogFlushTime = new HashMap<>();
+    _historicalPerByteLogFlushTime = new HashMap<>();
+    _peerValues = new double[0];
   }
 
   private Set<BrokerEntity> detectMetricAnomalies(Map<BrokerEntity, ValuesAndExtrapolations> metricsHistoryByBroker,
                                                   Map<BrokerEntity, ValuesAndExtrapolations> currentMetricsByBroker) {
     // Preprocess raw metrics to get the metrics of interest for each broker.
-    Map<BrokerEntity, List<Double>> historicalLogFlushTimeMetricValues = new HashMap<>();
     Map<BrokerEntity, Double> currentLogFlushTimeMetricValues = new HashMap<>();
-    Map<BrokerEntity, List<Double>> historicalPerByteLogFlushTimeMetricValues = new HashMap<>();
     Map<BrokerEntity, Double> currentPerByteLogFlushTimeMetricValues = new HashMap<>();
     Set<Integer> skippedBrokers = new HashSet<>();
     for (BrokerEntity broker : currentMetricsByBroker.keySet()) {
       if (!brokerHasNegligibleTraffic(broker, currentMetricsByBroker)) {
-        collectLogFlushTimeMetric(broker,
-                                  metricsHistoryByBroker,
-                                  currentMetricsByBroker,
-                                  historicalLogFlushTimeMetricValues,
-                                  currentLogFlushTimeMetricValues);
-        collectPerByteLogFlushTimeMetric(broker,
-                                         metricsHistoryByBroker,
-                                         currentMetricsByBroker,
-                                         historicalPerByteLogFlushTimeMetricValues,
+        collectLogFlushTimeMetric(broker, metricsHistoryByBroker, currentMetricsByBroker, currentLogFlushTimeMetricValues);
+        collectPerByteLogFlushTimeMetric(broker, metricsHistoryByBroker, currentMetricsByBroker,
                                          currentPerByteLogFlushTimeMetricValues);
       } else {
         skippedBrokers.add(broker.brokerId());
       }
     }
+    // Stop tracking the history of the brokers that are gone.
+    _historicalLogFlushTime.keySet().retainAll(metricsHistoryByBroker.keySet());
+    _historicalPerByteLogFlushTime.keySet().retainAll(metricsHistoryByBroker.keySet());
 
     if (!skippedBrokers.isEmpty()) {
       LOG.info("Skip broker slowness checking for brokers {} because they serve negligible traffic.", skippedBrokers);
     }
 
-    Set<BrokerEntity> detectMetricAnomalies = getMetricAnomalies(historicalLogFlushTimeMetricValues, currentLogFlushTimeMetricValues);
-    detectMetricAnomalies.retainAll(getMetricAnomalies(historicalPerByteLogFlushTimeMetricValues, currentPerByteLogFlushTimeMetricValues));
+    Set<BrokerEntity> detectMetricAnomalies = getMetricAnomalies(_historicalLogFlushTime, currentLogFlushTimeMetricValues);
+    detectMetricAnomalies.retainAll(getMetricAnomalies(_historicalPerByteLogFlushTime, currentPerByteLogFlushTimeMetricValues));
     return detectMetricAnomalies;
   }
 
@@ -195,47 +200,40 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
   private void collectLogFlushTimeMetric(BrokerEntity broker,
                                          Map<BrokerEntity, ValuesAndExtrapolations> metricsHistoryByBroker,
                                          Map<BrokerEntity, ValuesAndExtrapolations> currentMetricsByBroker,
-                                         Map<BrokerEntity, List<Double>> historicalLogFlushTimeMetricValues,
                                          Map<BrokerEntity, Double> currentLogFlushTimeMetricValues) {
     AggregatedMetricValues aggregatedMetricValues = currentMetricsByBroker.get(broker).metricValues();
     double latestLogFlushTime = aggregatedMetricValues.valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID).latest();
     currentLogFlushTimeMetricValues.put(broker, latestLogFlushTime);
-    aggregatedMetricValues = metricsHistoryByBroker.get(broker).metricValues();
-    double[] historicalLogFlushTime = aggregatedMetricValues.valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID).doubleArray();
-    List<Double> historicalValue = new ArrayList<>(historicalLogFlushTime.length);
-    for (int i = 0; i < historicalLogFlushTime.length; i++) {
-      if (historicalLogFlushTime[i] > 5.0) {
-        historicalValue.add(historicalLogFlushTime[i]);
-      }
-    }
-    historicalLogFlushTimeMetricValues.put(broker, historicalValue);
+    ValuesAndExtrapolations history = metricsHistoryByBroker.get(broker);
+    MetricValues historicalLogFlushTime = history.metricValues().valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID);
+    // Only the windows with a log flush time above the minimum count in the history.
+    _historicalLogFlushTime.computeIfAbsent(broker, b -> new SlidingWindowPercentile())
+                           .update(history.windows(), i -> historicalLogFlushTime.get(i) > MIN_HISTORICAL_LOG_FLUSH_TIME_MS
+                                                           ? historicalLogFlushTime.get(i) : Double.NaN);
   }
 
   private void collectPerByteLogFlushTimeMetric(BrokerEntity broker,
                                                 Map<BrokerEntity, ValuesAndExtrapolations> metricsHistoryByBroker,
                                                 Map<BrokerEntity, ValuesAndExtrapolations> currentMetricsByBroker,
-                                                Map<BrokerEntity, List<Double>> historicalPerByteLogFlushTimeMetricValues,
                                                 Map<BrokerEntity, Double> currentPerByteLogFlushTimeMetricValues) {
     AggregatedMetricValues aggregatedMetricValues = currentMetricsByBroker.get(broker).metricValues();
     double latestLogFlushTime = aggregatedMetricValues.valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID).latest();
     double latestTotalBytesIn = aggregatedMetricValues.valuesFor(LEADER_BYTES_IN_ID).latest() +
                                 aggregatedMetricValues.valuesFor(REPLICATION_BYTES_IN_RATE_ID).latest();
     currentPerByteLogFlushTimeMetricValues.put(broker, latestLogFlushTime / latestTotalBytesIn);
-    aggregatedMetricValues = metricsHistoryByBroker.get(broker).metricValues();
-    double[] historicalBytesIn = aggregatedMetricValues.valuesFor(LEADER_BYTES_IN_ID).doubleArray();
-    double[] historicalReplicationBytesIn = aggregatedMetricValues.valuesFor(REPLICATION_BYTES_IN_RATE_ID).doubleArray();
-    double[] historicalLogFlushTime = aggregatedMetricValues.valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID).doubleArray();
-    List<Double> historicalValue = new ArrayList<>(historicalBytesIn.length);
-    for (int i = 0; i < historicalBytesIn.length; i++) {
-      double totalBytesIn = historicalBytesIn[i] + historicalReplicationBytesIn[i];
-      if (totalBytesIn >= _bytesInRateDetectionThreshold) {
-        historicalValue.add(historicalLogFlushTime[i] / totalBytesIn);
-      }
-    }
-    historicalPerByteLogFlushTimeMetricValues.put(broker, historicalValue);
+    ValuesAndExtrapolations history = metricsHistoryByBroker.get(broker);
+    aggregatedMetricValues = history.metricValues();
+    MetricValues historicalBytesIn = aggregatedMetricValues.valuesFor(LEADER_BYTES_IN_ID);
+    MetricValues historicalReplicationBytesIn = aggregatedMetricValues.valuesFor(REPLICATION_BYTES_IN_RATE_ID);
+    MetricValues historicalLogFlushTime = aggregatedMetricValues.valuesFor(BROKER_LOG_FLUSH_TIME_MS_999TH_ID);
+    // Only the windows with a non-negligible traffic count in the history.
+    _historicalPerByteLogFlushTime.computeIfAbsent(broker, b -> new SlidingWindowPercentile()).update(history.windows(), i -> {
+      double totalBytesIn = historicalBytesIn.get(i) + historicalReplicationBytesIn.get(i);
+      return totalBytesIn >= _bytesInRateDetectionThreshold ? historicalLogFlushTime.get(i) / totalBytesIn : Double.NaN;
+    });
   }
 
-  private Set<BrokerEntity> getMetricAnomalies(Map<BrokerEntity, List<Double>> historicalValueByBroker,
+  private Set<BrokerEntity> getMetricAnomalies(Map<BrokerEntity, SlidingWindowPercentile> historicalValueByBroker,
                                                Map<BrokerEntity, Double> currentValueByBroker) {
     Set<BrokerEntity> detectedMetricAnomalies = new HashSet<>();
     // Detect metric anomalies by comparing each broker's current metric value against historical value.
@@ -245,17 +243,15 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
     return detectedMetricAnomalies;
   }
 
-  private void detectMetricAnomaliesFromHistory(Map<BrokerEntity, List<Double>> historicalValue,
+  private void detectMetricAnomaliesFromHistory(Map<BrokerEntity, SlidingWindowPercentile> historicalValue,
                                                 Map<BrokerEntity, Double> currentValue,
                                                 Set<BrokerEntity> detectedMetricAnomalies) {
     for (Map.Entry<BrokerEntity, Double> entry : currentValue.entrySet()) {
       BrokerEntity entity = entry.getKey();
-      if (isDataSufficient(historicalValue.get(entity).size(), _metricHistoryPercentile, _metricHistoryPercentile)) {
-        double [] data = historicalValue.get(entity).stream().mapToDouble(i -> i).toArray();
-        _percentile.setData(data);
-        if (currentValue.get(entity) > _percentile.evaluate(_metricHistoryPercentile) * _metricHistoryMargin) {
-          detectedMetricAnomalies.add(entity);
-        }
+      SlidingWindowPercentile history = historicalValue.get(entity);
+      if (isDataSufficient(history.numValues(), _metricHistoryPercentile, _metricHistoryPercentile)
+          && entry.getValue() > history.evaluate(_metricHistoryPercentile) * _metricHistoryMargin) {
+        detectedMetricAnomalies.add(entity);
       }
     }
   }
@@ -263,11 +259,17 @@ public class SlowBrokerFinder implements MetricAnomalyFinder<BrokerEntity> {
   private void detectMetricAnomaliesFromPeers(Map<BrokerEntity, Double> currentValue,
                                               Set<BrokerEntity> detectedMetricAnomalies) {
     if (isDataSufficient(currentValue.size(), _peerMetricPercentile, _peerMetricPercentile)) {
-      double [] data = currentValue.values().stream().mapToDouble(i -> i).toArray();
-      _percentile.setData(data);
-      double base = _percentile.evaluate(_peerMetricPercentile);
+      // The peer values are all new in each run, hence a percentile over the current value of each broker.
+      if (_peerValues.length < currentValue.size()) {
+        _peerValues = new double[currentValue.size()];
+      }
+      int numPeers = 0;
+      for (double value : currentValue.values()) {
+        _peerValues[numPeers++] = value;
+      }
+      double base = _percentile.evaluate(_peerValues, 0, numPeers, _peerMetricPercentile);
       for (Map.Entry<BrokerEntity, Double> entry : currentValue.entrySet()) {
-        if (currentValue.get(entry.getKey()) > base * _peerMetricMargin) {
+        if (entry.getValue() > base * _peerMetricMargin) {
           detectedMetricAnomalies.add(entry.getKey());
         }
       }
@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.detector;
 import com.linkedin.cruisecontrol.common.config.ConfigDef;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,6 +52,9 @@ import static com.linkedin.kafka.cruisecontrol.detector.AnomalyDetectorUtils.ANO
  *   <li>{@link #TOPIC_MIN_ISR_RECORD_RETENTION_TIME_MS_CONFIG}: The config for TTL time in millisecond of cached topic minISR
  *   records, default value is set to {@link #DEFAULT_TOPIC_MIN_ISR_RECORD_RETENTION_TIME_MS}.</li>
  * </ul>
+ *
+ * The partitions are only scanned again when the cluster metadata generation has changed since the last scan, i.e. the
+ * topics with bad replication factor found by the last scan are reused as long as no replica list has changed.
  */
 public class TopicReplicationFactorAnomalyFinder implements TopicAnomalyFinder {
   private static final Logger LOG = LoggerFactory.getLogger(TopicAnomalyFinder.class);
@@ -73,11 +77,35 @@ public class TopicReplicationFactorAnomalyFinder implements TopicAnomalyFinder {
   private short _topicReplicationFactorMargin;
   private long _topicMinISRRecordRetentionTimeMs;
   private Map<String, TopicMinISREntry> _cachedTopicMinISR;
+  private int _lastCheckedClusterGeneration;
+  private Set<String> _topicsWithBadReplicationFactor;
 
   @Override
   public Set<TopicAnomaly> topicAnomalies() {
     LOG.info("Start to detect topic replication factor anomaly.");
-    Cluster cluster = _kafkaCruiseControl.kafkaCluster();
+    MetadataClient.ClusterAndGeneration clusterAndGeneration = _kafkaCruiseControl.loadMonitor().refreshClusterAndGeneration();
+    if (clusterAndGeneration.generation() != _lastCheckedClusterGeneration) {
+      _topicsWithBadReplicationFactor = topicsWithBadReplicationFactor(clusterAndGeneration.cluster());
+      _lastCheckedClusterGeneration = clusterAndGeneration.generation();
+    } else {
+      LOG.debug("Reusing the topics with bad replication factor of unchanged cluster generation {}.", _lastCheckedClusterGeneration);
+    }
+    Set<String> topicsWithBadReplicationFactor = _topicsWithBadReplicationFactor;
+    refreshTopicMinISRCache();
+    if (!topicsWithBadReplicationFactor.isEmpty()) {
+      maybeRetrieveAndCacheTopicMinISR(topicsWithBadReplicationFactor);
+      Map<Boolean, Set<String>> topicsByFixability = populateTopicFixability(topicsWithBadReplicationFactor);
+      return Collections.singleton(createTopicReplicationFactorAnomaly(topicsByFixability,
+                                                                       _targetReplicationFactor));
+    }
+    return Collections.emptySet();
+  }
+
+  /**
+   * @param cluster The cluster to check.
+   * @return Topics that are not excluded from the check and have partition(s) with bad replication factor.
+   */
+  private Set<String> topicsWithBadReplicationFactor(Cluster cluster) {
     Set<String> topicsWithBadReplicationFactor = new HashSet<>();
     for (String topic : cluster.topics()) {
       if (_topicExcludedFromCheck.matcher(topic).matches()) {
@@ -90,14 +118,7 @@ public class TopicReplicationFactorAnomalyFinder implements TopicAnomalyFinder {
         }
       }
     }
-    refreshTopicMinISRCache();
-    if (!topicsWithBadReplicationFactor.isEmpty()) {
-      maybeRetrieveAndCacheTopicMinISR(topicsWithBadReplicationFactor);
-      Map<Boolean, Set<String>> topicsByFixability = populateTopicFixability(topicsWithBadReplicationFactor);
-      return Collections.singleton(createTopicReplicationFactorAnomaly(topicsByFixability,
-                                                                       _targetReplicationFactor));
-    }
-    return Collections.emptySet();
+    return topicsWithBadReplicationFactor;
   }
 
   /**
@@ -227,6 +248,8 @@ public class TopicReplicationFactorAnomalyFinder implements TopicAnomalyFinder {
     KafkaCruiseControlConfig config = _kafkaCruiseControl.config();
     _adminClient = KafkaCruiseControlUtils.createAdminClient(KafkaCruiseControlUtils.parseAdminClientConfigs(config));
     _cachedTopicMinISR = new LinkedHashMap<>();
+    _lastCheckedClusterGeneration = -1;
+    _topicsWithBadReplicationFactor = Collections.emptySet();
   }
 
   /**
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * An additive increase / multiplicative decrease (AIMD) controller of the inter-broker partition movement concurrency
+ * per broker during an execution.
+ * <ul>
+ *   <li>The cluster is unhealthy if it has more under replicated partitions than the configured limit, excluding the
+ *   partitions being moved by the execution, or if inter-broker partition movements died or were aborted since the last
+ *   adjustment. The concurrency is then divided by the multiplicative decrease factor.</li>
+ *   <li>The cluster is healthy otherwise. The concurrency is then increased by the additive increase, but only if the
+ *   concurrency limits the execution, i.e. some broker has as many ongoing inter-broker partition movements as the
+ *   concurrency allows and there are still movements to start. Otherwise a higher concurrency would not increase the
+ *   movement throughput.</li>
+ * </ul>
+ * The concurrency is kept within the configured bounds, and below {@link ExecutorConfig#MAX_NUM_CLUSTER_MOVEMENTS_CONFIG}.
+ */
+public class ConcurrencyAdjuster {
+  private static final Logger LOG = LoggerFactory.getLogger(ConcurrencyAdjuster.class);
+  private final int _minConcurrency;
+  private final int _maxConcurrency;
+  private final int _additiveIncrease;
+  private final int _multiplicativeDecrease;
+  private final int _limitUnderReplicatedPartitions;
+
+  /**
+   * @param config The configurations for Cruise Control.
+   */
+  public ConcurrencyAdjuster(KafkaCruiseControlConfig config) {
+    _minConcurrency = config.getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG);
+    // The inter-broker partition movement concurrency must be smaller than the maximum number of cluster movements.
+    _maxConcurrency = Math.min(config.getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG),
+                               config.getInt(ExecutorConfig.MAX_NUM_CLUSTER_MOVEMENTS_CONFIG) - 1);
+    _additiveIncrease = config.getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_ADDITIVE_INCREASE_CONFIG);
+    _multiplicativeDecrease = config.getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_MULTIPLICATIVE_DECREASE_CONFIG);
+    _limitUnderReplicatedPartitions = config.getInt(ExecutorConfig.CONCURRENCY_ADJUSTER_LIMIT_UNDER_REPLICATED_PARTITIONS_CONFIG);
+  }
+
+  /**
+   * Get the inter-broker partition movement concurrency per broker to use until the next adjustment.
+   *
+   * @param currentConcurrency The current inter-broker partition movement concurrency per broker.
+   * @param cluster The current cluster metadata.
+   * @param partitionsInMovement The partitions with ongoing inter-broker movements.
+   * @param hasFailedMovements True if inter-broker partition movements died or were aborted since the last adjustment.
+   * @param isConcurrencyLimiting True if the concurrency limits the execution, false otherwise.
+   * @return The adjusted inter-broker partition movement concurrency per broker.
+   */
+  public int adjustedConcurrency(int currentConcurrency,
+                                 Cluster cluster,
+                                 Set<TopicPartition> partitionsInMovement,
+                                 boolean hasFailedMovements,
+                                 boolean isConcurrencyLimiting) {
+    int numUnderReplicatedPartitions = numUnderReplicatedPartitions(cluster, partitionsInMovement);
+    int adjustedConcurrency;
+    if (hasFailedMovements || numUnderReplicatedPartitions > _limitUnderReplicatedPartitions) {
+      adjustedConcurrency = Math.max(_minConcurrency, currentConcurrency / _multiplicativeDecrease);
+    } else if (isConcurrencyLimiting) {
+      adjustedConcurrency = Math.min(_maxConcurrency, currentConcurrency + _additiveIncrease);
+    } else {
+      adjustedConcurrency = Math.min(_maxConcurrency, Math.max(_minConcurrency, currentConcurrency));
+    }
+    if (adjustedConcurrency != currentConcurrency) {
+      LOG.info("Adjusting inter-broker partition movement concurrency per broker from {} to {} (under replicated partitions: {}, "
+               + "failed movements: {}).", currentConcurrency, adjustedConcurrency, numUnderReplicatedPartitions, hasFailedMovements);
+    }
+    return adjustedConcurrency;
+  }
+
+  /**
+   * Package private for unit test.
+   *
+   * @param cluster The current cluster metadata.
+   * @param partitionsToExclude Partitions to exclude, i.e. the ones that are expected to be under replicated.
+   * @return The number of under replicated partitions in the given cluster, excluding the given partitions.
+   */
+  static int numUnderReplicatedPartitions(Cluster cluster, Set<TopicPartition> partitionsToExclude) {
+    int numUnderReplicatedPartitions = 0;
+    for (String topic : cluster.topics()) {
+      for (PartitionInfo partitionInfo : cluster.partitionsForTopic(topic)) {
+        if (partitionInfo.inSyncReplicas().length < partitionInfo.replicas().length
+            && !partitionsToExclude.contains(new TopicPartition(topic, partitionInfo.partition()))) {
+          numUnderReplicatedPartitions++;
+        }
+      }
+    }
+    return numUnderReplicatedPartitions;
+  }
+}
@@ -0,0 +1,674 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A class that keeps a journal of the ongoing execution in local files, so that an execution interrupted by a restart
+ * of Cruise Control can be resumed from where it stopped instead of being recomputed. The journal contains the proposals
+ * of the pending and in-progress tasks, and the replication throttles that have been applied by the execution.
+ * <p>
+ * The journal consists of a plan file, which is written once per execution, and a progress file, to which small records
+ * are appended as the execution progresses. The plan file is gzip compressed and has the following format:
+ * 4 bytes - magic
+ * 1 byte  - version
+ * 8 bytes - journal time
+ * 8 bytes - generation
+ * N bytes - the execution uuid, reason and replication throttle
+ * M bytes - the brokers to skip concurrency check, demoted brokers and removed brokers of the execution
+ * P bytes - the proposals of the pending and in-progress tasks, each with its number of unfinished tasks
+ * Q bytes - the throttled brokers and the throttled replicas of each topic
+ * </p>
+ * <p>
+ * The progress file starts with the magic, the version and the generation of the plan it belongs to, followed by records
+ * of the started tasks, the finished tasks and the changed replication throttles. Each record is prefixed with its size
+ * and checksum, so a record partially written by a crash is ignored when the journal is read. Once the progress file has
+ * more records than the plan has proposals, the journal is compacted: the plan is rewritten without the finished
+ * proposals and the progress file is started over.
+ * </p>
+ * A new plan is first written to a temporary file and then atomically moved to replace the previous one, so a crash
+ * during journaling never leaves a partially written plan behind. A progress file of another generation than the plan,
+ * i.e. left behind by a crash during the compaction, is ignored.
+ */
+public class ExecutionJournal {
+  private static final Logger LOG = LoggerFactory.getLogger(ExecutionJournal.class);
+  static final int MAGIC = 0x43434A4E;
+  static final byte LATEST_SUPPORTED_VERSION = 0;
+  static final String JOURNAL_FILE_NAME = "execution.journal";
+  static final String TEMP_JOURNAL_FILE_NAME = JOURNAL_FILE_NAME + ".tmp";
+  static final String PROGRESS_FILE_NAME = JOURNAL_FILE_NAME + ".progress";
+  // The minimum number of progress records to append before compacting the journal.
+  static final int MIN_NUM_RECORDS_TO_COMPACT = 1000;
+  private static final byte TASK_STARTED = 0;
+  private static final byte TASK_FINISHED = 1;
+  private static final byte THROTTLES_CHANGED = 2;
+  private final Path _journalFile;
+  private final Path _tempJournalFile;
+  private final Path _progressFile;
+  private final Time _time;
+  // The journaled state of the ongoing execution, or null if no plan has been written since the last deletion.
+  private JournalState _state;
+  private long _generation;
+  private int _numRecords;
+
+  /**
+   * Construct the execution journal.
+   *
+   * @param journalDir The directory to keep the journal files in.
+   * @param time The time object.
+   */
+  public ExecutionJournal(String journalDir, Time time) {
+    _journalFile = Paths.get(journalDir, JOURNAL_FILE_NAME);
+    _tempJournalFile = Paths.get(journalDir, TEMP_JOURNAL_FILE_NAME);
+    _progressFile = Paths.get(journalDir, PROGRESS_FILE_NAME);
+    _time = time;
+    _state = null;
+    _generation = 0L;
+    _numRecords = 0;
+  }
+
+  /**
+   * Replace the journal with the plan of the given entry. The progress of the execution is appended to the plan with
+   * {@link #append(Collection, Collection, Set, Map)}.
+   *
+   * @param entry The state of the ongoing execution.
+   * @param numUnfinishedTasksByPartition The number of pending and in-progress tasks of each proposal. A proposal is
+   *                                      dropped from the journal once as many of its tasks have finished. A missing
+   *                                      proposal has a single unfinished task.
+   * @throws IOException if the journal cannot be written.
+   */
+  public synchronized void write(Entry entry, Map<TopicPartition, Integer> numUnfinishedTasksByPartition) throws IOException {
+    JournalState state = new JournalState(entry);
+    entry.proposals().forEach(p -> state.addProposal(p, numUnfinishedTasksByPartition.getOrDefault(p.topicPartition(), 1)));
+    writePlan(state);
+  }
+
+  private void writePlan(JournalState state) throws IOException {
+    long startMs = _time.milliseconds();
+    long generation = Math.max(startMs, _generation + 1);
+    // Any failure below leaves the in-memory state unknown, so progress cannot be appended until a new plan is written.
+    _state = null;
+    Files.createDirectories(_journalFile.getParent());
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        new GZIPOutputStream(Files.newOutputStream(_tempJournalFile))))) {
+      out.writeInt(MAGIC);
+      out.writeByte(LATEST_SUPPORTED_VERSION);
+      out.writeLong(startMs);
+      out.writeLong(generation);
+      out.writeUTF(state._uuid);
+      writeNullableString(out, state._reason);
+      out.writeBoolean(state._replicationThrottle != null);
+      if (state._replicationThrottle != null) {
+        out.writeLong(state._replicationThrottle);
+      }
+      writeBrokers(out, state._brokersToSkipConcurrencyCheck);
+      writeBrokers(out, state._demotedBrokers);
+      writeBrokers(out, state._removedBrokers);
+      out.writeInt(state._proposals.size());
+      for (ExecutionProposal proposal : state._proposals.values()) {
+        writeProposal(out, proposal);
+        out.writeInt(state._numUnfinishedTasksByPartition.get(proposal.topicPartition()));
+      }
+      writeThrottles(out, state._throttledBrokers, state._throttledReplicasByTopic);
+    }
+    Files.move(_tempJournalFile, _journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    // Start over the progress of the new plan.
+    try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(_progressFile))) {
+      out.writeInt(MAGIC);
+      out.writeByte(LATEST_SUPPORTED_VERSION);
+      out.writeLong(generation);
+    }
+    _state = state;
+    _generation = generation;
+    _numRecords = 0;
+    LOG.debug("Journaled the plan of execution {} with {} proposals to {} in {} ms.", state._uuid, state._proposals.size(),
+              _journalFile, _time.milliseconds() - startMs);
+  }
+
+  /**
+   * Append the progress of the execution to the journal, and compact the journal if it has accumulated enough progress.
+   *
+   * @param startedTasks The partitions of the tasks that have started since the last append.
+   * @param finishedTasks The partitions of the tasks that have finished or have been aborted since the last append.
+   * @param throttledBrokers The brokers with a replication throttle applied by the execution, or null if unchanged.
+   * @param throttledReplicasByTopic The throttled replicas applied by the execution for each topic, or null if unchanged.
+   * @throws IOException if the journal cannot be written.
+   */
+  public synchronized void append(Collection<TopicPartition> startedTasks,
+                                  Collection<TopicPartition> finishedTasks,
+                                  Set<Integer> throttledBrokers,
+                                  Map<String, Set<String>> throttledReplicasByTopic) throws IOException {
+    if (_state == null) {
+      throw new IllegalStateException("Cannot append the progress of an execution without a journaled plan.");
+    }
+    JournalState state = _state;
+    // Any failure below leaves the journal behind the in-memory state, so progress cannot be appended until a new plan is written.
+    _state = null;
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    int numRecords = 0;
+    for (TopicPartition tp : startedTasks) {
+      writeRecord(records, TASK_STARTED, out -> writeTopicPartition(out, tp));
+      numRecords++;
+    }
+    for (TopicPartition tp : finishedTasks) {
+      writeRecord(records, TASK_FINISHED, out -> writeTopicPartition(out, tp));
+      state.taskFinished(tp);
+      numRecords++;
+    }
+    if (throttledBrokers != null || throttledReplicasByTopic != null) {
+      state.setThrottles(throttledBrokers, throttledReplicasByTopic);
+      writeRecord(records, THROTTLES_CHANGED, out -> writeThrottles(out, state._throttledBrokers, state._throttledReplicasByTopic));
+      numRecords++;
+    }
+    try (OutputStream out = Files.newOutputStream(_progressFile, StandardOpenOption.APPEND)) {
+      records.writeTo(out);
+    }
+    _state = state;
+    _numRecords += numRecords;
+    if (_numRecords > Math.max(MIN_NUM_RECORDS_TO_COMPACT, state._proposals.size())) {
+      LOG.debug("Compacting the journal of execution {} with {} progress records.", state._uuid, _numRecords);
+      writePlan(state);
+    }
+  }
+
+  /**
+   * Read the journal.
+   *
+   * @return The journaled state of the interrupted execution, or {@code null} if the plan is missing, corrupted or
+   * has an unsupported version.
+   */
+  public synchronized Entry read() {
+    if (!Files.exists(_journalFile)) {
+      return null;
+    }
+    JournalState state;
+    long generation;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(Files.newInputStream(_journalFile))))) {
+      int magic = in.readInt();
+      byte version = in.readByte();
+      if (magic != MAGIC || version > LATEST_SUPPORTED_VERSION) {
+        LOG.warn("Ignoring execution journal {} with unsupported magic {} or version {}.", _journalFile, magic, version);
+        return null;
+      }
+      long journalTimeMs = in.readLong();
+      generation = in.readLong();
+      String uuid = in.readUTF();
+      String reason = readNullableString(in);
+      Long replicationThrottle = in.readBoolean() ? in.readLong() : null;
+      Set<Integer> brokersToSkipConcurrencyCheck = readBrokers(in);
+      Set<Integer> demotedBrokers = readBrokers(in);
+      Set<Integer> removedBrokers = readBrokers(in);
+      state = new JournalState(uuid, reason, replicationThrottle, brokersToSkipConcurrencyCheck, demotedBrokers, removedBrokers);
+      int numProposals = in.readInt();
+      for (int i = 0; i < numProposals; i++) {
+        ExecutionProposal proposal = readProposal(in);
+        state.addProposal(proposal, in.readInt());
+      }
+      state.setThrottles(readBrokers(in), readThrottledReplicas(in));
+      LOG.info("Read the journal of execution {} with {} proposals written at {} from {}.", uuid, numProposals,
+               journalTimeMs, _journalFile);
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read the execution journal from {}.", _journalFile, e);
+      return null;
+    }
+    readProgress(state, generation);
+    return state.toEntry();
+  }
+
+  /**
+   * Apply the progress records of the given generation to the given journaled state. The records after a partially
+   * written or corrupted record are ignored.
+   *
+   * @param state The journaled state read from the plan.
+   * @param generation The generation of the plan.
+   */
+  private void readProgress(JournalState state, long generation) {
+    if (!Files.exists(_progressFile)) {
+      return;
+    }
+    int numStartedTasks = 0;
+    int numFinishedTasks = 0;
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(_progressFile)))) {
+      long progressFileSize = Files.size(_progressFile);
+      if (in.readInt() != MAGIC || in.readByte() > LATEST_SUPPORTED_VERSION || in.readLong() != generation) {
+        LOG.info("Ignoring the execution journal progress {} of another plan.", _progressFile);
+        return;
+      }
+      while (true) {
+        byte[] record;
+        try {
+          int size = in.readInt();
+          long checksum = in.readLong();
+          if (size <= 0 || size > progressFileSize) {
+            LOG.warn("Ignoring the execution journal progress {} after a record of invalid size {}.", _progressFile, size);
+            break;
+          }
+          record = new byte[size];
+          in.readFully(record);
+          if (checksum != checksum(record)) {
+            LOG.warn("Ignoring the execution journal progress {} after a corrupted record.", _progressFile);
+            break;
+          }
+        } catch (EOFException e) {
+          // The end of the progress, possibly with a partially written record.
+          break;
+        }
+        DataInputStream recordIn = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = recordIn.readByte();
+        if (type == TASK_STARTED) {
+          readTopicPartition(recordIn);
+          numStartedTasks++;
+        } else if (type == TASK_FINISHED) {
+          state.taskFinished(readTopicPartition(recordIn));
+          numFinishedTasks++;
+        } else if (type == THROTTLES_CHANGED) {
+          state.setThrottles(readBrokers(recordIn), readThrottledReplicas(recordIn));
+        } else {
+          LOG.warn("Ignoring the execution journal progress {} after a record of unknown type {}.", _progressFile, type);
+          break;
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read the execution journal progress from {}.", _progressFile, e);
+    }
+    LOG.info("Read the progress of execution {}: {} tasks started and {} tasks finished since the plan was journaled.",
+             state._uuid, numStartedTasks, numFinishedTasks);
+  }
+
+  /**
+   * Delete the journal, if any.
+   */
+  public synchronized void delete() {
+    _state = null;
+    try {
+      Files.deleteIfExists(_journalFile);
+      Files.deleteIfExists(_progressFile);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete the execution journal {}.", _journalFile, e);
+    }
+  }
+
+  /**
+   * Reconcile the journaled proposals with the current cluster state to get the proposals that still need to be executed.
+   * <ul>
+   *   <li>The proposals of the deleted partitions, and of the partitions whose replicas and leader already match the
+   *   new replicas are dropped.</li>
+   *   <li>The old replicas and the old leader of the remaining proposals are replaced with the current ones. In particular,
+   *   the old replicas of a partition that is still being reassigned are the union of its original and new replicas, so
+   *   its proposal neither moves data again nor conflicts with the ongoing reassignment.</li>
+   * </ul>
+   * The intra-broker replica movements are kept as journaled, because the cluster metadata does not contain the logdirs
+   * of the replicas. Executing an intra-broker replica movement that has already completed is a no-op.
+   *
+   * @param journaledProposals The journaled proposals.
+   * @param cluster The current cluster state.
+   * @return The proposals that still need to be executed.
+   */
+  static List<ExecutionProposal> remainingProposals(Collection<ExecutionProposal> journaledProposals, Cluster cluster) {
+    List<ExecutionProposal> remainingProposals = new ArrayList<>(journaledProposals.size());
+    for (ExecutionProposal proposal : journaledProposals) {
+      PartitionInfo partitionInfo = cluster.partition(proposal.topicPartition());
+      if (partitionInfo == null) {
+        LOG.info("Skipping the journaled proposal {} of a deleted partition.", proposal);
+        continue;
+      }
+      Map<Integer, ReplicaPlacementInfo> placementByBroker = new HashMap<>();
+      proposal.newReplicas().forEach(r -> placementByBroker.put(r.brokerId(), r));
+      proposal.oldReplicas().forEach(r -> placementByBroker.put(r.brokerId(), r));
+      List<ReplicaPlacementInfo> currentReplicas = new ArrayList<>(partitionInfo.replicas().length);
+      for (Node replica : partitionInfo.replicas()) {
+        currentReplicas.add(placementByBroker.getOrDefault(replica.id(), new ReplicaPlacementInfo(replica.id())));
+      }
+      Node leader = partitionInfo.leader();
+      ReplicaPlacementInfo currentLeader = leader == null ? new ReplicaPlacementInfo(-1)
+                                                          : placementByBroker.getOrDefault(leader.id(), new ReplicaPlacementInfo(leader.id()));
+      ExecutionProposal remainingProposal = new ExecutionProposal(proposal.topicPartition(), proposal.partitionSize(),
+                                                                  currentLeader, currentReplicas, proposal.newReplicas());
+      if (remainingProposal.isInterBrokerMovementCompleted(partitionInfo)
+          && remainingProposal.replicasToMoveBetweenDisksByBroker().isEmpty()
+          && currentLeader.brokerId().equals(proposal.newLeader().brokerId())) {
+        continue;
+      }
+      remainingProposals.add(remainingProposal);
+    }
+    return remainingProposals;
+  }
+
+  private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeBrokers(DataOutputStream out, Collection<Integer> brokers) throws IOException {
+    // A null broker collection is written as -1 brokers.
+    out.writeInt(brokers == null ? -1 : brokers.size());
+    if (brokers != null) {
+      for (int brokerId : brokers) {
+        out.writeInt(brokerId);
+      }
+    }
+  }
+
+  private static Set<Integer> readBrokers(DataInputStream in) throws IOException {
+    int numBrokers = in.readInt();
+    if (numBrokers < 0) {
+      return null;
+    }
+    Set<Integer> brokers = new HashSet<>(numBrokers);
+    for (int i = 0; i < numBrokers; i++) {
+      brokers.add(in.readInt());
+    }
+    return brokers;
+  }
+
+  private static void writeReplicas(DataOutputStream out, List<ReplicaPlacementInfo> replicas) throws IOException {
+    out.writeInt(replicas.size());
+    for (ReplicaPlacementInfo replica : replicas) {
+      writeReplica(out, replica);
+    }
+  }
+
+  private static void writeReplica(DataOutputStream out, ReplicaPlacementInfo replica) throws IOException {
+    out.writeInt(replica.brokerId());
+    writeNullableString(out, replica.logdir());
+  }
+
+  private static List<ReplicaPlacementInfo> readReplicas(DataInputStream in) throws IOException {
+    int numReplicas = in.readInt();
+    List<ReplicaPlacementInfo> replicas = new ArrayList<>(numReplicas);
+    for (int i = 0; i < numReplicas; i++) {
+      replicas.add(readReplica(in));
+    }
+    return replicas;
+  }
+
+  private static ReplicaPlacementInfo readReplica(DataInputStream in) throws IOException {
+    int brokerId = in.readInt();
+    return new ReplicaPlacementInfo(brokerId, readNullableString(in));
+  }
+
+  private static void writeProposal(DataOutputStream out, ExecutionProposal proposal) throws IOException {
+    out.writeUTF(proposal.topic());
+    out.writeInt(proposal.partitionId());
+    out.writeLong(proposal.partitionSize());
+    writeReplica(out, proposal.oldLeader());
+    writeReplicas(out, proposal.oldReplicas());
+    writeReplicas(out, proposal.newReplicas());
+  }
+
+  private static ExecutionProposal readProposal(DataInputStream in) throws IOException {
+    TopicPartition tp = new TopicPartition(in.readUTF(), in.readInt());
+    long partitionSize = in.readLong();
+    ReplicaPlacementInfo oldLeader = readReplica(in);
+    List<ReplicaPlacementInfo> oldReplicas = readReplicas(in);
+    return new ExecutionProposal(tp, partitionSize, oldLeader, oldReplicas, readReplicas(in));
+  }
+
+  private static void writeTopicPartition(DataOutputStream out, TopicPartition tp) throws IOException {
+    out.writeUTF(tp.topic());
+    out.writeInt(tp.partition());
+  }
+
+  private static TopicPartition readTopicPartition(DataInputStream in) throws IOException {
+    return new TopicPartition(in.readUTF(), in.readInt());
+  }
+
+  private static void writeThrottles(DataOutputStream out,
+                                     Set<Integer> throttledBrokers,
+                                     Map<String, Set<String>> throttledReplicasByTopic) throws IOException {
+    writeBrokers(out, throttledBrokers);
+    out.writeInt(throttledReplicasByTopic.size());
+    for (Map.Entry<String, Set<String>> topicEntry : throttledReplicasByTopic.entrySet()) {
+      out.writeUTF(topicEntry.getKey());
+      out.writeInt(topicEntry.getValue().size());
+      for (String replica : topicEntry.getValue()) {
+        out.writeUTF(replica);
+      }
+    }
+  }
+
+  private static Map<String, Set<String>> readThrottledReplicas(DataInputStream in) throws IOException {
+    int numTopics = in.readInt();
+    Map<String, Set<String>> throttledReplicasByTopic = new HashMap<>(numTopics);
+    for (int i = 0; i < numTopics; i++) {
+      String topic = in.readUTF();
+      int numReplicas = in.readInt();
+      Set<String> replicas = new HashSet<>(numReplicas);
+      for (int j = 0; j < numReplicas; j++) {
+        replicas.add(in.readUTF());
+      }
+      throttledReplicasByTopic.put(topic, replicas);
+    }
+    return throttledReplicasByTopic;
+  }
+
+  /**
+   * Write a progress record of the given type, prefixed with its size and checksum, to the given buffer.
+   */
+  private static void writeRecord(ByteArrayOutputStream records, byte type, RecordWriter recordWriter) throws IOException {
+    ByteArrayOutputStream record = new ByteArrayOutputStream();
+    DataOutputStream recordOut = new DataOutputStream(record);
+    recordOut.writeByte(type);
+    recordWriter.write(recordOut);
+    byte[] bytes = record.toByteArray();
+    DataOutputStream out = new DataOutputStream(records);
+    out.writeInt(bytes.length);
+    out.writeLong(checksum(bytes));
+    out.write(bytes);
+  }
+
+  private static long checksum(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length);
+    return crc.getValue();
+  }
+
+  /**
+   * Writes the content of a progress record.
+   */
+  private interface RecordWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * The journaled state of an execution: the plan updated with the progress of the execution.
+   */
+  private static class JournalState {
+    private final String _uuid;
+    private final String _reason;
+    private final Long _replicationThrottle;
+    private final Set<Integer> _brokersToSkipConcurrencyCheck;
+    private final Set<Integer> _demotedBrokers;
+    private final Set<Integer> _removedBrokers;
+    private final Map<TopicPartition, ExecutionProposal> _proposals;
+    private final Map<TopicPartition, Integer> _numUnfinishedTasksByPartition;
+    private Set<Integer> _throttledBrokers;
+    private Map<String, Set<String>> _throttledReplicasByTopic;
+
+    JournalState(String uuid,
+                 String reason,
+                 Long replicationThrottle,
+                 Set<Integer> brokersToSkipConcurrencyCheck,
+                 Set<Integer> demotedBrokers,
+                 Set<Integer> removedBrokers) {
+      _uuid = uuid;
+      _reason = reason;
+      _replicationThrottle = replicationThrottle;
+      _brokersToSkipConcurrencyCheck = brokersToSkipConcurrencyCheck;
+      _demotedBrokers = demotedBrokers;
+      _removedBrokers = removedBrokers;
+      _proposals = new LinkedHashMap<>();
+      _numUnfinishedTasksByPartition = new HashMap<>();
+      _throttledBrokers = Collections.emptySet();
+      _throttledReplicasByTopic = Collections.emptyMap();
+    }
+
+    JournalState(Entry entry) {
+      this(entry.uuid(), entry.reason(), entry.replicationThrottle(), entry.brokersToSkipConcurrencyCheck(),
+           entry.demotedBrokers(), entry.removedBrokers());
+      setThrottles(entry.throttledBrokers(), entry.throttledReplicasByTopic());
+    }
+
+    void addProposal(ExecutionProposal proposal, int numUnfinishedTasks) {
+      _proposals.put(proposal.topicPartition(), proposal);
+      _numUnfinishedTasksByPartition.put(proposal.topicPartition(), numUnfinishedTasks);
+    }
+
+    /**
+     * Drop the proposal of the given partition once all of its tasks have finished.
+     */
+    void taskFinished(TopicPartition tp) {
+      Integer numUnfinishedTasks = _numUnfinishedTasksByPartition.get(tp);
+      if (numUnfinishedTasks == null) {
+        return;
+      }
+      if (numUnfinishedTasks > 1) {
+        _numUnfinishedTasksByPartition.put(tp, numUnfinishedTasks - 1);
+      } else {
+        _numUnfinishedTasksByPartition.remove(tp);
+        _proposals.remove(tp);
+      }
+    }
+
+    void setThrottles(Set<Integer> throttledBrokers, Map<String, Set<String>> throttledReplicasByTopic) {
+      if (throttledBrokers != null) {
+        _throttledBrokers = new HashSet<>(throttledBrokers);
+      }
+      if (throttledReplicasByTopic != null) {
+        _throttledReplicasByTopic = new HashMap<>(throttledReplicasByTopic.size());
+        throttledReplicasByTopic.forEach((topic, replicas) -> _throttledReplicasByTopic.put(topic, new HashSet<>(replicas)));
+      }
+    }
+
+    Entry toEntry() {
+      return new Entry(_uuid, _reason, _replicationThrottle, _brokersToSkipConcurrencyCheck, _demotedBrokers, _removedBrokers,
+                       new ArrayList<>(_proposals.values()), _throttledBrokers, _throttledReplicasByTopic);
+    }
+  }
+
+  /**
+   * The journaled state of an execution.
+   */
+  public static class Entry {
+    private final String _uuid;
+    private final String _reason;
+    private final Long _replicationThrottle;
+    private final Set<Integer> _brokersToSkipConcurrencyCheck;
+    private final Set<Integer> _demotedBrokers;
+    private final Set<Integer> _removedBrokers;
+    private final List<ExecutionProposal> _proposals;
+    private final Set<Integer> _throttledBrokers;
+    private final Map<String, Set<String>> _throttledReplicasByTopic;
+
+    /**
+     * @param uuid UUID of the execution.
+     * @param reason Reason of the execution.
+     * @param replicationThrottle The replication throttle (bytes/second) of the execution, or null if not throttled.
+     * @param brokersToSkipConcurrencyCheck Brokers that are not throttled in terms of the number of replica movements, or null.
+     * @param demotedBrokers Brokers demoted by the execution, or null if no broker is demoted.
+     * @param removedBrokers Brokers removed by the execution, or null if no broker is removed.
+     * @param proposals The proposals of the pending and in-progress tasks.
+     * @param throttledBrokers The brokers with a replication throttle applied by the execution.
+     * @param throttledReplicasByTopic The throttled replicas applied by the execution for each topic.
+     */
+    public Entry(String uuid,
+                 String reason,
+                 Long replicationThrottle,
+                 Set<Integer> brokersToSkipConcurrencyCheck,
+                 Set<Integer> demotedBrokers,
+                 Set<Integer> removedBrokers,
+                 List<ExecutionProposal> proposals,
+                 Set<Integer> throttledBrokers,
+                 Map<String, Set<String>> throttledReplicasByTopic) {
+      _uuid = uuid;
+      _reason = reason;
+      _replicationThrottle = replicationThrottle;
+      _brokersToSkipConcurrencyCheck = brokersToSkipConcurrencyCheck;
+      _demotedBrokers = demotedBrokers;
+      _removedBrokers = removedBrokers;
+      _proposals = proposals;
+      _throttledBrokers = throttledBrokers;
+      _throttledReplicasByTopic = throttledReplicasByTopic;
+    }
+
+    public String uuid() {
+      return _uuid;
+    }
+
+    public String reason() {
+      return _reason;
+    }
+
+    public Long replicationThrottle() {
+      return _replicationThrottle;
+    }
+
+    public Set<Integer> brokersToSkipConcurrencyCheck() {
+      return _brokersToSkipConcurrencyCheck;
+    }
+
+    public Set<Integer> demotedBrokers() {
+      return _demotedBrokers;
+    }
+
+    public Set<Integer> removedBrokers() {
+      return _removedBrokers;
+    }
+
+    public List<ExecutionProposal> proposals() {
+      return _proposals;
+    }
+
+    public Set<Integer> throttledBrokers() {
+      return _throttledBrokers;
+    }
+
+    public Map<String, Set<String>> throttledReplicasByTopic() {
+      return _throttledReplicasByTopic;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import kafka.zk.KafkaZkClient;
+import kafka.zk.PreferredReplicaElectionZNode;
+import kafka.zk.ReassignPartitionsZNode;
+import kafka.zookeeper.ZNodeChangeHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Watches the zNodes of the ongoing partition reassignment and preferred leader election to wake up the executor as soon
+ * as the execution makes progress, rather than at the next execution progress check. The controller removes the
+ * partitions from these zNodes, and eventually deletes them, as it completes the inter-broker replica movements and
+ * leadership movements.
+ * <p>
+ * ZooKeeper watches are one-time triggers, hence the watches are set again after each wake up. The handlers are called
+ * from the ZooKeeper event thread, so they only release a permit for the waiting executor.
+ */
+class ExecutionProgressWatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(ExecutionProgressWatcher.class);
+  private final KafkaZkClient _kafkaZkClient;
+  private final Semaphore _progress;
+  private final List<ZNodeChangeHandler> _handlers;
+
+  /**
+   * @param kafkaZkClient The zookeeper client to watch the zNodes.
+   */
+  ExecutionProgressWatcher(KafkaZkClient kafkaZkClient) {
+    _kafkaZkClient = kafkaZkClient;
+    _progress = new Semaphore(0);
+    _handlers = Arrays.asList(new ProgressHandler(ReassignPartitionsZNode.path()),
+                              new ProgressHandler(PreferredReplicaElectionZNode.path()));
+  }
+
+  /**
+   * Start watching the zNodes. Must be called before the tasks are executed, so that the progress of the tasks is not
+   * missed.
+   */
+  void watch() {
+    _progress.drainPermits();
+    setWatches();
+  }
+
+  /**
+   * Wait until either the execution makes progress, {@link #wakeUp()} is called, or the given timeout elapses.
+   *
+   * @param timeoutMs The maximum time to wait in milliseconds.
+   * @return True if the wait ended before the timeout, false otherwise.
+   */
+  boolean awaitProgress(long timeoutMs) {
+    boolean hasProgress;
+    try {
+      hasProgress = _progress.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      hasProgress = false;
+    }
+    // Set the watches before the caller checks the progress, so the progress made after the check also wakes up the next wait.
+    _progress.drainPermits();
+    setWatches();
+    return hasProgress;
+  }
+
+  /**
+   * Wake up the ongoing or the next wait for progress, e.g. to stop the execution promptly.
+   */
+  void wakeUp() {
+    _progress.release();
+  }
+
+  /**
+   * Stop watching the zNodes.
+   */
+  void close() {
+    _handlers.forEach(handler -> _kafkaZkClient.unregisterZNodeChangeHandler(handler.path()));
+  }
+
+  private void setWatches() {
+    try {
+      _handlers.forEach(_kafkaZkClient::registerZNodeChangeHandlerAndCheckExistence);
+    } catch (RuntimeException e) {
+      // The progress is still checked periodically.
+      LOG.warn("Failed to watch the execution progress in ZooKeeper.", e);
+    }
+  }
+
+  private class ProgressHandler implements ZNodeChangeHandler {
+    private final String _path;
+
+    ProgressHandler(String path) {
+      _path = path;
+    }
+
+    @Override
+    public String path() {
+      return _path;
+    }
+
+    @Override
+    public void handleCreation() {
+      // Creating the zNode starts new tasks rather than completing them.
+    }
+
+    @Override
+    public void handleDeletion() {
+      _progress.release();
+    }
+
+    @Override
+    public void handleDataChange() {
+      _progress.release();
+    }
+  }
+}
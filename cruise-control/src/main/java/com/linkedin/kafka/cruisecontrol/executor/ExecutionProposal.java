@@ -143,6 +143,13 @@ public class ExecutionProposal {
     return _tp;
   }
 
+  /**
+   * @return The size of the partition.
+   */
+  public long partitionSize() {
+    return _partitionSize;
+  }
+
   /**
    * @return The old leader of the partition before the executing the proposal.
    */
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.codahale.metrics.MetricRegistry;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Simulates the execution of proposals offline, in virtual time, to estimate how long the execution would take without
+ * executing it on a cluster. It replays the scheduling of the {@link ExecutionTaskManager}, i.e. the same replica movement
+ * strategy, concurrency limits, and execution order as the {@link Executor}, against a bandwidth model of the brokers.
+ * Hence it can also be used to compare replica movement strategies and concurrency settings.
+ * <p>
+ * The inter-broker replica movements are modeled as follows:
+ * <ul>
+ *   <li>Each destination broker of a movement fetches the whole partition from the source broker.</li>
+ *   <li>The movement bandwidth of a broker, capped by the replication throttle if any, is shared equally by the
+ *   replica fetches it serves or receives, and a fetch proceeds at the smallest share of its brokers.</li>
+ *   <li>A finished movement is noticed, and new movements are started, right away.</li>
+ * </ul>
+ * Each batch of leadership movements takes the given controller latency. The intra-broker replica movements are not
+ * simulated.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ExecutionSimulator {
+  private static final Logger LOG = LoggerFactory.getLogger(ExecutionSimulator.class);
+  // The fraction of the inter-broker replica movements that are not in the tail of the execution.
+  private static final double TAIL_PERCENTILE = 0.9;
+  private static final double MB_TO_BYTES = 1024.0 * 1024.0;
+  private static final double REMAINING_DATA_EPSILON_MB = 1e-9;
+  private final KafkaCruiseControlConfig _config;
+  private final Map<Integer, Double> _bandwidthInMBPerSecByBroker;
+  private final double _defaultBandwidthInMBPerSec;
+  private final long _leadershipMovementLatencyMs;
+
+  /**
+   * @param config The configurations of Cruise Control, e.g. the concurrency and the replica movement strategies.
+   * @param bandwidthInMBPerSecByBroker The bandwidth in MB/s available to move the replicas of the brokers, if it
+   *                                    differs from the default bandwidth.
+   * @param defaultBandwidthInMBPerSec The default bandwidth in MB/s available to move the replicas of a broker.
+   * @param replicationThrottle The replication throttle in bytes/s to apply to all the brokers, or null if not throttled.
+   * @param leadershipMovementLatencyMs The time it takes the controller to move a batch of leaderships.
+   */
+  public ExecutionSimulator(KafkaCruiseControlConfig config,
+                            Map<Integer, Double> bandwidthInMBPerSecByBroker,
+                            double defaultBandwidthInMBPerSec,
+                            Long replicationThrottle,
+                            long leadershipMovementLatencyMs) {
+    if (defaultBandwidthInMBPerSec <= 0 || bandwidthInMBPerSecByBroker.values().stream().anyMatch(bandwidth -> bandwidth <= 0)) {
+      throw new IllegalArgumentException("The bandwidth of the brokers must be positive.");
+    }
+    if (replicationThrottle != null && replicationThrottle <= 0) {
+      throw new IllegalArgumentException("The replication throttle must be positive, found " + replicationThrottle);
+    }
+    if (leadershipMovementLatencyMs < 0) {
+      throw new IllegalArgumentException("The leadership movement latency cannot be negative, found " + leadershipMovementLatencyMs);
+    }
+    double throttleInMBPerSec = replicationThrottle == null ? Double.MAX_VALUE : replicationThrottle / MB_TO_BYTES;
+    _config = config;
+    _bandwidthInMBPerSecByBroker = new HashMap<>(bandwidthInMBPerSecByBroker.size());
+    bandwidthInMBPerSecByBroker.forEach((broker, bandwidth) -> _bandwidthInMBPerSecByBroker.put(broker, Math.min(bandwidth, throttleInMBPerSec)));
+    _defaultBandwidthInMBPerSec = Math.min(defaultBandwidthInMBPerSec, throttleInMBPerSec);
+    _leadershipMovementLatencyMs = leadershipMovementLatencyMs;
+  }
+
+  /**
+   * Simulate the execution of the given proposals.
+   *
+   * @param proposals The proposals to execute.
+   * @param cluster The cluster state before the execution.
+   * @param replicaMovementStrategy The strategy used to determine the execution order of the replica movements, or null
+   *                                to use the default strategy.
+   * @param requestedInterBrokerPartitionMovementConcurrency The maximum number of concurrent inter-broker partition movements
+   *                                                         per broker (if null, use num.concurrent.partition.movements.per.broker).
+   * @param requestedLeadershipMovementConcurrency The maximum number of concurrent leader movements
+   *                                               (if null, use num.concurrent.leader.movements).
+   * @return The estimated execution time of the proposals.
+   */
+  public SimulationResult simulate(Collection<ExecutionProposal> proposals,
+                                   Cluster cluster,
+                                   ReplicaMovementStrategy replicaMovementStrategy,
+                                   Integer requestedInterBrokerPartitionMovementConcurrency,
+                                   Integer requestedLeadershipMovementConcurrency) {
+    VirtualTime time = new VirtualTime();
+    ExecutionTaskManager executionTaskManager = new ExecutionTaskManager(null, new MetricRegistry(), time, _config);
+    executionTaskManager.setRequestedInterBrokerPartitionMovementConcurrency(requestedInterBrokerPartitionMovementConcurrency);
+    executionTaskManager.setRequestedLeadershipMovementConcurrency(requestedLeadershipMovementConcurrency);
+    executionTaskManager.addExecutionProposals(withoutIntraBrokerReplicaMovements(proposals), Collections.emptySet(), cluster,
+                                               replicaMovementStrategy);
+
+    SimulationResult result = new SimulationResult();
+    simulateInterBrokerReplicaMovements(executionTaskManager, time, result);
+    simulateLeadershipMovements(executionTaskManager, time, result);
+    LOG.debug("Simulated the execution of {} proposals: {}", proposals.size(), result);
+    return result;
+  }
+
+  private void simulateInterBrokerReplicaMovements(ExecutionTaskManager executionTaskManager,
+                                                   VirtualTime time,
+                                                   SimulationResult result) {
+    // The data that each destination broker of an in-progress movement has yet to fetch.
+    Map<ExecutionTask, Double> remainingDataToFetchInMBByTask = new HashMap<>();
+    List<Double> completionTimesMs = new ArrayList<>();
+    double nowMs = 0.0;
+    startInterBrokerReplicaMovements(executionTaskManager, remainingDataToFetchInMBByTask);
+    while (!remainingDataToFetchInMBByTask.isEmpty()) {
+      Map<Integer, Integer> numFetchesByBroker = new HashMap<>();
+      for (ExecutionTask task : remainingDataToFetchInMBByTask.keySet()) {
+        ExecutionProposal proposal = task.proposal();
+        numFetchesByBroker.merge(proposal.oldLeader().brokerId(), proposal.replicasToAdd().size(), Integer::sum);
+        proposal.replicasToAdd().forEach(r -> numFetchesByBroker.merge(r.brokerId(), 1, Integer::sum));
+      }
+      Map<ExecutionTask, Double> fetchRateInMBPerSecByTask = new HashMap<>(remainingDataToFetchInMBByTask.size());
+      Map<Integer, Double> movementRateInMBPerSecByBroker = new HashMap<>();
+      double stepMs = Double.MAX_VALUE;
+      for (Map.Entry<ExecutionTask, Double> entry : remainingDataToFetchInMBByTask.entrySet()) {
+        if (entry.getValue() <= REMAINING_DATA_EPSILON_MB) {
+          // E.g. a movement that only reorders the replicas.
+          stepMs = 0.0;
+          continue;
+        }
+        ExecutionProposal proposal = entry.getKey().proposal();
+        double fetchRateInMBPerSec = fetchRateInMBPerSec(proposal.oldLeader().brokerId(), numFetchesByBroker);
+        for (ReplicaPlacementInfo destination : proposal.replicasToAdd()) {
+          fetchRateInMBPerSec = Math.min(fetchRateInMBPerSec, fetchRateInMBPerSec(destination.brokerId(), numFetchesByBroker));
+        }
+        fetchRateInMBPerSecByTask.put(entry.getKey(), fetchRateInMBPerSec);
+        movementRateInMBPerSecByBroker.merge(proposal.oldLeader().brokerId(),
+                                             fetchRateInMBPerSec * proposal.replicasToAdd().size(), Double::sum);
+        for (ReplicaPlacementInfo destination : proposal.replicasToAdd()) {
+          movementRateInMBPerSecByBroker.merge(destination.brokerId(), fetchRateInMBPerSec, Double::sum);
+        }
+        stepMs = Math.min(stepMs, entry.getValue() * 1000.0 / fetchRateInMBPerSec);
+      }
+      result.updatePeaks(remainingDataToFetchInMBByTask.keySet(), movementRateInMBPerSecByBroker);
+
+      // Move to the next completion of a movement.
+      nowMs += stepMs;
+      time.setMilliseconds(Math.round(nowMs));
+      List<ExecutionTask> finishedTasks = new ArrayList<>();
+      for (Map.Entry<ExecutionTask, Double> entry : remainingDataToFetchInMBByTask.entrySet()) {
+        double remainingDataToFetchInMB = entry.getValue() <= REMAINING_DATA_EPSILON_MB
+                                          ? 0.0 : entry.getValue() - fetchRateInMBPerSecByTask.get(entry.getKey()) * stepMs / 1000.0;
+        if (remainingDataToFetchInMB <= REMAINING_DATA_EPSILON_MB) {
+          finishedTasks.add(entry.getKey());
+        } else {
+          entry.setValue(remainingDataToFetchInMB);
+        }
+      }
+      for (ExecutionTask task : finishedTasks) {
+        remainingDataToFetchInMBByTask.remove(task);
+        executionTaskManager.markTaskDone(task);
+        completionTimesMs.add(nowMs);
+      }
+      startInterBrokerReplicaMovements(executionTaskManager, remainingDataToFetchInMBByTask);
+    }
+    if (executionTaskManager.numRemainingInterBrokerPartitionMovements() != 0) {
+      LOG.warn("Failed to simulate {} inter-broker partition movements that cannot be started.",
+               executionTaskManager.numRemainingInterBrokerPartitionMovements());
+    }
+    result.setInterBrokerReplicaMovementTimes(completionTimesMs);
+  }
+
+  private static void startInterBrokerReplicaMovements(ExecutionTaskManager executionTaskManager,
+                                                       Map<ExecutionTask, Double> remainingDataToFetchInMBByTask) {
+    List<ExecutionTask> tasksToExecute = executionTaskManager.getInterBrokerReplicaMovementTasks();
+    executionTaskManager.markTasksInProgress(tasksToExecute);
+    // Each destination broker fetches the whole partition.
+    tasksToExecute.forEach(task -> remainingDataToFetchInMBByTask.put(task, task.proposal().replicasToAdd().isEmpty()
+                                                                            ? 0.0 : task.proposal().partitionSize()));
+  }
+
+  private void simulateLeadershipMovements(ExecutionTaskManager executionTaskManager,
+                                           VirtualTime time,
+                                           SimulationResult result) {
+    long startMs = time.milliseconds();
+    List<ExecutionTask> leadershipMovementTasks = executionTaskManager.getLeadershipMovementTasks();
+    while (!leadershipMovementTasks.isEmpty()) {
+      executionTaskManager.markTasksInProgress(leadershipMovementTasks);
+      time.sleep(_leadershipMovementLatencyMs);
+      leadershipMovementTasks.forEach(executionTaskManager::markTaskDone);
+      result.addLeadershipMovements(leadershipMovementTasks.size());
+      leadershipMovementTasks = executionTaskManager.getLeadershipMovementTasks();
+    }
+    result.setLeadershipMovementDurationMs(time.milliseconds() - startMs);
+  }
+
+  private double fetchRateInMBPerSec(int broker, Map<Integer, Integer> numFetchesByBroker) {
+    return _bandwidthInMBPerSecByBroker.getOrDefault(broker, _defaultBandwidthInMBPerSec) / numFetchesByBroker.get(broker);
+  }
+
+  /**
+   * @param proposals The execution proposals.
+   * @return The given proposals, where the proposals with intra-broker replica movements are replaced with proposals
+   * without the log directories of the replicas.
+   */
+  private static List<ExecutionProposal> withoutIntraBrokerReplicaMovements(Collection<ExecutionProposal> proposals) {
+    List<ExecutionProposal> interBrokerProposals = new ArrayList<>(proposals.size());
+    for (ExecutionProposal proposal : proposals) {
+      if (proposal.replicasToMoveBetweenDisksByBroker().isEmpty()) {
+        interBrokerProposals.add(proposal);
+      } else {
+        interBrokerProposals.add(new ExecutionProposal(proposal.topicPartition(),
+                                                       proposal.partitionSize(),
+                                                       new ReplicaPlacementInfo(proposal.oldLeader().brokerId()),
+                                                       withoutLogdir(proposal.oldReplicas()),
+                                                       withoutLogdir(proposal.newReplicas())));
+      }
+    }
+    return interBrokerProposals;
+  }
+
+  private static List<ReplicaPlacementInfo> withoutLogdir(List<ReplicaPlacementInfo> replicas) {
+    return replicas.stream().map(r -> new ReplicaPlacementInfo(r.brokerId())).collect(Collectors.toList());
+  }
+
+  /**
+   * The estimated execution time of the proposals.
+   */
+  public static class SimulationResult {
+    private final Map<Integer, Integer> _peakNumInterBrokerReplicaMovementsByBroker;
+    private final Map<Integer, Double> _peakMovementRateInMBPerSecByBroker;
+    private int _numInterBrokerReplicaMovements;
+    private long _interBrokerReplicaMovementDurationMs;
+    private long _tailDurationMs;
+    private int _numLeadershipMovements;
+    private long _leadershipMovementDurationMs;
+
+    SimulationResult() {
+      _peakNumInterBrokerReplicaMovementsByBroker = new HashMap<>();
+      _peakMovementRateInMBPerSecByBroker = new HashMap<>();
+    }
+
+    private void updatePeaks(Collection<ExecutionTask> inProgressTasks, Map<Integer, Double> movementRateInMBPerSecByBroker) {
+      Map<Integer, Integer> numInterBrokerReplicaMovementsByBroker = new HashMap<>();
+      for (ExecutionTask task : inProgressTasks) {
+        numInterBrokerReplicaMovementsByBroker.merge(task.proposal().oldLeader().brokerId(), 1, Integer::sum);
+        task.proposal().replicasToAdd().forEach(r -> numInterBrokerReplicaMovementsByBroker.merge(r.brokerId(), 1, Integer::sum));
+      }
+      numInterBrokerReplicaMovementsByBroker.forEach((broker, num) -> _peakNumInterBrokerReplicaMovementsByBroker.merge(broker, num, Math::max));
+      movementRateInMBPerSecByBroker.forEach((broker, rate) -> _peakMovementRateInMBPerSecByBroker.merge(broker, rate, Math::max));
+    }
+
+    private void setInterBrokerReplicaMovementTimes(List<Double> completionTimesMs) {
+      _numInterBrokerReplicaMovements = completionTimesMs.size();
+      if (completionTimesMs.isEmpty()) {
+        return;
+      }
+      // The completion times are in increasing order.
+      double lastCompletionTimeMs = completionTimesMs.get(completionTimesMs.size() - 1);
+      int tailStartIndex = Math.max(0, (int) Math.ceil(completionTimesMs.size() * TAIL_PERCENTILE) - 1);
+      _interBrokerReplicaMovementDurationMs = Math.round(lastCompletionTimeMs);
+      _tailDurationMs = Math.round(lastCompletionTimeMs - completionTimesMs.get(tailStartIndex));
+    }
+
+    private void addLeadershipMovements(int numLeadershipMovements) {
+      _numLeadershipMovements += numLeadershipMovements;
+    }
+
+    private void setLeadershipMovementDurationMs(long leadershipMovementDurationMs) {
+      _leadershipMovementDurationMs = leadershipMovementDurationMs;
+    }
+
+    /**
+     * @return The estimated total execution time in milliseconds.
+     */
+    public long durationMs() {
+      return _interBrokerReplicaMovementDurationMs + _leadershipMovementDurationMs;
+    }
+
+    /**
+     * @return The number of simulated inter-broker replica movements.
+     */
+    public int numInterBrokerReplicaMovements() {
+      return _numInterBrokerReplicaMovements;
+    }
+
+    /**
+     * @return The estimated time in milliseconds to move the replicas between brokers.
+     */
+    public long interBrokerReplicaMovementDurationMs() {
+      return _interBrokerReplicaMovementDurationMs;
+    }
+
+    /**
+     * @return The estimated time in milliseconds from the completion of 90% of the inter-broker replica
+     * movements to the completion of the last one, i.e. the time spent on the stragglers.
+     */
+    public long tailDurationMs() {
+      return _tailDurationMs;
+    }
+
+    /**
+     * @return The peak number of concurrent inter-broker replica movements of each broker.
+     */
+    public Map<Integer, Integer> peakNumInterBrokerReplicaMovementsByBroker() {
+      return Collections.unmodifiableMap(_peakNumInterBrokerReplicaMovementsByBroker);
+    }
+
+    /**
+     * @return The peak rate in MB/s at which each broker sends and receives the replicas.
+     */
+    public Map<Integer, Double> peakMovementRateInMBPerSecByBroker() {
+      return Collections.unmodifiableMap(_peakMovementRateInMBPerSecByBroker);
+    }
+
+    /**
+     * @return The number of simulated leadership movements.
+     */
+    public int numLeadershipMovements() {
+      return _numLeadershipMovements;
+    }
+
+    /**
+     * @return The estimated time in milliseconds to move the leaderships.
+     */
+    public long leadershipMovementDurationMs() {
+      return _leadershipMovementDurationMs;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("{duration: %d ms, %d inter-broker replica movements in %d ms (tail: %d ms), "
+                           + "%d leadership movements in %d ms, peak movements by broker: %s}",
+                           durationMs(), _numInterBrokerReplicaMovements, _interBrokerReplicaMovementDurationMs,
+                           _tailDurationMs, _numLeadershipMovements, _leadershipMovementDurationMs,
+                           _peakNumInterBrokerReplicaMovementsByBroker);
+    }
+  }
+
+  /**
+   * A clock that only moves when the simulation advances it, so the execution tasks are timestamped in virtual time.
+   * Package private for unit test.
+   */
+  static class VirtualTime implements Time {
+    private long _nowMs;
+
+    void setMilliseconds(long nowMs) {
+      _nowMs = nowMs;
+    }
+
+    @Override
+    public long milliseconds() {
+      return _nowMs;
+    }
+
+    @Override
+    public long nanoseconds() {
+      return _nowMs * 1000000L;
+    }
+
+    @Override
+    public void sleep(long ms) {
+      _nowMs += ms;
+    }
+
+    @Override
+    public void waitObject(Object obj, Supplier<Boolean> condition, long timeoutMs) {
+      // Nothing else advances the clock, so move it forward one millisecond at a time until the condition holds.
+      long deadlineMs = _nowMs + timeoutMs;
+      synchronized (obj) {
+        while (!condition.get()) {
+          if (_nowMs >= deadlineMs) {
+            throw new TimeoutException("Condition not satisfied before timeout");
+          }
+          _nowMs++;
+        }
+      }
+    }
+  }
+}
@@ -39,6 +39,7 @@ public class ExecutionTaskManager {
   private static final Logger LOG = LoggerFactory.getLogger(ExecutionTaskManager.class);
   private final Map<Integer, Integer> _inProgressInterBrokerReplicaMovementsByBrokerId;
   private final Map<Integer, Integer> _inProgressIntraBrokerReplicaMovementsByBrokerId;
+  private final Map<Integer, Map<String, Integer>> _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId;
   private final Set<TopicPartition> _inProgressPartitionsForInterBrokerMovement;
   private final ExecutionTaskTracker _executionTaskTracker;
   private final ExecutionTaskPlanner _executionTaskPlanner;
@@ -46,6 +47,7 @@ public class ExecutionTaskManager {
   private Integer _requestedInterBrokerPartitionMovementConcurrency;
   private final int _defaultIntraBrokerPartitionMovementConcurrency;
   private Integer _requestedIntraBrokerPartitionMovementConcurrency;
+  private final int _intraBrokerPartitionMovementConcurrencyPerDisk;
   private final int _defaultLeadershipMovementConcurrency;
   private final int _maxNumClusterMovementConcurrency;
   private Integer _requestedLeadershipMovementConcurrency;
@@ -66,11 +68,17 @@ public class ExecutionTaskManager {
                               KafkaCruiseControlConfig config) {
     _inProgressInterBrokerReplicaMovementsByBrokerId = new HashMap<>();
     _inProgressIntraBrokerReplicaMovementsByBrokerId = new HashMap<>();
+    _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId = new HashMap<>();
     _inProgressPartitionsForInterBrokerMovement = new HashSet<>();
     _executionTaskTracker = new ExecutionTaskTracker(dropwizardMetricRegistry, time);
     _executionTaskPlanner = new ExecutionTaskPlanner(adminClient, config);
     _defaultInterBrokerPartitionMovementConcurrency = config.getInt(ExecutorConfig.NUM_CONCURRENT_PARTITION_MOVEMENTS_PER_BROKER_CONFIG);
     _defaultIntraBrokerPartitionMovementConcurrency = config.getInt(ExecutorConfig.NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_CONFIG);
+    Integer intraBrokerPartitionMovementConcurrencyPerDisk =
+        config.getInt(ExecutorConfig.NUM_CONCURRENT_INTRA_BROKER_PARTITION_MOVEMENTS_PER_DISK_CONFIG);
+    // The movements are not limited per disk unless configured.
+    _intraBrokerPartitionMovementConcurrencyPerDisk = intraBrokerPartitionMovementConcurrencyPerDisk == null
+                                                      ? Integer.MAX_VALUE : intraBrokerPartitionMovementConcurrencyPerDisk;
     _defaultLeadershipMovementConcurrency = config.getInt(ExecutorConfig.NUM_CONCURRENT_LEADER_MOVEMENTS_CONFIG);
     _maxNumClusterMovementConcurrency = config.getInt(ExecutorConfig.MAX_NUM_CLUSTER_MOVEMENTS_CONFIG);
     _brokersToSkipConcurrencyCheck = new HashSet<>();
@@ -165,12 +173,15 @@ public class ExecutionTaskManager {
   }
 
   /**
-   * @return A list of execution tasks that move the replicas cross disks of the same broker.
+   * @return A list of execution tasks that move the replicas cross disks of the same broker, with a limited number of
+   * movements from or to each disk.
    */
   public synchronized List<ExecutionTask> getIntraBrokerReplicaMovementTasks() {
     Map<Integer, Integer> brokersReadyForReplicaMovement = brokersReadyForReplicaMovement(_inProgressIntraBrokerReplicaMovementsByBrokerId,
                                                                                           intraBrokerPartitionMovementConcurrency());
-    return _executionTaskPlanner.getIntraBrokerReplicaMovementTasks(brokersReadyForReplicaMovement);
+    return _executionTaskPlanner.getIntraBrokerReplicaMovementTasks(brokersReadyForReplicaMovement,
+                                                                    _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId,
+                                                                    _intraBrokerPartitionMovementConcurrencyPerDisk);
   }
 
   private int unthrottledConcurrency(Set<Integer> brokersWithReplicaMoves, int throttledConcurrency) {
@@ -211,6 +222,14 @@ public class ExecutionTaskManager {
     return _executionTaskPlanner.getLeadershipMovementTasks(leadershipMovementConcurrency());
   }
 
+  /**
+   * @param maxNumTasks The maximum number of tasks to get.
+   * @return A list of execution tasks that move the leadership, with up to the given number of tasks.
+   */
+  public synchronized List<ExecutionTask> getLeadershipMovementTasks(int maxNumTasks) {
+    return _executionTaskPlanner.getLeadershipMovementTasks(Math.min(maxNumTasks, leadershipMovementConcurrency()));
+  }
+
   /**
    * Add a collection of execution proposals for execution. The method allows users to skip the concurrency check
    * on some given brokers. Notice that this method will replace the existing brokers that were in the concurrency
@@ -247,6 +266,13 @@ public class ExecutionTaskManager {
     }
   }
 
+  /**
+   * @return Brokers that do not need to be throttled when moving the partitions.
+   */
+  public synchronized Set<Integer> brokersToSkipConcurrencyCheck() {
+    return new HashSet<>(_brokersToSkipConcurrencyCheck);
+  }
+
   /**
    * Set the execution mode of the tasks to keep track of the ongoing execution mode via sensors.
    *
@@ -277,6 +303,10 @@ public class ExecutionTaskManager {
           case INTRA_BROKER_REPLICA_ACTION:
             _inProgressIntraBrokerReplicaMovementsByBrokerId.put(task.brokerId(),
                                                                  _inProgressIntraBrokerReplicaMovementsByBrokerId.get(task.brokerId()) + 1);
+            Map<String, Integer> inProgressMovementsByDisk =
+                _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId.computeIfAbsent(task.brokerId(), b -> new HashMap<>());
+            ExecutionTaskPlanner.disksOfIntraBrokerReplicaMovement(task)
+                                .forEach(disk -> inProgressMovementsByDisk.merge(disk, 1, Integer::sum));
             break;
           default:
             break;
@@ -336,6 +366,12 @@ public class ExecutionTaskManager {
       case INTRA_BROKER_REPLICA_ACTION:
         _inProgressIntraBrokerReplicaMovementsByBrokerId.put(task.brokerId(),
                                                              _inProgressIntraBrokerReplicaMovementsByBrokerId.get(task.brokerId()) - 1);
+        Map<String, Integer> inProgressMovementsByDisk = _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId.get(task.brokerId());
+        if (inProgressMovementsByDisk != null) {
+          // Drop the idle disks, so that the in-progress movements are tracked only for the busy disks.
+          ExecutionTaskPlanner.disksOfIntraBrokerReplicaMovement(task)
+                              .forEach(disk -> inProgressMovementsByDisk.computeIfPresent(disk, (d, num) -> num == 1 ? null : num - 1));
+        }
         break;
       default:
         // No-op for other type of task, i.e LEADER_ACTION.
@@ -343,10 +379,27 @@ public class ExecutionTaskManager {
     }
   }
 
+  /**
+   * @return True if there are pending inter-broker partition movements and at least one broker subject to the concurrency
+   * check has as many in-progress inter-broker partition movements as the allowed concurrency, false otherwise.
+   */
+  public synchronized boolean isInterBrokerPartitionMovementConcurrencyLimiting() {
+    if (numRemainingInterBrokerPartitionMovements() == 0) {
+      return false;
+    }
+    int concurrency = interBrokerPartitionMovementConcurrency();
+    for (Map.Entry<Integer, Integer> entry : _inProgressInterBrokerReplicaMovementsByBrokerId.entrySet()) {
+      if (!_brokersToSkipConcurrencyCheck.contains(entry.getKey()) && entry.getValue() >= concurrency) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * @return Number of remaining inter broker partition movements.
    */
-  public synchronized int numRemainingInterBrokerPartitionMovements() {
+  public int numRemainingInterBrokerPartitionMovements() {
     return _executionTaskTracker.numRemainingInterBrokerPartitionMovements();
   }
 
@@ -360,7 +413,7 @@ public class ExecutionTaskManager {
   /**
    * @return Number of finished inter broker partition movements.
    */
-  public synchronized int numFinishedInterBrokerPartitionMovements() {
+  public int numFinishedInterBrokerPartitionMovements() {
     return _executionTaskTracker.numFinishedInterBrokerPartitionMovements();
   }
 
@@ -386,6 +439,13 @@ public class ExecutionTaskManager {
     return _executionTaskTracker.inExecutionTasks(types);
   }
 
+  /**
+   * @return Number of tasks that are {@link State#IN_PROGRESS} or {@link State#ABORTING} for all task types.
+   */
+  public int numInExecutionTasks() {
+    return _executionTaskTracker.numInExecutionTasks();
+  }
+
   /**
    * @return In execution inter broker data to move in MB.
    */
@@ -396,21 +456,21 @@ public class ExecutionTaskManager {
   /**
    * @return Number of remaining leadership movements.
    */
-  public synchronized int numRemainingLeadershipMovements() {
+  public int numRemainingLeadershipMovements() {
     return _executionTaskTracker.numRemainingLeadershipMovements();
   }
 
   /**
    * @return Number of finished leadership movements.
    */
-  public synchronized int numFinishedLeadershipMovements() {
+  public int numFinishedLeadershipMovements() {
     return _executionTaskTracker.numFinishedLeadershipMovements();
   }
 
   /**
    * @return Number of reamining intra broker partition movements.
    */
-  public synchronized int numRemainingIntraBrokerPartitionMovements() {
+  public int numRemainingIntraBrokerPartitionMovements() {
     return _executionTaskTracker.numRemainingIntraBrokerPartitionMovements();
   }
 
@@ -424,7 +484,7 @@ public class ExecutionTaskManager {
   /**
    * @return Number of finished intra broker partition movements.
    */
-  public synchronized int numFinishedIntraBrokerPartitionMovements() {
+  public int numFinishedIntraBrokerPartitionMovements() {
     return _executionTaskTracker.numFinishedIntraBrokerPartitionMovements();
   }
 
@@ -449,6 +509,7 @@ public class ExecutionTaskManager {
     _brokersToSkipConcurrencyCheck.clear();
     _inProgressInterBrokerReplicaMovementsByBrokerId.clear();
     _inProgressIntraBrokerReplicaMovementsByBrokerId.clear();
+    _inProgressIntraBrokerReplicaMovementsByDiskByBrokerId.clear();
     _inProgressPartitionsForInterBrokerMovement.clear();
     _executionTaskPlanner.clear();
     _executionTaskTracker.clear();
@@ -4,13 +4,13 @@
 
 package com.linkedin.kafka.cruisecontrol.executor;
 
-import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.executor.strategy.ReplicaMovementStrategy;
 import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -22,7 +22,8 @@ import java.util.TreeSet;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.KafkaFuture;
@@ -62,7 +63,7 @@ import static org.apache.kafka.clients.admin.DescribeReplicaLogDirsResult.Replic
  */
 public class ExecutionTaskPlanner {
   private static final Logger LOG = LoggerFactory.getLogger(ExecutionTaskPlanner.class);
-  private Map<Integer, SortedSet<ExecutionTask>> _interPartMoveTaskByBrokerId;
+  private InterBrokerReplicaMovementTaskIndex _interPartMoveTaskIndex;
   private Map<Integer, SortedSet<ExecutionTask>> _intraPartMoveTaskByBrokerId;
   private final Set<ExecutionTask> _remainingInterBrokerReplicaMovements;
   private final Set<ExecutionTask> _remainingIntraBrokerReplicaMovements;
@@ -82,7 +83,7 @@ public class ExecutionTaskPlanner {
    */
   public ExecutionTaskPlanner(AdminClient adminClient, KafkaCruiseControlConfig config) {
     _executionId = 0L;
-    _interPartMoveTaskByBrokerId = new HashMap<>();
+    _interPartMoveTaskIndex = new InterBrokerReplicaMovementTaskIndex();
     _intraPartMoveTaskByBrokerId = new HashMap<>();
     _remainingInterBrokerReplicaMovements = new HashSet<>();
     _remainingIntraBrokerReplicaMovements = new HashSet<>();
@@ -159,7 +160,7 @@ public class ExecutionTaskPlanner {
    */
   private void maybeDropReplicaSwapTasks() {
     if (_remainingIntraBrokerReplicaMovements.size() > 0) {
-      _interPartMoveTaskByBrokerId.clear();
+      _interPartMoveTaskIndex = new InterBrokerReplicaMovementTaskIndex();
       _remainingInterBrokerReplicaMovements.clear();
     }
   }
@@ -192,12 +193,9 @@ public class ExecutionTaskPlanner {
         LOG.trace("Added action {} as replica proposal {}", replicaActionExecutionId, proposal);
       }
     }
-    if (replicaMovementStrategy == null) {
-      _interPartMoveTaskByBrokerId = _defaultReplicaMovementTaskStrategy.applyStrategy(_remainingInterBrokerReplicaMovements,
-                                                                                       cluster);
-    } else {
-      _interPartMoveTaskByBrokerId = replicaMovementStrategy.applyStrategy(_remainingInterBrokerReplicaMovements, cluster);
-    }
+    ReplicaMovementStrategy strategy = replicaMovementStrategy == null ? _defaultReplicaMovementTaskStrategy : replicaMovementStrategy;
+    _interPartMoveTaskIndex = new InterBrokerReplicaMovementTaskIndex(strategy.applyStrategy(_remainingInterBrokerReplicaMovements,
+                                                                                             cluster));
   }
 
   /**
@@ -323,54 +321,37 @@ public class ExecutionTaskPlanner {
     boolean newTaskAdded = true;
     Set<Integer> brokerInvolved = new HashSet<>();
     Set<TopicPartition> partitionsInvolved = new HashSet<>();
+    // A broker is available if it has not involved in this round and has slots to execute more movements.
+    IntPredicate isBrokerAvailable = brokerId -> !brokerInvolved.contains(brokerId) && readyBrokers.getOrDefault(brokerId, 0) > 0;
+    Predicate<TopicPartition> isPartitionAvailable = tp -> !inProgressPartitions.contains(tp) && !partitionsInvolved.contains(tp);
     while (newTaskAdded) {
       newTaskAdded = false;
       brokerInvolved.clear();
-      for (Map.Entry<Integer, Integer> brokerEntry : readyBrokers.entrySet()) {
-        int brokerId = brokerEntry.getKey();
-        // If this broker has already involved in this round, skip it.
-        if (brokerInvolved.contains(brokerId)) {
+      for (int brokerId : readyBrokers.keySet()) {
+        // If this broker has already involved in this round or has no slot, skip it.
+        if (!isBrokerAvailable.test(brokerId)) {
           continue;
         }
 
-        // Check the available balancing proposals of this broker to see if we can find one ready to execute.
-        SortedSet<ExecutionTask> proposalsForBroker = _interPartMoveTaskByBrokerId.get(brokerId);
-        LOG.trace("Execution task for broker {} are {}", brokerId, proposalsForBroker);
-        if (proposalsForBroker != null) {
-          for (ExecutionTask task : proposalsForBroker) {
-            // Skip this proposal if either source broker or destination broker of this proposal has already
-            // involved in this round.
-            int sourceBroker = task.proposal().oldLeader().brokerId();
-            Set<Integer> destinationBrokers = task.proposal().replicasToAdd().stream().mapToInt(ReplicaPlacementInfo::brokerId)
-                                                  .boxed().collect(Collectors.toSet());
-            if (brokerInvolved.contains(sourceBroker)
-                || KafkaCruiseControlUtils.containsAny(brokerInvolved, destinationBrokers)) {
-              continue;
-            }
-            TopicPartition tp = task.proposal().topicPartition();
-            // Check if the proposal is executable.
-            if (isExecutableProposal(task.proposal(), readyBrokers)
-                && !inProgressPartitions.contains(tp)
-                && !partitionsInvolved.contains(tp)) {
-              partitionsInvolved.add(tp);
-              executableReplicaMovements.add(task);
-              // Record the two brokers as involved in this round and stop involving them again in this round.
-              brokerInvolved.add(sourceBroker);
-              brokerInvolved.addAll(destinationBrokers);
-              // Remove the proposal from the execution plan.
-              removeInterBrokerReplicaActionForExecution(task);
-              // Decrement the slots for both source and destination brokers
-              readyBrokers.put(sourceBroker, readyBrokers.get(sourceBroker) - 1);
-              for (int broker : destinationBrokers) {
-                readyBrokers.put(broker, readyBrokers.get(broker) - 1);
-              }
-              // Mark proposal added to true so we will have another round of check.
-              newTaskAdded = true;
-              LOG.debug("Found ready task {} for broker {}. Broker concurrency state: {}", task, brokerId, readyBrokers);
-              // We can stop the check for proposals for this broker because we have found a proposal.
-              break;
-            }
+        // Find the first task of this broker whose source broker, destination brokers and partition are ready to execute.
+        ExecutionTask task = _interPartMoveTaskIndex.firstExecutableTask(brokerId, isBrokerAvailable, isPartitionAvailable);
+        if (task != null) {
+          partitionsInvolved.add(task.proposal().topicPartition());
+          executableReplicaMovements.add(task);
+          // Record the source and destination brokers as involved in this round and stop involving them again in this round.
+          int sourceBroker = task.proposal().oldLeader().brokerId();
+          brokerInvolved.add(sourceBroker);
+          // Decrement the slots for both source and destination brokers
+          readyBrokers.put(sourceBroker, readyBrokers.get(sourceBroker) - 1);
+          for (ReplicaPlacementInfo destinationBroker : task.proposal().replicasToAdd()) {
+            brokerInvolved.add(destinationBroker.brokerId());
+            readyBrokers.put(destinationBroker.brokerId(), readyBrokers.get(destinationBroker.brokerId()) - 1);
           }
+          // Remove the proposal from the execution plan.
+          removeInterBrokerReplicaActionForExecution(task);
+          // Mark proposal added to true so we will have another round of check.
+          newTaskAdded = true;
+          LOG.debug("Found ready task {} for broker {}. Broker concurrency state: {}", task, brokerId, readyBrokers);
         }
       }
     }
@@ -378,23 +359,37 @@ public class ExecutionTaskPlanner {
   }
 
   /**
-   * Get a list of executable intra-broker replica movements that comply with the concurrency constraint.
+   * Get a list of executable intra-broker replica movements that comply with the concurrency constraint. The movements of
+   * a broker are picked in execution order, skipping the ones whose source or destination disk has no slot available, so
+   * that the movements on disjoint disks run in parallel.
    *
    * @param readyBrokers The brokers that is ready to execute more movements.
+   * @param inProgressMovementsByDiskByBroker The number of in-progress movements from or to each disk of each broker.
+   * @param diskConcurrency The maximum number of concurrent movements from or to a disk.
    * @return A list of movements that is executable for the ready brokers.
    */
-  public List<ExecutionTask> getIntraBrokerReplicaMovementTasks(Map<Integer, Integer> readyBrokers) {
+  public List<ExecutionTask> getIntraBrokerReplicaMovementTasks(Map<Integer, Integer> readyBrokers,
+                                                                Map<Integer, Map<String, Integer>> inProgressMovementsByDiskByBroker,
+                                                                int diskConcurrency) {
     LOG.trace("Getting intra-broker replica movement tasks for brokers with concurrency {}", readyBrokers);
     List<ExecutionTask> executableReplicaMovements = new ArrayList<>();
 
     for (Map.Entry<Integer, Integer> brokerEntry : readyBrokers.entrySet()) {
       int brokerId = brokerEntry.getKey();
       int limit = brokerEntry.getValue();
-      if (_intraPartMoveTaskByBrokerId.containsKey(brokerId)) {
+      if (limit > 0 && _intraPartMoveTaskByBrokerId.containsKey(brokerId)) {
+        Map<String, Integer> inProgressMovementsByDisk =
+            new HashMap<>(inProgressMovementsByDiskByBroker.getOrDefault(brokerId, Collections.emptyMap()));
         Iterator<ExecutionTask> tasksForBroker = _intraPartMoveTaskByBrokerId.get(brokerId).iterator();
-        while (limit-- > 0 && tasksForBroker.hasNext()) {
-          ExecutionTask task =  tasksForBroker.next();
+        while (limit > 0 && tasksForBroker.hasNext()) {
+          ExecutionTask task = tasksForBroker.next();
+          List<String> disks = disksOfIntraBrokerReplicaMovement(task);
+          if (disks.stream().anyMatch(disk -> inProgressMovementsByDisk.getOrDefault(disk, 0) >= diskConcurrency)) {
+            continue;
+          }
+          disks.forEach(disk -> inProgressMovementsByDisk.merge(disk, 1, Integer::sum));
           executableReplicaMovements.add(task);
+          limit--;
           // Remove the proposal from the execution plan.
           tasksForBroker.remove();
           _remainingIntraBrokerReplicaMovements.remove(task);
@@ -404,39 +399,37 @@ public class ExecutionTaskPlanner {
     return executableReplicaMovements;
   }
 
+  /**
+   * @param task An intra-broker replica movement task.
+   * @return The source and destination disks of the given task, if known.
+   */
+  static List<String> disksOfIntraBrokerReplicaMovement(ExecutionTask task) {
+    List<String> disks = new ArrayList<>(2);
+    for (ReplicaPlacementInfo oldReplica : task.proposal().oldReplicas()) {
+      if (oldReplica.brokerId() == task.brokerId() && oldReplica.logdir() != null) {
+        disks.add(oldReplica.logdir());
+      }
+    }
+    String destinationDisk = task.proposal().replicasToMoveBetweenDisksByBroker().get(task.brokerId()).logdir();
+    if (destinationDisk != null && !disks.contains(destinationDisk)) {
+      disks.add(destinationDisk);
+    }
+    return disks;
+  }
+
   /**
    * Clear all the states.
    */
   public void clear() {
     _intraPartMoveTaskByBrokerId.clear();
-    _interPartMoveTaskByBrokerId.clear();
+    _interPartMoveTaskIndex = new InterBrokerReplicaMovementTaskIndex();
     _remainingLeadershipMovements.clear();
     _remainingInterBrokerReplicaMovements.clear();
     _remainingIntraBrokerReplicaMovements.clear();
   }
 
-  /**
-   * A proposal is executable if the source broker and all the destination brokers are ready. i.e. has slots to
-   * execute more proposals.
-   */
-  private boolean isExecutableProposal(ExecutionProposal proposal, Map<Integer, Integer> readyBrokers) {
-    if (readyBrokers.get(proposal.oldLeader().brokerId()) <= 0) {
-      return false;
-    }
-    for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
-      if (readyBrokers.get(destinationBroker.brokerId()) <= 0) {
-        return false;
-      }
-    }
-    return true;
-  }
-
   private void removeInterBrokerReplicaActionForExecution(ExecutionTask task) {
-    int sourceBroker = task.proposal().oldLeader().brokerId();
-    _interPartMoveTaskByBrokerId.get(sourceBroker).remove(task);
-    for (ReplicaPlacementInfo destinationBroker : task.proposal().replicasToAdd()) {
-      _interPartMoveTaskByBrokerId.get(destinationBroker.brokerId()).remove(task);
-    }
+    _interPartMoveTaskIndex.remove(task);
     _remainingInterBrokerReplicaMovements.remove(task);
   }
 }
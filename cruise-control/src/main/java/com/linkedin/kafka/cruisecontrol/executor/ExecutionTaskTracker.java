@@ -7,11 +7,15 @@ package com.linkedin.kafka.cruisecontrol.executor;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
 import org.apache.kafka.common.utils.Time;
 
 import static com.linkedin.kafka.cruisecontrol.executor.ExecutionTask.TaskType;
@@ -20,17 +24,28 @@ import static com.linkedin.kafka.cruisecontrol.executor.ExecutionTask.State;
 /**
  * A class for tracking the (1) dead tasks, (2) aborting/aborted tasks, (3) in progress tasks, and (4) pending tasks.
  *
- * This class is not thread-safe.
+ * This class is not thread-safe. The exception is the number of tasks in each {@link TaskType} and {@link State}, which
+ * is maintained incrementally on each update and can be read by other threads (e.g. the metric reporters) without locking.
+ * Likewise, an {@link ExecutionTasksSummary} can be read by other threads, e.g. to report the state of the executor.
  */
 public class ExecutionTaskTracker {
   private final Map<TaskType, Map<State, Set<ExecutionTask>>> _tasksByType;
+  // Immutable copies of the non-pending task sets, invalidated when the corresponding task set changes.
+  private final Map<TaskType, Map<State, Set<ExecutionTask>>> _publishedTasksByType;
+  // Immutable sets of the traced tasks, and the sequence number at which each task left the pending state. Both are
+  // replaced rather than modified in place, so the pending tasks of a summary are copied only when they are asked for.
+  private final Map<TaskType, Set<ExecutionTask>> _tracedTasksByType;
+  private Map<ExecutionTask, Long> _pendingExitSequenceByTask;
+  private long _numPendingExits;
+  // Number of tasks indexed by [task type ordinal * number of states + state ordinal].
+  private final AtomicIntegerArray _numTasksByTypeAndState;
   private long _remainingInterBrokerDataToMoveInMB;
   private long _remainingIntraBrokerDataToMoveInMB;
   private long _inExecutionInterBrokerDataMovementInMB;
   private long _inExecutionIntraBrokerDataMovementInMB;
   private long _finishedInterBrokerDataMovementInMB;
   private long _finishedIntraBrokerDataMovementInMB;
-  private boolean _isKafkaAssignerMode;
+  private volatile boolean _isKafkaAssignerMode;
   private final Time _time;
   private volatile boolean _stopRequested;
 
@@ -50,13 +65,20 @@ public class ExecutionTaskTracker {
     List<State> states = State.cachedValues();
     List<TaskType> taskTypes = TaskType.cachedValues();
     _tasksByType = new HashMap<>(taskTypes.size());
+    _publishedTasksByType = new HashMap<>(taskTypes.size());
+    _tracedTasksByType = new HashMap<>(taskTypes.size());
     for (TaskType type : taskTypes) {
       Map<State, Set<ExecutionTask>> taskMap = new HashMap<>(states.size());
       for (State state : states) {
         taskMap.put(state, new HashSet<>());
       }
       _tasksByType.put(type, taskMap);
+      _publishedTasksByType.put(type, new HashMap<>(states.size()));
+      _tracedTasksByType.put(type, Collections.emptySet());
     }
+    _pendingExitSequenceByTask = new ConcurrentHashMap<>();
+    _numPendingExits = 0L;
+    _numTasksByTypeAndState = new AtomicIntegerArray(taskTypes.size() * states.size());
     _remainingInterBrokerDataToMoveInMB = 0L;
     _remainingIntraBrokerDataToMoveInMB = 0L;
     _inExecutionInterBrokerDataMovementInMB = 0L;
@@ -86,15 +108,15 @@ public class ExecutionTaskTracker {
                                                            DEAD;
         dropwizardMetricRegistry.register(MetricRegistry.name(metricName, typeString + "-" + stateString),
                                           (Gauge<Integer>) () -> (state == State.PENDING && _stopRequested)
-                                                                 ? 0 : _tasksByType.get(type).get(state).size());
+                                                                 ? 0 : numTasks(type, state));
       }
     }
     dropwizardMetricRegistry.register(MetricRegistry.name(metricName, GAUGE_ONGOING_EXECUTION_IN_KAFKA_ASSIGNER_MODE),
                                       (Gauge<Integer>) () -> _isKafkaAssignerMode
-                                                             && !inExecutionTasks(TaskType.cachedValues()).isEmpty() ? 1 : 0);
+                                                             && numInExecutionTasks() > 0 ? 1 : 0);
     dropwizardMetricRegistry.register(MetricRegistry.name(metricName, GAUGE_ONGOING_EXECUTION_IN_NON_KAFKA_ASSIGNER_MODE),
                                       (Gauge<Integer>) () -> !_isKafkaAssignerMode
-                                                             && !inExecutionTasks(TaskType.cachedValues()).isEmpty() ? 1 : 0);
+                                                             && numInExecutionTasks() > 0 ? 1 : 0);
   }
 
   /**
@@ -104,7 +126,13 @@ public class ExecutionTaskTracker {
    * @param newState New execution state of the task.
    */
   public void markTaskState(ExecutionTask task, State newState) {
-    _tasksByType.get(task.type()).get(task.state()).remove(task);
+    if (_tasksByType.get(task.type()).get(task.state()).remove(task)) {
+      updateNumTasks(task.type(), task.state(), -1);
+      if (task.state() == State.PENDING && newState != State.PENDING) {
+        _numPendingExits++;
+        _pendingExitSequenceByTask.put(task, _numPendingExits);
+      }
+    }
     switch (newState) {
       case PENDING:
         break; // Let it go.
@@ -130,7 +158,24 @@ public class ExecutionTaskTracker {
       default:
         break;
     }
-    _tasksByType.get(task.type()).get(newState).add(task);
+    if (_tasksByType.get(task.type()).get(newState).add(task)) {
+      updateNumTasks(task.type(), newState, 1);
+    }
+  }
+
+  private static int index(TaskType type, State state) {
+    return type.ordinal() * State.cachedValues().size() + state.ordinal();
+  }
+
+  private int numTasks(TaskType type, State state) {
+    return _numTasksByTypeAndState.get(index(type, state));
+  }
+
+  private void updateNumTasks(TaskType type, State state, int delta) {
+    _numTasksByTypeAndState.addAndGet(index(type, state), delta);
+    if (state != State.PENDING) {
+      _publishedTasksByType.get(type).remove(state);
+    }
   }
 
   private void updateDataMovement(ExecutionTask task) {
@@ -164,7 +209,17 @@ public class ExecutionTaskTracker {
    * @param taskType Task type of new tasks.
    */
   public void addTasksToTrace(Collection<ExecutionTask> tasks, TaskType taskType) {
-    _tasksByType.get(taskType).get(State.PENDING).addAll(tasks);
+    Set<ExecutionTask> pendingTasks = _tasksByType.get(taskType).get(State.PENDING);
+    int numPendingTasks = pendingTasks.size();
+    for (ExecutionTask task : tasks) {
+      if (pendingTasks.add(task)) {
+        _pendingExitSequenceByTask.remove(task);
+      }
+    }
+    updateNumTasks(taskType, State.PENDING, pendingTasks.size() - numPendingTasks);
+    Set<ExecutionTask> tracedTasks = new HashSet<>(_tracedTasksByType.get(taskType));
+    tracedTasks.addAll(tasks);
+    _tracedTasksByType.put(taskType, Collections.unmodifiableSet(tracedTasks));
     if (taskType == TaskType.INTER_BROKER_REPLICA_ACTION) {
       _remainingInterBrokerDataToMoveInMB += tasks.stream().mapToLong(t -> t.proposal().interBrokerDataToMoveInMB()).sum();
     } else if (taskType == TaskType.INTRA_BROKER_REPLICA_ACTION) {
@@ -189,34 +244,73 @@ public class ExecutionTaskTracker {
   private Map<TaskType, Map<State, Integer>> taskStat() {
     Map<TaskType, Map<State, Integer>> taskStatMap = new HashMap<>(TaskType.cachedValues().size());
     for (TaskType type : TaskType.cachedValues()) {
-      taskStatMap.put(type, new HashMap<>());
-      _tasksByType.get(type).forEach((k, v) -> taskStatMap.get(type).put(k, v.size()));
+      Map<State, Integer> numTasksByState = new HashMap<>(State.cachedValues().size());
+      for (State state : State.cachedValues()) {
+        numTasksByState.put(state, numTasks(type, state));
+      }
+      taskStatMap.put(type, Collections.unmodifiableMap(numTasksByState));
     }
-    return taskStatMap;
+    return Collections.unmodifiableMap(taskStatMap);
   }
 
   /**
-   * Get a filtered list of tasks of different {@link TaskType} and in different {@link State}.
+   * Get a filtered list of non-pending tasks of different {@link TaskType} and in different {@link State}. Only the task
+   * sets that changed since they were last published are copied, the others reuse their published immutable copies.
    *
    * @param taskTypesToGetFullList  Task types to return complete list of tasks.
-   * @return                        A filtered list of tasks.
+   * @return                        A filtered list of non-pending tasks.
    */
-  private Map<TaskType, Map<State, Set<ExecutionTask>>> filteredTasksByState(Set<TaskType> taskTypesToGetFullList) {
+  private Map<TaskType, Map<State, Set<ExecutionTask>>> filteredNonPendingTasksByState(Set<TaskType> taskTypesToGetFullList) {
     Map<TaskType, Map<State, Set<ExecutionTask>>> tasksByState = new HashMap<>(taskTypesToGetFullList.size());
     for (TaskType type : taskTypesToGetFullList) {
-      tasksByState.put(type, new HashMap<>());
+      Map<State, Set<ExecutionTask>> publishedTasks = _publishedTasksByType.get(type);
       _tasksByType.get(type).forEach((k, v) -> {
-        tasksByState.get(type).put(k, new HashSet<>(v));
+        if (k != State.PENDING) {
+          publishedTasks.computeIfAbsent(k, s -> Collections.unmodifiableSet(new HashSet<>(v)));
+        }
       });
+      tasksByState.put(type, new HashMap<>(publishedTasks));
     }
     return tasksByState;
   }
 
+  /**
+   * Get the pending tasks of the given task types as of now. The returned function can be called later, by any thread,
+   * to copy the pending tasks only when they are needed.
+   *
+   * @param taskTypesToGetFullList  Task types to return complete list of tasks.
+   * @return A function from a task type to the immutable set of its tasks that are pending as of now.
+   */
+  private Function<TaskType, Set<ExecutionTask>> pendingTasksByType(Set<TaskType> taskTypesToGetFullList) {
+    Map<TaskType, Set<ExecutionTask>> tracedTasksByType = new HashMap<>(taskTypesToGetFullList.size());
+    taskTypesToGetFullList.forEach(type -> tracedTasksByType.put(type, _tracedTasksByType.get(type)));
+    Map<ExecutionTask, Long> pendingExitSequenceByTask = _pendingExitSequenceByTask;
+    long numPendingExits = _numPendingExits;
+    return type -> {
+      Set<ExecutionTask> pendingTasks = new HashSet<>();
+      for (ExecutionTask task : tracedTasksByType.get(type)) {
+        Long pendingExitSequence = pendingExitSequenceByTask.get(task);
+        // The tasks that left the pending state after now are still pending.
+        if (pendingExitSequence == null || pendingExitSequence > numPendingExits) {
+          pendingTasks.add(task);
+        }
+      }
+      return Collections.unmodifiableSet(pendingTasks);
+    };
+  }
+
   /**
    * Clear the replica action and leader action tasks.
    */
   public void clear() {
     _tasksByType.values().forEach(m -> m.values().forEach(Set::clear));
+    _publishedTasksByType.values().forEach(Map::clear);
+    _tracedTasksByType.replaceAll((type, tasks) -> Collections.emptySet());
+    _pendingExitSequenceByTask = new ConcurrentHashMap<>();
+    _numPendingExits = 0L;
+    for (int i = 0; i < _numTasksByTypeAndState.length(); i++) {
+      _numTasksByTypeAndState.set(i, 0);
+    }
     _remainingInterBrokerDataToMoveInMB = 0L;
     _remainingIntraBrokerDataToMoveInMB = 0L;
     _inExecutionInterBrokerDataMovementInMB = 0L;
@@ -230,9 +324,13 @@ public class ExecutionTaskTracker {
     _stopRequested = true;
   }
 
+  private int numFinishedTasks(TaskType type) {
+    return numTasks(type, State.COMPLETED) + numTasks(type, State.DEAD) + numTasks(type, State.ABORTED);
+  }
+
   // Internal query APIs.
   public int numRemainingInterBrokerPartitionMovements() {
-    return _tasksByType.get(TaskType.INTER_BROKER_REPLICA_ACTION).get(State.PENDING).size();
+    return numTasks(TaskType.INTER_BROKER_REPLICA_ACTION, State.PENDING);
   }
 
   public long remainingInterBrokerDataToMoveInMB() {
@@ -243,9 +341,7 @@ public class ExecutionTaskTracker {
    * @return Number of finished inter broker partition movements, which is the sum of completed, dead, and aborted tasks.
    */
   public int numFinishedInterBrokerPartitionMovements() {
-    return _tasksByType.get(TaskType.INTER_BROKER_REPLICA_ACTION).get(State.COMPLETED).size() +
-           _tasksByType.get(TaskType.INTER_BROKER_REPLICA_ACTION).get(State.DEAD).size() +
-           _tasksByType.get(TaskType.INTER_BROKER_REPLICA_ACTION).get(State.ABORTED).size();
+    return numFinishedTasks(TaskType.INTER_BROKER_REPLICA_ACTION);
   }
 
   public long finishedInterBrokerDataMovementInMB() {
@@ -267,25 +363,34 @@ public class ExecutionTaskTracker {
     return inExecutionTasks;
   }
 
+  /**
+   * @return Number of tasks that are in progress or aborting, regardless of their task type.
+   */
+  public int numInExecutionTasks() {
+    int numInExecutionTasks = 0;
+    for (TaskType type : TaskType.cachedValues()) {
+      numInExecutionTasks += numTasks(type, State.IN_PROGRESS) + numTasks(type, State.ABORTING);
+    }
+    return numInExecutionTasks;
+  }
+
   public long inExecutionInterBrokerDataMovementInMB() {
     return _inExecutionInterBrokerDataMovementInMB;
   }
 
   public int numRemainingLeadershipMovements() {
-    return _tasksByType.get(TaskType.LEADER_ACTION).get(State.PENDING).size();
+    return numTasks(TaskType.LEADER_ACTION, State.PENDING);
   }
 
   /**
    * @return Number of finished leadership movements, which is the sum of completed, dead, and aborted tasks.
    */
   public int numFinishedLeadershipMovements() {
-    return _tasksByType.get(TaskType.LEADER_ACTION).get(State.COMPLETED).size() +
-           _tasksByType.get(TaskType.LEADER_ACTION).get(State.DEAD).size() +
-           _tasksByType.get(TaskType.LEADER_ACTION).get(State.ABORTED).size();
+    return numFinishedTasks(TaskType.LEADER_ACTION);
   }
 
   public int numRemainingIntraBrokerPartitionMovements() {
-    return  _tasksByType.get(TaskType.INTRA_BROKER_REPLICA_ACTION).get(State.PENDING).size();
+    return numTasks(TaskType.INTRA_BROKER_REPLICA_ACTION, State.PENDING);
   }
 
   public long remainingIntraBrokerDataToMoveInMB() {
@@ -296,9 +401,7 @@ public class ExecutionTaskTracker {
    * @return Number of finished intra broker partition movements, which is the sum of completed, dead, and aborted tasks.
    */
   public int numFinishedIntraBrokerPartitionMovements() {
-    return  _tasksByType.get(TaskType.INTRA_BROKER_REPLICA_ACTION).get(State.COMPLETED).size() +
-            _tasksByType.get(TaskType.INTRA_BROKER_REPLICA_ACTION).get(State.DEAD).size() +
-            _tasksByType.get(TaskType.INTRA_BROKER_REPLICA_ACTION).get(State.ABORTED).size();
+    return numFinishedTasks(TaskType.INTRA_BROKER_REPLICA_ACTION);
   }
 
   public long finishedIntraBrokerDataToMoveInMB() {
@@ -323,18 +426,20 @@ public class ExecutionTaskTracker {
                                      _remainingInterBrokerDataToMoveInMB,
                                      _remainingIntraBrokerDataToMoveInMB,
                                      taskStat(),
-                                     filteredTasksByState(taskTypesToGetFullList)
-                                     );
+                                     filteredNonPendingTasksByState(taskTypesToGetFullList),
+                                     pendingTasksByType(taskTypesToGetFullList));
   }
 
   public static class ExecutionTasksSummary {
-    private long _finishedInterBrokerDataMovementInMB;
-    private long _finishedIntraBrokerDataMovementInMB;
-    private long _inExecutionInterBrokerDataMovementInMB;
-    private long _inExecutionIntraBrokerDataMovementInMB;
+    private final long _finishedInterBrokerDataMovementInMB;
+    private final long _finishedIntraBrokerDataMovementInMB;
+    private final long _inExecutionInterBrokerDataMovementInMB;
+    private final long _inExecutionIntraBrokerDataMovementInMB;
     private final long _remainingInterBrokerDataToMoveInMB;
     private final long _remainingIntraBrokerDataToMoveInMB;
-    private Map<TaskType, Map<State, Integer>> _taskStat;
+    private final Map<TaskType, Map<State, Integer>> _taskStat;
+    private final Map<TaskType, Map<State, Set<ExecutionTask>>> _filteredNonPendingTasksByState;
+    private final Function<TaskType, Set<ExecutionTask>> _pendingTasksByType;
     private Map<TaskType, Map<State, Set<ExecutionTask>>> _filteredTasksByState;
 
     ExecutionTasksSummary(long finishedInterBrokerDataMovementInMB,
@@ -344,7 +449,8 @@ public class ExecutionTaskTracker {
                           long remainingInterBrokerDataToMoveInMB,
                           long remainingIntraBrokerDataToMoveInMB,
                           Map<TaskType, Map<State, Integer>> taskStat,
-                          Map<TaskType, Map<State, Set<ExecutionTask>>> filteredTasksByState) {
+                          Map<TaskType, Map<State, Set<ExecutionTask>>> filteredNonPendingTasksByState,
+                          Function<TaskType, Set<ExecutionTask>> pendingTasksByType) {
       _finishedInterBrokerDataMovementInMB = finishedInterBrokerDataMovementInMB;
       _finishedIntraBrokerDataMovementInMB = finishedIntraBrokerDataMovementInMB;
       _inExecutionInterBrokerDataMovementInMB = inExecutionInterBrokerDataMovementInMB;
@@ -352,7 +458,9 @@ public class ExecutionTaskTracker {
       _remainingInterBrokerDataToMoveInMB = remainingInterBrokerDataToMoveInMB;
       _remainingIntraBrokerDataToMoveInMB = remainingIntraBrokerDataToMoveInMB;
       _taskStat = taskStat;
-      _filteredTasksByState = filteredTasksByState;
+      _filteredNonPendingTasksByState = filteredNonPendingTasksByState;
+      _pendingTasksByType = pendingTasksByType;
+      _filteredTasksByState = null;
     }
 
     public long finishedInterBrokerDataMovementInMB() {
@@ -383,7 +491,19 @@ public class ExecutionTaskTracker {
       return _taskStat;
     }
 
-    public Map<TaskType, Map<State, Set<ExecutionTask>>> filteredTasksByState() {
+    /**
+     * @return The tasks of the requested task types by state. The pending tasks are copied upon the first call.
+     */
+    public synchronized Map<TaskType, Map<State, Set<ExecutionTask>>> filteredTasksByState() {
+      if (_filteredTasksByState == null) {
+        Map<TaskType, Map<State, Set<ExecutionTask>>> tasksByState = new HashMap<>(_filteredNonPendingTasksByState.size());
+        _filteredNonPendingTasksByState.forEach((type, tasks) -> {
+          Map<State, Set<ExecutionTask>> tasksOfType = new HashMap<>(tasks);
+          tasksOfType.put(State.PENDING, _pendingTasksByType.apply(type));
+          tasksByState.put(type, Collections.unmodifiableMap(tasksOfType));
+        });
+        _filteredTasksByState = Collections.unmodifiableMap(tasksByState);
+      }
       return _filteredTasksByState;
     }
   }
@@ -10,6 +10,7 @@ import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
 import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
 import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.detector.AnomalyDetector;
 import com.linkedin.kafka.cruisecontrol.exception.OngoingExecutionException;
@@ -20,7 +21,9 @@ import com.linkedin.kafka.cruisecontrol.servlet.UserTaskManager;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,6 +34,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import kafka.zk.KafkaZkClient;
@@ -46,6 +50,7 @@ import org.apache.kafka.common.utils.LogContext;
 import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
 
@@ -91,8 +96,16 @@ public class Executor {
   private final KafkaZkClient _kafkaZkClient;
   private final AdminClient _adminClient;
   private final double _leaderMovementTimeoutMs;
+  // Null if the inter-broker partition movement concurrency is not adjusted during executions.
+  private final ConcurrencyAdjuster _concurrencyAdjuster;
+  private volatile boolean _isConcurrencyAdjusterActive;
+  private final ExecutionProgressWatcher _executionProgressWatcher;
+  // Notified of the tasks of each preferred leader election started by the executor.
+  private volatile Consumer<List<ExecutionTask>> _leaderElectionObserver = tasks -> { };
 
   private static final long METADATA_REFRESH_BACKOFF = 100L;
+  // The metadata of the brokers may lag behind the progress seen in ZooKeeper, so the progress is checked again shortly.
+  private static final long EXECUTION_PROGRESS_RECHECK_BACKOFF_MS = 500L;
   private static final long METADATA_EXPIRY_MS = Long.MAX_VALUE;
   private static final int NO_STOP_EXECUTION = 0;
   private static final int STOP_EXECUTION = 1;
@@ -133,6 +146,8 @@ public class Executor {
   private final AnomalyDetector _anomalyDetector;
 
   private final KafkaCruiseControlConfig _config;
+  // The journal of the ongoing execution, null if the execution journal is disabled.
+  private final ExecutionJournal _executionJournal;
 
   /**
    * The executor class that execute the proposals generated by optimizer.
@@ -180,6 +195,7 @@ public class Executor {
     boolean zkSecurityEnabled = config.getBoolean(ExecutorConfig.ZOOKEEPER_SECURITY_ENABLED_CONFIG);
     _kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zkUrl, ZK_EXECUTOR_METRIC_GROUP, ZK_EXECUTOR_METRIC_TYPE,
         zkSecurityEnabled);
+    _executionProgressWatcher = new ExecutionProgressWatcher(_kafkaZkClient);
     _adminClient = KafkaCruiseControlUtils.createAdminClient(KafkaCruiseControlUtils.parseAdminClientConfigs(config));
     _executionTaskManager = new ExecutionTaskManager(_adminClient, dropwizardMetricRegistry, time, config);
     _metadataClient = metadataClient != null ? metadataClient
@@ -193,6 +209,9 @@ public class Executor {
     _defaultExecutionProgressCheckIntervalMs = config.getLong(ExecutorConfig.EXECUTION_PROGRESS_CHECK_INTERVAL_MS_CONFIG);
     _leaderMovementTimeoutMs = config.getLong(ExecutorConfig.LEADER_MOVEMENT_TIMEOUT_MS_CONFIG);
     _requestedExecutionProgressCheckIntervalMs = null;
+    _concurrencyAdjuster = config.getBoolean(ExecutorConfig.CONCURRENCY_ADJUSTER_ENABLED_CONFIG) ? new ConcurrencyAdjuster(config)
+                                                                                                 : null;
+    _isConcurrencyAdjusterActive = false;
     _proposalExecutor =
         Executors.newSingleThreadExecutor(new KafkaCruiseControlThreadFactory("ProposalExecutor", false, LOG));
     _latestDemoteStartTimeMsByBrokerId = new ConcurrentHashMap<>();
@@ -209,6 +228,8 @@ public class Executor {
     _anomalyDetector = anomalyDetector;
     _demotionHistoryRetentionTimeMs = demotionHistoryRetentionTimeMs;
     _removalHistoryRetentionTimeMs = removalHistoryRetentionTimeMs;
+    String executionJournalDir = config.getString(ExecutorConfig.EXECUTION_JOURNAL_DIR_CONFIG);
+    _executionJournal = executionJournalDir.isEmpty() ? null : new ExecutionJournal(executionJournalDir, time);
     _executionHistoryScannerExecutor = Executors.newSingleThreadScheduledExecutor(
         new KafkaCruiseControlThreadFactory("ExecutionHistoryScanner", true, null));
     _executionHistoryScannerExecutor.scheduleAtFixedRate(new ExecutionHistoryScanner(),
@@ -364,6 +385,9 @@ public class Executor {
   }
 
   /**
+   * The executor state is an immutable snapshot published by the execution thread after each progress check, hence
+   * this method neither locks nor copies the execution tasks.
+   *
    * @return The current executor state.
    */
   public ExecutorState state() {
@@ -408,7 +432,7 @@ public class Executor {
     initProposalExecution(proposals, unthrottledBrokers, loadMonitor, requestedInterBrokerPartitionMovementConcurrency,
                           requestedIntraBrokerPartitionMovementConcurrency, requestedLeadershipMovementConcurrency,
                           requestedExecutionProgressCheckIntervalMs, replicaMovementStrategy, uuid, reasonSupplier);
-    startExecution(loadMonitor, null, removedBrokers, replicationThrottle, isTriggeredByUserRequest);
+    startExecution(loadMonitor, null, removedBrokers, replicationThrottle, isTriggeredByUserRequest, false);
   }
 
   private synchronized void initProposalExecution(Collection<ExecutionProposal> proposals,
@@ -438,6 +462,8 @@ public class Executor {
     setRequestedIntraBrokerPartitionMovementConcurrency(requestedIntraBrokerPartitionMovementConcurrency);
     setRequestedLeadershipMovementConcurrency(requestedLeadershipMovementConcurrency);
     setRequestedExecutionProgressCheckIntervalMs(requestedExecutionProgressCheckIntervalMs);
+    // An explicitly requested inter-broker partition movement concurrency is not adjusted.
+    _isConcurrencyAdjusterActive = _concurrencyAdjuster != null && requestedInterBrokerPartitionMovementConcurrency == null;
     _uuid = uuid;
     _reasonSupplier = reasonSupplier;
   }
@@ -473,19 +499,43 @@ public class Executor {
                                                   Supplier<String> reasonSupplier) throws OngoingExecutionException {
     initProposalExecution(proposals, demotedBrokers, loadMonitor, concurrentSwaps, 0, requestedLeadershipMovementConcurrency,
                           requestedExecutionProgressCheckIntervalMs, replicaMovementStrategy, uuid, reasonSupplier);
-    startExecution(loadMonitor, demotedBrokers, null, replicationThrottle, isTriggeredByUserRequest);
+    startExecution(loadMonitor, demotedBrokers, null, replicationThrottle, isTriggeredByUserRequest, false);
   }
 
   /**
-   * Dynamically set the inter-broker partition movement concurrency per broker.
+   * Dynamically set the inter-broker partition movement concurrency per broker. A requested concurrency stops the
+   * {@link ConcurrencyAdjuster} from adjusting the concurrency for the rest of the ongoing execution.
    *
    * @param requestedInterBrokerPartitionMovementConcurrency The maximum number of concurrent inter-broker partition movements
    *                                                         per broker.
    */
   public void setRequestedInterBrokerPartitionMovementConcurrency(Integer requestedInterBrokerPartitionMovementConcurrency) {
+    if (requestedInterBrokerPartitionMovementConcurrency != null && _isConcurrencyAdjusterActive) {
+      LOG.info("Stop adjusting the inter-broker partition movement concurrency for the ongoing execution, as it is set to {}.",
+               requestedInterBrokerPartitionMovementConcurrency);
+      _isConcurrencyAdjusterActive = false;
+    }
     _executionTaskManager.setRequestedInterBrokerPartitionMovementConcurrency(requestedInterBrokerPartitionMovementConcurrency);
   }
 
+  /**
+   * Set the observer notified of the tasks of each preferred leader election started by the executor.
+   * Package private for unit test.
+   *
+   * @param leaderElectionObserver The observer of the preferred leader elections.
+   */
+  void setLeaderElectionObserver(Consumer<List<ExecutionTask>> leaderElectionObserver) {
+    _leaderElectionObserver = leaderElectionObserver;
+  }
+
+  /**
+   * @return True if the {@link ConcurrencyAdjuster} adjusts the inter-broker partition movement concurrency of the ongoing
+   * execution, false otherwise.
+   */
+  boolean isConcurrencyAdjusterActive() {
+    return _isConcurrencyAdjusterActive;
+  }
+
   /**
    * Dynamically set the intra-broker partition movement concurrency.
    *
@@ -547,14 +597,19 @@ public class Executor {
    * @param replicationThrottle The replication throttle (bytes/second) to apply to both leaders and followers
    *                            while moving partitions (if null, no throttling is applied).
    * @param isTriggeredByUserRequest Whether the execution is triggered by a user request.
+   * @param isResumedExecution Whether the execution resumes an execution interrupted by a restart. The ongoing movements
+   *                           of a resumed execution have been reconciled with its journal, hence are not sanity checked.
    */
   private void startExecution(LoadMonitor loadMonitor,
                               Collection<Integer> demotedBrokers,
                               Collection<Integer> removedBrokers,
                               Long replicationThrottle,
-                              boolean isTriggeredByUserRequest) throws OngoingExecutionException {
+                              boolean isTriggeredByUserRequest,
+                              boolean isResumedExecution) throws OngoingExecutionException {
     _executionStoppedByUser.set(false);
-    sanityCheckOngoingMovement();
+    if (!isResumedExecution) {
+      sanityCheckOngoingMovement();
+    }
     _hasOngoingExecution = true;
     _anomalyDetector.maybeClearOngoingAnomalyDetectionTimeMs();
     _anomalyDetector.resetHasUnfixableGoals();
@@ -565,8 +620,65 @@ public class Executor {
     } else {
       _numExecutionStartedInNonKafkaAssignerMode.incrementAndGet();
     }
-    _proposalExecutor.submit(
-            new ProposalExecutionRunnable(loadMonitor, demotedBrokers, removedBrokers, replicationThrottle, isTriggeredByUserRequest));
+    _proposalExecutor.submit(new ProposalExecutionRunnable(loadMonitor, demotedBrokers, removedBrokers, replicationThrottle,
+                                                           isTriggeredByUserRequest, isResumedExecution));
+  }
+
+  /**
+   * Resume the execution interrupted by a restart of Cruise Control, if the execution journal is enabled and contains one.
+   * The journaled proposals are reconciled with the current cluster state, see {@link ExecutionJournal#remainingProposals}.
+   * The execution is not resumed if there are ongoing partition reassignments that are not part of the journaled execution.
+   * The replication throttles of the journaled execution that are not needed by the remaining proposals are cleared.
+   *
+   * @param loadMonitor Load monitor.
+   * @return True if an interrupted execution has been resumed, false otherwise.
+   */
+  public synchronized boolean resumeJournaledExecution(LoadMonitor loadMonitor) {
+    if (_executionJournal == null) {
+      return false;
+    }
+    ExecutionJournal.Entry entry = _executionJournal.read();
+    if (entry == null) {
+      return false;
+    }
+    if (_hasOngoingExecution) {
+      LOG.warn("Cannot resume the journaled execution {} while there is an ongoing execution.", entry.uuid());
+      return false;
+    }
+    Map<TopicPartition, ExecutionProposal> journaledProposals = new LinkedHashMap<>(entry.proposals().size());
+    entry.proposals().forEach(p -> journaledProposals.put(p.topicPartition(), p));
+    for (Map.Entry<TopicPartition, List<Integer>> reassignment : ExecutorUtils.partitionReassignments(_kafkaZkClient).entrySet()) {
+      ExecutionProposal proposal = journaledProposals.get(reassignment.getKey());
+      if (proposal == null || !reassignment.getValue().equals(
+          proposal.newReplicas().stream().map(ReplicaPlacementInfo::brokerId).collect(Collectors.toList()))) {
+        LOG.warn("Cannot resume the journaled execution {} because partition {} is being reassigned to {} outside the execution.",
+                 entry.uuid(), reassignment.getKey(), reassignment.getValue());
+        return false;
+      }
+    }
+    List<ExecutionProposal> remainingProposals =
+        ExecutionJournal.remainingProposals(journaledProposals.values(), _metadataClient.refreshMetadata().cluster());
+    new ReplicationThrottleHelper(_kafkaZkClient, entry.replicationThrottle())
+        .clearOrphanedThrottles(entry.throttledBrokers(), entry.throttledReplicasByTopic(), remainingProposals);
+    if (remainingProposals.isEmpty()) {
+      LOG.info("The journaled execution {} has no remaining proposals to execute.", entry.uuid());
+      _executionJournal.delete();
+      return false;
+    }
+
+    OPERATION_LOG.info("Task [{}] resumes the execution of {} remaining proposals out of {} journaled proposals.", entry.uuid(),
+                       remainingProposals.size(), journaledProposals.size());
+    String reason = String.format("Resumed after restart (original reason: %s)", entry.reason());
+    try {
+      initProposalExecution(remainingProposals, entry.brokersToSkipConcurrencyCheck(), loadMonitor, null, null, null, null,
+                            null, entry.uuid(), () -> reason);
+      startExecution(loadMonitor, entry.demotedBrokers(), entry.removedBrokers(), entry.replicationThrottle(), false, true);
+      return true;
+    } catch (OngoingExecutionException e) {
+      LOG.warn("Failed to resume the journaled execution {}.", entry.uuid(), e);
+      processOngoingMovementSanityCheckFailure();
+      return false;
+    }
   }
 
   /**
@@ -619,6 +731,8 @@ public class Executor {
         (!forceExecutionStop && _stopSignal.compareAndSet(NO_STOP_EXECUTION, STOP_EXECUTION)))  {
       _numExecutionStopped.incrementAndGet();
       _executionTaskManager.setStopRequested();
+      // Stop the execution without waiting for the next execution progress check.
+      _executionProgressWatcher.wakeUp();
       return true;
     }
     return false;
@@ -640,6 +754,7 @@ public class Executor {
       LOG.warn("Interrupted while waiting for anomaly detector to shutdown.");
     }
     _metadataClient.close();
+    _executionProgressWatcher.close();
     KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(_kafkaZkClient);
     KafkaCruiseControlUtils.closeAdminClientWithTimeout(_adminClient);
     _executionHistoryScannerExecutor.shutdownNow();
@@ -703,18 +818,42 @@ public class Executor {
     private final Long _replicationThrottle;
     private Throwable _executionException;
     private boolean _isTriggeredByUserRequest;
+    private final boolean _isResumedExecution;
     private long _lastSlowTaskReportingTimeMs;
+    // The demoted and removed brokers of the execution, kept for the execution journal.
+    private final Set<Integer> _demotedBrokers;
+    private final Set<Integer> _removedBrokers;
+    // The throttle helper of the ongoing inter-broker partition movements, null outside of the inter-broker phase.
+    private ReplicationThrottleHelper _throttleHelper;
+    // Whether the plan of the execution has been journaled, the in-progress tasks and the replication throttles as of the
+    // last journal write, and the tasks started since then, used to append only the progress since the last write.
+    private boolean _isJournalPlanWritten;
+    private Set<ExecutionTask> _journaledInProgressTasks;
+    private final Set<ExecutionTask> _tasksStartedSinceJournaled;
+    private Set<Integer> _journaledThrottledBrokers;
+    private Map<String, Set<String>> _journaledThrottledReplicasByTopic;
 
     ProposalExecutionRunnable(LoadMonitor loadMonitor,
                               Collection<Integer> demotedBrokers,
                               Collection<Integer> removedBrokers,
                               Long replicationThrottle,
-                              boolean isTriggeredByUserRequest) {
+                              boolean isTriggeredByUserRequest,
+                              boolean isResumedExecution) {
       _loadMonitor = loadMonitor;
       _state = NO_TASK_IN_PROGRESS;
       _executionException = null;
-
-      if (_userTaskManager == null) {
+      _isResumedExecution = isResumedExecution;
+      _demotedBrokers = demotedBrokers == null ? null : new HashSet<>(demotedBrokers);
+      _removedBrokers = removedBrokers == null ? null : new HashSet<>(removedBrokers);
+      _throttleHelper = null;
+      _isJournalPlanWritten = false;
+      _journaledInProgressTasks = Collections.emptySet();
+      _tasksStartedSinceJournaled = new HashSet<>();
+      _journaledThrottledBrokers = Collections.emptySet();
+      _journaledThrottledReplicasByTopic = Collections.emptyMap();
+
+      // A resumed execution is neither a user task nor a self-healing task.
+      if (_userTaskManager == null && !_isResumedExecution) {
         throw new IllegalStateException("UserTaskManager is not specified in Executor.");
       }
       if (_anomalyDetector == null) {
@@ -791,6 +930,8 @@ public class Executor {
             LOG.debug("Waiting for the load monitor to be ready to initialize the execution.", e);
           }
         }
+        _executionProgressWatcher.watch();
+        maybeWriteJournal();
 
         // 1. Inter-broker move replicas if possible.
         if (_state == STARTING_EXECUTION) {
@@ -868,12 +1009,13 @@ public class Executor {
       // by an anomaly self-healing, update the task status in anomaly detector.
       if (userTaskInfo != null) {
         _userTaskManager.markTaskExecutionFinished(_uuid, _executorState.state() == STOPPING_EXECUTION || _executionException != null);
-      } else {
+      } else if (!_isResumedExecution) {
         _anomalyDetector.markSelfHealingFinished(_uuid);
       }
 
       String prefix = String.format("Task [%s] %s execution is ", _uuid,
-                                    userTaskInfo != null ? ("user" + userTaskInfo.requestUrl()) : "self-healing");
+                                    userTaskInfo != null ? ("user" + userTaskInfo.requestUrl())
+                                                         : _isResumedExecution ? "resumed" : "self-healing");
 
       if (_executorState.state() == STOPPING_EXECUTION) {
         notifyExecutionFinished(String.format("%sstopped by %s.", prefix, _executionStoppedByUser.get() ? "user" : "Cruise Control"),
@@ -897,6 +1039,7 @@ public class Executor {
     }
 
     private void clearCompletedExecution() {
+      deleteJournal();
       _executionTaskManager.clear();
       _uuid = null;
       _reasonSupplier = null;
@@ -906,6 +1049,8 @@ public class Executor {
       _hasOngoingExecution = false;
       _stopSignal.set(NO_STOP_EXECUTION);
       _executionStoppedByUser.set(false);
+      // Replicas may have been moved between the logdirs without changing the cluster metadata.
+      _loadMonitor.logDirInfoCache().invalidate();
       _loadMonitor.resumeMetricSampling(String.format("Resumed-By-Cruise-Control-After-Completed-Execution (Date: %s)", currentUtcDate()));
     }
 
@@ -954,7 +1099,10 @@ public class Executor {
           default:
             throw new IllegalStateException("Unexpected ongoing execution state " + _state);
         }
+        maybeWriteJournal();
       } else {
+        // A stopped execution must not be resumed after a restart.
+        deleteJournal();
         _state = ExecutorState.State.STOPPING_EXECUTION;
         Set<ExecutionTask.TaskType> taskTypesToGetFullList = new HashSet<>(ExecutionTask.TaskType.cachedValues());
         _executorState = ExecutorState.operationInProgress(STOPPING_EXECUTION,
@@ -970,15 +1118,123 @@ public class Executor {
       }
     }
 
+    /**
+     * Journal the progress of the execution, if the journal is enabled. The pending and in-progress proposals are journaled
+     * once as the plan of the execution, then only the tasks that started or finished and the replication throttles that
+     * changed since the last write are appended. A failure to write the journal is logged and does not affect the
+     * execution; the plan is journaled again upon the next write.
+     */
+    private void maybeWriteJournal() {
+      if (_executionJournal == null) {
+        return;
+      }
+      Set<Integer> throttledBrokers = _throttleHelper == null ? Collections.emptySet() : _throttleHelper.throttledBrokers();
+      Map<String, Set<String>> throttledReplicasByTopic = _throttleHelper == null ? Collections.emptyMap()
+                                                                                  : _throttleHelper.throttledReplicasByTopic();
+      // A task that is no longer in progress has finished. The aborting tasks are being rolled back, hence they are not resumed.
+      Set<ExecutionTask> inProgressTasks = new HashSet<>();
+      List<TopicPartition> finishedTasks = new ArrayList<>();
+      for (Set<ExecutionTask> tasks : Arrays.asList(_journaledInProgressTasks, _tasksStartedSinceJournaled)) {
+        for (ExecutionTask task : tasks) {
+          if (task.state() == IN_PROGRESS) {
+            inProgressTasks.add(task);
+          } else {
+            finishedTasks.add(task.proposal().topicPartition());
+          }
+        }
+      }
+      try {
+        if (!_isJournalPlanWritten) {
+          writeJournalPlan(throttledBrokers, throttledReplicasByTopic);
+        } else {
+          List<TopicPartition> startedTasks = new ArrayList<>(_tasksStartedSinceJournaled.size());
+          _tasksStartedSinceJournaled.forEach(task -> startedTasks.add(task.proposal().topicPartition()));
+          boolean throttlesChanged = !throttledBrokers.equals(_journaledThrottledBrokers)
+                                     || !throttledReplicasByTopic.equals(_journaledThrottledReplicasByTopic);
+          if (startedTasks.isEmpty() && finishedTasks.isEmpty() && !throttlesChanged) {
+            return;
+          }
+          _executionJournal.append(startedTasks, finishedTasks, throttlesChanged ? throttledBrokers : null,
+                                   throttlesChanged ? throttledReplicasByTopic : null);
+        }
+        _isJournalPlanWritten = true;
+        _journaledInProgressTasks = inProgressTasks;
+        _tasksStartedSinceJournaled.clear();
+        _journaledThrottledBrokers = throttledBrokers;
+        _journaledThrottledReplicasByTopic = throttledReplicasByTopic;
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Failed to journal the execution {}.", _uuid, e);
+        _isJournalPlanWritten = false;
+      }
+    }
+
+    private void markTasksInProgress(List<ExecutionTask> tasks) {
+      _executionTaskManager.markTasksInProgress(tasks);
+      if (_executionJournal != null) {
+        _tasksStartedSinceJournaled.addAll(tasks);
+      }
+    }
+
+    private void writeJournalPlan(Set<Integer> throttledBrokers, Map<String, Set<String>> throttledReplicasByTopic)
+        throws IOException {
+      Map<TopicPartition, ExecutionProposal> proposals = new LinkedHashMap<>();
+      Map<TopicPartition, Integer> numUnfinishedTasksByPartition = new HashMap<>();
+      Map<ExecutionTask.TaskType, Map<ExecutionTask.State, Set<ExecutionTask>>> tasksByState =
+          _executionTaskManager.getExecutionTasksSummary(new HashSet<>(ExecutionTask.TaskType.cachedValues())).filteredTasksByState();
+      for (Map<ExecutionTask.State, Set<ExecutionTask>> tasks : tasksByState.values()) {
+        for (ExecutionTask.State state : Arrays.asList(IN_PROGRESS, PENDING)) {
+          for (ExecutionTask task : tasks.get(state)) {
+            proposals.putIfAbsent(task.proposal().topicPartition(), task.proposal());
+            numUnfinishedTasksByPartition.merge(task.proposal().topicPartition(), 1, Integer::sum);
+          }
+        }
+      }
+      _executionJournal.write(new ExecutionJournal.Entry(_uuid, _reasonSupplier.get(), _replicationThrottle,
+                                                         _executionTaskManager.brokersToSkipConcurrencyCheck(),
+                                                         _demotedBrokers, _removedBrokers, new ArrayList<>(proposals.values()),
+                                                         throttledBrokers, throttledReplicasByTopic),
+                              numUnfinishedTasksByPartition);
+    }
+
+    private void deleteJournal() {
+      if (_executionJournal != null) {
+        _executionJournal.delete();
+      }
+    }
+
+    /**
+     * Get the replication throttle helper for the inter-broker partition movements. If the dynamic replication throttle
+     * is enabled, the throttle of each broker is bounded by its spare network capacity, and recomputed from the in-flight
+     * movements as they start and finish. Metric sampling is paused during executions, hence the spare network capacity
+     * is measured before the execution and does not include the movement traffic.
+     *
+     * @return The replication throttle helper for the inter-broker partition movements.
+     */
+    private ReplicationThrottleHelper replicationThrottleHelper() {
+      if (!_config.getBoolean(ExecutorConfig.DYNAMIC_REPLICATION_THROTTLE_ENABLED_CONFIG)) {
+        return new ReplicationThrottleHelper(_kafkaZkClient, _replicationThrottle);
+      }
+      Map<Integer, double[]> spareNetworkCapacityByBroker = _loadMonitor.spareNetworkCapacityByBroker(
+          _config.getDouble(ExecutorConfig.DYNAMIC_REPLICATION_THROTTLE_NETWORK_CAPACITY_THRESHOLD_CONFIG));
+      long minThrottleRate = _config.getLong(ExecutorConfig.DYNAMIC_REPLICATION_THROTTLE_MIN_RATE_CONFIG);
+      return new ReplicationThrottleHelper(_kafkaZkClient, _replicationThrottle,
+                                           ReplicationThrottleHelper.throttleRateByBroker(spareNetworkCapacityByBroker,
+                                                                                          Resource.NW_OUT, minThrottleRate),
+                                           ReplicationThrottleHelper.throttleRateByBroker(spareNetworkCapacityByBroker,
+                                                                                          Resource.NW_IN, minThrottleRate),
+                                           minThrottleRate);
+    }
+
     private void interBrokerMoveReplicas() {
-      ReplicationThrottleHelper throttleHelper = new ReplicationThrottleHelper(_kafkaZkClient, _replicationThrottle);
+      ReplicationThrottleHelper throttleHelper = replicationThrottleHelper();
+      _throttleHelper = throttleHelper;
       int numTotalPartitionMovements = _executionTaskManager.numRemainingInterBrokerPartitionMovements();
       long totalDataToMoveInMB = _executionTaskManager.remainingInterBrokerDataToMoveInMB();
       LOG.info("Starting {} inter-broker partition movements.", numTotalPartitionMovements);
 
       int partitionsToMove = numTotalPartitionMovements;
       // Exhaust all the pending partition movements.
-      while ((partitionsToMove > 0 || !inExecutionTasks().isEmpty()) && _stopSignal.get() == NO_STOP_EXECUTION) {
+      while ((partitionsToMove > 0 || _executionTaskManager.numInExecutionTasks() > 0) && _stopSignal.get() == NO_STOP_EXECUTION) {
         // Get tasks to execute.
         List<ExecutionTask> tasksToExecute = _executionTaskManager.getInterBrokerReplicaMovementTasks();
         LOG.info("Executor will execute {} task(s)", tasksToExecute.size());
@@ -986,8 +1242,10 @@ public class Executor {
         if (!tasksToExecute.isEmpty()) {
           throttleHelper.setThrottles(
               tasksToExecute.stream().map(ExecutionTask::proposal).collect(Collectors.toList()));
+          // Journal the throttles before starting the movements, so they are not orphaned if Cruise Control restarts.
+          maybeWriteJournal();
           // Execute the tasks.
-          _executionTaskManager.markTasksInProgress(tasksToExecute);
+          markTasksInProgress(tasksToExecute);
           ExecutorUtils.executeReplicaReassignmentTasks(_kafkaZkClient, tasksToExecute);
         }
         // Wait indefinitely for partition movements to finish.
@@ -1013,7 +1271,7 @@ public class Executor {
         inExecutionTasks = inExecutionTasks();
         throttleHelper.clearThrottles(completedRemainingTasks, new ArrayList<>(inExecutionTasks));
       }
-      if (inExecutionTasks().isEmpty()) {
+      if (_executionTaskManager.numInExecutionTasks() == 0) {
         LOG.info("Inter-broker partition movements finished.");
       } else if (_stopSignal.get() != NO_STOP_EXECUTION) {
         ExecutionTasksSummary executionTasksSummary = _executionTaskManager.getExecutionTasksSummary(Collections.emptySet());
@@ -1040,14 +1298,14 @@ public class Executor {
 
       int partitionsToMove = numTotalPartitionMovements;
       // Exhaust all the pending partition movements.
-      while ((partitionsToMove > 0 || !inExecutionTasks().isEmpty()) && _stopSignal.get() == NO_STOP_EXECUTION) {
+      while ((partitionsToMove > 0 || _executionTaskManager.numInExecutionTasks() > 0) && _stopSignal.get() == NO_STOP_EXECUTION) {
         // Get tasks to execute.
         List<ExecutionTask> tasksToExecute = _executionTaskManager.getIntraBrokerReplicaMovementTasks();
         LOG.info("Executor will execute {} task(s)", tasksToExecute.size());
 
         if (!tasksToExecute.isEmpty()) {
           // Execute the tasks.
-          _executionTaskManager.markTasksInProgress(tasksToExecute);
+          markTasksInProgress(tasksToExecute);
           executeIntraBrokerReplicaMovements(tasksToExecute, _adminClient, _executionTaskManager, _config);
         }
         // Wait indefinitely for partition movements to finish.
@@ -1069,7 +1327,7 @@ public class Executor {
         waitForExecutionTaskToFinish();
         inExecutionTasks = inExecutionTasks();
       }
-      if (inExecutionTasks().isEmpty()) {
+      if (_executionTaskManager.numInExecutionTasks() == 0) {
         LOG.info("Intra-broker partition movements finished.");
       } else if (_stopSignal.get() != NO_STOP_EXECUTION) {
         ExecutionTasksSummary executionTasksSummary = _executionTaskManager.getExecutionTasksSummary(Collections.emptySet());
@@ -1091,14 +1349,18 @@ public class Executor {
     private void moveLeaderships() {
       int numTotalLeadershipMovements = _executionTaskManager.numRemainingLeadershipMovements();
       LOG.info("Starting {} leadership movements.", numTotalLeadershipMovements);
-      int numFinishedLeadershipMovements = 0;
-      while (_executionTaskManager.numRemainingLeadershipMovements() != 0 && _stopSignal.get() == NO_STOP_EXECUTION) {
-        updateOngoingExecutionState();
-        numFinishedLeadershipMovements += moveLeadershipInBatch();
-        LOG.info("{}/{} ({}%) leadership movements completed.", numFinishedLeadershipMovements,
-                 numTotalLeadershipMovements, numFinishedLeadershipMovements * 100 / numTotalLeadershipMovements);
+      if (_config.getBoolean(ExecutorConfig.PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_CONFIG)) {
+        moveLeadershipsInPipeline(numTotalLeadershipMovements);
+      } else {
+        int numFinishedLeadershipMovements = 0;
+        while (_executionTaskManager.numRemainingLeadershipMovements() != 0 && _stopSignal.get() == NO_STOP_EXECUTION) {
+          updateOngoingExecutionState();
+          numFinishedLeadershipMovements += moveLeadershipInBatch();
+          LOG.info("{}/{} ({}%) leadership movements completed.", numFinishedLeadershipMovements,
+                   numTotalLeadershipMovements, numFinishedLeadershipMovements * 100 / numTotalLeadershipMovements);
+        }
       }
-      if (inExecutionTasks().isEmpty()) {
+      if (_executionTaskManager.numInExecutionTasks() == 0) {
         LOG.info("Leadership movements finished.");
       } else if (_stopSignal.get() != NO_STOP_EXECUTION) {
         Map<ExecutionTask.State, Integer> leadershipMovementTasksByState =
@@ -1114,6 +1376,48 @@ public class Executor {
       }
     }
 
+    /**
+     * Move the leaderships with a sliding window of in-flight leadership movements, bounded by the leadership movement
+     * concurrency. Kafka controller reads the preferred leader election zNode once and deletes it when the election is
+     * completed, so a new election is started as soon as the previous one is completed. It contains the pending leadership
+     * movements that fit in the window along with the in-flight ones, which are not yet visible in the metadata. Electing
+     * the current preferred leader again has no effect. Hence the elections are paced by the controller latency, rather
+     * than by the slowest leadership movement of a batch.
+     *
+     * @param numTotalLeadershipMovements The total number of leadership movements to execute.
+     */
+    private void moveLeadershipsInPipeline(int numTotalLeadershipMovements) {
+      int numFinishedLeadershipMovements = 0;
+      long electionStartMs = -1L;
+      while ((_executionTaskManager.numRemainingLeadershipMovements() != 0 || _executionTaskManager.numInExecutionTasks() > 0)
+             && _stopSignal.get() == NO_STOP_EXECUTION) {
+        updateOngoingExecutionState();
+        if (!hasOngoingLeaderElection()) {
+          if (electionStartMs >= 0L) {
+            LOG.debug("Kafka Controller completed the preferred leader election in at most {} ms.",
+                      _time.milliseconds() - electionStartMs);
+          }
+          Set<ExecutionTask> inFlightTasks = _executionTaskManager.inExecutionTasks(Collections.singleton(LEADER_ACTION));
+          List<ExecutionTask> newTasks = _executionTaskManager.getLeadershipMovementTasks(
+              Math.max(0, _executionTaskManager.leadershipMovementConcurrency() - inFlightTasks.size()));
+          markTasksInProgress(newTasks);
+          List<ExecutionTask> tasksToElect = new ArrayList<>(inFlightTasks);
+          tasksToElect.addAll(newTasks);
+          if (!tasksToElect.isEmpty()) {
+            LOG.debug("Executing {} new and {} in-flight leadership movements.", newTasks.size(), inFlightTasks.size());
+            electPreferredLeaders(tasksToElect);
+            electionStartMs = _time.milliseconds();
+          }
+        } else if (_executionTaskManager.numInExecutionTasks() == 0) {
+          LOG.error("Waiting for Kafka Controller to delete /admin/preferred_replica_election zNode. Are other admin "
+                    + "tools triggering a PLE?");
+        }
+        numFinishedLeadershipMovements += waitForExecutionTaskToFinish().size();
+        LOG.info("{}/{} ({}%) leadership movements completed.", numFinishedLeadershipMovements,
+                 numTotalLeadershipMovements, numFinishedLeadershipMovements * 100 / numTotalLeadershipMovements);
+      }
+    }
+
     private int moveLeadershipInBatch() {
       List<ExecutionTask> leadershipMovementTasks = _executionTaskManager.getLeadershipMovementTasks();
       int numLeadershipToMove = leadershipMovementTasks.size();
@@ -1131,17 +1435,22 @@ public class Executor {
           }
         }
         // Mark leadership movements in progress.
-        _executionTaskManager.markTasksInProgress(leadershipMovementTasks);
+        markTasksInProgress(leadershipMovementTasks);
 
-        ExecutorUtils.executePreferredLeaderElection(_kafkaZkClient, leadershipMovementTasks);
+        electPreferredLeaders(leadershipMovementTasks);
         LOG.trace("Waiting for leadership movement batch to finish.");
-        while (!inExecutionTasks().isEmpty() && _stopSignal.get() == NO_STOP_EXECUTION) {
+        while (_executionTaskManager.numInExecutionTasks() > 0 && _stopSignal.get() == NO_STOP_EXECUTION) {
           waitForExecutionTaskToFinish();
         }
       }
       return numLeadershipToMove;
     }
 
+    private void electPreferredLeaders(List<ExecutionTask> leadershipMovementTasks) {
+      ExecutorUtils.executePreferredLeaderElection(_kafkaZkClient, leadershipMovementTasks);
+      _leaderElectionObserver.accept(leadershipMovementTasks);
+    }
+
     private void deleteZNodesToStopExecution() {
       // Delete zNode of ongoing replica movement tasks.
       LOG.info("Deleting zNode for ongoing replica movements {}.", _kafkaZkClient.getPartitionReassignment());
@@ -1155,21 +1464,22 @@ public class Executor {
     }
 
     /**
-     * This method periodically checks ZooKeeper to see if (1) partition or (2) leadership reassignment has finished or not.
+     * This method checks if (1) partition or (2) leadership reassignment has finished or not. The tasks are checked as
+     * soon as the controller updates their zNodes in ZooKeeper, or periodically otherwise.
      */
     private List<ExecutionTask> waitForExecutionTaskToFinish() {
       List<ExecutionTask> finishedTasks = new ArrayList<>();
       Set<Long> forceStoppedTaskIds = new HashSet<>();
       Set<Long> deletedTaskIds = new HashSet<>();
       Set<Long> deadOrAbortingTaskIds = new HashSet<>();
+      boolean hasProgress = false;
       do {
         // If there is no finished tasks, we need to check if anything is blocked.
         maybeReexecuteTasks();
-        try {
-          Thread.sleep(executionProgressCheckIntervalMs());
-        } catch (InterruptedException e) {
-          // let it go
-        }
+        // A progress that is not yet visible in the metadata is checked again shortly.
+        long waitMs = hasProgress ? Math.min(EXECUTION_PROGRESS_RECHECK_BACKOFF_MS, executionProgressCheckIntervalMs())
+                                  : executionProgressCheckIntervalMs();
+        hasProgress = _executionProgressWatcher.awaitProgress(waitMs);
 
         Cluster cluster = _metadataClient.refreshMetadata().cluster();
         Map<ExecutionTask, ReplicaLogDirInfo> logDirInfoByTask = getLogdirInfoForExecutionTask(
@@ -1218,8 +1528,9 @@ public class Executor {
           }
         }
         handleDeadOrAbortingTasks(deadOrAbortingNonLeadershipTasks, slowTasksToReport);
+        maybeAdjustInterBrokerPartitionMovementConcurrency(cluster, deadOrAbortingNonLeadershipTasks);
         updateOngoingExecutionState();
-      } while (!inExecutionTasks().isEmpty() && finishedTasks.isEmpty());
+      } while (_executionTaskManager.numInExecutionTasks() > 0 && finishedTasks.isEmpty());
 
       LOG.info("Completed tasks: {}.{}{}{}", finishedTasks,
                forceStoppedTaskIds.isEmpty() ? "" : String.format("%n[Force-stopped: %s]", forceStoppedTaskIds),
@@ -1229,6 +1540,33 @@ public class Executor {
       return finishedTasks;
     }
 
+    /**
+     * Adjust the inter-broker partition movement concurrency per broker with the {@link ConcurrencyAdjuster} during the
+     * inter-broker partition movements, if the concurrency adjuster is active for the ongoing execution.
+     *
+     * @param cluster The current cluster metadata.
+     * @param deadOrAbortingNonLeadershipTasks The tasks that have been marked as dead or aborting in this progress check.
+     */
+    private void maybeAdjustInterBrokerPartitionMovementConcurrency(Cluster cluster,
+                                                                    Set<ExecutionTask> deadOrAbortingNonLeadershipTasks) {
+      if (!_isConcurrencyAdjusterActive || _state != INTER_BROKER_REPLICA_MOVEMENT_TASK_IN_PROGRESS
+          || _stopSignal.get() != NO_STOP_EXECUTION) {
+        return;
+      }
+      Set<TopicPartition> partitionsInMovement = new HashSet<>();
+      _executionTaskManager.inExecutionTasks(Collections.singleton(INTER_BROKER_REPLICA_ACTION))
+                           .forEach(task -> partitionsInMovement.add(task.proposal().topicPartition()));
+      boolean hasFailedMovements = deadOrAbortingNonLeadershipTasks.stream().anyMatch(task -> task.type() == INTER_BROKER_REPLICA_ACTION);
+      int currentConcurrency = _executionTaskManager.interBrokerPartitionMovementConcurrency();
+      int adjustedConcurrency = _concurrencyAdjuster.adjustedConcurrency(
+          currentConcurrency, cluster, partitionsInMovement, hasFailedMovements,
+          _executionTaskManager.isInterBrokerPartitionMovementConcurrencyLimiting());
+      // Do not override a concurrency requested by the user during the adjustment.
+      if (adjustedConcurrency != currentConcurrency && _isConcurrencyAdjusterActive) {
+        _executionTaskManager.setRequestedInterBrokerPartitionMovementConcurrency(adjustedConcurrency);
+      }
+    }
+
     private void handleDeadOrAbortingTasks(Set<ExecutionTask> deadOrAbortingNonLeadershipTasks,
                                            List<ExecutionTask> slowTasksToReport) {
       if (!slowTasksToReport.isEmpty()) {
@@ -1456,7 +1794,7 @@ public class Executor {
         List<ExecutionTask> leaderActionsToReexecute = new ArrayList<>(_executionTaskManager.inExecutionTasks(Collections.singleton(LEADER_ACTION)));
         if (!leaderActionsToReexecute.isEmpty()) {
           LOG.info("Reexecuting tasks {}", leaderActionsToReexecute);
-          ExecutorUtils.executePreferredLeaderElection(_kafkaZkClient, leaderActionsToReexecute);
+          electPreferredLeaders(leaderActionsToReexecute);
         }
       }
     }
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.executor;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -46,6 +47,10 @@ public class ExecutorAdminUtils {
   static Map<ExecutionTask, ReplicaLogDirInfo> getLogdirInfoForExecutionTask(Collection<ExecutionTask> tasks,
                                                                              AdminClient adminClient,
                                                                              KafkaCruiseControlConfig config) {
+    if (tasks.isEmpty()) {
+      // Avoid a describeReplicaLogDirs request if there is no intra-broker replica movement to check.
+      return Collections.emptyMap();
+    }
     Set<TopicPartitionReplica> replicasToCheck = new HashSet<>(tasks.size());
     Map<ExecutionTask, ReplicaLogDirInfo> logdirInfoByTask = new HashMap<>(tasks.size());
     Map<TopicPartitionReplica, ExecutionTask> taskByReplica = new HashMap<>(tasks.size());
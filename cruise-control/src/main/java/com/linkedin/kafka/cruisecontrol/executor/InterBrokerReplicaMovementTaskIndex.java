@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import org.apache.kafka.common.TopicPartition;
+
+
+/**
+ * An index of the pending inter-broker replica movement tasks to find the first executable task of a broker without
+ * scanning its pending tasks.
+ * <p>
+ * A task is tracked under its source and destination brokers. Under each broker, the tasks are grouped by their partner
+ * brokers, i.e. the other brokers involved in the task, and each group keeps the execution order of the broker. Whether
+ * a task can be executed depends on the availability of its partner brokers, which is the same for all the tasks of a
+ * group. Hence the first executable task of a broker is the first task, among the first tasks of the groups whose partner
+ * brokers are available, whose partition is available. Finding it costs the number of groups of the broker, which is
+ * bounded by the number of brokers, rather than the number of pending tasks of the broker.
+ * <p>
+ * This class is not thread safe.
+ */
+class InterBrokerReplicaMovementTaskIndex {
+  private final Map<Integer, Map<Set<Integer>, SortedSet<ExecutionTask>>> _tasksByPartnersByBrokerId;
+  private final Map<Integer, Comparator<? super ExecutionTask>> _comparatorByBrokerId;
+
+  /**
+   * @param tasksByBrokerId The tasks in execution order of each broker.
+   */
+  InterBrokerReplicaMovementTaskIndex(Map<Integer, SortedSet<ExecutionTask>> tasksByBrokerId) {
+    _tasksByPartnersByBrokerId = new HashMap<>(tasksByBrokerId.size());
+    _comparatorByBrokerId = new HashMap<>(tasksByBrokerId.size());
+    for (Map.Entry<Integer, SortedSet<ExecutionTask>> entry : tasksByBrokerId.entrySet()) {
+      int brokerId = entry.getKey();
+      Comparator<? super ExecutionTask> comparator = entry.getValue().comparator();
+      Map<Set<Integer>, SortedSet<ExecutionTask>> tasksByPartners = new HashMap<>();
+      for (ExecutionTask task : entry.getValue()) {
+        tasksByPartners.computeIfAbsent(partners(task, brokerId), p -> new TreeSet<>(comparator)).add(task);
+      }
+      _tasksByPartnersByBrokerId.put(brokerId, tasksByPartners);
+      _comparatorByBrokerId.put(brokerId, comparator);
+    }
+  }
+
+  /**
+   * An empty index.
+   */
+  InterBrokerReplicaMovementTaskIndex() {
+    this(Collections.emptyMap());
+  }
+
+  /**
+   * Get the first task in the execution order of the given broker whose partner brokers and partition are available.
+   *
+   * @param brokerId The broker to get the task for.
+   * @param isBrokerAvailable Whether a partner broker is available to execute more tasks.
+   * @param isPartitionAvailable Whether the partition of a task is available to be moved.
+   * @return The first executable task of the given broker, or null if there is none.
+   */
+  ExecutionTask firstExecutableTask(int brokerId, IntPredicate isBrokerAvailable, Predicate<TopicPartition> isPartitionAvailable) {
+    Map<Set<Integer>, SortedSet<ExecutionTask>> tasksByPartners = _tasksByPartnersByBrokerId.get(brokerId);
+    if (tasksByPartners == null) {
+      return null;
+    }
+    Comparator<? super ExecutionTask> comparator = _comparatorByBrokerId.get(brokerId);
+    ExecutionTask firstExecutableTask = null;
+    for (Map.Entry<Set<Integer>, SortedSet<ExecutionTask>> entry : tasksByPartners.entrySet()) {
+      if (!allAvailable(entry.getKey(), isBrokerAvailable)) {
+        continue;
+      }
+      // Only the tasks of the partitions with ongoing movements are skipped, which are bounded by the concurrency.
+      for (ExecutionTask task : entry.getValue()) {
+        if (isPartitionAvailable.test(task.proposal().topicPartition())) {
+          if (firstExecutableTask == null || comparator.compare(task, firstExecutableTask) < 0) {
+            firstExecutableTask = task;
+          }
+          break;
+        }
+      }
+    }
+    return firstExecutableTask;
+  }
+
+  /**
+   * Remove the given task from the index.
+   *
+   * @param task The task to remove.
+   */
+  void remove(ExecutionTask task) {
+    remove(task, task.proposal().oldLeader().brokerId());
+    for (ReplicaPlacementInfo destinationBroker : task.proposal().replicasToAdd()) {
+      remove(task, destinationBroker.brokerId());
+    }
+  }
+
+  private void remove(ExecutionTask task, int brokerId) {
+    Map<Set<Integer>, SortedSet<ExecutionTask>> tasksByPartners = _tasksByPartnersByBrokerId.get(brokerId);
+    if (tasksByPartners == null) {
+      return;
+    }
+    Set<Integer> partners = partners(task, brokerId);
+    SortedSet<ExecutionTask> tasks = tasksByPartners.get(partners);
+    if (tasks != null && tasks.remove(task) && tasks.isEmpty()) {
+      // Drop the empty groups to keep the lookup cost bounded by the groups with pending tasks.
+      tasksByPartners.remove(partners);
+    }
+  }
+
+  private static boolean allAvailable(Set<Integer> brokerIds, IntPredicate isBrokerAvailable) {
+    for (int brokerId : brokerIds) {
+      if (!isBrokerAvailable.test(brokerId)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param task The inter-broker replica movement task.
+   * @param brokerId A broker involved in the task.
+   * @return The brokers involved in the task other than the given broker.
+   */
+  private static Set<Integer> partners(ExecutionTask task, int brokerId) {
+    Set<Integer> partners = new HashSet<>();
+    partners.add(task.proposal().oldLeader().brokerId());
+    for (ReplicaPlacementInfo destinationBroker : task.proposal().replicasToAdd()) {
+      partners.add(destinationBroker.brokerId());
+    }
+    partners.remove(brokerId);
+    return partners;
+  }
+}
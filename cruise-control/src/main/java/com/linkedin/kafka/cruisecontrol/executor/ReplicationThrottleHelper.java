@@ -4,17 +4,21 @@
 
 package com.linkedin.kafka.cruisecontrol.executor;
 
+import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
 import kafka.log.LogConfig;
 import kafka.server.ConfigType;
 import kafka.zk.AdminZkClient;
 import kafka.zk.KafkaZkClient;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -25,6 +29,16 @@ import java.util.stream.Stream;
 
 /**
  * See https://kafka.apache.org/documentation/#rep-throttle
+ * <p>
+ * The throttles are set from the current broker and topic configs in ZooKeeper, so a throttle removed outside of Cruise
+ * Control while its movements are in flight is set again with the next batch. A throttle rate set before the execution,
+ * or changed outside of Cruise Control, is left as is.
+ * </p>
+ * <p>
+ * With per-broker throttle rates and a minimum throttle rate, the rates are recomputed from the in-flight movements
+ * whenever movements start or finish: the leader throttle of the source broker of the movements does not exceed the
+ * share of the follower throttles of their destination brokers, and vice versa. Only the changed rates are written.
+ * </p>
  */
 class ReplicationThrottleHelper {
   private static final Logger LOG = LoggerFactory.getLogger(ReplicationThrottleHelper.class);
@@ -33,26 +47,84 @@ class ReplicationThrottleHelper {
   static final String FOLLOWER_THROTTLED_RATE = "follower.replication.throttled.rate";
   static final String LEADER_THROTTLED_REPLICAS = LogConfig.LeaderReplicationThrottledReplicasProp();
   static final String FOLLOWER_THROTTLED_REPLICAS = LogConfig.FollowerReplicationThrottledReplicasProp();
+  private static final long BYTES_IN_KB = 1024L;
 
   private final KafkaZkClient _kafkaZkClient;
   private final AdminZkClient _adminZkClient;
   private final Long _throttleRate;
+  // The maximum leader and follower replication throttle (bytes/second) of each broker.
+  private final Map<Integer, Long> _leaderThrottleRateByBroker;
+  private final Map<Integer, Long> _followerThrottleRateByBroker;
+  // The minimum replication throttle (bytes/second) of the rates recomputed from the in-flight movements, or null if the
+  // rates are not recomputed.
+  private final Long _minThrottleRate;
+  // The inter-broker replica movements whose throttles have been set, and not cleared since.
+  private final Map<TopicPartition, ExecutionProposal> _inFlightProposals;
+  // The throttle rates last written by this helper, to tell them from the rates set outside of Cruise Control.
+  private final Map<Integer, Long> _leaderThrottleRateSetByBroker;
+  private final Map<Integer, Long> _followerThrottleRateSetByBroker;
+  // The brokers and the replicas of each topic that have been throttled, and not cleared since.
+  private final Set<Integer> _throttledBrokers;
+  private final Map<String, Set<String>> _throttledReplicasByTopic;
 
   ReplicationThrottleHelper(KafkaZkClient kafkaZkClient, Long throttleRate) {
+    this(kafkaZkClient, throttleRate, Collections.emptyMap(), Collections.emptyMap());
+  }
+
+  /**
+   * @param kafkaZkClient The zookeeper client to change the broker and topic configs.
+   * @param throttleRate The replication throttle (bytes/second) of the brokers without a throttle of their own, or null
+   *                     to leave these brokers unthrottled.
+   * @param leaderThrottleRateByBroker The leader replication throttle (bytes/second) of each broker.
+   * @param followerThrottleRateByBroker The follower replication throttle (bytes/second) of each broker.
+   */
+  ReplicationThrottleHelper(KafkaZkClient kafkaZkClient,
+                            Long throttleRate,
+                            Map<Integer, Long> leaderThrottleRateByBroker,
+                            Map<Integer, Long> followerThrottleRateByBroker) {
+    this(kafkaZkClient, throttleRate, leaderThrottleRateByBroker, followerThrottleRateByBroker, null);
+  }
+
+  /**
+   * @param kafkaZkClient The zookeeper client to change the broker and topic configs.
+   * @param throttleRate The replication throttle (bytes/second) of the brokers without a throttle of their own, or null
+   *                     to leave these brokers unthrottled.
+   * @param leaderThrottleRateByBroker The maximum leader replication throttle (bytes/second) of each broker.
+   * @param followerThrottleRateByBroker The maximum follower replication throttle (bytes/second) of each broker.
+   * @param minThrottleRate The minimum replication throttle (bytes/second) of the rates recomputed from the in-flight
+   *                        movements, or null to always use the maximum throttle rates.
+   */
+  ReplicationThrottleHelper(KafkaZkClient kafkaZkClient,
+                            Long throttleRate,
+                            Map<Integer, Long> leaderThrottleRateByBroker,
+                            Map<Integer, Long> followerThrottleRateByBroker,
+                            Long minThrottleRate) {
     this._kafkaZkClient = kafkaZkClient;
     this._adminZkClient = new AdminZkClient(kafkaZkClient);
     this._throttleRate = throttleRate;
+    this._leaderThrottleRateByBroker = leaderThrottleRateByBroker;
+    this._followerThrottleRateByBroker = followerThrottleRateByBroker;
+    this._minThrottleRate = minThrottleRate;
+    this._inFlightProposals = new HashMap<>();
+    this._leaderThrottleRateSetByBroker = new HashMap<>();
+    this._followerThrottleRateSetByBroker = new HashMap<>();
+    this._throttledBrokers = new HashSet<>();
+    this._throttledReplicasByTopic = new HashMap<>();
   }
 
   void setThrottles(List<ExecutionProposal> replicaMovementProposals) {
     if (throttlingEnabled()) {
-      LOG.info("Setting a rebalance throttle of {} bytes/sec", _throttleRate);
-      Set<Integer> participatingBrokers = getParticipatingBrokers(replicaMovementProposals);
-      Map<String, Set<String>> throttledReplicas = getThrottledReplicasByTopic(replicaMovementProposals);
-      participatingBrokers.forEach(this::setLeaderThrottledRateIfUnset);
-      participatingBrokers.forEach(this::setFollowerThrottledRateIfUnset);
-      throttledReplicas.forEach(this::setLeaderThrottledReplicas);
-      throttledReplicas.forEach(this::setFollowerThrottledReplicas);
+      replicaMovementProposals.forEach(proposal -> _inFlightProposals.put(proposal.topicPartition(), proposal));
+      // Check the throttles of all the in-flight movements against ZooKeeper, and set the missing ones.
+      List<ExecutionProposal> inFlightProposals = new ArrayList<>(_inFlightProposals.values());
+      Set<Integer> participatingBrokers = getParticipatingBrokers(inFlightProposals);
+      LOG.info("Setting a rebalance throttle of {} bytes/sec on brokers {} (leader throttle overrides: {}, follower throttle "
+               + "overrides: {}).", _throttleRate, participatingBrokers, _leaderThrottleRateByBroker, _followerThrottleRateByBroker);
+      updateThrottledRates(participatingBrokers, inFlightProposals);
+      Map<String, Set<String>> throttledReplicas = getThrottledReplicasByTopic(inFlightProposals);
+      throttledReplicas.forEach(this::setThrottledReplicas);
+      _throttledBrokers.addAll(participatingBrokers);
+      throttledReplicas.forEach((topic, replicas) -> _throttledReplicasByTopic.computeIfAbsent(topic, t -> new HashSet<>()).addAll(replicas));
     }
   }
 
@@ -108,14 +180,98 @@ class ReplicationThrottleHelper {
 
       LOG.info("Removing replica movement throttles from brokers in the cluster: {}", brokersToRemoveThrottlesFrom);
       brokersToRemoveThrottlesFrom.forEach(this::removeThrottledRateFromBroker);
+      _throttledBrokers.removeAll(brokersToRemoveThrottlesFrom);
+      _leaderThrottleRateSetByBroker.keySet().removeAll(brokersToRemoveThrottlesFrom);
+      _followerThrottleRateSetByBroker.keySet().removeAll(brokersToRemoveThrottlesFrom);
+
+      // The remaining in-flight movements may use the throttle freed by the completed ones.
+      completedProposals.forEach(proposal -> _inFlightProposals.remove(proposal.topicPartition()));
+      if (_minThrottleRate != null && !completedProposals.isEmpty()) {
+        List<ExecutionProposal> inFlightProposals = new ArrayList<>(_inFlightProposals.values());
+        Set<Integer> brokersToUpdate = getParticipatingBrokers(inFlightProposals);
+        brokersToUpdate.retainAll(_throttledBrokers);
+        updateThrottledRates(brokersToUpdate, inFlightProposals);
+      }
 
       Map<String, Set<String>> throttledReplicas = getThrottledReplicasByTopic(completedProposals);
       throttledReplicas.forEach(this::removeThrottledReplicasFromTopic);
+      throttledReplicas.forEach((topic, replicas) -> {
+        Set<String> replicasOfTopic = _throttledReplicasByTopic.get(topic);
+        if (replicasOfTopic != null) {
+          replicasOfTopic.removeAll(replicas);
+          if (replicasOfTopic.isEmpty()) {
+            _throttledReplicasByTopic.remove(topic);
+          }
+        }
+      });
     }
   }
 
+  /**
+   * @return The brokers that have been throttled, and not cleared since.
+   */
+  Set<Integer> throttledBrokers() {
+    return new HashSet<>(_throttledBrokers);
+  }
+
+  /**
+   * @return The throttled replicas of each topic that have been set, and not cleared since.
+   */
+  Map<String, Set<String>> throttledReplicasByTopic() {
+    Map<String, Set<String>> throttledReplicasByTopic = new HashMap<>(_throttledReplicasByTopic.size());
+    _throttledReplicasByTopic.forEach((topic, replicas) -> throttledReplicasByTopic.put(topic, new HashSet<>(replicas)));
+    return throttledReplicasByTopic;
+  }
+
+  /**
+   * Clear the throttles left behind by an interrupted execution that are not needed by its remaining proposals. The
+   * throttles needed by the remaining proposals are kept, and cleared as usual once their tasks finish.
+   *
+   * @param throttledBrokers The brokers throttled by the interrupted execution.
+   * @param throttledReplicasByTopic The throttled replicas of each topic set by the interrupted execution.
+   * @param remainingProposals The proposals that remain to be executed.
+   */
+  void clearOrphanedThrottles(Set<Integer> throttledBrokers,
+                              Map<String, Set<String>> throttledReplicasByTopic,
+                              List<ExecutionProposal> remainingProposals) {
+    List<ExecutionProposal> remainingReplicaMovementProposals =
+        remainingProposals.stream().filter(ExecutionProposal::hasReplicaAction).collect(Collectors.toList());
+    Set<Integer> orphanedBrokers = new TreeSet<>(throttledBrokers);
+    orphanedBrokers.removeAll(getParticipatingBrokers(remainingReplicaMovementProposals));
+    LOG.info("Removing orphaned replica movement throttles from brokers in the cluster: {}", orphanedBrokers);
+    orphanedBrokers.forEach(this::removeThrottledRateFromBroker);
+
+    Map<String, Set<String>> neededReplicasByTopic = getThrottledReplicasByTopic(remainingReplicaMovementProposals);
+    throttledReplicasByTopic.forEach((topic, replicas) -> {
+      Set<String> orphanedReplicas = new TreeSet<>(replicas);
+      orphanedReplicas.removeAll(neededReplicasByTopic.getOrDefault(topic, Collections.emptySet()));
+      if (!orphanedReplicas.isEmpty()) {
+        removeThrottledReplicasFromTopic(topic, orphanedReplicas);
+      }
+    });
+  }
+
+  /**
+   * Get the replication throttle of each broker from its spare network capacity. The leader throttle of a broker limits
+   * its outbound replication traffic, and the follower throttle its inbound replication traffic.
+   *
+   * @param spareNetworkCapacityByBroker The spare network capacity in KB/s of each broker, indexed by the id of
+   * {@link Resource#NW_IN} and {@link Resource#NW_OUT}.
+   * @param resource {@link Resource#NW_OUT} for the leader throttle, {@link Resource#NW_IN} for the follower throttle.
+   * @param minThrottleRate The minimum replication throttle (bytes/second).
+   * @return The replication throttle (bytes/second) of each broker.
+   */
+  static Map<Integer, Long> throttleRateByBroker(Map<Integer, double[]> spareNetworkCapacityByBroker,
+                                                 Resource resource,
+                                                 long minThrottleRate) {
+    Map<Integer, Long> throttleRateByBroker = new HashMap<>(spareNetworkCapacityByBroker.size());
+    spareNetworkCapacityByBroker.forEach((brokerId, spareNetworkCapacity) -> throttleRateByBroker.put(
+        brokerId, Math.max(minThrottleRate, (long) (spareNetworkCapacity[resource.id()] * BYTES_IN_KB))));
+    return throttleRateByBroker;
+  }
+
   private boolean throttlingEnabled() {
-    return _throttleRate != null;
+    return _throttleRate != null || !_leaderThrottleRateByBroker.isEmpty() || !_followerThrottleRateByBroker.isEmpty();
   }
 
   private Set<Integer> getParticipatingBrokers(List<ExecutionProposal> replicaMovementProposals) {
@@ -142,47 +298,146 @@ class ReplicationThrottleHelper {
     return throttledReplicasByTopic;
   }
 
-  private void setLeaderThrottledRateIfUnset(int brokerId) {
-    setThrottledRateIfUnset(brokerId, LEADER_THROTTLED_RATE);
+  /**
+   * Set the throttle rates of the given brokers to the rates for the given in-flight movements, writing only the brokers
+   * whose rates change.
+   *
+   * @param brokers The brokers to set the throttle rates of.
+   * @param inFlightProposals The in-flight inter-broker replica movements.
+   */
+  private void updateThrottledRates(Set<Integer> brokers, List<ExecutionProposal> inFlightProposals) {
+    Map<Integer, Long> leaderThrottleRates = new HashMap<>(brokers.size());
+    Map<Integer, Long> followerThrottleRates = new HashMap<>(brokers.size());
+    if (_minThrottleRate == null) {
+      brokers.forEach(brokerId -> {
+        leaderThrottleRates.put(brokerId, maxThrottleRate(_leaderThrottleRateByBroker, brokerId));
+        followerThrottleRates.put(brokerId, maxThrottleRate(_followerThrottleRateByBroker, brokerId));
+      });
+    } else {
+      throttleRatesForMovements(brokers, inFlightProposals, leaderThrottleRates, followerThrottleRates);
+    }
+    for (int brokerId : brokers) {
+      Properties config = _kafkaZkClient.getEntityConfigs(ConfigType.Broker(), String.valueOf(brokerId));
+      boolean leaderThrottleChanged = setThrottledRate(config, brokerId, LEADER_THROTTLED_RATE,
+                                                       leaderThrottleRates.get(brokerId), _leaderThrottleRateSetByBroker);
+      boolean followerThrottleChanged = setThrottledRate(config, brokerId, FOLLOWER_THROTTLED_RATE,
+                                                         followerThrottleRates.get(brokerId), _followerThrottleRateSetByBroker);
+      // Change the leader and follower throttles of the broker at once.
+      if (leaderThrottleChanged || followerThrottleChanged) {
+        ExecutorUtils.changeBrokerConfig(_adminZkClient, brokerId, config);
+      }
+    }
+  }
+
+  /**
+   * Get the throttle rates of the given brokers for the given in-flight movements. The data of a movement is sent by the
+   * leader of the partition to each added replica. The leader throttle of a sending broker is the sum of its share of the
+   * follower throttle of each receiving broker, and the follower throttle of a receiving broker is the sum of its share of
+   * the leader throttle of each sending broker, bounded by the maximum and the minimum throttle rates. The brokers that
+   * neither send nor receive the data of a movement use the maximum throttle rates, because their throttles still apply
+   * to the replication of the other replicas of the moved partitions.
+   *
+   * @param brokers The brokers to get the throttle rates of.
+   * @param inFlightProposals The in-flight inter-broker replica movements.
+   * @param leaderThrottleRates The leader throttle rate of each broker to populate.
+   * @param followerThrottleRates The follower throttle rate of each broker to populate.
+   */
+  private void throttleRatesForMovements(Set<Integer> brokers,
+                                         List<ExecutionProposal> inFlightProposals,
+                                         Map<Integer, Long> leaderThrottleRates,
+                                         Map<Integer, Long> followerThrottleRates) {
+    Map<Integer, Integer> numSentMovements = new HashMap<>();
+    Map<Integer, Integer> numReceivedMovements = new HashMap<>();
+    for (ExecutionProposal proposal : inFlightProposals) {
+      for (ReplicaPlacementInfo replicaToAdd : proposal.replicasToAdd()) {
+        numSentMovements.merge(proposal.oldLeader().brokerId(), 1, Integer::sum);
+        numReceivedMovements.merge(replicaToAdd.brokerId(), 1, Integer::sum);
+      }
+    }
+    Map<Integer, Double> sentRates = new HashMap<>();
+    Map<Integer, Double> receivedRates = new HashMap<>();
+    for (ExecutionProposal proposal : inFlightProposals) {
+      int sender = proposal.oldLeader().brokerId();
+      for (ReplicaPlacementInfo replicaToAdd : proposal.replicasToAdd()) {
+        int receiver = replicaToAdd.brokerId();
+        sentRates.merge(sender, share(_followerThrottleRateByBroker, receiver, numReceivedMovements), Double::sum);
+        receivedRates.merge(receiver, share(_leaderThrottleRateByBroker, sender, numSentMovements), Double::sum);
+      }
+    }
+    for (int brokerId : brokers) {
+      leaderThrottleRates.put(brokerId, boundedThrottleRate(_leaderThrottleRateByBroker, brokerId, sentRates.get(brokerId)));
+      followerThrottleRates.put(brokerId, boundedThrottleRate(_followerThrottleRateByBroker, brokerId, receivedRates.get(brokerId)));
+    }
+  }
+
+  private Long maxThrottleRate(Map<Integer, Long> throttleRateByBroker, int brokerId) {
+    return throttleRateByBroker.getOrDefault(brokerId, _throttleRate);
   }
 
-  private void setFollowerThrottledRateIfUnset(int brokerId) {
-    setThrottledRateIfUnset(brokerId, FOLLOWER_THROTTLED_RATE);
+  private double share(Map<Integer, Long> throttleRateByBroker, int brokerId, Map<Integer, Integer> numMovementsByBroker) {
+    Long maxThrottleRate = maxThrottleRate(throttleRateByBroker, brokerId);
+    // An unthrottled broker does not bound the rate of the other end of its movements.
+    return maxThrottleRate == null ? Double.POSITIVE_INFINITY : (double) maxThrottleRate / numMovementsByBroker.get(brokerId);
   }
 
-  private void setThrottledRateIfUnset(int brokerId, String configKey) {
-    assert (_throttleRate != null);
-    assert (configKey.equals(LEADER_THROTTLED_RATE) || configKey.equals(FOLLOWER_THROTTLED_RATE));
-    Properties config = _kafkaZkClient.getEntityConfigs(ConfigType.Broker(), String.valueOf(brokerId));
-    Object oldThrottleRate = config.setProperty(configKey, String.valueOf(_throttleRate));
-    if (oldThrottleRate == null) {
-      LOG.debug("Setting {} to {} bytes/second for broker {}", configKey, _throttleRate, brokerId);
-      ExecutorUtils.changeBrokerConfig(_adminZkClient, brokerId, config);
-    } else {
-      LOG.debug("Not setting {} for broker {} because pre-existing throttle of {} was already set",
-        configKey, brokerId, oldThrottleRate);
+  private Long boundedThrottleRate(Map<Integer, Long> throttleRateByBroker, int brokerId, Double movementRate) {
+    Long maxThrottleRate = maxThrottleRate(throttleRateByBroker, brokerId);
+    if (maxThrottleRate == null || movementRate == null) {
+      return maxThrottleRate;
     }
+    return Math.max(_minThrottleRate, (long) Math.min(maxThrottleRate, movementRate));
   }
 
-  private void setLeaderThrottledReplicas(String topic, Set<String> replicas) {
-    setThrottledReplicas(topic, replicas, LEADER_THROTTLED_REPLICAS);
+  /**
+   * Set the given throttle rate in the given broker config, unless the config has a throttle rate that was not set by this
+   * helper, i.e. a pre-existing throttle rate or a throttle rate changed outside of Cruise Control.
+   *
+   * @return True if the config has changed, false otherwise.
+   */
+  private boolean setThrottledRate(Properties config, int brokerId, String configKey, Long throttleRate,
+                                   Map<Integer, Long> throttleRateSetByBroker) {
+    assert (configKey.equals(LEADER_THROTTLED_RATE) || configKey.equals(FOLLOWER_THROTTLED_RATE));
+    if (throttleRate == null) {
+      return false;
+    }
+    String newThrottleRate = String.valueOf(throttleRate);
+    String oldThrottleRate = config.getProperty(configKey);
+    Long throttleRateSet = throttleRateSetByBroker.get(brokerId);
+    if (oldThrottleRate != null && (throttleRateSet == null || !oldThrottleRate.equals(String.valueOf(throttleRateSet)))) {
+      LOG.debug("Not setting {} for broker {} because pre-existing throttle of {} was already set",
+                configKey, brokerId, oldThrottleRate);
+      return false;
+    }
+    throttleRateSetByBroker.put(brokerId, throttleRate);
+    if (newThrottleRate.equals(oldThrottleRate)) {
+      return false;
+    }
+    LOG.debug("Setting {} to {} bytes/second for broker {}", configKey, throttleRate, brokerId);
+    config.setProperty(configKey, newThrottleRate);
+    return true;
   }
 
-  private void setFollowerThrottledReplicas(String topic, Set<String> replicas) {
-    setThrottledReplicas(topic, replicas, FOLLOWER_THROTTLED_REPLICAS);
+  private void setThrottledReplicas(String topic, Set<String> replicas) {
+    Properties config = _kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic);
+    boolean leaderThrottledReplicasChanged = addThrottledReplicas(config, replicas, LEADER_THROTTLED_REPLICAS);
+    boolean followerThrottledReplicasChanged = addThrottledReplicas(config, replicas, FOLLOWER_THROTTLED_REPLICAS);
+    // Change the leader and follower throttled replicas of the topic at once.
+    if (leaderThrottledReplicasChanged || followerThrottledReplicasChanged) {
+      ExecutorUtils.changeTopicConfig(_adminZkClient, topic, config);
+    }
   }
 
-  private void setThrottledReplicas(String topic, Set<String> replicas, String configKey) {
+  private boolean addThrottledReplicas(Properties config, Set<String> replicas, String configKey) {
     assert (configKey.equals(LEADER_THROTTLED_REPLICAS) || configKey.equals(FOLLOWER_THROTTLED_REPLICAS));
-    Properties config = _kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic);
     // Merge new throttled replicas with existing configuration values.
     Set<String> newThrottledReplicas = new TreeSet<>(replicas);
     String oldThrottledReplicas = config.getProperty(configKey);
     if (oldThrottledReplicas != null) {
       newThrottledReplicas.addAll(Arrays.asList(oldThrottledReplicas.split(",")));
     }
-    config.setProperty(configKey, String.join(",", newThrottledReplicas));
-    ExecutorUtils.changeTopicConfig(_adminZkClient, topic, config);
+    String newThrottledReplicasValue = String.join(",", newThrottledReplicas);
+    config.setProperty(configKey, newThrottledReplicasValue);
+    return !newThrottledReplicasValue.equals(oldThrottledReplicas);
   }
 
   static String removeReplicasFromConfig(String throttleConfig, Set<String> replicas) {
@@ -219,9 +474,12 @@ class ReplicationThrottleHelper {
 
   private void removeThrottledReplicasFromTopic(String topic, Set<String> replicas) {
     Properties config = _kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic);
+    Properties oldConfig = (Properties) config.clone();
     removeLeaderThrottledReplicasFromTopic(config, topic, replicas);
     removeFollowerThrottledReplicasFromTopic(config, topic, replicas);
-    ExecutorUtils.changeTopicConfig(_adminZkClient, topic, config);
+    if (!config.equals(oldConfig)) {
+      ExecutorUtils.changeTopicConfig(_adminZkClient, topic, config);
+    }
   }
 
   private void removeAllThrottledReplicasFromTopic(String topic) {
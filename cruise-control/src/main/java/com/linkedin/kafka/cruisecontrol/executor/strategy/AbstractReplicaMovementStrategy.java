@@ -27,7 +27,15 @@ public abstract class AbstractReplicaMovementStrategy implements ReplicaMovement
     return new ReplicaMovementStrategy() {
       @Override
       public Map<Integer, SortedSet<ExecutionTask>> applyStrategy(Set<ExecutionTask> replicaMovementTasks, Cluster cluster) {
-        return current.applyStrategy(replicaMovementTasks, cluster);
+        prepare(replicaMovementTasks, cluster);
+        // Order the tasks with the combined rule of the chained strategies.
+        return tasksByBrokerId(replicaMovementTasks, taskComparator(cluster), name());
+      }
+
+      @Override
+      public void prepare(Set<ExecutionTask> replicaMovementTasks, Cluster cluster) {
+        current.prepare(replicaMovementTasks, cluster);
+        strategy.prepare(replicaMovementTasks, cluster);
       }
 
       @Override
@@ -55,6 +63,21 @@ public abstract class AbstractReplicaMovementStrategy implements ReplicaMovement
 
   @Override
   public Map<Integer, SortedSet<ExecutionTask>> applyStrategy(Set<ExecutionTask> replicaMovementTasks, Cluster cluster) {
+    prepare(replicaMovementTasks, cluster);
+    return tasksByBrokerId(replicaMovementTasks, taskComparator(cluster), this.getClass().getSimpleName());
+  }
+
+  /**
+   * Track each given task under its source and destination brokers, ordered by the given comparator.
+   *
+   * @param replicaMovementTasks The replica movement tasks to be executed.
+   * @param taskComparator The comparator to determine the execution order of the tasks.
+   * @param strategyName The name of the strategy that provides the comparator.
+   * @return Ordered set of tasks to be executed for each broker.
+   */
+  private static Map<Integer, SortedSet<ExecutionTask>> tasksByBrokerId(Set<ExecutionTask> replicaMovementTasks,
+                                                                        Comparator<ExecutionTask> taskComparator,
+                                                                        String strategyName) {
     Map<Integer, SortedSet<ExecutionTask>> tasksByBrokerId = new HashMap<>();
 
     for (ExecutionTask task : replicaMovementTasks) {
@@ -62,17 +85,17 @@ public abstract class AbstractReplicaMovementStrategy implements ReplicaMovement
 
       // Add the task to source broker's execution plan
       SortedSet<ExecutionTask> sourceBrokerTaskSet = tasksByBrokerId.computeIfAbsent(proposal.oldLeader().brokerId(),
-                                                                                     k -> new TreeSet<>(taskComparator(cluster)));
+                                                                                     k -> new TreeSet<>(taskComparator));
       if (!sourceBrokerTaskSet.add(task)) {
-        throw new IllegalStateException("Replica movement strategy " + this.getClass().getSimpleName() + " failed to determine order of tasks.");
+        throw new IllegalStateException("Replica movement strategy " + strategyName + " failed to determine order of tasks.");
       }
 
       // Add the task to destination brokers' execution plan
       for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
         SortedSet<ExecutionTask> destinationBrokerTaskSet = tasksByBrokerId.computeIfAbsent(destinationBroker.brokerId(),
-                                                                                            k -> new TreeSet<>(taskComparator(cluster)));
+                                                                                            k -> new TreeSet<>(taskComparator));
         if (!destinationBrokerTaskSet.add(task)) {
-          throw new IllegalStateException("Replica movement strategy " + this.getClass().getSimpleName() + " failed to determine order of tasks.");
+          throw new IllegalStateException("Replica movement strategy " + strategyName + " failed to determine order of tasks.");
         }
       }
     }
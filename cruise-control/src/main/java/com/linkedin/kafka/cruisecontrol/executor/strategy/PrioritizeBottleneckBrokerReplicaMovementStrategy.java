@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor.strategy;
+
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionTask;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+
+
+/**
+ * The strategy, which tries to minimize the total execution time of the replica movements by first moving the replicas
+ * of the bottleneck brokers, i.e. the brokers with the most data to move in and out, and among them the largest replicas.
+ * <p>
+ * The bandwidth of a broker is shared by all the replicas it moves in and out, so the execution cannot finish earlier
+ * than the broker with the most data to move. Each task is prioritized by the most data to move of the brokers it
+ * involves, then by its own size, i.e. a longest-processing-time-first list scheduling on the bottleneck brokers. As all
+ * brokers share this order, every broker prefers the movements that relieve the bottleneck brokers, which keeps the
+ * bottleneck brokers busy from the start instead of leaving their largest movements to the end of the execution.
+ */
+public class PrioritizeBottleneckBrokerReplicaMovementStrategy extends AbstractReplicaMovementStrategy {
+  private Map<Integer, Long> _dataToMoveInMBByBroker = Collections.emptyMap();
+
+  @Override
+  public synchronized void prepare(Set<ExecutionTask> replicaMovementTasks, Cluster cluster) {
+    Map<Integer, Long> dataToMoveInMBByBroker = new HashMap<>();
+    for (ExecutionTask task : replicaMovementTasks) {
+      ExecutionProposal proposal = task.proposal();
+      long dataToMoveInMB = proposal.interBrokerDataToMoveInMB();
+      if (dataToMoveInMB == 0L) {
+        continue;
+      }
+      // The source broker sends the partition to each destination broker.
+      dataToMoveInMBByBroker.merge(proposal.oldLeader().brokerId(), dataToMoveInMB, Long::sum);
+      long dataToMoveInMBPerDestination = dataToMoveInMB / proposal.replicasToAdd().size();
+      for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
+        dataToMoveInMBByBroker.merge(destinationBroker.brokerId(), dataToMoveInMBPerDestination, Long::sum);
+      }
+    }
+    _dataToMoveInMBByBroker = dataToMoveInMBByBroker;
+  }
+
+  @Override
+  public synchronized Comparator<ExecutionTask> taskComparator(Cluster cluster) {
+    Map<Integer, Long> dataToMoveInMBByBroker = _dataToMoveInMBByBroker;
+    return (task1, task2) -> {
+      int compareResult = Long.compare(bottleneckDataToMoveInMB(task2, dataToMoveInMBByBroker),
+                                       bottleneckDataToMoveInMB(task1, dataToMoveInMBByBroker));
+      return compareResult == 0 ? Long.compare(task2.proposal().dataToMoveInMB(), task1.proposal().dataToMoveInMB())
+                                : compareResult;
+    };
+  }
+
+  /**
+   * @param task The replica movement task.
+   * @param dataToMoveInMBByBroker The data to move in and out of each broker in MB.
+   * @return The most data to move in MB of the brokers involved in the given task.
+   */
+  private static long bottleneckDataToMoveInMB(ExecutionTask task, Map<Integer, Long> dataToMoveInMBByBroker) {
+    ExecutionProposal proposal = task.proposal();
+    long bottleneckDataToMoveInMB = dataToMoveInMBByBroker.getOrDefault(proposal.oldLeader().brokerId(), 0L);
+    for (ReplicaPlacementInfo destinationBroker : proposal.replicasToAdd()) {
+      bottleneckDataToMoveInMB = Math.max(bottleneckDataToMoveInMB,
+                                          dataToMoveInMBByBroker.getOrDefault(destinationBroker.brokerId(), 0L));
+    }
+    return bottleneckDataToMoveInMB;
+  }
+
+  /**
+   * Get the name of this strategy. Name of a strategy provides an identification for the strategy in human readable format.
+   */
+  @Override
+  public String name() {
+    return PrioritizeBottleneckBrokerReplicaMovementStrategy.class.getSimpleName();
+  }
+}
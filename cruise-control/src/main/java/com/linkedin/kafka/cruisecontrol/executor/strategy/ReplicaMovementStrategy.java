@@ -23,6 +23,17 @@ public interface ReplicaMovementStrategy {
    */
   Map<Integer, SortedSet<ExecutionTask>> applyStrategy(Set<ExecutionTask> replicaMovementTasks, Cluster cluster);
 
+  /**
+   * Prepare the strategy to determine the execution order of the given replica movement tasks, e.g. to compute the
+   * statistics of all tasks that {@link #taskComparator(Cluster)} uses. It is called before the task comparator is
+   * generated to apply the strategy. Does nothing by default.
+   *
+   * @param replicaMovementTasks The replica movement tasks to be executed.
+   * @param cluster The current cluster state.
+   */
+  default void prepare(Set<ExecutionTask> replicaMovementTasks, Cluster cluster) {
+  }
+
   /**
    * Chain with another replica movement strategy to create a composite strategy.The returned strategy should use a combined rule
    * of two strategies in determining the task execution order.
@@ -25,10 +25,12 @@ import com.linkedin.kafka.cruisecontrol.async.progress.OperationProgress;
 import com.linkedin.kafka.cruisecontrol.async.progress.WaitingForClusterModel;
 import com.linkedin.kafka.cruisecontrol.config.TopicConfigProvider;
 import com.linkedin.kafka.cruisecontrol.config.constants.AnalyzerConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.exception.BrokerCapacityResolutionException;
 import com.linkedin.kafka.cruisecontrol.executor.Executor;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionEntity;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
@@ -39,7 +41,9 @@ import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.SampleExtrap
 import com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner;
 import com.linkedin.kafka.cruisecontrol.servlet.response.stats.BrokerStats;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -94,6 +98,7 @@ public class LoadMonitor {
   private final KafkaCruiseControlConfig _config;
   private final MetadataClient _metadataClient;
   private final AdminClient _adminClient;
+  private final LogDirInfoCache _logDirInfoCache;
   private final BrokerCapacityConfigResolver _brokerCapacityConfigResolver;
   private final TopicConfigProvider _topicConfigProvider;
   private final ScheduledExecutorService _loadMonitorExecutor;
@@ -156,6 +161,11 @@ public class LoadMonitor {
 
     _adminClient = adminClient;
 
+    _logDirInfoCache = new LogDirInfoCache(adminClient,
+                                           time,
+                                           config.getLong(MonitorConfig.LOGDIR_INFO_CACHE_TTL_MS_CONFIG),
+                                           config.getLong(ExecutorConfig.LOGDIR_RESPONSE_TIMEOUT_MS_CONFIG));
+
     _brokerCapacityConfigResolver = config.getConfiguredInstance(MonitorConfig.BROKER_CAPACITY_CONFIG_RESOLVER_CLASS_CONFIG,
                                                                  BrokerCapacityConfigResolver.class);
     _topicConfigProvider = config.getConfiguredInstance(MonitorConfig.TOPIC_CONFIG_PROVIDER_CLASS_CONFIG,
@@ -381,6 +391,13 @@ public class LoadMonitor {
     _loadMonitorTaskRunner.resumeSampling(reason);
   }
 
+  /**
+   * @return The cache of the logdir information of the brokers.
+   */
+  public LogDirInfoCache logDirInfoCache() {
+    return _logDirInfoCache;
+  }
+
   /**
    * Acquire the semaphore for the cluster model generation.
    * @param operationProgress the progress for the job.
@@ -545,7 +562,7 @@ public class LoadMonitor {
       // Populate replica placement information for the cluster model if requested.
       Map<TopicPartition, Map<Integer, String>> replicaPlacementInfo = null;
       if (populateReplicaPlacementInfo) {
-        replicaPlacementInfo = getReplicaPlacementInfo(clusterModel, cluster, _adminClient, _config);
+        replicaPlacementInfo = getReplicaPlacementInfo(clusterModel, cluster, _logDirInfoCache.logDirInfo(clusterAndGeneration));
       }
 
       // Populate snapshots for the cluster model.
@@ -640,6 +657,52 @@ public class LoadMonitor {
     return _brokerMetricSampleAggregator.aggregate(brokerEntities);
   }
 
+  /**
+   * @return The available windows of the broker metrics from the oldest to the newest. This is a cheap way to find out
+   * whether a new broker metric window has rolled out without aggregating the broker metrics.
+   */
+  public List<Long> availableBrokerMetricWindows() {
+    return _brokerMetricSampleAggregator.availableWindows();
+  }
+
+  /**
+   * Get the network capacity of the alive brokers that was not used in the newest broker metric window. Brokers without
+   * metrics in the newest window or whose capacity cannot be resolved are left out.
+   *
+   * @param capacityThreshold The fraction of the network capacity of a broker that is allowed to be used.
+   * @return The spare network capacity in KB/s of each broker, indexed by the id of {@link Resource#NW_IN} and
+   * {@link Resource#NW_OUT}, i.e. the allowed network capacity minus the network utilization, or 0 if the utilization
+   * exceeds the allowed capacity.
+   */
+  public Map<Integer, double[]> spareNetworkCapacityByBroker(double capacityThreshold) {
+    Map<BrokerEntity, ValuesAndExtrapolations> valuesByBroker = brokerMetrics().valuesAndExtrapolations();
+    Map<Integer, double[]> spareNetworkCapacityByBroker = new HashMap<>(valuesByBroker.size());
+    for (Map.Entry<BrokerEntity, ValuesAndExtrapolations> entry : valuesByBroker.entrySet()) {
+      AggregatedMetricValues metricValues = entry.getValue().metricValues();
+      BrokerEntity broker = entry.getKey();
+      Node node = _metadataClient.cluster().nodeById(broker.brokerId());
+      if (metricValues.isEmpty() || node == null) {
+        continue;
+      }
+      BrokerCapacityInfo brokerCapacity;
+      try {
+        brokerCapacity = _brokerCapacityConfigResolver.capacityForBroker(getRackHandleNull(node), node.host(), node.id(),
+                                                                         BROKER_CAPACITY_FETCH_TIMEOUT_MS, true);
+      } catch (TimeoutException | BrokerCapacityResolutionException e) {
+        LOG.warn("Unable to retrieve capacity for broker {}.", node.id(), e);
+        continue;
+      }
+      double[] spareNetworkCapacity = new double[Resource.cachedValues().size()];
+      for (Resource resource : Arrays.asList(Resource.NW_IN, Resource.NW_OUT)) {
+        // Index 0 is the newest window.
+        double utilization = metricValues.valuesForGroup(resource.name(), KafkaMetricDef.brokerMetricDef(), true).get(0);
+        spareNetworkCapacity[resource.id()] = Math.max(0.0, brokerCapacity.capacity().get(resource) * capacityThreshold - utilization);
+      }
+      spareNetworkCapacityByBroker.put(node.id(), spareNetworkCapacity);
+    }
+    return spareNetworkCapacityByBroker;
+  }
+
   /**
    * Package private for unit test.
    */
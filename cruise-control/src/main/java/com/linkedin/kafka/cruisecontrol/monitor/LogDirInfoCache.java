@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor;
+
+import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A cache of the logdir information of the brokers, shared by the cluster model generation and the disk failure detection.
+ * <p>
+ * The logdir information of a broker is reused until it expires or the cluster metadata generation changes. Only the
+ * brokers without a valid cached logdir information are queried, and all of them are queried in parallel with a single
+ * response deadline, so the time to get the logdir information is bounded by the response timeout rather than by the
+ * sum of the response times of the brokers. A broker that fails to respond in time does not fail the whole request:
+ * its expired logdir information of the same cluster metadata generation is used if available, otherwise it is left
+ * out of the result.
+ * </p>
+ */
+public class LogDirInfoCache {
+  private static final Logger LOG = LoggerFactory.getLogger(LogDirInfoCache.class);
+  private final AdminClient _adminClient;
+  private final Time _time;
+  private final long _ttlMs;
+  private final long _responseTimeoutMs;
+  private final Map<Integer, CachedLogDirInfo> _cachedLogDirInfoByBroker;
+
+  /**
+   * @param adminClient The admin client to describe the logdirs of the brokers.
+   * @param time The time object.
+   * @param ttlMs The maximum time in ms to reuse the logdir information of a broker, 0 to describe the logdirs every time.
+   * @param responseTimeoutMs The timeout in ms for the brokers to respond with their logdir information.
+   */
+  public LogDirInfoCache(AdminClient adminClient, Time time, long ttlMs, long responseTimeoutMs) {
+    _adminClient = adminClient;
+    _time = time;
+    _ttlMs = ttlMs;
+    _responseTimeoutMs = responseTimeoutMs;
+    _cachedLogDirInfoByBroker = new HashMap<>();
+  }
+
+  /**
+   * Get the logdir information of the alive brokers in the given cluster, describing the logdirs of the brokers whose
+   * cached logdir information is missing or invalid.
+   *
+   * @param clusterAndGeneration The cluster and its metadata generation.
+   * @return A map from the broker id to the logdir information of the broker, for each alive broker whose logdir
+   * information is available.
+   */
+  public synchronized Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirInfo(
+      MetadataClient.ClusterAndGeneration clusterAndGeneration) {
+    Set<Integer> aliveBrokers = clusterAndGeneration.cluster().nodes().stream().map(Node::id).collect(Collectors.toSet());
+    int generation = clusterAndGeneration.generation();
+    _cachedLogDirInfoByBroker.keySet().retainAll(aliveBrokers);
+
+    long now = _time.milliseconds();
+    List<Integer> brokersToDescribe = new ArrayList<>();
+    for (Integer broker : aliveBrokers) {
+      CachedLogDirInfo cached = _cachedLogDirInfoByBroker.get(broker);
+      if (cached == null || !cached.isValid(generation, now)) {
+        brokersToDescribe.add(broker);
+      }
+    }
+    if (!brokersToDescribe.isEmpty()) {
+      describeLogDirs(brokersToDescribe, generation);
+    }
+
+    Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirInfoByBroker = new HashMap<>(aliveBrokers.size());
+    for (Map.Entry<Integer, CachedLogDirInfo> entry : _cachedLogDirInfoByBroker.entrySet()) {
+      // The expired logdir information of a broker that failed to respond is still better than none, as long as the
+      // cluster metadata has not changed since it was described.
+      if (entry.getValue().generation() == generation) {
+        logDirInfoByBroker.put(entry.getKey(), entry.getValue().logDirInfo());
+      }
+    }
+    return logDirInfoByBroker;
+  }
+
+  /**
+   * Invalidate the cached logdir information of all brokers, e.g. after replicas have been moved between the logdirs.
+   */
+  public synchronized void invalidate() {
+    _cachedLogDirInfoByBroker.clear();
+  }
+
+  private void describeLogDirs(List<Integer> brokers, int generation) {
+    long deadlineMs = _time.milliseconds() + _responseTimeoutMs;
+    Map<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> futureByBroker =
+        _adminClient.describeLogDirs(brokers).values();
+    for (Map.Entry<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> entry : futureByBroker.entrySet()) {
+      Integer broker = entry.getKey();
+      try {
+        // All brokers share the same deadline because their requests are in flight at the same time.
+        long remainingMs = Math.max(0L, deadlineMs - _time.milliseconds());
+        Map<String, DescribeLogDirsResponse.LogDirInfo> logDirInfo = entry.getValue().get(remainingMs, TimeUnit.MILLISECONDS);
+        _cachedLogDirInfoByBroker.put(broker, new CachedLogDirInfo(logDirInfo, generation, _time.milliseconds()));
+      } catch (TimeoutException | ExecutionException e) {
+        LOG.warn("Failed to describe the logdirs of broker {}.", broker, e);
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while describing the logdirs of broker {}.", broker, e);
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private class CachedLogDirInfo {
+    private final Map<String, DescribeLogDirsResponse.LogDirInfo> _logDirInfo;
+    private final int _generation;
+    private final long _describedMs;
+
+    CachedLogDirInfo(Map<String, DescribeLogDirsResponse.LogDirInfo> logDirInfo, int generation, long describedMs) {
+      _logDirInfo = logDirInfo;
+      _generation = generation;
+      _describedMs = describedMs;
+    }
+
+    Map<String, DescribeLogDirsResponse.LogDirInfo> logDirInfo() {
+      return _logDirInfo;
+    }
+
+    int generation() {
+      return _generation;
+    }
+
+    boolean isValid(int generation, long now) {
+      return _generation == generation && now - _describedMs < _ttlMs;
+    }
+  }
+}
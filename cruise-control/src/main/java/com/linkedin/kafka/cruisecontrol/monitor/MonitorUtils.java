@@ -12,7 +12,6 @@ import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.analyzer.goals.Goal;
 import com.linkedin.kafka.cruisecontrol.config.BrokerCapacityConfigResolver;
 import com.linkedin.kafka.cruisecontrol.config.BrokerCapacityInfo;
-import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.exception.BrokerCapacityResolutionException;
 import com.linkedin.kafka.cruisecontrol.model.Broker;
 import com.linkedin.kafka.cruisecontrol.model.ClusterModel;
@@ -29,14 +28,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 import kafka.zk.KafkaZkClient;
-import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.common.Cluster;
-import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.Node;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
@@ -46,7 +41,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import scala.collection.JavaConversions;
 
-import static com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig.LOGDIR_RESPONSE_TIMEOUT_MS_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.model.Disk.State.DEAD;
 import static com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef.CPU_USAGE;
 import static java.lang.Thread.sleep;
@@ -396,42 +390,35 @@ public class MonitorUtils {
    *
    * @param clusterModel The cluster model to populate replica placement information.
    * @param cluster Kafka cluster.
-   * @param adminClient Admin client to send request to kafka cluster
-   * @param config Kafka Cruise Control relate config object
+   * @param logDirInfoByBroker The logdir information of the alive brokers in the cluster.
    * @return A map from topic partition to replica placement information.
    *
    */
-  static Map<TopicPartition, Map<Integer, String>> getReplicaPlacementInfo(ClusterModel clusterModel,
-                                                                           Cluster cluster,
-                                                                           AdminClient adminClient,
-                                                                           KafkaCruiseControlConfig config) {
+  static Map<TopicPartition, Map<Integer, String>> getReplicaPlacementInfo(
+      ClusterModel clusterModel,
+      Cluster cluster,
+      Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirInfoByBroker) {
     Map<TopicPartition, Map<Integer, String>> replicaPlacementInfo = new HashMap<>();
-    Map<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> logDirsByBrokerId =
-        adminClient.describeLogDirs(cluster.nodes().stream().mapToInt(Node::id).boxed().collect(Collectors.toList())).values();
-    for (Map.Entry<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> entry : logDirsByBrokerId.entrySet()) {
-      Integer brokerId = entry.getKey();
-      try {
-        entry.getValue().get(config.getLong(LOGDIR_RESPONSE_TIMEOUT_MS_CONFIG), TimeUnit.MILLISECONDS).forEach((logdir, info) -> {
-          if (info.error == Errors.NONE) {
-            for (Map.Entry<TopicPartition, DescribeLogDirsResponse.ReplicaInfo> e : info.replicaInfos.entrySet()) {
-              if (!e.getValue().isFuture) {
-                replicaPlacementInfo.putIfAbsent(e.getKey(), new HashMap<>());
-                replicaPlacementInfo.get(e.getKey()).put(brokerId, logdir);
-              } else {
-                LOG.trace("Topic partition {}'s replica is moving to {} on broker {}.", e.getKey(), logdir, brokerId);
-              }
+    for (Node node : cluster.nodes()) {
+      Integer brokerId = node.id();
+      Map<String, DescribeLogDirsResponse.LogDirInfo> logDirInfo = logDirInfoByBroker.get(brokerId);
+      if (logDirInfo == null) {
+        throw new RuntimeException(String.format("Logdir information for broker %d is unavailable.", brokerId));
+      }
+      logDirInfo.forEach((logdir, info) -> {
+        if (info.error == Errors.NONE) {
+          for (Map.Entry<TopicPartition, DescribeLogDirsResponse.ReplicaInfo> e : info.replicaInfos.entrySet()) {
+            if (!e.getValue().isFuture) {
+              replicaPlacementInfo.putIfAbsent(e.getKey(), new HashMap<>());
+              replicaPlacementInfo.get(e.getKey()).put(brokerId, logdir);
+            } else {
+              LOG.trace("Topic partition {}'s replica is moving to {} on broker {}.", e.getKey(), logdir, brokerId);
             }
-          } else {
-            clusterModel.broker(brokerId).disk(logdir).setState(DEAD);
           }
-        });
-      } catch (TimeoutException te) {
-        throw new RuntimeException(String.format("Getting logdir information for broker %d encountered TimeoutException %s.",
-                                                 entry.getKey(), te));
-      } catch (InterruptedException | ExecutionException e) {
-        throw new RuntimeException(String.format("Populating logdir information for broker %d encountered Exception %s.",
-                                                 entry.getKey(), e));
-      }
+        } else {
+          clusterModel.broker(brokerId).disk(logdir).setState(DEAD);
+        }
+      });
     }
     return replicaPlacementInfo;
   }
@@ -29,6 +29,7 @@ import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.UN
 import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.buildBrokerMetricSample;
 import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.buildPartitionMetricSample;
 import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.leaderDistribution;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.metricFetcherIdForBroker;
 
 /**
  * Process the raw metrics collected by {@link CruiseControlMetricsReporterSampler} from the Kafka cluster.
@@ -41,6 +42,8 @@ public class CruiseControlMetricsProcessor {
   private final Map<Integer, Short> _cachedNumCoresByBroker;
   private final BrokerCapacityConfigResolver _brokerCapacityConfigResolver;
   private final boolean _allowCpuCapacityEstimation;
+  private final int _numMetricFetchers;
+  private final int _metricFetcherId;
   private long _maxMetricTimestamp;
 
   /**
@@ -48,10 +51,26 @@ public class CruiseControlMetricsProcessor {
    * @param allowCpuCapacityEstimation True to allow CPU capacity estimation of brokers used for CPU utilization estimation.
    */
   CruiseControlMetricsProcessor(BrokerCapacityConfigResolver brokerCapacityConfigResolver, boolean allowCpuCapacityEstimation) {
+    this(brokerCapacityConfigResolver, allowCpuCapacityEstimation, 1, 0);
+  }
+
+  /**
+   * @param brokerCapacityConfigResolver The resolver for retrieving broker capacities.
+   * @param allowCpuCapacityEstimation True to allow CPU capacity estimation of brokers used for CPU utilization estimation.
+   * @param numMetricFetchers The number of metric fetchers sampling the cluster.
+   * @param metricFetcherId The id of the metric fetcher this processor belongs to. Only the broker metric samples of the
+   *                        brokers this fetcher is responsible for are generated.
+   */
+  CruiseControlMetricsProcessor(BrokerCapacityConfigResolver brokerCapacityConfigResolver,
+                                boolean allowCpuCapacityEstimation,
+                                int numMetricFetchers,
+                                int metricFetcherId) {
     _brokerLoad = new HashMap<>();
     _cachedNumCoresByBroker = new HashMap<>();
     _brokerCapacityConfigResolver = brokerCapacityConfigResolver;
     _allowCpuCapacityEstimation = allowCpuCapacityEstimation;
+    _numMetricFetchers = numMetricFetchers;
+    _metricFetcherId = metricFetcherId;
     _maxMetricTimestamp = INIT_METRIC_TIMESTAMP;
   }
 
@@ -187,6 +206,10 @@ public class CruiseControlMetricsProcessor {
   private int addBrokerMetricSamples(Cluster cluster, Set<BrokerMetricSample> brokerMetricSamples) {
     int skippedBroker = 0;
     for (Node node : cluster.nodes()) {
+      if (metricFetcherIdForBroker(node.id(), _numMetricFetchers) != _metricFetcherId) {
+        // The metrics of this broker are collected by another metric fetcher.
+        continue;
+      }
       try {
         BrokerMetricSample sample = buildBrokerMetricSample(node, _brokerLoad, _maxMetricTimestamp);
         if (sample != null) {
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling;
 
 import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.kafka.cruisecontrol.common.KafkaCruiseControlThreadFactory;
 import com.linkedin.kafka.cruisecontrol.config.BrokerCapacityConfigResolver;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.exception.MetricSamplingException;
@@ -12,14 +13,22 @@ import com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetricsRepo
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.CruiseControlMetric;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.MetricSerde;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -30,11 +39,14 @@ import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager.BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager.METRIC_FETCHER_ID_OBJECT_CONFIG;
 import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.sanityCheckOffsetFetch;
 
 
@@ -44,24 +56,51 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
   public static final String METRIC_REPORTER_SAMPLER_BOOTSTRAP_SERVERS = "metric.reporter.sampler.bootstrap.servers";
   public static final String METRIC_REPORTER_TOPIC = "metric.reporter.topic";
   public static final String METRIC_REPORTER_SAMPLER_GROUP_ID = "metric.reporter.sampler.group.id";
+  public static final String METRIC_REPORTER_SAMPLER_STREAMING_ENABLED = "metric.reporter.sampler.streaming.enabled";
+  public static final String METRIC_REPORTER_SAMPLER_STREAMING_MAX_BUFFERED_MS = "metric.reporter.sampler.streaming.max.buffered.ms";
   private static final Duration METRIC_REPORTER_CONSUMER_POLL_TIMEOUT = Duration.ofMillis(5000L);
+  private static final Duration STREAMING_CONSUMER_POLL_TIMEOUT = Duration.ofMillis(500L);
+  // The time span of the buckets that the streamed metrics are buffered in.
+  private static final long STREAMING_BUCKET_MS = 1000L;
   // Default configs
   private static final String DEFAULT_METRIC_REPORTER_SAMPLER_GROUP_ID = "CruiseControlMetricsReporterSampler";
+  private static final boolean DEFAULT_METRIC_REPORTER_SAMPLER_STREAMING_ENABLED = false;
+  private static final long DEFAULT_METRIC_REPORTER_SAMPLER_STREAMING_MAX_BUFFERED_MS = 600000L;
   private static final long DEFAULT_RECONNECT_BACKOFF_MS = 50L;
   private static final long ACCEPTABLE_NETWORK_DELAY_MS = 100L;
   private CruiseControlMetricsProcessor _metricsProcessor;
   // static random token to avoid group conflict.
   private static final Random RANDOM = new Random();
 
-  private Consumer<String, CruiseControlMetric> _metricConsumer;
+  private Consumer<String, byte[]> _metricConsumer;
   private String _metricReporterTopic;
-  private Set<TopicPartition> _currentPartitionAssignment;
+  private volatile Set<TopicPartition> _currentPartitionAssignment;
+  private int _numMetricReporterTopicPartitions;
+  // This sampler consumes the metrics reporter topic partitions p with p % _numMetricFetchers == _metricFetcherId.
+  private int _numMetricFetchers;
+  private int _metricFetcherId;
   // Due to delay introduced by KafkaProducer and network, the metric record's event time is smaller than append
   // time at broker side, sampler should take this delay into consideration when collecting metric records into samples.
   // _acceptableMetricRecordProduceDelayMs is a conservative estimate of this delay, if one record's event time not earlier
   // than starting_time_of_sampling_period minus _acceptableMetricRecordProduceDelayMs, it is included in the sample;
   // otherwise it is discarded.
   private long _acceptableMetricRecordProduceDelayMs;
+  // In streaming mode, a long-lived consumer keeps tailing the metrics reporter topic and buffers the metrics by their
+  // event time, so that sampling just drains the buffered metrics of the sampling period. The following fields are
+  // only used in streaming mode.
+  private boolean _streamingEnabled;
+  private long _maxStreamingBufferedMs;
+  private Consumer<String, byte[]> _streamingConsumer;
+  private ExecutorService _streamingExecutor;
+  private volatile boolean _shutdown;
+  // The buffered metrics by the index of the bucket their event time falls into. Guarded by itself, which is also
+  // notified whenever the streaming consumer makes progress.
+  private final TreeMap<Long, List<CruiseControlMetric>> _streamedMetricsByBucket = new TreeMap<>();
+  // The positions of the streaming consumer in the metrics reporter topic partitions it is assigned to.
+  private final Map<TopicPartition, Long> _streamingPositions = new ConcurrentHashMap<>();
+  // All the metrics whose event time is not earlier than this are either buffered or yet to be consumed by the streaming
+  // consumer. Long.MAX_VALUE until the streaming consumer has its initial position.
+  private volatile long _streamingCoverageStartMs = Long.MAX_VALUE;
 
   @Override
   public Samples getSamples(Cluster cluster,
@@ -74,6 +113,58 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
     if (refreshPartitionAssignment()) {
       return new Samples(Collections.emptySet(), Collections.emptySet());
     }
+    int totalMetricsAdded;
+    if (canSampleFromStreamedMetrics(startTimeMs)) {
+      totalMetricsAdded = addStreamedMetrics(startTimeMs, endTimeMs, timeout);
+    } else {
+      totalMetricsAdded = consumeMetrics(startTimeMs, endTimeMs, timeout);
+    }
+
+    try {
+      if (totalMetricsAdded > 0) {
+        return _metricsProcessor.process(cluster, assignedPartitions, mode);
+      } else {
+        return new Samples(Collections.emptySet(), Collections.emptySet());
+      }
+    } finally {
+      _metricsProcessor.clear();
+    }
+  }
+
+  /**
+   * Check whether the metrics of the sampling period starting at the given time can be drained from the buffered
+   * streamed metrics. Otherwise, i.e. if streaming is disabled, or the sampling period starts before the streaming
+   * consumer started or before the buffered metrics that have been dropped, the sampler has to seek in the metrics
+   * reporter topic.
+   * Package private for unit test.
+   *
+   * @param startTimeMs The start time of the sampling period.
+   * @return True if the metrics of the sampling period can be drained from the buffered streamed metrics, false otherwise.
+   */
+  boolean canSampleFromStreamedMetrics(long startTimeMs) {
+    return _streamingEnabled && startTimeMs - _acceptableMetricRecordProduceDelayMs >= _streamingCoverageStartMs;
+  }
+
+  /**
+   * Package private for unit test.
+   *
+   * @return The time from which all the metrics are either buffered or yet to be consumed by the streaming consumer,
+   * Long.MAX_VALUE until the streaming consumer has its initial position.
+   */
+  long streamingCoverageStartMs() {
+    return _streamingCoverageStartMs;
+  }
+
+  /**
+   * Seek to the start time of the sampling period in the metrics reporter topic and consume the metrics of the sampling
+   * period into the metrics processor.
+   *
+   * @param startTimeMs The start time of the sampling period.
+   * @param endTimeMs The end time of the sampling period.
+   * @param timeout The deadline of the consumption.
+   * @return The number of metrics added to the metrics processor.
+   */
+  private int consumeMetrics(long startTimeMs, long endTimeMs, long timeout) throws MetricSamplingException {
     // Now seek to the startTimeMs.
     Map<TopicPartition, Long> timestampToSeek = new HashMap<>(_currentPartitionAssignment.size());
     for (TopicPartition tp : _currentPartitionAssignment) {
@@ -98,26 +189,22 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
     int totalMetricsAdded = 0;
     Set<TopicPartition> partitionsToPause = new HashSet<>();
     do {
-      ConsumerRecords<String, CruiseControlMetric> records = _metricConsumer.poll(METRIC_REPORTER_CONSUMER_POLL_TIMEOUT);
-      for (ConsumerRecord<String, CruiseControlMetric> record : records) {
-        if (record == null) {
-          // This means we cannot parse the metrics. It might happen when a newer type of metrics has been added and
-          // the current code is still old. We simply ignore that metric in this case.
-          LOG.warn("Cannot parse record, please update your Cruise Control version.");
-          continue;
-        }
-        long recordTime = record.value().time();
-        if (recordTime + _acceptableMetricRecordProduceDelayMs < startTimeMs) {
-          LOG.debug("Discarding metric {} because its timestamp is more than {} ms earlier than the start time of sampling period {}.",
-                    record.value(), _acceptableMetricRecordProduceDelayMs, startTimeMs);
-        } else if (recordTime >= endTimeMs) {
-          TopicPartition tp = new TopicPartition(record.topic(), record.partition());
-          LOG.debug("Saw metric {} whose timestamp is larger than the end time of sampling period {}. Pausing "
-                    + "partition {} at offset {}.", record.value(), endTimeMs, tp, record.offset());
-          partitionsToPause.add(tp);
-        } else {
-          _metricsProcessor.addMetric(record.value());
-          totalMetricsAdded++;
+      ConsumerRecords<String, byte[]> records = _metricConsumer.poll(METRIC_REPORTER_CONSUMER_POLL_TIMEOUT);
+      for (ConsumerRecord<String, byte[]> record : records) {
+        for (CruiseControlMetric metric : metricsOf(record)) {
+          long metricTime = metric.time();
+          if (metricTime + _acceptableMetricRecordProduceDelayMs < startTimeMs) {
+            LOG.debug("Discarding metric {} because its timestamp is more than {} ms earlier than the start time of sampling period {}.",
+                      metric, _acceptableMetricRecordProduceDelayMs, startTimeMs);
+          } else if (metricTime >= endTimeMs) {
+            TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+            LOG.debug("Saw metric {} whose timestamp is larger than the end time of sampling period {}. Pausing "
+                      + "partition {} at offset {}.", metric, endTimeMs, tp, record.offset());
+            partitionsToPause.add(tp);
+          } else {
+            _metricsProcessor.addMetric(metric);
+            totalMetricsAdded++;
+          }
         }
       }
       if (!partitionsToPause.isEmpty()) {
@@ -127,15 +214,188 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
     } while (!consumptionDone(endOffsets) && System.currentTimeMillis() < timeout);
     LOG.info("Finished sampling for topic partitions {} in time range [{},{}]. Collected {} metrics.",
              _currentPartitionAssignment, startTimeMs, endTimeMs, totalMetricsAdded);
+    return totalMetricsAdded;
+  }
 
-    try {
-      if (totalMetricsAdded > 0) {
-        return _metricsProcessor.process(cluster, assignedPartitions, mode);
-      } else {
-        return new Samples(Collections.emptySet(), Collections.emptySet());
+  /**
+   * Wait for the streaming consumer to catch up with the current log end of the metrics reporter topic, then drain the
+   * buffered metrics of the sampling period into the metrics processor. Buffered metrics that are too old to be included
+   * in the sampling period are discarded. Metrics at or after the end time of the sampling period stay buffered for the
+   * next sampling period.
+   * Package private for unit test.
+   *
+   * @param startTimeMs The start time of the sampling period.
+   * @param endTimeMs The end time of the sampling period.
+   * @param timeout The deadline to wait for the streaming consumer to catch up.
+   * @return The number of metrics added to the metrics processor.
+   */
+  int addStreamedMetrics(long startTimeMs, long endTimeMs, long timeout) throws MetricSamplingException {
+    Map<TopicPartition, Long> endOffsets = _metricConsumer.endOffsets(_currentPartitionAssignment);
+    int totalMetricsAdded = 0;
+    int numDiscarded = 0;
+    synchronized (_streamedMetricsByBucket) {
+      long now = System.currentTimeMillis();
+      while (!streamingCaughtUp(endOffsets) && now < timeout) {
+        try {
+          _streamedMetricsByBucket.wait(timeout - now);
+        } catch (InterruptedException ie) {
+          throw new MetricSamplingException("Interrupted when waiting for the streaming consumer to catch up.");
+        }
+        now = System.currentTimeMillis();
+      }
+      if (!streamingCaughtUp(endOffsets)) {
+        LOG.warn("The streaming consumer did not catch up with the end offsets {} of the metrics reporter topic in time. "
+                 + "Its current positions are {}.", endOffsets, _streamingPositions);
+      }
+      Iterator<Map.Entry<Long, List<CruiseControlMetric>>> iter =
+          _streamedMetricsByBucket.headMap(endTimeMs / STREAMING_BUCKET_MS, true).entrySet().iterator();
+      while (iter.hasNext()) {
+        Map.Entry<Long, List<CruiseControlMetric>> entry = iter.next();
+        List<CruiseControlMetric> metricsAtOrAfterEndTime = new ArrayList<>();
+        for (CruiseControlMetric metric : entry.getValue()) {
+          if (metric.time() >= endTimeMs) {
+            metricsAtOrAfterEndTime.add(metric);
+          } else if (metric.time() + _acceptableMetricRecordProduceDelayMs < startTimeMs) {
+            numDiscarded++;
+          } else {
+            _metricsProcessor.addMetric(metric);
+            totalMetricsAdded++;
+          }
+        }
+        if (metricsAtOrAfterEndTime.isEmpty()) {
+          iter.remove();
+        } else {
+          entry.setValue(metricsAtOrAfterEndTime);
+        }
+      }
+    }
+    LOG.info("Finished sampling streamed metrics for topic partitions {} in time range [{},{}]. Collected {}{} metrics.",
+             _currentPartitionAssignment, startTimeMs, endTimeMs, totalMetricsAdded,
+             numDiscarded > 0 ? String.format("(%d discarded)", numDiscarded) : "");
+    return totalMetricsAdded;
+  }
+
+  /**
+   * Check whether the streaming consumer has consumed up to the given offsets.
+   *
+   * @param endOffsets The offsets to check.
+   * @return True if the streaming consumer has consumed up to the given offsets in all partitions, false otherwise.
+   */
+  private boolean streamingCaughtUp(Map<TopicPartition, Long> endOffsets) {
+    for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+      Long position = _streamingPositions.get(entry.getKey());
+      if (position == null || position < entry.getValue()) {
+        return false;
       }
+    }
+    return true;
+  }
+
+  /**
+   * Keep consuming the metrics reporter topic with the streaming consumer and buffer the consumed metrics until the
+   * sampler is closed. The streaming consumer follows the partition assignment of this sampler. It starts from the log
+   * end of the initially assigned partitions and from the log start of the partitions added later on. The streaming
+   * consumer is closed once the sampler is closed, as it is only used by the streaming thread.
+   */
+  private void streamMetrics() {
+    try {
+      doStreamMetrics();
     } finally {
-      _metricsProcessor.clear();
+      _streamingConsumer.close();
+    }
+    LOG.info("Stopped streaming metrics from metrics reporter topic {}.", _metricReporterTopic);
+  }
+
+  private void doStreamMetrics() {
+    Set<TopicPartition> assignment = Collections.emptySet();
+    while (!_shutdown) {
+      try {
+        Set<TopicPartition> latestAssignment = _currentPartitionAssignment;
+        if (!latestAssignment.equals(assignment)) {
+          Set<TopicPartition> addedPartitions = new HashSet<>(latestAssignment);
+          addedPartitions.removeAll(assignment);
+          _streamingConsumer.assign(latestAssignment);
+          if (assignment.isEmpty()) {
+            _streamingConsumer.seekToEnd(addedPartitions);
+          } else {
+            _streamingConsumer.seekToBeginning(addedPartitions);
+          }
+          _streamingPositions.keySet().retainAll(latestAssignment);
+          updateStreamingPositions(latestAssignment);
+          if (assignment.isEmpty()) {
+            // Any metric created from now on is appended after the initial positions.
+            _streamingCoverageStartMs = System.currentTimeMillis();
+            LOG.info("Started streaming metrics from topic partitions {} at {}.", latestAssignment, _streamingPositions);
+          }
+          assignment = latestAssignment;
+        }
+        ConsumerRecords<String, byte[]> records = _streamingConsumer.poll(STREAMING_CONSUMER_POLL_TIMEOUT);
+        synchronized (_streamedMetricsByBucket) {
+          for (ConsumerRecord<String, byte[]> record : records) {
+            for (CruiseControlMetric metric : metricsOf(record)) {
+              _streamedMetricsByBucket.computeIfAbsent(metric.time() / STREAMING_BUCKET_MS, b -> new ArrayList<>()).add(metric);
+            }
+          }
+          evictExpiredStreamedMetrics();
+          updateStreamingPositions(assignment);
+          _streamedMetricsByBucket.notifyAll();
+        }
+      } catch (WakeupException we) {
+        if (!_shutdown) {
+          LOG.warn("The streaming consumer of metrics reporter topic {} was woken up unexpectedly.", _metricReporterTopic);
+        }
+      } catch (Exception e) {
+        LOG.error("Received exception when streaming metrics from metrics reporter topic {}.", _metricReporterTopic, e);
+        try {
+          Thread.sleep(STREAMING_CONSUMER_POLL_TIMEOUT.toMillis());
+        } catch (InterruptedException ie) {
+          // let it go
+        }
+      }
+    }
+  }
+
+  private void updateStreamingPositions(Set<TopicPartition> assignment) {
+    for (TopicPartition tp : assignment) {
+      _streamingPositions.put(tp, _streamingConsumer.position(tp));
+    }
+  }
+
+  /**
+   * Drop the buffered metrics that are more than {@link #_maxStreamingBufferedMs} older than the latest buffered metric.
+   * This bounds the buffer if sampling stops for a while. Sampling periods starting before the dropped metrics fall
+   * back to seeking in the metrics reporter topic.
+   */
+  private void evictExpiredStreamedMetrics() {
+    if (_streamedMetricsByBucket.isEmpty()) {
+      return;
+    }
+    long evictBeforeBucket = (_streamedMetricsByBucket.lastKey() * STREAMING_BUCKET_MS - _maxStreamingBufferedMs) / STREAMING_BUCKET_MS;
+    SortedMap<Long, List<CruiseControlMetric>> expired = _streamedMetricsByBucket.headMap(evictBeforeBucket);
+    if (!expired.isEmpty()) {
+      LOG.debug("Dropping streamed metrics of {} buckets before {}.", expired.size(), evictBeforeBucket * STREAMING_BUCKET_MS);
+      expired.clear();
+      _streamingCoverageStartMs = Math.max(_streamingCoverageStartMs, evictBeforeBucket * STREAMING_BUCKET_MS);
+    }
+  }
+
+  /**
+   * Deserialize the metrics in the given record, which is either a single metric or a batch of metrics of a broker.
+   * @param record The record consumed from the metrics reporter topic.
+   * @return The metrics in the record, empty if the record cannot be parsed.
+   */
+  private static List<CruiseControlMetric> metricsOf(ConsumerRecord<String, byte[]> record) {
+    if (record == null || record.value() == null) {
+      return Collections.emptyList();
+    }
+    try {
+      return MetricSerde.metricsFromBytes(record.value());
+    } catch (Exception e) {
+      // This might happen when a newer type of metrics has been added and the current code is still old. We simply
+      // ignore the record in this case.
+      LOG.warn("Cannot parse record at offset {} of {}-{}, please update your Cruise Control version.",
+               record.offset(), record.topic(), record.partition(), e);
+      return Collections.emptyList();
     }
   }
 
@@ -157,8 +417,9 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
   }
 
   /**
-   * Ensure that the {@link #_metricConsumer} is assigned to the latest partitions of the {@link #_metricReporterTopic}.
-   * This enables metrics reporter sampler to handle dynamic partition size increases in {@link #_metricReporterTopic}.
+   * Ensure that the {@link #_metricConsumer} is assigned to the latest partitions of the {@link #_metricReporterTopic}
+   * that belong to this metric fetcher. This enables metrics reporter sampler to handle dynamic partition size increases
+   * in {@link #_metricReporterTopic}.
    *
    * @return True if the set of partitions currently assigned to this consumer is empty, false otherwise.
    */
@@ -170,30 +431,42 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
     }
     if (remotePartitionInfo.isEmpty()) {
       _currentPartitionAssignment = Collections.emptySet();
+      _numMetricReporterTopicPartitions = 0;
       LOG.error("The set of partitions currently assigned to the metric consumer is empty.");
       return true;
     }
 
     // Ensure that reassignment overhead is avoided if partition set of the topic has not changed.
-    if (remotePartitionInfo.size() == _currentPartitionAssignment.size()) {
-      return false;
+    if (remotePartitionInfo.size() == _numMetricReporterTopicPartitions) {
+      return _currentPartitionAssignment.isEmpty();
     }
 
-    _currentPartitionAssignment = new HashSet<>(remotePartitionInfo.size());
+    if (remotePartitionInfo.size() % _numMetricFetchers != 0) {
+      LOG.error("The number of partitions {} of metrics reporter topic {} is not a multiple of {}={}. Some of the "
+                + "metric samples may be missing.", remotePartitionInfo.size(), _metricReporterTopic,
+                MonitorConfig.NUM_METRIC_FETCHERS_CONFIG, _numMetricFetchers);
+    }
+    _numMetricReporterTopicPartitions = remotePartitionInfo.size();
+    // Populate the new assignment before publishing it to the streaming consumer.
+    Set<TopicPartition> partitionAssignment = new HashSet<>(remotePartitionInfo.size());
     for (PartitionInfo partitionInfo : remotePartitionInfo) {
-      _currentPartitionAssignment.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+      if (partitionInfo.partition() % _numMetricFetchers == _metricFetcherId) {
+        partitionAssignment.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+      }
     }
+    _currentPartitionAssignment = partitionAssignment;
 
     _metricConsumer.assign(_currentPartitionAssignment);
-    return false;
+    return _currentPartitionAssignment.isEmpty();
   }
 
   @Override
   public void configure(Map<String, ?> configs) {
-    int numSamplers = (Integer) configs.get(MonitorConfig.NUM_METRIC_FETCHERS_CONFIG);
-    if (numSamplers != 1) {
-      throw new ConfigException("CruiseControlMetricsReporterSampler is not thread safe. Please change " +
-                                MonitorConfig.NUM_METRIC_FETCHERS_CONFIG + " to 1");
+    _numMetricFetchers = (Integer) configs.get(MonitorConfig.NUM_METRIC_FETCHERS_CONFIG);
+    Integer metricFetcherId = (Integer) configs.get(METRIC_FETCHER_ID_OBJECT_CONFIG);
+    _metricFetcherId = metricFetcherId == null ? 0 : metricFetcherId;
+    if (_metricFetcherId < 0 || _metricFetcherId >= _numMetricFetchers) {
+      throw new ConfigException(String.format("Metric fetcher id %d is out of range [0, %d).", _metricFetcherId, _numMetricFetchers));
     }
 
     BrokerCapacityConfigResolver capacityResolver = (BrokerCapacityConfigResolver) configs.get(BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG);
@@ -201,7 +474,8 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
       throw new IllegalArgumentException("Metrics reporter sampler configuration is missing broker capacity config resolver object.");
     }
     boolean allowCpuCapacityEstimation = (Boolean) configs.get(MonitorConfig.SAMPLING_ALLOW_CPU_CAPACITY_ESTIMATION_CONFIG);
-    _metricsProcessor = new CruiseControlMetricsProcessor(capacityResolver, allowCpuCapacityEstimation);
+    _metricsProcessor = new CruiseControlMetricsProcessor(capacityResolver, allowCpuCapacityEstimation, _numMetricFetchers,
+                                                          _metricFetcherId);
 
     String bootstrapServers = (String) configs.get(METRIC_REPORTER_SAMPLER_BOOTSTRAP_SERVERS);
     if (bootstrapServers == null) {
@@ -236,18 +510,63 @@ public class CruiseControlMetricsReporterSampler implements MetricSampler {
     consumerProps.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
     consumerProps.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Integer.toString(Integer.MAX_VALUE));
     consumerProps.setProperty(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-    consumerProps.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, MetricSerde.class.getName());
+    consumerProps.setProperty(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class.getName());
     consumerProps.setProperty(ConsumerConfig.RECONNECT_BACKOFF_MS_CONFIG, reconnectBackoffMs);
-    _metricConsumer = new KafkaConsumer<>(consumerProps);
+    _metricConsumer = createConsumer(consumerProps);
     _currentPartitionAssignment = Collections.emptySet();
-    if (refreshPartitionAssignment()) {
+    _numMetricReporterTopicPartitions = 0;
+    boolean noAssignedPartitions = refreshPartitionAssignment();
+    if (_numMetricReporterTopicPartitions % _numMetricFetchers != 0) {
+      throw new ConfigException(String.format("The number of partitions %d of metrics reporter topic %s must be a multiple "
+                                              + "of %s=%d.", _numMetricReporterTopicPartitions, _metricReporterTopic,
+                                              MonitorConfig.NUM_METRIC_FETCHERS_CONFIG, _numMetricFetchers));
+    }
+    if (noAssignedPartitions) {
       throw new IllegalStateException("Cruise Control cannot find partitions for the metrics reporter that topic matches "
                                       + _metricReporterTopic + " in the target cluster.");
     }
+
+    String streamingEnabled = (String) configs.get(METRIC_REPORTER_SAMPLER_STREAMING_ENABLED);
+    _streamingEnabled = streamingEnabled == null ? DEFAULT_METRIC_REPORTER_SAMPLER_STREAMING_ENABLED
+                                                 : Boolean.parseBoolean(streamingEnabled);
+    String maxStreamingBufferedMs = (String) configs.get(METRIC_REPORTER_SAMPLER_STREAMING_MAX_BUFFERED_MS);
+    _maxStreamingBufferedMs = maxStreamingBufferedMs == null ? DEFAULT_METRIC_REPORTER_SAMPLER_STREAMING_MAX_BUFFERED_MS
+                                                             : Long.parseLong(maxStreamingBufferedMs);
+    if (_streamingEnabled) {
+      consumerProps.setProperty(ConsumerConfig.CLIENT_ID_CONFIG, groupId + "-streaming-consumer-" + random.nextInt());
+      _streamingConsumer = createConsumer(consumerProps);
+      _streamingExecutor = Executors.newSingleThreadExecutor(
+          new KafkaCruiseControlThreadFactory("MetricsReporterSamplerStreaming-" + _metricFetcherId, true, LOG));
+      _streamingExecutor.submit(this::streamMetrics);
+    }
+  }
+
+  /**
+   * Create a consumer of the metrics reporter topic.
+   * Package private for unit test.
+   *
+   * @param consumerProps The consumer configs.
+   * @return A new consumer of the metrics reporter topic.
+   */
+  Consumer<String, byte[]> createConsumer(Properties consumerProps) {
+    return new KafkaConsumer<>(consumerProps);
   }
 
   @Override
   public void close() {
+    _shutdown = true;
+    if (_streamingEnabled) {
+      _streamingConsumer.wakeup();
+      _streamingExecutor.shutdown();
+      try {
+        // The streaming thread closes the streaming consumer when it stops, as the consumer is not thread safe.
+        if (!_streamingExecutor.awaitTermination(METRIC_REPORTER_CONSUMER_POLL_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+          LOG.warn("Timed out waiting for the streaming consumer of metrics reporter topic {} to stop.", _metricReporterTopic);
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("Interrupted while waiting for the streaming consumer of metrics reporter topic {} to stop.", _metricReporterTopic);
+      }
+    }
     _metricConsumer.close();
   }
 }
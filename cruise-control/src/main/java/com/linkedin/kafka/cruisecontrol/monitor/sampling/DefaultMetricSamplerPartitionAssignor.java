@@ -11,20 +11,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager.SUPPORTED_NUM_METRIC_FETCHER;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.SamplingUtils.metricFetcherIdForBroker;
 
 
 /**
  * The default implementation of metric sampler partition assignor.
  * <p>
- * The assignment tries to achieve the following goals:
- * 1. All the partitions of the same topic goes to one metric fetcher.
- * 2. The number of partitions assigned to each fetcher should be about the same.
+ * With a single metric fetcher, all the partitions in the cluster are assigned to it. With multiple metric fetchers,
+ * the partitions are assigned by their leader broker, i.e. all the partitions led by the same broker go to the metric
+ * fetcher given by {@link SamplingUtils#metricFetcherIdForBroker(int, int)}. This matches the way
+ * {@link CruiseControlMetricsReporterSampler} splits the metrics reporter topic among the fetchers, so that each fetcher
+ * consumes the metrics of exactly the brokers that lead its assigned partitions. Partitions without a leader cannot be
+ * sampled and are spread among the fetchers by partition id.
  */
 public class DefaultMetricSamplerPartitionAssignor implements MetricSamplerPartitionAssignor {
 
@@ -37,12 +41,26 @@ public class DefaultMetricSamplerPartitionAssignor implements MetricSamplerParti
 
   @Override
   public List<Set<TopicPartition>> assignPartitions(Cluster cluster, int numMetricFetchers) {
-    if (numMetricFetchers != SUPPORTED_NUM_METRIC_FETCHER) {
-      throw new IllegalArgumentException("DefaultMetricSamplerPartitionAssignor supports only a single metric fetcher.");
+    if (numMetricFetchers < 1) {
+      throw new IllegalArgumentException("The number of metric fetchers must be positive, but got " + numMetricFetchers);
+    }
+    if (numMetricFetchers == 1) {
+      return Collections.singletonList(assignPartitions(cluster));
     }
     // Create an array to host the assignment of all the metric fetchers.
-    List<Set<TopicPartition>> assignments = new ArrayList<>();
-    assignments.add(assignPartitions(cluster));
+    List<Set<TopicPartition>> assignments = new ArrayList<>(numMetricFetchers);
+    for (int i = 0; i < numMetricFetchers; i++) {
+      assignments.add(new HashSet<>());
+    }
+    for (String topic : cluster.topics()) {
+      for (PartitionInfo partitionInfo : cluster.partitionsForTopic(topic)) {
+        int fetcherId = partitionInfo.leader() == null || partitionInfo.leader().isEmpty()
+                        ? partitionInfo.partition() % numMetricFetchers
+                        : metricFetcherIdForBroker(partitionInfo.leader().id(), numMetricFetchers);
+        assignments.get(fetcherId).add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition()));
+      }
+    }
+    LOG.trace("Partition assignment for {} metric fetchers: {}", numMetricFetchers, assignments);
     return assignments;
   }
 
@@ -9,11 +9,15 @@ import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.MetricSampleBatchSerde;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSampleReader;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSampleValues;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -21,6 +25,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -32,6 +38,8 @@ import kafka.log.LogConfig;
 import kafka.zk.AdminZkClient;
 import kafka.zk.KafkaZkClient;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DeletedRecords;
+import org.apache.kafka.clients.admin.RecordsToDelete;
 import org.apache.kafka.clients.admin.TopicDescription;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
@@ -46,6 +54,7 @@ import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.KafkaFuture;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
@@ -69,6 +78,10 @@ import static scala.Option.empty;
  *   <li>{@link #BROKER_METRIC_SAMPLE_STORE_TOPIC_CONFIG}: The config for the topic name of Kafka topic to store broker samples.</li>
  *   <li>{@link #NUM_SAMPLE_LOADING_THREADS_CONFIG}: The config for the number of Kafka sample store consumer threads, default value is
  *   set to {@link #DEFAULT_NUM_SAMPLE_LOADING_THREADS}.</li>
+ *   <li>{@link #NUM_SAMPLE_DECODING_THREADS_CONFIG}: The config for the number of threads to deserialize the consumed sample store
+ *   records during sample loading, default value is set to {@link #DEFAULT_NUM_SAMPLE_DECODING_THREADS}.</li>
+ *   <li>{@link #NUM_SAMPLE_INSERTING_THREADS_CONFIG}: The config for the number of threads to insert the deserialized samples into
+ *   the aggregators during sample loading, default value is set to {@link #DEFAULT_NUM_SAMPLE_INSERTING_THREADS}.</li>
  *   <li>{@link #SAMPLE_STORE_TOPIC_REPLICATION_FACTOR_CONFIG}: The config for the replication factor of Kafka sample store topics,
  *   default value is set to {@link #DEFAULT_SAMPLE_STORE_TOPIC_REPLICATION_FACTOR}.</li>
  *   <li>{@link #PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT_CONFIG}: The config for the number of partition for Kafka partition sample store
@@ -81,6 +94,10 @@ import static scala.Option.empty;
  *   topic, default value is set to {@link #DEFAULT_MIN_BROKER_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS}.</li>
  *   <li>{@link #SKIP_SAMPLE_STORE_TOPIC_RACK_AWARENESS_CHECK_CONFIG}: The config to skip checking sample store topics' replica distribution violate
  *   rack awareness property or not, default value is set to false.</li>
+ *   <li>{@link #SAMPLE_STORE_MAX_SAMPLES_PER_RECORD_CONFIG}: The config for the maximum number of metric samples to pack into
+ *   a single sample store record, default value is set to {@link #DEFAULT_SAMPLE_STORE_MAX_SAMPLES_PER_RECORD}, i.e. each
+ *   sample is stored in its own record. Older Cruise Control versions cannot read batched records, so batching should only
+ *   be enabled once every Cruise Control instance that may load from the sample store topics has been upgraded.</li>
  * </ul>
  */
 public class KafkaSampleStore implements SampleStore {
@@ -90,18 +107,28 @@ public class KafkaSampleStore implements SampleStore {
   protected static final int ADDITIONAL_WINDOW_TO_RETAIN_FACTOR = 2;
   protected static final ConsumerRecords<byte[], byte[]> SHUTDOWN_RECORDS = new ConsumerRecords<>(Collections.emptyMap());
   protected static final Duration SAMPLE_POLL_TIMEOUT = Duration.ofMillis(1000L);
+  // The end-of-stage markers of the sample loading pipeline.
+  protected static final List<ConsumerRecord<byte[], byte[]>> NO_MORE_RECORDS = Collections.unmodifiableList(new ArrayList<>());
+  protected static final DecodedSamples NO_MORE_SAMPLES = new DecodedSamples(new PartitionMetricSampleValues(), Collections.emptySet(), 0);
+  protected static final int SAMPLE_LOADING_QUEUE_CAPACITY_PER_THREAD = 4;
+  protected static final long SAMPLE_LOADING_STATS_LOG_INTERVAL_MS = 10000L;
 
   protected static final int DEFAULT_NUM_SAMPLE_LOADING_THREADS = 8;
+  protected static final int DEFAULT_NUM_SAMPLE_DECODING_THREADS = 4;
+  protected static final int DEFAULT_NUM_SAMPLE_INSERTING_THREADS = 2;
   protected static final int DEFAULT_SAMPLE_STORE_TOPIC_REPLICATION_FACTOR = 2;
   protected static final int DEFAULT_PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT = 32;
   protected static final int DEFAULT_BROKER_SAMPLE_STORE_TOPIC_PARTITION_COUNT = 32;
   protected static final long DEFAULT_MIN_PARTITION_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS = 3600000L;
   protected static final long DEFAULT_MIN_BROKER_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS = 3600000L;
+  protected static final int DEFAULT_SAMPLE_STORE_MAX_SAMPLES_PER_RECORD = 1;
   protected static final String PRODUCER_CLIENT_ID = "KafkaCruiseControlSampleStoreProducer";
   protected static final String CONSUMER_CLIENT_ID = "KafkaCruiseControlSampleStoreConsumer";
   protected static final Random RANDOM = new Random();
   protected List<KafkaConsumer<byte[], byte[]>> _consumers;
   protected ExecutorService _metricProcessorExecutor;
+  protected int _numSampleDecodingThreads;
+  protected int _numSampleInsertingThreads;
   protected String _partitionMetricSampleStoreTopic;
   protected String _brokerMetricSampleStoreTopic;
   protected Integer _sampleStoreTopicReplicationFactor;
@@ -113,16 +140,26 @@ public class KafkaSampleStore implements SampleStore {
   protected Producer<byte[], byte[]> _producer;
   protected volatile boolean _shutdown = false;
   protected boolean _skipSampleStoreTopicRackAwarenessCheck;
+  protected int _maxSamplesPerRecord;
+  protected AdminClient _adminClient;
+  protected KafkaConsumer<byte[], byte[]> _evictionConsumer;
+  // The eviction times only move forward once the records before them are deleted, so a failed deletion is retried.
+  protected final AtomicLong _partitionSampleEvictionTimeMs = new AtomicLong(-1L);
+  protected final AtomicLong _brokerSampleEvictionTimeMs = new AtomicLong(-1L);
 
   public static final String PARTITION_METRIC_SAMPLE_STORE_TOPIC_CONFIG = "partition.metric.sample.store.topic";
   public static final String BROKER_METRIC_SAMPLE_STORE_TOPIC_CONFIG = "broker.metric.sample.store.topic";
   public static final String NUM_SAMPLE_LOADING_THREADS_CONFIG = "num.sample.loading.threads";
+  public static final String NUM_SAMPLE_DECODING_THREADS_CONFIG = "num.sample.decoding.threads";
+  public static final String NUM_SAMPLE_INSERTING_THREADS_CONFIG = "num.sample.inserting.threads";
   public static final String SAMPLE_STORE_TOPIC_REPLICATION_FACTOR_CONFIG = "sample.store.topic.replication.factor";
   public static final String PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT_CONFIG = "partition.sample.store.topic.partition.count";
   public static final String BROKER_SAMPLE_STORE_TOPIC_PARTITION_COUNT_CONFIG = "broker.sample.store.topic.partition.count";
   public static final String MIN_PARTITION_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS_CONFIG = "min.partition.sample.store.topic.retention.time.ms";
   public static final String MIN_BROKER_SAMPLE_STORE_TOPIC_RETENTION_TIME_MS_CONFIG = "min.broker.sample.store.topic.retention.time.ms";
   public static final String SKIP_SAMPLE_STORE_TOPIC_RACK_AWARENESS_CHECK_CONFIG = "skip.sample.store.topic.rack.awareness.check";
+  public static final String SAMPLE_STORE_MAX_SAMPLES_PER_RECORD_CONFIG = "sample.store.max.samples.per.record";
+  @SuppressWarnings("unchecked")
   @Override
   public void configure(Map<String, ?> config) {
     _partitionMetricSampleStoreTopic = KafkaCruiseControlUtils.getRequiredConfig(config, PARTITION_METRIC_SAMPLE_STORE_TOPIC_CONFIG);
@@ -154,8 +191,12 @@ public class KafkaSampleStore implements SampleStore {
     String numProcessingThreadsString = (String) config.get(NUM_SAMPLE_LOADING_THREADS_CONFIG);
     int numProcessingThreads = numProcessingThreadsString == null || numProcessingThreadsString.isEmpty()
                                ? DEFAULT_NUM_SAMPLE_LOADING_THREADS : Integer.parseInt(numProcessingThreadsString);
+    configureSampleLoadingPipeline(config);
     String skipSampleStoreTopicRackAwarenessCheckString = (String) config.get(SKIP_SAMPLE_STORE_TOPIC_RACK_AWARENESS_CHECK_CONFIG);
     _skipSampleStoreTopicRackAwarenessCheck = Boolean.parseBoolean(skipSampleStoreTopicRackAwarenessCheckString);
+    String maxSamplesPerRecordString = (String) config.get(SAMPLE_STORE_MAX_SAMPLES_PER_RECORD_CONFIG);
+    _maxSamplesPerRecord = maxSamplesPerRecordString == null || maxSamplesPerRecordString.isEmpty()
+                           ? DEFAULT_SAMPLE_STORE_MAX_SAMPLES_PER_RECORD : Integer.parseInt(maxSamplesPerRecordString);
     _metricProcessorExecutor = Executors.newFixedThreadPool(numProcessingThreads);
     _consumers = new ArrayList<>(numProcessingThreads);
     for (int i = 0; i < numProcessingThreads; i++) {
@@ -163,11 +204,27 @@ public class KafkaSampleStore implements SampleStore {
     }
 
     _producer = createProducer(config);
+    _adminClient = KafkaCruiseControlUtils.createAdminClient((Map<String, Object>) config);
+    _evictionConsumer = createConsumer(config);
     _loadingProgress = -1.0;
 
     ensureTopicsCreated(config);
   }
 
+  /**
+   * Configure the number of threads of the decoding and inserting stages of the sample loading pipeline.
+   *
+   * @param config The configurations of the sample store.
+   */
+  protected void configureSampleLoadingPipeline(Map<String, ?> config) {
+    String numDecodingThreadsString = (String) config.get(NUM_SAMPLE_DECODING_THREADS_CONFIG);
+    _numSampleDecodingThreads = numDecodingThreadsString == null || numDecodingThreadsString.isEmpty()
+                                ? DEFAULT_NUM_SAMPLE_DECODING_THREADS : Integer.parseInt(numDecodingThreadsString);
+    String numInsertingThreadsString = (String) config.get(NUM_SAMPLE_INSERTING_THREADS_CONFIG);
+    _numSampleInsertingThreads = numInsertingThreadsString == null || numInsertingThreadsString.isEmpty()
+                                 ? DEFAULT_NUM_SAMPLE_INSERTING_THREADS : Integer.parseInt(numInsertingThreadsString);
+  }
+
   protected KafkaProducer<byte[], byte[]> createProducer(Map<String, ?> config) {
     Properties producerProps = new Properties();
     producerProps.putAll(config);
@@ -317,33 +374,37 @@ public class KafkaSampleStore implements SampleStore {
   @Override
   public void storeSamples(MetricSampler.Samples samples) {
     final AtomicInteger metricSampleCount = new AtomicInteger(0);
-    for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
-      _producer.send(new ProducerRecord<>(_partitionMetricSampleStoreTopic, null, sample.sampleTime(), null, sample.toBytes()),
-                     new Callback() {
-                       @Override
-                       public void onCompletion(RecordMetadata recordMetadata, Exception e) {
-                         if (e == null) {
-                           metricSampleCount.incrementAndGet();
-                         } else {
-                           LOG.error("Failed to produce partition metric sample for {} of timestamp {} due to exception",
-                                     sample.entity().tp(), sample.sampleTime(), e);
-                         }
-                       }
-                     });
-    }
     final AtomicInteger brokerMetricSampleCount = new AtomicInteger(0);
-    for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
-      _producer.send(new ProducerRecord<>(_brokerMetricSampleStoreTopic, sample.toBytes()),
-                     new Callback() {
-                       @Override
-                       public void onCompletion(RecordMetadata recordMetadata, Exception e) {
-                         if (e == null) {
-                           brokerMetricSampleCount.incrementAndGet();
-                         } else {
-                           LOG.error("Failed to produce model training sample due to exception", e);
+    if (_maxSamplesPerRecord > 1) {
+      storeBatchedSamples(samples, metricSampleCount, brokerMetricSampleCount);
+    } else {
+      for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
+        _producer.send(new ProducerRecord<>(_partitionMetricSampleStoreTopic, null, sample.sampleTime(), null, sample.toBytes()),
+                       new Callback() {
+                         @Override
+                         public void onCompletion(RecordMetadata recordMetadata, Exception e) {
+                           if (e == null) {
+                             metricSampleCount.incrementAndGet();
+                           } else {
+                             LOG.error("Failed to produce partition metric sample for {} of timestamp {} due to exception",
+                                       sample.entity().tp(), sample.sampleTime(), e);
+                           }
+                         }
+                       });
+      }
+      for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
+        _producer.send(new ProducerRecord<>(_brokerMetricSampleStoreTopic, sample.toBytes()),
+                       new Callback() {
+                         @Override
+                         public void onCompletion(RecordMetadata recordMetadata, Exception e) {
+                           if (e == null) {
+                             brokerMetricSampleCount.incrementAndGet();
+                           } else {
+                             LOG.error("Failed to produce model training sample due to exception", e);
+                           }
                          }
-                       }
-                     });
+                       });
+      }
     }
     _producer.flush();
     if (LOG.isDebugEnabled()) {
@@ -352,6 +413,51 @@ public class KafkaSampleStore implements SampleStore {
     }
   }
 
+  /**
+   * Pack the given samples into columnar sample batches of at most {@link #_maxSamplesPerRecord} samples, and send each
+   * batch as a single record. The timestamp of a record is the earliest sample time in the batch, so seeking by time
+   * during sample loading never skips a sample.
+   *
+   * @param samples The samples to store.
+   * @param metricSampleCount The counter of the stored partition metric samples.
+   * @param brokerMetricSampleCount The counter of the stored broker metric samples.
+   */
+  protected void storeBatchedSamples(MetricSampler.Samples samples,
+                                     AtomicInteger metricSampleCount,
+                                     AtomicInteger brokerMetricSampleCount) {
+    // Keep the partitions of the same topic in the same batch so the topic dictionary of each batch stays small.
+    List<PartitionMetricSample> partitionMetricSamples = new ArrayList<>(samples.partitionMetricSamples());
+    partitionMetricSamples.sort(Comparator.comparing((PartitionMetricSample s) -> s.entity().tp().topic())
+                                          .thenComparingInt(s -> s.entity().tp().partition()));
+    for (int start = 0; start < partitionMetricSamples.size(); start += _maxSamplesPerRecord) {
+      List<PartitionMetricSample> batch =
+          partitionMetricSamples.subList(start, Math.min(start + _maxSamplesPerRecord, partitionMetricSamples.size()));
+      long timestamp = batch.stream().mapToLong(PartitionMetricSample::sampleTime).min().getAsLong();
+      byte[] value = MetricSampleBatchSerde.partitionSamplesToBytes(batch);
+      _producer.send(new ProducerRecord<>(_partitionMetricSampleStoreTopic, null, timestamp, null, value), (recordMetadata, e) -> {
+        if (e == null) {
+          metricSampleCount.addAndGet(batch.size());
+        } else {
+          LOG.error("Failed to produce {} partition metric samples of timestamp {} due to exception", batch.size(), timestamp, e);
+        }
+      });
+    }
+    List<BrokerMetricSample> brokerMetricSamples = new ArrayList<>(samples.brokerMetricSamples());
+    for (int start = 0; start < brokerMetricSamples.size(); start += _maxSamplesPerRecord) {
+      List<BrokerMetricSample> batch =
+          brokerMetricSamples.subList(start, Math.min(start + _maxSamplesPerRecord, brokerMetricSamples.size()));
+      long timestamp = batch.stream().mapToLong(BrokerMetricSample::sampleTime).min().getAsLong();
+      byte[] value = MetricSampleBatchSerde.brokerSamplesToBytes(batch);
+      _producer.send(new ProducerRecord<>(_brokerMetricSampleStoreTopic, null, timestamp, null, value), (recordMetadata, e) -> {
+        if (e == null) {
+          brokerMetricSampleCount.addAndGet(batch.size());
+        } else {
+          LOG.error("Failed to produce {} broker metric samples of timestamp {} due to exception", batch.size(), timestamp, e);
+        }
+      });
+    }
+  }
+
   @Override
   public void loadSamples(SampleLoader sampleLoader) {
     LOG.info("Starting loading samples.");
@@ -360,17 +466,37 @@ public class KafkaSampleStore implements SampleStore {
     AtomicLong numBrokerMetricSamples = new AtomicLong(0L);
     AtomicLong totalSamples = new AtomicLong(0L);
     AtomicLong numLoadedSamples = new AtomicLong(0L);
+    SampleLoadingStats stats = new SampleLoadingStats(startMs);
+    // Bounded queues between the stages, so a slow stage applies backpressure to the stages before it.
+    BlockingQueue<List<ConsumerRecord<byte[], byte[]>>> recordQueue =
+        new ArrayBlockingQueue<>(SAMPLE_LOADING_QUEUE_CAPACITY_PER_THREAD * _numSampleDecodingThreads);
+    BlockingQueue<DecodedSamples> sampleQueue =
+        new ArrayBlockingQueue<>(SAMPLE_LOADING_QUEUE_CAPACITY_PER_THREAD * _numSampleInsertingThreads);
+    ExecutorService decodingExecutor = Executors.newFixedThreadPool(_numSampleDecodingThreads);
+    ExecutorService insertingExecutor = Executors.newFixedThreadPool(_numSampleInsertingThreads);
     try {
       prepareConsumers();
 
+      for (int i = 0; i < _numSampleInsertingThreads; i++) {
+        insertingExecutor.submit(new SampleInserter(sampleQueue, sampleLoader, numLoadedSamples, numPartitionMetricSamples,
+                                                    numBrokerMetricSamples, totalSamples, stats));
+      }
+      AtomicInteger numRunningDecoders = new AtomicInteger(_numSampleDecodingThreads);
+      for (int i = 0; i < _numSampleDecodingThreads; i++) {
+        decodingExecutor.submit(new SampleDecoder(recordQueue, sampleQueue, numRunningDecoders, stats));
+      }
+      AtomicInteger numRunningLoaders = new AtomicInteger(_consumers.size());
       for (KafkaConsumer<byte[], byte[]> consumer : _consumers) {
         _metricProcessorExecutor.submit(
-            new MetricLoader(consumer, sampleLoader, numLoadedSamples, numPartitionMetricSamples, numBrokerMetricSamples,
-                             totalSamples));
+            new MetricLoader(consumer, sampleLoader, recordQueue, numRunningLoaders, numLoadedSamples, totalSamples, stats));
       }
-      // Blocking waiting for the metric loading to finish.
       _metricProcessorExecutor.shutdown();
-      _metricProcessorExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      decodingExecutor.shutdown();
+      insertingExecutor.shutdown();
+      // Blocking waiting for the last stage of the metric loading to finish.
+      while (!insertingExecutor.awaitTermination(SAMPLE_LOADING_STATS_LOG_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+        LOG.info("Sample loading progress: {}%, {}", String.format("%.2f", _loadingProgress * 100), stats);
+      }
     } catch (Exception e) {
       LOG.error("Received exception when loading samples", e);
     } finally {
@@ -380,20 +506,30 @@ public class KafkaSampleStore implements SampleStore {
       } catch (InterruptedException e) {
         LOG.warn("Interrupted during waiting for metrics processor to shutdown.");
       }
+      // The decoders and inserters may still be waiting for samples if the loading did not finish normally.
+      decodingExecutor.shutdownNow();
+      insertingExecutor.shutdownNow();
     }
     long endMs = System.currentTimeMillis();
     long addedPartitionSampleCount = sampleLoader.partitionSampleCount();
     long addedBrokerSampleCount = sampleLoader.brokerSampleCount();
     long discardedPartitionMetricSamples = numPartitionMetricSamples.get() - addedPartitionSampleCount;
     long discardedBrokerMetricSamples = numBrokerMetricSamples.get() - addedBrokerSampleCount;
-    LOG.info("Sample loading finished. Loaded {}{} partition metrics samples and {}{} broker metric samples in {} ms.",
+    LOG.info("Sample loading finished. Loaded {}{} partition metrics samples and {}{} broker metric samples in {} ms ({}).",
              addedPartitionSampleCount,
              discardedPartitionMetricSamples > 0 ? String.format("(%d discarded)", discardedPartitionMetricSamples) : "",
              sampleLoader.brokerSampleCount(),
              discardedBrokerMetricSamples > 0 ? String.format("(%d discarded)", discardedBrokerMetricSamples) : "",
-             endMs - startMs);
+             endMs - startMs, stats);
   }
 
+  /**
+   * The progress of the sample loading is the fraction of the sample store records whose samples have gone through all
+   * the stages of the sample loading pipeline, i.e. have been consumed, decoded and inserted into the aggregators. The
+   * throughput of each stage is logged periodically during the sample loading.
+   *
+   * @return The sample loading progress.
+   */
   @Override
   public double sampleLoadingProgress() {
     return _loadingProgress;
@@ -401,13 +537,113 @@ public class KafkaSampleStore implements SampleStore {
 
   @Override
   public void evictSamplesBefore(long timestamp) {
-    //TODO: use the deleteMessageBefore method to delete old samples.
+    evictSamplesBefore(timestamp, timestamp);
+  }
+
+  /**
+   * Delete the records in the sample store topics that are older than the given timestamps, so that neither the brokers
+   * nor the sample loading have to deal with the samples that would be discarded by the aggregators anyway. The
+   * deletion is not waited for. The eviction time of a topic only moves forward once all the deletions of the topic
+   * succeed, so a topic whose deletion failed (e.g. no leader is elected yet) is retried on the next call.
+   *
+   * @param partitionSampleTimestamp the timestamp before which the partition metric samples can be evicted.
+   * @param brokerSampleTimestamp the timestamp before which the broker metric samples can be evicted.
+   */
+  @Override
+  public synchronized void evictSamplesBefore(long partitionSampleTimestamp, long brokerSampleTimestamp) {
+    if (_shutdown) {
+      return;
+    }
+    Map<TopicPartition, Long> evictionTimestamps = new HashMap<>();
+    if (partitionSampleTimestamp > _partitionSampleEvictionTimeMs.get()) {
+      for (PartitionInfo partInfo : _evictionConsumer.partitionsFor(_partitionMetricSampleStoreTopic)) {
+        evictionTimestamps.put(new TopicPartition(partInfo.topic(), partInfo.partition()), partitionSampleTimestamp);
+      }
+    }
+    if (brokerSampleTimestamp > _brokerSampleEvictionTimeMs.get()) {
+      for (PartitionInfo partInfo : _evictionConsumer.partitionsFor(_brokerMetricSampleStoreTopic)) {
+        evictionTimestamps.put(new TopicPartition(partInfo.topic(), partInfo.partition()), brokerSampleTimestamp);
+      }
+    }
+    if (evictionTimestamps.isEmpty()) {
+      return;
+    }
+    try {
+      Map<TopicPartition, RecordsToDelete> recordsToDelete = recordsToDeleteBefore(evictionTimestamps);
+      Map<TopicPartition, KafkaFuture<DeletedRecords>> lowWatermarks =
+          recordsToDelete.isEmpty() ? Collections.emptyMap() : _adminClient.deleteRecords(recordsToDelete).lowWatermarks();
+      lowWatermarks.forEach((tp, future) -> future.whenComplete((deletedRecords, e) -> {
+        if (e != null) {
+          LOG.warn("Failed to evict samples before offset {} from {}.", recordsToDelete.get(tp).beforeOffset(), tp, e);
+        } else {
+          LOG.debug("Evicted samples from {}, the new low watermark is {}.", tp, deletedRecords.lowWatermark());
+        }
+      }));
+      advanceEvictionTimeOnDeletion(_partitionMetricSampleStoreTopic, partitionSampleTimestamp,
+                                    _partitionSampleEvictionTimeMs, lowWatermarks);
+      advanceEvictionTimeOnDeletion(_brokerMetricSampleStoreTopic, brokerSampleTimestamp,
+                                    _brokerSampleEvictionTimeMs, lowWatermarks);
+    } catch (KafkaException e) {
+      LOG.warn("Failed to evict partition metric samples before {} and broker metric samples before {}.",
+               partitionSampleTimestamp, brokerSampleTimestamp, e);
+    }
+  }
+
+  /**
+   * Move the eviction time of the given sample store topic forward to the given timestamp once all the pending deletions
+   * of the topic succeed. The eviction time is left unchanged if any of the deletions fails.
+   *
+   * @param topic The sample store topic.
+   * @param evictionTimestamp The timestamp before which the samples of the topic are being evicted.
+   * @param evictionTimeMs The eviction time of the topic to move forward.
+   * @param lowWatermarks The pending deletions of all the sample store topic partitions.
+   */
+  private static void advanceEvictionTimeOnDeletion(String topic,
+                                                    long evictionTimestamp,
+                                                    AtomicLong evictionTimeMs,
+                                                    Map<TopicPartition, KafkaFuture<DeletedRecords>> lowWatermarks) {
+    List<KafkaFuture<DeletedRecords>> deletions = new ArrayList<>();
+    lowWatermarks.forEach((tp, future) -> {
+      if (tp.topic().equals(topic)) {
+        deletions.add(future);
+      }
+    });
+    KafkaFuture.allOf(deletions.toArray(new KafkaFuture[0])).whenComplete((v, e) -> {
+      if (e == null) {
+        evictionTimeMs.accumulateAndGet(evictionTimestamp, Math::max);
+      }
+    });
+  }
+
+  /**
+   * Get the records to delete from the given sample store topic partitions to evict the samples before the given timestamps.
+   *
+   * @param evictionTimestamps The timestamp before which the samples can be evicted for each sample store topic partition.
+   * @return The records to delete for each sample store topic partition that has samples to evict.
+   */
+  protected Map<TopicPartition, RecordsToDelete> recordsToDeleteBefore(Map<TopicPartition, Long> evictionTimestamps) {
+    // Get the end offsets first, so the records produced after this point are never deleted.
+    Map<TopicPartition, Long> endOffsets = _evictionConsumer.endOffsets(evictionTimestamps.keySet());
+    Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes = _evictionConsumer.offsetsForTimes(evictionTimestamps);
+    Map<TopicPartition, RecordsToDelete> recordsToDelete = new HashMap<>();
+    for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry : offsetsForTimes.entrySet()) {
+      // If there is no record after the eviction timestamp, all the existing records in the partition can be evicted.
+      long offset = entry.getValue() == null ? endOffsets.get(entry.getKey()) : entry.getValue().offset();
+      if (offset > 0) {
+        recordsToDelete.put(entry.getKey(), RecordsToDelete.beforeOffset(offset));
+      }
+    }
+    return recordsToDelete;
   }
 
   @Override
   public void close() {
     _shutdown = true;
     _producer.close(300L, TimeUnit.SECONDS);
+    synchronized (this) {
+      _evictionConsumer.close();
+    }
+    KafkaCruiseControlUtils.closeAdminClientWithTimeout(_adminClient);
   }
 
   protected void prepareConsumers() {
@@ -427,71 +663,57 @@ public class KafkaSampleStore implements SampleStore {
     }
   }
 
+  /**
+   * The first stage of the sample loading pipeline, which consumes the records from the sample store topic partitions
+   * assigned to its consumer and hands them over to the {@link SampleDecoder}s.
+   */
   protected class MetricLoader implements Runnable {
     protected final SampleLoader _sampleLoader;
+    protected final BlockingQueue<List<ConsumerRecord<byte[], byte[]>>> _recordQueue;
+    protected final AtomicInteger _numRunningLoaders;
     protected final AtomicLong _numLoadedSamples;
-    protected final AtomicLong _numPartitionMetricSamples;
-    protected final AtomicLong _numBrokerMetricSamples;
     protected final AtomicLong _totalSamples;
+    protected final SampleLoadingStats _stats;
     protected final KafkaConsumer<byte[], byte[]> _consumer;
 
     MetricLoader(KafkaConsumer<byte[], byte[]> consumer,
                  SampleLoader sampleLoader,
+                 BlockingQueue<List<ConsumerRecord<byte[], byte[]>>> recordQueue,
+                 AtomicInteger numRunningLoaders,
                  AtomicLong numLoadedSamples,
-                 AtomicLong numPartitionMetricSamples,
-                 AtomicLong numBrokerMetricSamples,
-                 AtomicLong totalSamples) {
+                 AtomicLong totalSamples,
+                 SampleLoadingStats stats) {
       _consumer = consumer;
       _sampleLoader = sampleLoader;
+      _recordQueue = recordQueue;
+      _numRunningLoaders = numRunningLoaders;
       _numLoadedSamples = numLoadedSamples;
-      _numPartitionMetricSamples = numPartitionMetricSamples;
-      _numBrokerMetricSamples = numBrokerMetricSamples;
       _totalSamples = totalSamples;
+      _stats = stats;
     }
 
     @Override
     public void run() {
       try {
         prepareConsumerOffset();
-        Map<TopicPartition, Long> beginningOffsets = _consumer.beginningOffsets(_consumer.assignment());
         Map<TopicPartition, Long> endOffsets = _consumer.endOffsets(_consumer.assignment());
-        LOG.debug("Loading beginning offsets: {}, loading end offsets: {}", beginningOffsets, endOffsets);
-        for (Map.Entry<TopicPartition, Long> entry : beginningOffsets.entrySet()) {
-          _totalSamples.addAndGet(endOffsets.get(entry.getKey()) - entry.getValue());
+        LOG.debug("Loading end offsets: {}", endOffsets);
+        for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
+          _totalSamples.addAndGet(Math.max(0L, entry.getValue() - _consumer.position(entry.getKey())));
           _loadingProgress = (double) _numLoadedSamples.get() / _totalSamples.get();
         }
         while (!sampleLoadingFinished(endOffsets)) {
           try {
+            long pollStartNs = System.nanoTime();
             ConsumerRecords<byte[], byte[]> consumerRecords = _consumer.poll(SAMPLE_POLL_TIMEOUT);
             if (consumerRecords == SHUTDOWN_RECORDS) {
               LOG.trace("Metric loader received empty records");
               return;
             }
-            Set<PartitionMetricSample> partitionMetricSamples = new HashSet<>();
-            Set<BrokerMetricSample> brokerMetricSamples = new HashSet<>();
-            for (ConsumerRecord<byte[], byte[]> record : consumerRecords) {
-              try {
-                if (record.topic().equals(_partitionMetricSampleStoreTopic)) {
-                  PartitionMetricSample sample = PartitionMetricSample.fromBytes(record.value());
-                  partitionMetricSamples.add(sample);
-                  LOG.trace("Loaded partition metric sample {}", sample);
-                } else if (record.topic().equals(_brokerMetricSampleStoreTopic)) {
-                  BrokerMetricSample sample = BrokerMetricSample.fromBytes(record.value());
-                  // For some legacy BrokerMetricSample, there is no timestamp in the broker samples. In this case
-                  // we use the record timestamp as the broker metric timestamp.
-                  sample.close(record.timestamp());
-                  brokerMetricSamples.add(sample);
-                  LOG.trace("Loaded broker metric sample {}", sample);
-                }
-              } catch (UnknownVersionException e) {
-                LOG.warn("Ignoring sample due to", e);
-              }
-            }
-            if (!partitionMetricSamples.isEmpty() || !brokerMetricSamples.isEmpty()) {
-              _sampleLoader.loadSamples(new MetricSampler.Samples(partitionMetricSamples, brokerMetricSamples));
-              _numPartitionMetricSamples.getAndAdd(partitionMetricSamples.size());
-              _numBrokerMetricSamples.getAndAdd(brokerMetricSamples.size());
-              _loadingProgress = (double) _numLoadedSamples.addAndGet(consumerRecords.count()) / _totalSamples.get();
+            _stats.recordConsumed(consumerRecords.count(), System.nanoTime() - pollStartNs);
+            for (TopicPartition tp : consumerRecords.partitions()) {
+              // Blocks if the decoders fall behind.
+              _recordQueue.put(consumerRecords.records(tp));
             }
           } catch (KafkaException ke) {
             if (ke.getMessage().toLowerCase().contains("record is corrupt")) {
@@ -504,6 +726,9 @@ public class KafkaSampleStore implements SampleStore {
             } else {
               LOG.error("Metric loader received exception:", ke);
             }
+          } catch (InterruptedException ie) {
+            LOG.warn("Metric loader was interrupted.");
+            return;
           } catch (Exception e) {
             if (_shutdown) {
               return;
@@ -515,6 +740,11 @@ public class KafkaSampleStore implements SampleStore {
         LOG.info("Metric loader finished loading samples.");
       } catch (Throwable t) {
         LOG.warn("Encountered error when loading sample from Kafka.", t);
+      } finally {
+        // The last metric loader to finish tells all the decoders that there is no more record.
+        if (_numRunningLoaders.decrementAndGet() == 0) {
+          signalEndOfStage(_recordQueue, NO_MORE_RECORDS, _numSampleDecodingThreads);
+        }
       }
     }
 
@@ -533,33 +763,261 @@ public class KafkaSampleStore implements SampleStore {
     /**
      * Config the sample loading consumers to consume from proper starting offsets. The sample store Kafka topic may contain data
      * which are too old for {@link com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregator} to keep in memory,
-     * to prevent loading these stale data, manually seek the consumers' staring offset to the offset at proper timestamp.
+     * to prevent loading these stale data, manually seek the consumers' staring offset to the offset of the start time of the
+     * oldest window the aggregators keep. If the aggregators have been restored from a checkpoint, the partition metric samples
+     * before the checkpoint time are skipped as well. The broker metric samples before the checkpoint time are still loaded,
+     * because the checkpoint does not include the training data of the linear regression model that they are fed to.
+     * Partitions that do not have any data after the starting time are skipped entirely.
      */
     protected void prepareConsumerOffset() {
       Map<TopicPartition, Long> beginningTimestamp = new HashMap<>(_consumer.assignment().size());
       long currentTimeMs = System.currentTimeMillis();
+      long partitionSampleStartMs = Math.max(_sampleLoader.earliestPartitionSampleTimeMs(currentTimeMs),
+                                             _sampleLoader.checkpointTimeMs());
+      long brokerSampleStartMs = _sampleLoader.earliestBrokerSampleTimeMs(currentTimeMs);
       for (TopicPartition tp : _consumer.assignment()) {
-        if (tp.topic().equals(_brokerMetricSampleStoreTopic)) {
-          beginningTimestamp.put(tp, currentTimeMs - _sampleLoader.brokerMonitoringPeriodMs());
-        } else {
-          beginningTimestamp.put(tp, currentTimeMs - _sampleLoader.partitionMonitoringPeriodMs());
-        }
+        beginningTimestamp.put(tp, tp.topic().equals(_brokerMetricSampleStoreTopic) ? brokerSampleStartMs : partitionSampleStartMs);
       }
 
       Set<TopicPartition> partitionWithNoRecentMessage = new HashSet<>();
       Map<TopicPartition, OffsetAndTimestamp> beginningOffsetAndTimestamp = _consumer.offsetsForTimes(beginningTimestamp);
       for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry: beginningOffsetAndTimestamp.entrySet()) {
         if (entry.getValue() == null) {
-          // If this sample store topic partition does not have data available after beginning timestamp, then seek to the
-          // beginning of this topic partition.
+          // If this sample store topic partition does not have data available after beginning timestamp, all of its data
+          // are either too old for the aggregators or have already been restored from the checkpoint.
           partitionWithNoRecentMessage.add(entry.getKey());
         } else {
           _consumer.seek(entry.getKey(), entry.getValue().offset());
         }
       }
       if (partitionWithNoRecentMessage.size() > 0) {
-        _consumer.seekToBeginning(partitionWithNoRecentMessage);
+        _consumer.seekToEnd(partitionWithNoRecentMessage);
+      }
+    }
+  }
+
+  /**
+   * Put the given end-of-stage marker to the queue once for each of the threads of the next stage.
+   */
+  private static <T> void signalEndOfStage(BlockingQueue<T> queue, T endOfStageMarker, int numThreadsOfNextStage) {
+    try {
+      for (int i = 0; i < numThreadsOfNextStage; i++) {
+        queue.put(endOfStageMarker);
+      }
+    } catch (InterruptedException e) {
+      LOG.warn("Interrupted during signaling the end of a sample loading stage.");
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The second stage of the sample loading pipeline, which deserializes the consumed records to metric samples and hands
+   * them over to the {@link SampleInserter}s. The partition metric samples, which are the vast majority of the samples,
+   * are read in place with a {@link PartitionMetricSampleReader} into a compact {@link PartitionMetricSampleValues}, so
+   * no sample object is created for them. Decoding has no side effect on the aggregators.
+   */
+  protected class SampleDecoder implements Runnable {
+    protected final BlockingQueue<List<ConsumerRecord<byte[], byte[]>>> _recordQueue;
+    protected final BlockingQueue<DecodedSamples> _sampleQueue;
+    protected final AtomicInteger _numRunningDecoders;
+    protected final SampleLoadingStats _stats;
+    // The reader is reused for all the partition metric sample records decoded by this decoder.
+    protected final PartitionMetricSampleReader _partitionMetricSampleReader;
+
+    SampleDecoder(BlockingQueue<List<ConsumerRecord<byte[], byte[]>>> recordQueue,
+                  BlockingQueue<DecodedSamples> sampleQueue,
+                  AtomicInteger numRunningDecoders,
+                  SampleLoadingStats stats) {
+      _recordQueue = recordQueue;
+      _sampleQueue = sampleQueue;
+      _numRunningDecoders = numRunningDecoders;
+      _stats = stats;
+      _partitionMetricSampleReader = new PartitionMetricSampleReader();
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<ConsumerRecord<byte[], byte[]>> records;
+        while ((records = _recordQueue.take()) != NO_MORE_RECORDS) {
+          long decodeStartNs = System.nanoTime();
+          DecodedSamples decodedSamples = decode(records);
+          _stats.recordDecoded(records.size(), System.nanoTime() - decodeStartNs);
+          // Blocks if the inserters fall behind.
+          _sampleQueue.put(decodedSamples);
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("Sample decoder was interrupted.");
+      } finally {
+        // The last decoder to finish tells all the inserters that there is no more sample.
+        if (_numRunningDecoders.decrementAndGet() == 0) {
+          signalEndOfStage(_sampleQueue, NO_MORE_SAMPLES, _numSampleInsertingThreads);
+        }
+      }
+    }
+
+    protected DecodedSamples decode(List<ConsumerRecord<byte[], byte[]>> records) {
+      PartitionMetricSampleValues partitionMetricSamples = new PartitionMetricSampleValues();
+      Set<BrokerMetricSample> brokerMetricSamples = new HashSet<>();
+      for (ConsumerRecord<byte[], byte[]> record : records) {
+        try {
+          if (record.topic().equals(_partitionMetricSampleStoreTopic)) {
+            _partitionMetricSampleReader.reset(record.value());
+            int numSamples = partitionMetricSamples.addAll(_partitionMetricSampleReader);
+            LOG.trace("Decoded {} partition metric samples from a record", numSamples);
+          } else if (record.topic().equals(_brokerMetricSampleStoreTopic)) {
+            if (MetricSampleBatchSerde.isBrokerSampleBatch(record.value())) {
+              List<BrokerMetricSample> samples = MetricSampleBatchSerde.brokerSamplesFromBytes(record.value());
+              brokerMetricSamples.addAll(samples);
+              LOG.trace("Loaded {} broker metric samples from a batch", samples.size());
+            } else {
+              BrokerMetricSample sample = BrokerMetricSample.fromBytes(record.value());
+              // For some legacy BrokerMetricSample, there is no timestamp in the broker samples. In this case
+              // we use the record timestamp as the broker metric timestamp.
+              sample.close(record.timestamp());
+              brokerMetricSamples.add(sample);
+              LOG.trace("Loaded broker metric sample {}", sample);
+            }
+          }
+        } catch (UnknownVersionException | RuntimeException e) {
+          LOG.warn("Ignoring sample due to", e);
+        }
+      }
+      return new DecodedSamples(partitionMetricSamples, brokerMetricSamples, records.size());
+    }
+  }
+
+  /**
+   * The last stage of the sample loading pipeline, which inserts the decoded metric samples into the aggregators.
+   */
+  protected class SampleInserter implements Runnable {
+    protected final BlockingQueue<DecodedSamples> _sampleQueue;
+    protected final SampleLoader _sampleLoader;
+    protected final AtomicLong _numLoadedSamples;
+    protected final AtomicLong _numPartitionMetricSamples;
+    protected final AtomicLong _numBrokerMetricSamples;
+    protected final AtomicLong _totalSamples;
+    protected final SampleLoadingStats _stats;
+
+    SampleInserter(BlockingQueue<DecodedSamples> sampleQueue,
+                   SampleLoader sampleLoader,
+                   AtomicLong numLoadedSamples,
+                   AtomicLong numPartitionMetricSamples,
+                   AtomicLong numBrokerMetricSamples,
+                   AtomicLong totalSamples,
+                   SampleLoadingStats stats) {
+      _sampleQueue = sampleQueue;
+      _sampleLoader = sampleLoader;
+      _numLoadedSamples = numLoadedSamples;
+      _numPartitionMetricSamples = numPartitionMetricSamples;
+      _numBrokerMetricSamples = numBrokerMetricSamples;
+      _totalSamples = totalSamples;
+      _stats = stats;
+    }
+
+    @Override
+    public void run() {
+      try {
+        DecodedSamples decodedSamples;
+        while ((decodedSamples = _sampleQueue.take()) != NO_MORE_SAMPLES) {
+          long insertStartNs = System.nanoTime();
+          PartitionMetricSampleValues partitionMetricSamples = decodedSamples.partitionMetricSamples();
+          Set<BrokerMetricSample> brokerMetricSamples = decodedSamples.brokerMetricSamples();
+          try {
+            if (partitionMetricSamples.size() > 0) {
+              _sampleLoader.loadPartitionSamples(partitionMetricSamples);
+              _numPartitionMetricSamples.getAndAdd(partitionMetricSamples.size());
+            }
+            if (!brokerMetricSamples.isEmpty()) {
+              _sampleLoader.loadSamples(new MetricSampler.Samples(Collections.emptySet(), brokerMetricSamples));
+              _numBrokerMetricSamples.getAndAdd(brokerMetricSamples.size());
+            }
+          } catch (Exception e) {
+            LOG.error("Sample inserter received exception:", e);
+          }
+          _loadingProgress = (double) _numLoadedSamples.addAndGet(decodedSamples.numRecords()) / _totalSamples.get();
+          _stats.recordInserted(decodedSamples.numRecords(), System.nanoTime() - insertStartNs);
+        }
+      } catch (InterruptedException e) {
+        LOG.warn("Sample inserter was interrupted.");
       }
     }
   }
+
+  /**
+   * The metric samples decoded from a list of sample store records.
+   */
+  protected static class DecodedSamples {
+    private final PartitionMetricSampleValues _partitionMetricSamples;
+    private final Set<BrokerMetricSample> _brokerMetricSamples;
+    private final int _numRecords;
+
+    DecodedSamples(PartitionMetricSampleValues partitionMetricSamples,
+                   Set<BrokerMetricSample> brokerMetricSamples,
+                   int numRecords) {
+      _partitionMetricSamples = partitionMetricSamples;
+      _brokerMetricSamples = brokerMetricSamples;
+      _numRecords = numRecords;
+    }
+
+    public PartitionMetricSampleValues partitionMetricSamples() {
+      return _partitionMetricSamples;
+    }
+
+    public Set<BrokerMetricSample> brokerMetricSamples() {
+      return _brokerMetricSamples;
+    }
+
+    public int numRecords() {
+      return _numRecords;
+    }
+  }
+
+  /**
+   * The number of sample store records that have gone through each stage of the sample loading pipeline and the time spent
+   * by the threads of each stage, excluding the time waiting for the other stages. A stage with a lower throughput and a
+   * busier time than the others is the bottleneck of the sample loading.
+   */
+  protected static class SampleLoadingStats {
+    private final long _startMs;
+    private final AtomicLong _numConsumedRecords = new AtomicLong(0L);
+    private final AtomicLong _numDecodedRecords = new AtomicLong(0L);
+    private final AtomicLong _numInsertedRecords = new AtomicLong(0L);
+    private final AtomicLong _consumingTimeNs = new AtomicLong(0L);
+    private final AtomicLong _decodingTimeNs = new AtomicLong(0L);
+    private final AtomicLong _insertingTimeNs = new AtomicLong(0L);
+
+    SampleLoadingStats(long startMs) {
+      _startMs = startMs;
+    }
+
+    void recordConsumed(int numRecords, long timeNs) {
+      _numConsumedRecords.addAndGet(numRecords);
+      _consumingTimeNs.addAndGet(timeNs);
+    }
+
+    void recordDecoded(int numRecords, long timeNs) {
+      _numDecodedRecords.addAndGet(numRecords);
+      _decodingTimeNs.addAndGet(timeNs);
+    }
+
+    void recordInserted(int numRecords, long timeNs) {
+      _numInsertedRecords.addAndGet(numRecords);
+      _insertingTimeNs.addAndGet(timeNs);
+    }
+
+    private static String stageToString(String stage, long numRecords, long timeNs, long elapsedMs) {
+      return String.format("%s: %d records (%.1f records/s, busy %d ms)", stage, numRecords,
+                           numRecords * 1000.0 / Math.max(1L, elapsedMs), TimeUnit.NANOSECONDS.toMillis(timeNs));
+    }
+
+    @Override
+    public String toString() {
+      long elapsedMs = System.currentTimeMillis() - _startMs;
+      return String.join(", ",
+                         stageToString("consumed", _numConsumedRecords.get(), _consumingTimeNs.get(), elapsedMs),
+                         stageToString("decoded", _numDecodedRecords.get(), _decodingTimeNs.get(), elapsedMs),
+                         stageToString("inserted", _numInsertedRecords.get(), _insertingTimeNs.get(), elapsedMs));
+    }
+  }
 }
@@ -15,7 +15,11 @@ import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -23,6 +27,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
@@ -34,14 +39,15 @@ import org.slf4j.LoggerFactory;
  */
 public class MetricFetcherManager {
   static final String BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG = "broker.capacity.config.resolver.object";
+  static final String METRIC_FETCHER_ID_OBJECT_CONFIG = "metric.fetcher.id.object";
   private static final Logger LOG = LoggerFactory.getLogger(MetricFetcherManager.class);
-  static final int SUPPORTED_NUM_METRIC_FETCHER = 1;
 
   private final Time _time;
   private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
   private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
   private final MetadataClient _metadataClient;
-  private final MetricSampler _metricSampler;
+  // One metric sampler per metric fetcher, indexed by the metric fetcher id.
+  private final List<MetricSampler> _metricSamplers;
   private final MetricSamplerPartitionAssignor _partitionAssignor;
   private final ExecutorService _samplingExecutor;
   // The following two configuration is actually for MetricSampleAggregator, the MetricFetcherManager uses it to
@@ -53,6 +59,9 @@ public class MetricFetcherManager {
   private final Meter _samplingFetcherFailureRate;
   private final Timer _trainingSamplesFetcherTimer;
   private final Meter _trainingSamplesFetcherFailureRate;
+  // The time taken by each metric fetcher in a round of sampling, indexed by the metric fetcher id.
+  private final List<Timer> _samplingFetcherTimerByFetcher;
+  private final List<Timer> _trainingSamplesFetcherTimerByFetcher;
 
   /**
    * Create a metric fetcher manager.
@@ -82,7 +91,9 @@ public class MetricFetcherManager {
    * @param time        The time object.
    * @param dropwizardMetricRegistry The Metric Registry object.
    * @param brokerCapacityConfigResolver The resolver for retrieving broker capacities.
-   * @param sampler Metric fetcher or {@code null} to create one using {@link MonitorConfig#METRIC_SAMPLER_CLASS_CONFIG}.
+   * @param sampler Metric fetcher or {@code null} to create one for each of the {@link MonitorConfig#NUM_METRIC_FETCHERS_CONFIG}
+   *                metric fetchers using {@link MonitorConfig#METRIC_SAMPLER_CLASS_CONFIG}. A given sampler is used
+   *                as the only metric fetcher.
    */
   public MetricFetcherManager(KafkaCruiseControlConfig config,
                               KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
@@ -98,7 +109,8 @@ public class MetricFetcherManager {
     _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
     _metadataClient = metadataClient;
     _metricDef = metricDef;
-    _samplingExecutor = Executors.newFixedThreadPool(SUPPORTED_NUM_METRIC_FETCHER,
+    int numMetricFetchers = sampler == null ? config.getInt(MonitorConfig.NUM_METRIC_FETCHERS_CONFIG) : 1;
+    _samplingExecutor = Executors.newFixedThreadPool(numMetricFetchers,
                                                      new KafkaCruiseControlThreadFactory("MetricFetcher", true, LOG));
     _partitionAssignor = config.getConfiguredInstance(MonitorConfig.METRIC_SAMPLER_PARTITION_ASSIGNOR_CLASS_CONFIG,
                                                       MetricSamplerPartitionAssignor.class);
@@ -112,22 +124,39 @@ public class MetricFetcherManager {
                                                                                        "training-samples-fetcher-timer"));
     _trainingSamplesFetcherFailureRate = dropwizardMetricRegistry.meter(MetricRegistry.name("MetricFetcherManager",
                                                                                              "training-samples-fetcher-failure-rate"));
+    _samplingFetcherTimerByFetcher = new ArrayList<>(numMetricFetchers);
+    _trainingSamplesFetcherTimerByFetcher = new ArrayList<>(numMetricFetchers);
+    for (int fetcherId = 0; fetcherId < numMetricFetchers; fetcherId++) {
+      _samplingFetcherTimerByFetcher.add(dropwizardMetricRegistry.timer(
+          MetricRegistry.name("MetricFetcherManager", "partition-samples-fetcher-" + fetcherId + "-timer")));
+      _trainingSamplesFetcherTimerByFetcher.add(dropwizardMetricRegistry.timer(
+          MetricRegistry.name("MetricFetcherManager", "training-samples-fetcher-" + fetcherId + "-timer")));
+    }
 
-    _metricSampler = sampler == null
-                     ? config.getConfiguredInstance(MonitorConfig.METRIC_SAMPLER_CLASS_CONFIG, MetricSampler.class,
-                                                    Collections.singletonMap(BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG,
-                                                                             brokerCapacityConfigResolver))
-                     : sampler;
+    if (sampler == null) {
+      _metricSamplers = new ArrayList<>(numMetricFetchers);
+      for (int fetcherId = 0; fetcherId < numMetricFetchers; fetcherId++) {
+        Map<String, Object> configOverrides = new HashMap<>(2);
+        configOverrides.put(BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG, brokerCapacityConfigResolver);
+        configOverrides.put(METRIC_FETCHER_ID_OBJECT_CONFIG, fetcherId);
+        _metricSamplers.add(config.getConfiguredInstance(MonitorConfig.METRIC_SAMPLER_CLASS_CONFIG, MetricSampler.class,
+                                                         configOverrides));
+      }
+    } else {
+      _metricSamplers = Collections.singletonList(sampler);
+    }
   }
 
   /**
    * Shutdown the metric fetcher manager.
    */
   public void shutdown() {
-    try {
-      _metricSampler.close();
-    } catch (Exception e) {
-      LOG.warn("Received exception when closing metric samplers.", e);
+    for (MetricSampler metricSampler : _metricSamplers) {
+      try {
+        metricSampler.close();
+      } catch (Exception e) {
+        LOG.warn("Received exception when closing metric samplers.", e);
+      }
     }
     LOG.info("Shutting down metric fetcher manager.");
     _samplingExecutor.shutdown();
@@ -148,21 +177,25 @@ public class MetricFetcherManager {
                                              SampleStore sampleStore) {
     LOG.info("Kicking off partition metric sampling for time range [{}, {}], duration {} ms with timeout {} ms.",
              startMs, endMs, endMs - startMs, timeoutMs);
-    Set<TopicPartition> partitionAssignment = _partitionAssignor.assignPartitions(_metadataClient.cluster());
-    MetricFetcher samplingFetcher = new SamplingFetcher(_metricSampler,
-                                                        _metadataClient.cluster(),
-                                                        _partitionMetricSampleAggregator,
-                                                        _brokerMetricSampleAggregator,
-                                                        sampleStore,
-                                                        partitionAssignment,
-                                                        startMs,
-                                                        endMs,
-                                                        true,
-                                                        _useLinearRegressionModel,
-                                                        _metricDef,
-                                                        _samplingFetcherTimer,
-                                                        _samplingFetcherFailureRate);
-    return fetchSamples(samplingFetcher, timeoutMs);
+    Cluster cluster = _metadataClient.cluster();
+    List<Set<TopicPartition>> partitionAssignments = assignPartitions(cluster);
+    List<MetricFetcher> samplingFetchers = new ArrayList<>(_metricSamplers.size());
+    for (int fetcherId = 0; fetcherId < _metricSamplers.size(); fetcherId++) {
+      samplingFetchers.add(new SamplingFetcher(_metricSamplers.get(fetcherId),
+                                               cluster,
+                                               _partitionMetricSampleAggregator,
+                                               _brokerMetricSampleAggregator,
+                                               sampleStore,
+                                               partitionAssignments.get(fetcherId),
+                                               startMs,
+                                               endMs,
+                                               true,
+                                               _useLinearRegressionModel,
+                                               _metricDef,
+                                               _samplingFetcherTimerByFetcher.get(fetcherId),
+                                               _samplingFetcherFailureRate));
+    }
+    return fetchSamples(samplingFetchers, timeoutMs, _samplingFetcherTimer);
   }
 
   /**
@@ -179,21 +212,51 @@ public class MetricFetcherManager {
                                           SampleStore sampleStore) {
     LOG.info("Kicking off broker metric sampling for time range [{}, {}], duration {} ms with timeout {} ms.",
              startMs, endMs, endMs - startMs, timeoutMs);
-    Set<TopicPartition> partitionAssignment = _partitionAssignor.assignPartitions(_metadataClient.cluster());
-    MetricFetcher trainingFetcher = new TrainingFetcher(_metricSampler,
-                                                        _metadataClient.cluster(),
-                                                        sampleStore,
-                                                        partitionAssignment,
-                                                        startMs,
-                                                        endMs,
-                                                        _metricDef,
-                                                        _trainingSamplesFetcherTimer,
-                                                        _trainingSamplesFetcherFailureRate);
-    return fetchSamples(trainingFetcher, timeoutMs);
+    Cluster cluster = _metadataClient.cluster();
+    List<Set<TopicPartition>> partitionAssignments = assignPartitions(cluster);
+    List<MetricFetcher> trainingFetchers = new ArrayList<>(_metricSamplers.size());
+    for (int fetcherId = 0; fetcherId < _metricSamplers.size(); fetcherId++) {
+      trainingFetchers.add(new TrainingFetcher(_metricSamplers.get(fetcherId),
+                                               cluster,
+                                               sampleStore,
+                                               partitionAssignments.get(fetcherId),
+                                               startMs,
+                                               endMs,
+                                               _metricDef,
+                                               _trainingSamplesFetcherTimerByFetcher.get(fetcherId),
+                                               _trainingSamplesFetcherFailureRate));
+    }
+    return fetchSamples(trainingFetchers, timeoutMs, _trainingSamplesFetcherTimer);
+  }
+
+  /**
+   * Assign the partitions in the cluster to the metric fetchers.
+   *
+   * @param cluster The Kafka cluster.
+   * @return The partition assignment for each metric fetcher, indexed by the metric fetcher id.
+   */
+  private List<Set<TopicPartition>> assignPartitions(Cluster cluster) {
+    if (_metricSamplers.size() == 1) {
+      return Collections.singletonList(_partitionAssignor.assignPartitions(cluster));
+    }
+    List<Set<TopicPartition>> partitionAssignments = _partitionAssignor.assignPartitions(cluster, _metricSamplers.size());
+    if (partitionAssignments.size() != _metricSamplers.size()) {
+      throw new IllegalStateException(String.format("Partition assignor %s returned %d assignments for %d metric fetchers.",
+                                                    _partitionAssignor.getClass().getName(), partitionAssignments.size(),
+                                                    _metricSamplers.size()));
+    }
+    return partitionAssignments;
   }
 
-  // Package private functions
-  private boolean fetchSamples(MetricFetcher metricFetcher, long timeoutMs) {
+  /**
+   * Run the given metric fetchers concurrently and wait for all of them to finish or the timeout to expire.
+   *
+   * @param metricFetchers The metric fetchers to run, indexed by the metric fetcher id.
+   * @param timeoutMs The timeout.
+   * @param roundTimer The timer to record the time taken by the whole round of sampling.
+   * @return True if any of the metric fetchers had a sampling error or did not finish in time, false otherwise.
+   */
+  private boolean fetchSamples(List<MetricFetcher> metricFetchers, long timeoutMs, Timer roundTimer) {
 
     // Initialize the state before kicking off sampling.
     boolean hasSamplingError = false;
@@ -202,22 +265,29 @@ public class MetricFetcherManager {
     long deadlineMs = samplingActionStartMs + timeoutMs;
 
     // Kick off the sampling.
-    Future<Boolean> errorFuture = _samplingExecutor.submit(metricFetcher);
-
-    try {
-      hasSamplingError = errorFuture.get(deadlineMs - _time.milliseconds(), TimeUnit.MILLISECONDS);
-    } catch (InterruptedException e) {
-      LOG.warn("Sampling scheduler thread is interrupted when waiting for sampling to finish.", e);
-    } catch (ExecutionException e) {
-      LOG.error("Sampling scheduler received Execution exception when waiting for sampling to finish.", e);
-    } catch (TimeoutException e) {
-      LOG.error("Sampling scheduler received Timeout exception when waiting for sampling to finish.", e);
-    } catch (Exception e) {
-      LOG.error("Sampling scheduler received Unknown exception when waiting for sampling to finish.", e);
+    List<Future<Boolean>> errorFutures = new ArrayList<>(metricFetchers.size());
+    for (MetricFetcher metricFetcher : metricFetchers) {
+      errorFutures.add(_samplingExecutor.submit(metricFetcher));
+    }
+
+    for (int fetcherId = 0; fetcherId < errorFutures.size(); fetcherId++) {
+      try {
+        hasSamplingError |= errorFutures.get(fetcherId).get(Math.max(0L, deadlineMs - _time.milliseconds()), TimeUnit.MILLISECONDS);
+        LOG.debug("Metric fetcher {} finished sampling in {} ms.", fetcherId, _time.milliseconds() - samplingActionStartMs);
+      } catch (InterruptedException e) {
+        LOG.warn("Sampling scheduler thread is interrupted when waiting for metric fetcher {} to finish.", fetcherId, e);
+      } catch (ExecutionException e) {
+        LOG.error("Sampling scheduler received Execution exception when waiting for metric fetcher {} to finish.", fetcherId, e);
+      } catch (TimeoutException e) {
+        LOG.error("Sampling scheduler received Timeout exception when waiting for metric fetcher {} to finish.", fetcherId, e);
+      } catch (Exception e) {
+        LOG.error("Sampling scheduler received Unknown exception when waiting for metric fetcher {} to finish.", fetcherId, e);
+      }
     }
 
     long samplingTime = _time.milliseconds() - samplingActionStartMs;
-    LOG.info("Finished sampling in {} ms.", samplingTime);
+    roundTimer.update(samplingTime, TimeUnit.MILLISECONDS);
+    LOG.info("Finished sampling with {} metric fetchers in {} ms.", metricFetchers.size(), samplingTime);
 
     return hasSamplingError;
   }
@@ -17,8 +17,8 @@ import java.util.Set;
 public interface MetricSamplerPartitionAssignor extends CruiseControlConfigurable {
 
   /**
-   * @deprecated Please use {@link #assignPartitions(Cluster)}.
-   * Assign the partitions in the cluster to the metric fetchers.
+   * Assign the partitions in the cluster to the metric fetchers. The assignments of different fetchers must be disjoint.
+   * This method is used instead of {@link #assignPartitions(Cluster)} when more than one metric fetcher is configured.
    *
    * @param cluster        The Kafka cluster.
    * @param numFetchers    The number of metric fetchers.
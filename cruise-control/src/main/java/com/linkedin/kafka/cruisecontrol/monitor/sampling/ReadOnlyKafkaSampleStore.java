@@ -29,6 +29,7 @@ public class ReadOnlyKafkaSampleStore extends KafkaSampleStore {
     String numProcessingThreadsString = (String) config.get(NUM_SAMPLE_LOADING_THREADS_CONFIG);
     int numProcessingThreads = numProcessingThreadsString == null || numProcessingThreadsString.isEmpty()
         ? DEFAULT_NUM_SAMPLE_LOADING_THREADS : Integer.parseInt(numProcessingThreadsString);
+    configureSampleLoadingPipeline(config);
     _metricProcessorExecutor = Executors.newFixedThreadPool(numProcessingThreads);
     _consumers = new ArrayList<>(numProcessingThreads);
     for (int i = 0; i < numProcessingThreads; i++) {
@@ -51,4 +52,9 @@ public class ReadOnlyKafkaSampleStore extends KafkaSampleStore {
   public void evictSamplesBefore(long timestamp) {
     // Do nothing.
   }
+
+  @Override
+  public void evictSamplesBefore(long partitionSampleTimestamp, long brokerSampleTimestamp) {
+    // Do nothing.
+  }
 }
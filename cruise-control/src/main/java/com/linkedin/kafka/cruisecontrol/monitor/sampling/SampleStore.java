@@ -6,10 +6,14 @@ package com.linkedin.kafka.cruisecontrol.monitor.sampling;
 
 import com.linkedin.cruisecontrol.common.CruiseControlConfigurable;
 import com.linkedin.kafka.cruisecontrol.model.ModelParameters;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSampleValues;
+import java.util.Collection;
 
 
 /**
@@ -43,6 +47,18 @@ public interface SampleStore extends CruiseControlConfigurable {
    */
   void evictSamplesBefore(long timestamp);
 
+  /**
+   * This method is called after each sampling round with the earliest sample times that the partition and broker metric
+   * sample aggregators still accept. The samples taken before these times are no longer useful, neither for the
+   * aggregators nor for sample loading. The default implementation evicts all the samples before the earlier of the two.
+   *
+   * @param partitionSampleTimestamp the timestamp before which the partition metric samples can be evicted.
+   * @param brokerSampleTimestamp the timestamp before which the broker metric samples can be evicted.
+   */
+  default void evictSamplesBefore(long partitionSampleTimestamp, long brokerSampleTimestamp) {
+    evictSamplesBefore(Math.min(partitionSampleTimestamp, brokerSampleTimestamp));
+  }
+
   /**
    * Close the sample store.
    */
@@ -55,21 +71,77 @@ public interface SampleStore extends CruiseControlConfigurable {
   class SampleLoader {
     private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
     private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
+    private final long _checkpointTimeMs;
 
     public SampleLoader(KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
                         KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator) {
+      this(partitionMetricSampleAggregator, brokerMetricSampleAggregator, AggregatorCheckpointManager.NO_CHECKPOINT);
+    }
+
+    /**
+     * @param partitionMetricSampleAggregator The partition metric sample aggregator to load samples to.
+     * @param brokerMetricSampleAggregator The broker metric sample aggregator to load samples to.
+     * @param checkpointTimeMs The time up to which the aggregators have been restored from a checkpoint, or
+     *                         {@link AggregatorCheckpointManager#NO_CHECKPOINT} if the aggregators were not restored.
+     *                         Samples taken at or before this time are already in the aggregators and will not be added
+     *                         to them again. Broker metric samples are still used to train the linear regression model.
+     */
+    public SampleLoader(KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
+                        KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
+                        long checkpointTimeMs) {
       _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
       _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
+      _checkpointTimeMs = checkpointTimeMs;
     }
 
     public void loadSamples(MetricSampler.Samples samples) {
       for (PartitionMetricSample sample : samples.partitionMetricSamples()) {
-        _partitionMetricSampleAggregator.addSample(sample, false);
+        if (sample.sampleTime() > _checkpointTimeMs) {
+          _partitionMetricSampleAggregator.addSample(sample, false);
+        }
       }
       for (BrokerMetricSample sample : samples.brokerMetricSamples()) {
-        _brokerMetricSampleAggregator.addSample(sample);
+        if (sample.sampleTime() > _checkpointTimeMs) {
+          _brokerMetricSampleAggregator.addSample(sample);
+        }
       }
-      ModelParameters.addMetricObservation(samples.brokerMetricSamples());
+      // The checkpoint does not include the training data of the linear regression model, so all the broker metric
+      // samples are used for training, including those that are already in the restored aggregator.
+      addMetricObservation(samples.brokerMetricSamples());
+    }
+
+    /**
+     * Add the given broker metric samples to the training data of the linear regression model.
+     * Package private for unit test.
+     *
+     * @param brokerMetricSamples The broker metric samples to train the linear regression model with.
+     */
+    void addMetricObservation(Collection<BrokerMetricSample> brokerMetricSamples) {
+      ModelParameters.addMetricObservation(brokerMetricSamples);
+    }
+
+    /**
+     * Load the partition metric samples decoded into the given holder, without creating a {@link PartitionMetricSample}
+     * for each of them.
+     *
+     * @param samples The decoded partition metric samples to load.
+     */
+    public void loadPartitionSamples(PartitionMetricSampleValues samples) {
+      double[] valuesByMetricId = new double[KafkaMetricDef.commonMetricDef().size()];
+      for (int i = 0; i < samples.size(); i++) {
+        if (samples.sampleTime(i) > _checkpointTimeMs) {
+          samples.copyValues(i, valuesByMetricId);
+          _partitionMetricSampleAggregator.addSample(samples.entity(i), samples.sampleTime(i), valuesByMetricId);
+        }
+      }
+    }
+
+    /**
+     * @return The time up to which the aggregators have been restored from a checkpoint, or
+     * {@link AggregatorCheckpointManager#NO_CHECKPOINT} if the aggregators were not restored.
+     */
+    public long checkpointTimeMs() {
+      return _checkpointTimeMs;
     }
 
     public long partitionSampleCount() {
@@ -87,5 +159,21 @@ public interface SampleStore extends CruiseControlConfigurable {
     public long brokerMonitoringPeriodMs() {
       return _brokerMetricSampleAggregator.monitoringPeriodMs();
     }
+
+    /**
+     * @param nowMs The current time.
+     * @return The earliest partition metric sample time that the partition metric sample aggregator accepts at the given time.
+     */
+    public long earliestPartitionSampleTimeMs(long nowMs) {
+      return _partitionMetricSampleAggregator.earliestAcceptedSampleTimeMs(nowMs);
+    }
+
+    /**
+     * @param nowMs The current time.
+     * @return The earliest broker metric sample time that the broker metric sample aggregator accepts at the given time.
+     */
+    public long earliestBrokerSampleTimeMs(long nowMs) {
+      return _brokerMetricSampleAggregator.earliestAcceptedSampleTimeMs(nowMs);
+    }
   }
 }
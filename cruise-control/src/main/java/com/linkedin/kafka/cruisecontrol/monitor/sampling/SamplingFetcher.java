@@ -86,9 +86,10 @@ class SamplingFetcher extends MetricFetcher {
     try {
       MetricSampler.Samples samples = fetchSamples();
       _sampleStore.storeSamples(samples);
-      // TODO: evolve sample store interface to allow independent eviction time for different type of metric samples.
-      // We are not calling sampleStore.evictSamplesBefore() because the broker metric samples and partition metric
-      // samples may have different number of windows so they can not be evicted using the same timestamp.
+      // The broker metric samples and partition metric samples may have different windows, so they are evicted
+      // independently.
+      _sampleStore.evictSamplesBefore(_partitionMetricSampleAggregator.earliestAcceptedSampleTimeMs(_endTimeMs),
+                                      _brokerMetricSampleAggregator.earliestAcceptedSampleTimeMs(_endTimeMs));
     } catch (Exception e) {
       _fetchFailureRate.mark();
       throw e;
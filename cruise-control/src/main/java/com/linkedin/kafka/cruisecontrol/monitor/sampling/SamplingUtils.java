@@ -36,6 +36,31 @@ public class SamplingUtils {
   private static final Logger LOG = LoggerFactory.getLogger(SamplingUtils.class);
   private static final String SKIP_BUILDING_SAMPLE_PREFIX = "Skip generating metric sample for ";
   public static final int UNRECOGNIZED_BROKER_ID = -1;
+  // The metric info of the topic and broker raw metric types by raw metric type id, resolved once instead of looking up
+  // the metric definitions by name for every metric of every sample.
+  private static final MetricInfo[] COMMON_METRIC_INFO_BY_RAW_METRIC_TYPE_ID = new MetricInfo[RawMetricType.allMetricTypes().size()];
+  private static final MetricInfo[] BROKER_METRIC_INFO_BY_RAW_METRIC_TYPE_ID = new MetricInfo[RawMetricType.allMetricTypes().size()];
+  private static final MetricInfo PARTITION_DISK_USAGE = KafkaMetricDef.commonMetricDef().metricInfo(KafkaMetricDef.DISK_USAGE.name());
+  private static final MetricInfo PARTITION_CPU_USAGE = KafkaMetricDef.commonMetricDef().metricInfo(KafkaMetricDef.CPU_USAGE.name());
+  private static final MetricInfo PARTITION_LEADER_BYTES_IN = KafkaMetricDef.commonMetricDef().metricInfo(KafkaMetricDef.LEADER_BYTES_IN.name());
+  private static final MetricInfo PARTITION_LEADER_BYTES_OUT = KafkaMetricDef.commonMetricDef().metricInfo(KafkaMetricDef.LEADER_BYTES_OUT.name());
+  private static final MetricInfo PARTITION_REPLICATION_BYTES_OUT =
+      KafkaMetricDef.commonMetricDef().metricInfo(KafkaMetricDef.REPLICATION_BYTES_OUT_RATE.name());
+  private static final MetricInfo BROKER_DISK_USAGE = KafkaMetricDef.brokerMetricDef().metricInfo(KafkaMetricDef.DISK_USAGE.name());
+  static {
+    MetricDef commonMetricDef = KafkaMetricDef.commonMetricDef();
+    for (RawMetricType rawMetricType : RawMetricType.topicMetricTypes()) {
+      COMMON_METRIC_INFO_BY_RAW_METRIC_TYPE_ID[rawMetricType.id()] =
+          commonMetricDef.metricInfo(KafkaMetricDef.forRawMetricType(rawMetricType).name());
+    }
+    MetricDef brokerMetricDef = KafkaMetricDef.brokerMetricDef();
+    for (Set<RawMetricType> rawMetricTypes : RawMetricType.brokerMetricTypesDiffByVersion().values()) {
+      for (RawMetricType rawMetricType : rawMetricTypes) {
+        BROKER_METRIC_INFO_BY_RAW_METRIC_TYPE_ID[rawMetricType.id()] =
+            brokerMetricDef.metricInfo(KafkaMetricDef.forRawMetricType(rawMetricType).name());
+      }
+    }
+  }
 
   private SamplingUtils() {
   }
@@ -66,15 +91,14 @@ public class SamplingUtils {
    *
    * @param pms Metric sample of partition.
    * @param brokerLoad Load information for the broker that the leader of the partition resides.
-   * @param commonMetricDef Definitions to look up the metric info.
    * @param numCpuCores Number of CPU cores.
    * @return The estimated CPU utilization of the leader for the partition based on the static model, or {@code null}
    * if estimation is not possible.
    */
-  private static Double estimateLeaderCpuUtil(PartitionMetricSample pms, BrokerLoad brokerLoad, MetricDef commonMetricDef, short numCpuCores) {
-    double partitionBytesInRate = pms.metricValue(commonMetricDef.metricInfo(KafkaMetricDef.LEADER_BYTES_IN.name()).id());
-    double partitionBytesOutRate = pms.metricValue(commonMetricDef.metricInfo(KafkaMetricDef.LEADER_BYTES_OUT.name()).id());
-    double partitionReplicationBytesOutRate = pms.metricValue(commonMetricDef.metricInfo(KafkaMetricDef.REPLICATION_BYTES_OUT_RATE.name()).id());
+  private static Double estimateLeaderCpuUtil(PartitionMetricSample pms, BrokerLoad brokerLoad, short numCpuCores) {
+    double partitionBytesInRate = pms.metricValue(PARTITION_LEADER_BYTES_IN.id());
+    double partitionBytesOutRate = pms.metricValue(PARTITION_LEADER_BYTES_OUT.id());
+    double partitionReplicationBytesOutRate = pms.metricValue(PARTITION_REPLICATION_BYTES_OUT.id());
     double brokerTotalBytesOut = brokerLoad.brokerMetric(ALL_TOPIC_BYTES_OUT) + brokerLoad.brokerMetric(ALL_TOPIC_REPLICATION_BYTES_OUT);
     Double estimatedLeaderCpuUtilPerCore = ModelUtils.estimateLeaderCpuUtilPerCore(brokerLoad.brokerMetric(BROKER_CPU_UTIL),
                                                                                    brokerLoad.brokerMetric(ALL_TOPIC_BYTES_IN),
@@ -117,6 +141,21 @@ public class SamplingUtils {
     return result;
   }
 
+  /**
+   * Get the id of the metric fetcher responsible for the metrics of the given broker. The Cruise Control metrics reporter
+   * writes all the metrics of broker {@code b} to partition {@code b % P} of the metrics reporter topic with {@code P}
+   * partitions, so if the number of metric fetchers divides {@code P}, the fetcher that consumes the metrics reporter
+   * topic partitions {@code p} with {@code p % numMetricFetchers == id} sees all the metrics of the brokers mapped to
+   * {@code id} here.
+   *
+   * @param brokerId The broker id.
+   * @param numMetricFetchers The number of metric fetchers.
+   * @return The id of the metric fetcher responsible for the given broker.
+   */
+  static int metricFetcherIdForBroker(int brokerId, int numMetricFetchers) {
+    return Math.floorMod(brokerId, numMetricFetchers);
+  }
+
   /**
    * Check whether there are failures in fetching offsets during sampling.
    *
@@ -201,13 +240,11 @@ public class SamplingUtils {
     }
 
     // Fill in all the common metrics.
-    MetricDef commonMetricDef = KafkaMetricDef.commonMetricDef();
     PartitionMetricSample pms = new PartitionMetricSample(leaderId, tpDotNotHandled);
     int numLeaders = leaderDistribution.get(leaderId).get(tpDotNotHandled.topic());
     for (RawMetricType rawMetricType : RawMetricType.topicMetricTypes()) {
       double sampleValue = numLeaders == 0 ? 0 : (brokerLoad.topicMetrics(tpWithDotHandled.topic(), rawMetricType)) / numLeaders;
-      MetricInfo metricInfo = commonMetricDef.metricInfo(KafkaMetricDef.forRawMetricType(rawMetricType).name());
-      pms.record(metricInfo, sampleValue);
+      pms.record(COMMON_METRIC_INFO_BY_RAW_METRIC_TYPE_ID[rawMetricType.id()], sampleValue);
     }
     // Fill in disk and CPU utilization, which are not topic metric types.
     Double partitionSize = brokerLoad.partitionMetric(tpWithDotHandled.topic(), tpWithDotHandled.partition(), PARTITION_SIZE);
@@ -215,13 +252,13 @@ public class SamplingUtils {
       skippedPartitionByBroker.merge(leaderId, 1, Integer::sum);
       return null;
     }
-    pms.record(commonMetricDef.metricInfo(KafkaMetricDef.DISK_USAGE.name()), partitionSize);
-    Double estimatedLeaderCpuUtil = estimateLeaderCpuUtil(pms, brokerLoad, commonMetricDef, cachedNumCoresByBroker.get(leaderId));
+    pms.record(PARTITION_DISK_USAGE, partitionSize);
+    Double estimatedLeaderCpuUtil = estimateLeaderCpuUtil(pms, brokerLoad, cachedNumCoresByBroker.get(leaderId));
     if (estimatedLeaderCpuUtil == null) {
       skippedPartitionByBroker.merge(leaderId, 1, Integer::sum);
       return null;
     }
-    pms.record(commonMetricDef.metricInfo(KafkaMetricDef.CPU_USAGE.name()), estimatedLeaderCpuUtil);
+    pms.record(PARTITION_CPU_USAGE, estimatedLeaderCpuUtil);
     pms.close(maxMetricTimestamp);
     return pms;
   }
@@ -241,7 +278,6 @@ public class SamplingUtils {
     if (skipBuildingBrokerMetricSample(brokerLoad, node.id())) {
       return null;
     }
-    MetricDef brokerMetricDef = KafkaMetricDef.brokerMetricDef();
     BrokerMetricSample bms = new BrokerMetricSample(node.host(), node.id(), brokerLoad.brokerSampleDeserializationVersion());
     for (Map.Entry<Byte, Set<RawMetricType>> entry : RawMetricType.brokerMetricTypesDiffByVersion().entrySet()) {
       for (RawMetricType rawBrokerMetricType : entry.getValue()) {
@@ -251,15 +287,14 @@ public class SamplingUtils {
                    SKIP_BUILDING_SAMPLE_PREFIX, node.id(), rawBrokerMetricType, entry.getKey());
           return null;
         } else {
-          MetricInfo metricInfo = brokerMetricDef.metricInfo(KafkaMetricDef.forRawMetricType(rawBrokerMetricType).name());
           double metricValue = brokerLoad.brokerMetric(rawBrokerMetricType);
-          bms.record(metricInfo, metricValue);
+          bms.record(BROKER_METRIC_INFO_BY_RAW_METRIC_TYPE_ID[rawBrokerMetricType.id()], metricValue);
         }
       }
     }
 
     // Disk usage is not one of the broker raw metric type.
-    bms.record(brokerMetricDef.metricInfo(KafkaMetricDef.DISK_USAGE.name()), brokerLoad.diskUsage());
+    bms.record(BROKER_DISK_USAGE, brokerLoad.diskUsage());
     bms.close(maxMetricTimestamp);
     return bms;
   }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.kafka.common.utils.Time;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A class that periodically checkpoints the state of the {@link KafkaPartitionMetricSampleAggregator} and
+ * {@link KafkaBrokerMetricSampleAggregator} to a local file, and restores them from the latest checkpoint at startup.
+ * With a restored checkpoint, the sample store only needs to replay the samples that are newer than the checkpoint.
+ * <p>
+ * The checkpoint file is gzip compressed and has the following format:
+ * 4 bytes - magic
+ * 1 byte  - version
+ * 8 bytes - checkpoint time, i.e. the end time of the last sampling period included in the checkpoint
+ * N bytes - partition metric sample aggregator state, see {@link KafkaPartitionMetricSampleAggregator#writeTo}
+ * M bytes - broker metric sample aggregator state, see {@link KafkaBrokerMetricSampleAggregator#writeTo}
+ * </p>
+ * A new checkpoint is first written to a temporary file and then atomically moved to replace the previous one, so a
+ * crash during checkpointing never leaves a partially written checkpoint behind.
+ */
+public class AggregatorCheckpointManager {
+  private static final Logger LOG = LoggerFactory.getLogger(AggregatorCheckpointManager.class);
+  static final int MAGIC = 0x43434350;
+  static final byte LATEST_SUPPORTED_VERSION = 0;
+  static final String CHECKPOINT_FILE_NAME = "metric-sample-aggregators.checkpoint";
+  static final String TEMP_CHECKPOINT_FILE_NAME = CHECKPOINT_FILE_NAME + ".tmp";
+  public static final long NO_CHECKPOINT = -1L;
+  private final Path _checkpointFile;
+  private final Path _tempCheckpointFile;
+  private final long _checkpointIntervalMs;
+  private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
+  private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
+  private final Time _time;
+  private long _lastCheckpointMs;
+
+  /**
+   * Construct the aggregator checkpoint manager.
+   *
+   * @param checkpointDir The directory to keep the checkpoint file in.
+   * @param checkpointIntervalMs The minimum interval between two checkpoints.
+   * @param partitionMetricSampleAggregator The {@link KafkaPartitionMetricSampleAggregator} to checkpoint.
+   * @param brokerMetricSampleAggregator The {@link KafkaBrokerMetricSampleAggregator} to checkpoint.
+   * @param time The time object.
+   */
+  public AggregatorCheckpointManager(String checkpointDir,
+                                     long checkpointIntervalMs,
+                                     KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
+                                     KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
+                                     Time time) {
+    _checkpointFile = Paths.get(checkpointDir, CHECKPOINT_FILE_NAME);
+    _tempCheckpointFile = Paths.get(checkpointDir, TEMP_CHECKPOINT_FILE_NAME);
+    _checkpointIntervalMs = checkpointIntervalMs;
+    _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
+    _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
+    _time = time;
+    _lastCheckpointMs = _time.milliseconds();
+  }
+
+  /**
+   * Checkpoint the aggregators if at least the checkpoint interval has passed since the last checkpoint. This method
+   * is expected to be called right after a sampling period has been fully added to the aggregators. A failure to
+   * checkpoint is logged and does not affect sampling.
+   *
+   * @param samplingPeriodEndMs The end time of the last sampling period that has been added to the aggregators.
+   * @return True if a checkpoint has been written, false otherwise.
+   */
+  public synchronized boolean maybeCheckpoint(long samplingPeriodEndMs) {
+    long now = _time.milliseconds();
+    if (now - _lastCheckpointMs < _checkpointIntervalMs) {
+      return false;
+    }
+    try {
+      checkpoint(samplingPeriodEndMs);
+      return true;
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to checkpoint metric sample aggregators to {}.", _checkpointFile, e);
+      return false;
+    } finally {
+      _lastCheckpointMs = now;
+    }
+  }
+
+  /**
+   * Write a checkpoint of the aggregators.
+   *
+   * @param checkpointTimeMs The time up to which the metric samples have been added to the aggregators.
+   * @throws IOException if the checkpoint cannot be written.
+   */
+  public synchronized void checkpoint(long checkpointTimeMs) throws IOException {
+    long startMs = _time.milliseconds();
+    Files.createDirectories(_checkpointFile.getParent());
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        new GZIPOutputStream(Files.newOutputStream(_tempCheckpointFile))))) {
+      out.writeInt(MAGIC);
+      out.writeByte(LATEST_SUPPORTED_VERSION);
+      out.writeLong(checkpointTimeMs);
+      _partitionMetricSampleAggregator.writeTo(out, KafkaPartitionMetricSampleAggregator.ENTITY_SERIALIZER);
+      _brokerMetricSampleAggregator.writeTo(out, KafkaBrokerMetricSampleAggregator.ENTITY_SERIALIZER);
+    }
+    Files.move(_tempCheckpointFile, _checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.info("Checkpointed metric sample aggregators up to {} to {} ({} bytes) in {} ms.", checkpointTimeMs,
+             _checkpointFile, Files.size(_checkpointFile), _time.milliseconds() - startMs);
+  }
+
+  /**
+   * Restore the aggregators from the latest checkpoint. If the checkpoint is missing, corrupted or incompatible with
+   * the current aggregator configurations, both aggregators are left empty.
+   *
+   * @return The checkpoint time, i.e. the time up to which the metric samples have been restored to the aggregators,
+   * or {@link #NO_CHECKPOINT} if nothing has been restored.
+   */
+  public synchronized long restore() {
+    if (!Files.exists(_checkpointFile)) {
+      LOG.info("No metric sample aggregator checkpoint is found at {}.", _checkpointFile);
+      clearAggregators();
+      return NO_CHECKPOINT;
+    }
+    long startMs = _time.milliseconds();
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+        new GZIPInputStream(Files.newInputStream(_checkpointFile))))) {
+      int magic = in.readInt();
+      byte version = in.readByte();
+      if (magic != MAGIC || version > LATEST_SUPPORTED_VERSION) {
+        LOG.warn("Ignoring metric sample aggregator checkpoint {} with unsupported magic {} or version {}.",
+                 _checkpointFile, magic, version);
+        clearAggregators();
+        return NO_CHECKPOINT;
+      }
+      long checkpointTimeMs = in.readLong();
+      if (!_partitionMetricSampleAggregator.readFrom(in, KafkaPartitionMetricSampleAggregator.ENTITY_SERIALIZER)
+          || !_brokerMetricSampleAggregator.readFrom(in, KafkaBrokerMetricSampleAggregator.ENTITY_SERIALIZER)) {
+        clearAggregators();
+        return NO_CHECKPOINT;
+      }
+      LOG.info("Restored metric sample aggregators up to {} from {} in {} ms.", checkpointTimeMs, _checkpointFile,
+               _time.milliseconds() - startMs);
+      return checkpointTimeMs;
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to restore metric sample aggregators from {}.", _checkpointFile, e);
+      clearAggregators();
+      return NO_CHECKPOINT;
+    }
+  }
+
+  private void clearAggregators() {
+    _partitionMetricSampleAggregator.clear();
+    _brokerMetricSampleAggregator.clear();
+  }
+}
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator;
 
 import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
+import com.linkedin.cruisecontrol.model.EntitySerializer;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregationOptions;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregationResult;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregator;
@@ -12,6 +13,9 @@ import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
 import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +32,20 @@ public class KafkaBrokerMetricSampleAggregator extends MetricSampleAggregator<St
   private static final double MIN_VALID_GROUP_RATIO = 0.0;
   private static final int MIN_VALID_WINDOWS = 1;
   private static final boolean INCLUDE_INVALID_ENTITIES = false;
+  // The serializer of the broker entities in the persisted aggregator state.
+  public static final EntitySerializer<BrokerEntity> ENTITY_SERIALIZER = new EntitySerializer<BrokerEntity>() {
+    @Override
+    public void write(BrokerEntity entity, DataOutput out) throws IOException {
+      out.writeUTF(entity.host());
+      out.writeInt(entity.brokerId());
+    }
+
+    @Override
+    public BrokerEntity read(DataInput in) throws IOException {
+      String host = in.readUTF();
+      return new BrokerEntity(host, in.readInt());
+    }
+  };
 
   private final int _maxAllowedExtrapoloationsPerBroker;
   /**
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator;
 
 import com.linkedin.cruisecontrol.exception.NotEnoughValidWindowsException;
+import com.linkedin.cruisecontrol.model.EntitySerializer;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregationOptions;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregationResult;
 import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleCompleteness;
@@ -17,6 +18,9 @@ import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionEntity;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -44,6 +48,20 @@ import org.slf4j.LoggerFactory;
  */
 public class KafkaPartitionMetricSampleAggregator extends MetricSampleAggregator<String, PartitionEntity> {
   private static final Logger LOG = LoggerFactory.getLogger(KafkaPartitionMetricSampleAggregator.class);
+  // The serializer of the partition entities in the persisted aggregator state.
+  public static final EntitySerializer<PartitionEntity> ENTITY_SERIALIZER = new EntitySerializer<PartitionEntity>() {
+    @Override
+    public void write(PartitionEntity entity, DataOutput out) throws IOException {
+      out.writeUTF(entity.tp().topic());
+      out.writeInt(entity.tp().partition());
+    }
+
+    @Override
+    public PartitionEntity read(DataInput in) throws IOException {
+      String topic = in.readUTF();
+      return new PartitionEntity(new TopicPartition(topic, in.readInt()));
+    }
+  };
   private final int _maxAllowedExtrapolationsPerPartition;
   private final Metadata _metadata;
 
@@ -8,6 +8,7 @@ import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.CruiseControlMetr
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.PartitionMetric;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.TopicMetric;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -37,20 +38,15 @@ public class BrokerLoad {
   private static final double MAX_ALLOWED_MISSING_PARTITION_METRIC_PERCENT = 0.01;
   private static final double MAX_ALLOWED_MISSING_TOPIC_METRIC_PERCENT = 0.01;
   private final RawMetricsHolder _brokerMetrics;
-  private final Map<String, RawMetricsHolder> _dotHandledTopicMetrics;
-  private final Map<TopicPartition, RawMetricsHolder> _dotHandledPartitionMetrics;
+  // The topic and partition metrics by dot-handled topic name. Each topic name is held once here, and the partition
+  // metrics of a topic are indexed by partition number, so recording a metric does not allocate a key.
+  private final Map<String, TopicLoad> _dotHandledTopicLoads;
 
   public BrokerLoad() {
-    _brokerMetrics = new RawMetricsHolder();
-    _dotHandledTopicMetrics = new HashMap<>();
-    _dotHandledPartitionMetrics = new HashMap<>();
+    _brokerMetrics = new RawMetricsHolder(BROKER);
+    _dotHandledTopicLoads = new HashMap<>();
   }
 
-  // Remember which topic has partition size reported. Because the topic level IO metrics are only created when
-  // there is IO, the topic level IO metrics may be missing if there was no traffic to the topic on the broker.
-  // However, because the partition size will always be reported, when we see partition size was reported for
-  // a topic but the topic level IO metrics are not reported, we assume there was no traffic to the topic.
-  private final Set<String> _dotHandledTopicsWithPartitionSizeReported = new HashSet<>();
   private final Set<RawMetricType> _missingBrokerMetricsInMinSupportedVersion = new HashSet<>();
   private boolean _minRequiredBrokerMetricsAvailable = false;
   // Set to the latest possible deserialization version based on the sampled data.
@@ -69,14 +65,11 @@ public class BrokerLoad {
         break;
       case TOPIC:
         TopicMetric tm = (TopicMetric) ccm;
-        _dotHandledTopicMetrics.computeIfAbsent(tm.topic(), t -> new RawMetricsHolder())
-                               .recordCruiseControlMetric(ccm);
+        topicLoad(tm.topic()).topicMetrics().recordCruiseControlMetric(ccm);
         break;
       case PARTITION:
         PartitionMetric pm = (PartitionMetric) ccm;
-        _dotHandledPartitionMetrics.computeIfAbsent(new TopicPartition(pm.topic(), pm.partition()), tp -> new RawMetricsHolder())
-                                   .recordCruiseControlMetric(ccm);
-        _dotHandledTopicsWithPartitionSizeReported.add(pm.topic());
+        topicLoad(pm.topic()).recordPartitionMetric(pm);
         break;
       default:
         throw new IllegalStateException(String.format("Should never be here. Unrecognized metric scope %s",
@@ -94,7 +87,22 @@ public class BrokerLoad {
     // We rely on the partition size metric to determine whether a topic metric is available or not.
     // The topic names in this set are dot handled -- i.e. dots (".") in topic name is replaced with underscores ("_").
     // Note that metrics reporter implicitly does this conversion, but the metadata topic names keep the original name.
-    return _dotHandledTopicsWithPartitionSizeReported.contains(dotHandledTopic);
+    TopicLoad topicLoad = _dotHandledTopicLoads.get(dotHandledTopic);
+    return topicLoad != null && topicLoad.partitionSizeReported();
+  }
+
+  private TopicLoad topicLoad(String dotHandledTopic) {
+    TopicLoad topicLoad = _dotHandledTopicLoads.get(dotHandledTopic);
+    if (topicLoad == null) {
+      topicLoad = new TopicLoad();
+      _dotHandledTopicLoads.put(dotHandledTopic, topicLoad);
+    }
+    return topicLoad;
+  }
+
+  private RawMetricsHolder partitionMetrics(String dotHandledTopic, int partition) {
+    TopicLoad topicLoad = _dotHandledTopicLoads.get(dotHandledTopic);
+    return topicLoad == null ? null : topicLoad.partitionMetrics(partition);
   }
 
   public boolean minRequiredBrokerMetricsAvailable() {
@@ -114,7 +122,7 @@ public class BrokerLoad {
    * otherwise.
    */
   public boolean partitionMetricAvailable(TopicPartition tpWithDotHandled, RawMetricType rawMetricType) {
-    RawMetricsHolder rawMetricsHolder = _dotHandledPartitionMetrics.get(tpWithDotHandled);
+    RawMetricsHolder rawMetricsHolder = partitionMetrics(tpWithDotHandled.topic(), tpWithDotHandled.partition());
     return rawMetricsHolder != null && rawMetricsHolder.metricValue(rawMetricType) != null;
   }
 
@@ -148,11 +156,11 @@ public class BrokerLoad {
       throw new IllegalArgumentException(String.format("Topic metric %s does not exist for dot handled topic name %s.",
                                                        rawMetricType, dotHandledTopic));
     }
-    RawMetricsHolder rawMetricsHolder = _dotHandledTopicMetrics.get(dotHandledTopic);
-    if (rawMetricsHolder == null || rawMetricsHolder.metricValue(rawMetricType) == null) {
+    ValueHolder valueHolder = _dotHandledTopicLoads.get(dotHandledTopic).topicMetrics().metricValue(rawMetricType);
+    if (valueHolder == null) {
       return 0.0;
     }
-    double rawMetricValue = rawMetricsHolder.metricValue(rawMetricType).value();
+    double rawMetricValue = valueHolder.value();
     return convertUnit ? convertUnit(rawMetricValue, rawMetricType) : rawMetricValue;
   }
 
@@ -167,7 +175,7 @@ public class BrokerLoad {
    */
   public Double partitionMetric(String dotHandledTopic, int partition, RawMetricType rawMetricType) {
     sanityCheckMetricScope(rawMetricType, PARTITION);
-    RawMetricsHolder metricsHolder = _dotHandledPartitionMetrics.get(new TopicPartition(dotHandledTopic, partition));
+    RawMetricsHolder metricsHolder = partitionMetrics(dotHandledTopic, partition);
     if (metricsHolder == null || metricsHolder.metricValue(rawMetricType) == null) {
       LOG.error("Partition metric {} does not exist for dot handled topic {} and partition {}.",
                 rawMetricType, dotHandledTopic, partition);
@@ -203,17 +211,24 @@ public class BrokerLoad {
     boolean enoughTopicPartitionMetrics = enoughTopicPartitionMetrics(cluster, brokerId);
     // Ensure there are enough topic level metrics.
     if (enoughTopicPartitionMetrics) {
-      Map<RawMetricType, Double> sumOfTopicMetrics = new HashMap<>();
-      for (String dotHandledTopic : _dotHandledTopicsWithPartitionSizeReported) {
-        METRIC_TYPES_TO_SUM.keySet().forEach(type -> {
-          double value = topicMetrics(dotHandledTopic, type, false);
-          sumOfTopicMetrics.compute(type, (t, v) -> (v == null ? 0 : v) + value);
-        });
+      boolean anyTopicWithPartitionSizeReported = false;
+      Map<RawMetricType, Double> sumOfTopicMetrics = new EnumMap<>(RawMetricType.class);
+      METRIC_TYPES_TO_SUM.keySet().forEach(type -> sumOfTopicMetrics.put(type, 0.0));
+      for (TopicLoad topicLoad : _dotHandledTopicLoads.values()) {
+        if (topicLoad.partitionSizeReported()) {
+          anyTopicWithPartitionSizeReported = true;
+          for (Map.Entry<RawMetricType, Double> entry : sumOfTopicMetrics.entrySet()) {
+            ValueHolder valueHolder = topicLoad.topicMetrics().metricValue(entry.getKey());
+            if (valueHolder != null) {
+              entry.setValue(entry.getValue() + valueHolder.value());
+            }
+          }
+        }
       }
-      for (Map.Entry<RawMetricType, Double> entry : sumOfTopicMetrics.entrySet()) {
-        RawMetricType rawTopicMetricType = entry.getKey();
-        double value = entry.getValue();
-        _brokerMetrics.setRawMetricValue(METRIC_TYPES_TO_SUM.get(rawTopicMetricType), value, time);
+      if (anyTopicWithPartitionSizeReported) {
+        for (Map.Entry<RawMetricType, Double> entry : sumOfTopicMetrics.entrySet()) {
+          _brokerMetrics.setRawMetricValue(METRIC_TYPES_TO_SUM.get(entry.getKey()), entry.getValue(), time);
+        }
       }
     }
     // Check if all the broker raw metrics are available.
@@ -302,7 +317,7 @@ public class BrokerLoad {
     leaderPartitionsInNode.forEach(info -> {
       String topicWithDotHandled = replaceDotsWithUnderscores(info.topic());
       topicsInBroker.add(topicWithDotHandled);
-      if (!_dotHandledTopicsWithPartitionSizeReported.contains(topicWithDotHandled)) {
+      if (!allDotHandledTopicMetricsAvailable(topicWithDotHandled)) {
         missingPartitions.incrementAndGet();
         missingTopics.add(topicWithDotHandled);
       }
@@ -322,9 +337,89 @@ public class BrokerLoad {
    */
   public double diskUsage() {
     double result = 0.0;
-    for (RawMetricsHolder rawMetricsHolder : _dotHandledPartitionMetrics.values()) {
-      result += rawMetricsHolder.metricValue(RawMetricType.PARTITION_SIZE).value();
+    for (TopicLoad topicLoad : _dotHandledTopicLoads.values()) {
+      result += topicLoad.totalPartitionSize();
     }
     return convertUnit(result, RawMetricType.PARTITION_SIZE);
   }
+
+  /**
+   * The topic metrics and the partition metrics of a topic on the broker. The partition metrics are kept in an open
+   * addressing hash table keyed by the primitive partition number.
+   */
+  private static final class TopicLoad {
+    private static final int INITIAL_CAPACITY = 4;
+    private final RawMetricsHolder _topicMetrics = new RawMetricsHolder(TOPIC);
+    private int[] _partitions = new int[INITIAL_CAPACITY];
+    private RawMetricsHolder[] _partitionMetrics = new RawMetricsHolder[INITIAL_CAPACITY];
+    private int _numPartitions = 0;
+    // Because the topic level IO metrics are only created when there is IO, the topic level IO metrics may be missing
+    // if there was no traffic to the topic on the broker. However, because the partition size will always be reported,
+    // when we see partition size was reported for a topic but the topic level IO metrics are not reported, we assume
+    // there was no traffic to the topic.
+    private boolean _partitionSizeReported = false;
+
+    RawMetricsHolder topicMetrics() {
+      return _topicMetrics;
+    }
+
+    boolean partitionSizeReported() {
+      return _partitionSizeReported;
+    }
+
+    void recordPartitionMetric(PartitionMetric pm) {
+      int slot = slot(_partitions, _partitionMetrics, pm.partition());
+      if (_partitionMetrics[slot] == null) {
+        if (2 * (_numPartitions + 1) > _partitionMetrics.length) {
+          resize();
+          slot = slot(_partitions, _partitionMetrics, pm.partition());
+        }
+        _partitions[slot] = pm.partition();
+        _partitionMetrics[slot] = new RawMetricsHolder(PARTITION);
+        _numPartitions++;
+      }
+      _partitionMetrics[slot].recordCruiseControlMetric(pm);
+      _partitionSizeReported = true;
+    }
+
+    RawMetricsHolder partitionMetrics(int partition) {
+      return _partitionMetrics[slot(_partitions, _partitionMetrics, partition)];
+    }
+
+    double totalPartitionSize() {
+      double result = 0.0;
+      for (RawMetricsHolder partitionMetrics : _partitionMetrics) {
+        if (partitionMetrics != null) {
+          result += partitionMetrics.metricValue(RawMetricType.PARTITION_SIZE).value();
+        }
+      }
+      return result;
+    }
+
+    /**
+     * @return The slot of the given partition in the table, or the empty slot to put the partition if it is absent.
+     */
+    private static int slot(int[] partitions, RawMetricsHolder[] partitionMetrics, int partition) {
+      int mask = partitions.length - 1;
+      int slot = partition & mask;
+      while (partitionMetrics[slot] != null && partitions[slot] != partition) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void resize() {
+      int[] partitions = new int[2 * _partitions.length];
+      RawMetricsHolder[] partitionMetrics = new RawMetricsHolder[2 * _partitionMetrics.length];
+      for (int i = 0; i < _partitionMetrics.length; i++) {
+        if (_partitionMetrics[i] != null) {
+          int slot = slot(partitions, partitionMetrics, _partitions[i]);
+          partitions[slot] = _partitions[i];
+          partitionMetrics[slot] = _partitionMetrics[i];
+        }
+      }
+      _partitions = partitions;
+      _partitionMetrics = partitionMetrics;
+    }
+  }
 }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.monitor.sampling.MetricSample;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.ByteUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Serialize and deserialize a batch of metric samples into a single columnar record. Compared with serializing each
+ * sample into its own record with {@link PartitionMetricSample#toBytes()} or {@link BrokerMetricSample#toBytes()},
+ * the batch avoids the per record overhead in the sample store topics, and the values of the same metric are stored
+ * next to each other so the batch compresses much better with the compression codec of the sample store producer.
+ * <p>
+ * The first byte of a batch is the batch version. It is chosen to never collide with the version of a single
+ * partition metric sample (0 - 1) or a single broker metric sample (4 - 5), so readers can tell the two formats apart
+ * from the first byte and remain backward compatible with the records written by older versions.
+ * </p>
+ * The batch has the following format:
+ * <pre>
+ * 1 byte  - batch version
+ * varint  - number of samples (N)
+ * varint  - number of metric columns (M)
+ * M * 2 bytes - metric ids of the metric columns
+ * varint  - number of strings in the dictionary (D)
+ * D * (varint + bytes) - the UTF-8 bytes of each string in the dictionary, i.e. topics or hosts
+ * N * varint  - dictionary index column, i.e. topic of each partition sample or host of each broker sample
+ * N * varint  - broker id column
+ * N * varint  - partition column (partition metric sample batch only)
+ * N * 1 byte  - deserialization version column (broker metric sample batch only)
+ * 8 bytes     - base sample time
+ * N * varlong - sample time column, as the delta from the base sample time
+ * M * N * 8 bytes - metric value columns, {@link Double#NaN} if a sample does not have the metric
+ * </pre>
+ */
+public final class MetricSampleBatchSerde {
+  public static final byte PARTITION_SAMPLE_BATCH_VERSION = 2;
+  public static final byte BROKER_SAMPLE_BATCH_VERSION = 6;
+
+  private MetricSampleBatchSerde() {
+
+  }
+
+  /**
+   * @param bytes The serialized partition metric sample(s).
+   * @return True if the given bytes is a partition metric sample batch, false if it is a single partition metric sample.
+   */
+  public static boolean isPartitionSampleBatch(byte[] bytes) {
+    return bytes.length > 0 && bytes[0] == PARTITION_SAMPLE_BATCH_VERSION;
+  }
+
+  /**
+   * @param bytes The serialized broker metric sample(s).
+   * @return True if the given bytes is a broker metric sample batch, false if it is a single broker metric sample.
+   */
+  public static boolean isBrokerSampleBatch(byte[] bytes) {
+    return bytes.length > 0 && bytes[0] == BROKER_SAMPLE_BATCH_VERSION;
+  }
+
+  /**
+   * Serialize the given closed partition metric samples into a single batch.
+   *
+   * @param samples The partition metric samples to serialize.
+   * @return The serialized bytes.
+   */
+  public static byte[] partitionSamplesToBytes(List<PartitionMetricSample> samples) {
+    Map<String, Integer> dictionary = new HashMap<>();
+    int[] dictionaryIndices = new int[samples.size()];
+    int[] brokerIds = new int[samples.size()];
+    int[] partitions = new int[samples.size()];
+    for (int i = 0; i < samples.size(); i++) {
+      PartitionMetricSample sample = samples.get(i);
+      dictionaryIndices[i] = dictionary.computeIfAbsent(sample.entity().tp().topic(), t -> dictionary.size());
+      brokerIds[i] = sample.brokerId();
+      partitions[i] = sample.entity().tp().partition();
+    }
+    return toBytes(PARTITION_SAMPLE_BATCH_VERSION, samples, dictionary, dictionaryIndices, brokerIds, partitions, null);
+  }
+
+  /**
+   * Serialize the given closed broker metric samples into a single batch.
+   *
+   * @param samples The broker metric samples to serialize.
+   * @return The serialized bytes.
+   */
+  public static byte[] brokerSamplesToBytes(List<BrokerMetricSample> samples) {
+    Map<String, Integer> dictionary = new HashMap<>();
+    int[] dictionaryIndices = new int[samples.size()];
+    int[] brokerIds = new int[samples.size()];
+    byte[] versions = new byte[samples.size()];
+    for (int i = 0; i < samples.size(); i++) {
+      BrokerMetricSample sample = samples.get(i);
+      String host = sample.entity().group() != null ? sample.entity().group() : "UNKNOWN";
+      dictionaryIndices[i] = dictionary.computeIfAbsent(host, h -> dictionary.size());
+      brokerIds[i] = sample.brokerId();
+      versions[i] = sample.deserializationVersion();
+    }
+    return toBytes(BROKER_SAMPLE_BATCH_VERSION, samples, dictionary, dictionaryIndices, brokerIds, null, versions);
+  }
+
+  /**
+   * Deserialize the given partition metric sample batch.
+   *
+   * @param bytes The bytes of a partition metric sample batch.
+   * @return The deserialized partition metric samples.
+   * @throws UnknownVersionException if the bytes is not a supported partition metric sample batch.
+   */
+  public static List<PartitionMetricSample> partitionSamplesFromBytes(byte[] bytes) throws UnknownVersionException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte version = buffer.get();
+    if (version != PARTITION_SAMPLE_BATCH_VERSION) {
+      throw new UnknownVersionException("Unsupported partition metric sample batch version: " + version);
+    }
+    int numSamples = ByteUtils.readVarint(buffer);
+    List<MetricInfo> metricInfos = readMetricInfos(buffer, KafkaMetricDef.commonMetricDef());
+    String[] dictionary = readDictionary(buffer);
+    int[] dictionaryIndices = readVarintColumn(buffer, numSamples);
+    int[] brokerIds = readVarintColumn(buffer, numSamples);
+    int[] partitions = readVarintColumn(buffer, numSamples);
+    List<PartitionMetricSample> samples = new ArrayList<>(numSamples);
+    for (int i = 0; i < numSamples; i++) {
+      samples.add(new PartitionMetricSample(brokerIds[i], new TopicPartition(dictionary[dictionaryIndices[i]], partitions[i])));
+    }
+    readSampleTimesAndMetrics(buffer, samples, metricInfos);
+    return samples;
+  }
+
+  /**
+   * Deserialize the given broker metric sample batch.
+   *
+   * @param bytes The bytes of a broker metric sample batch.
+   * @return The deserialized broker metric samples.
+   * @throws UnknownVersionException if the bytes is not a supported broker metric sample batch.
+   */
+  public static List<BrokerMetricSample> brokerSamplesFromBytes(byte[] bytes) throws UnknownVersionException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    byte version = buffer.get();
+    if (version != BROKER_SAMPLE_BATCH_VERSION) {
+      throw new UnknownVersionException("Unsupported broker metric sample batch version: " + version);
+    }
+    int numSamples = ByteUtils.readVarint(buffer);
+    List<MetricInfo> metricInfos = readMetricInfos(buffer, KafkaMetricDef.brokerMetricDef());
+    String[] dictionary = readDictionary(buffer);
+    int[] dictionaryIndices = readVarintColumn(buffer, numSamples);
+    int[] brokerIds = readVarintColumn(buffer, numSamples);
+    List<BrokerMetricSample> samples = new ArrayList<>(numSamples);
+    for (int i = 0; i < numSamples; i++) {
+      samples.add(new BrokerMetricSample(dictionary[dictionaryIndices[i]], brokerIds[i], buffer.get()));
+    }
+    readSampleTimesAndMetrics(buffer, samples, metricInfos);
+    return samples;
+  }
+
+  private static byte[] toBytes(byte version,
+                                List<? extends MetricSample<String, ?>> samples,
+                                Map<String, Integer> dictionary,
+                                int[] dictionaryIndices,
+                                int[] brokerIds,
+                                int[] partitions,
+                                byte[] versions) {
+    // The union of the metrics in the samples, in the order of metric id.
+    SortedSet<Short> metricIds = new TreeSet<>();
+    long baseSampleTime = Long.MAX_VALUE;
+    for (MetricSample<String, ?> sample : samples) {
+      if (sample.sampleTime() < 0) {
+        throw new IllegalArgumentException("Cannot serialize metric sample " + sample + " which has not been closed.");
+      }
+      metricIds.addAll(sample.allMetricValues().keySet());
+      baseSampleTime = Math.min(baseSampleTime, sample.sampleTime());
+    }
+    String[] strings = new String[dictionary.size()];
+    dictionary.forEach((s, index) -> strings[index] = s);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + samples.size() * (16 + metricIds.size() * Double.BYTES));
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(version);
+      ByteUtils.writeVarint(samples.size(), out);
+      ByteUtils.writeVarint(metricIds.size(), out);
+      for (short metricId : metricIds) {
+        out.writeShort(metricId);
+      }
+      ByteUtils.writeVarint(strings.length, out);
+      for (String s : strings) {
+        byte[] stringBytes = s.getBytes(UTF_8);
+        ByteUtils.writeVarint(stringBytes.length, out);
+        out.write(stringBytes);
+      }
+      writeVarintColumn(out, dictionaryIndices);
+      writeVarintColumn(out, brokerIds);
+      if (partitions != null) {
+        writeVarintColumn(out, partitions);
+      }
+      if (versions != null) {
+        out.write(versions);
+      }
+      out.writeLong(samples.isEmpty() ? 0L : baseSampleTime);
+      for (MetricSample<String, ?> sample : samples) {
+        ByteUtils.writeVarlong(sample.sampleTime() - baseSampleTime, out);
+      }
+      for (short metricId : metricIds) {
+        for (MetricSample<String, ?> sample : samples) {
+          out.writeDouble(sample.metricValue(metricId));
+        }
+      }
+    } catch (IOException e) {
+      // Should never happen when writing to a byte array.
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeVarintColumn(DataOutputStream out, int[] column) throws IOException {
+    for (int value : column) {
+      ByteUtils.writeVarint(value, out);
+    }
+  }
+
+  private static int[] readVarintColumn(ByteBuffer buffer, int numSamples) {
+    int[] column = new int[numSamples];
+    for (int i = 0; i < numSamples; i++) {
+      column[i] = ByteUtils.readVarint(buffer);
+    }
+    return column;
+  }
+
+  private static List<MetricInfo> readMetricInfos(ByteBuffer buffer, MetricDef metricDef) {
+    int numMetrics = ByteUtils.readVarint(buffer);
+    List<MetricInfo> metricInfos = new ArrayList<>(numMetrics);
+    for (int i = 0; i < numMetrics; i++) {
+      metricInfos.add(metricDef.metricInfo(buffer.getShort()));
+    }
+    return metricInfos;
+  }
+
+  static String[] readDictionary(ByteBuffer buffer) {
+    String[] dictionary = new String[ByteUtils.readVarint(buffer)];
+    for (int i = 0; i < dictionary.length; i++) {
+      int length = ByteUtils.readVarint(buffer);
+      dictionary[i] = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+      buffer.position(buffer.position() + length);
+    }
+    return dictionary;
+  }
+
+  private static void readSampleTimesAndMetrics(ByteBuffer buffer,
+                                                List<? extends MetricSample<String, ?>> samples,
+                                                List<MetricInfo> metricInfos) {
+    long baseSampleTime = buffer.getLong();
+    long[] sampleTimes = new long[samples.size()];
+    for (int i = 0; i < sampleTimes.length; i++) {
+      sampleTimes[i] = baseSampleTime + ByteUtils.readVarlong(buffer);
+    }
+    for (MetricInfo metricInfo : metricInfos) {
+      for (MetricSample<String, ?> sample : samples) {
+        double value = buffer.getDouble();
+        if (!Double.isNaN(value)) {
+          sample.record(metricInfo, value);
+        }
+      }
+    }
+    for (int i = 0; i < sampleTimes.length; i++) {
+      samples.get(i).close(sampleTimes[i]);
+    }
+  }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.kafka.common.utils.ByteUtils;
+
+import static com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * A flyweight reader of the serialized partition metric samples, i.e. a partition metric sample batch written by
+ * {@link MetricSampleBatchSerde#partitionSamplesToBytes(java.util.List)} or a single partition metric sample written by
+ * {@link PartitionMetricSample#toBytes()}. The reader reads the samples in place from the serialized bytes one at a
+ * time, without creating a {@link PartitionMetricSample} for each of them, so the metric values can be added to the
+ * partition metric sample aggregator directly.
+ * <p>
+ * A reader is reset with the bytes of a record and then iterated with {@link #next()}. The accessors return the values
+ * of the current sample, which are only valid until the next call to {@link #next()}. The reader is not thread safe.
+ * </p>
+ */
+public class PartitionMetricSampleReader {
+  private static final MetricDef METRIC_DEF = KafkaMetricDef.commonMetricDef();
+  // The metrics of a single partition metric sample, in the order of serialization.
+  private static final short[] SINGLE_SAMPLE_METRIC_IDS = {
+      METRIC_DEF.metricInfo(CPU_USAGE.name()).id(),
+      METRIC_DEF.metricInfo(DISK_USAGE.name()).id(),
+      METRIC_DEF.metricInfo(LEADER_BYTES_IN.name()).id(),
+      METRIC_DEF.metricInfo(LEADER_BYTES_OUT.name()).id(),
+      METRIC_DEF.metricInfo(PRODUCE_RATE.name()).id(),
+      METRIC_DEF.metricInfo(FETCH_RATE.name()).id(),
+      METRIC_DEF.metricInfo(MESSAGE_IN_RATE.name()).id(),
+      METRIC_DEF.metricInfo(REPLICATION_BYTES_IN_RATE.name()).id(),
+      METRIC_DEF.metricInfo(REPLICATION_BYTES_OUT_RATE.name()).id()
+  };
+  private static final int NUM_V0_SINGLE_SAMPLE_METRICS = 4;
+  private static final int SINGLE_SAMPLE_METRICS_POSITION = 5;
+
+  private final double[] _valuesByMetricId;
+  private ByteBuffer _buffer;
+  private byte _version;
+  private int _numSamples;
+  private int _sampleIndex;
+  // The metric ids of the metric columns and the dictionary of a batch.
+  private short[] _metricIds;
+  private String[] _dictionary;
+  // The read positions of the columns of a batch.
+  private int _dictionaryIndexPosition;
+  private int _brokerIdPosition;
+  private int _partitionPosition;
+  private int _sampleTimePosition;
+  private int _metricValuesPosition;
+  private long _baseSampleTime;
+  // The current sample.
+  private int _brokerId;
+  private String _topic;
+  private int _partition;
+  private long _sampleTime;
+
+  public PartitionMetricSampleReader() {
+    _valuesByMetricId = new double[METRIC_DEF.size()];
+    _metricIds = new short[0];
+    _dictionary = new String[0];
+  }
+
+  /**
+   * Start reading the samples in the given bytes.
+   *
+   * @param bytes The bytes of a partition metric sample batch or a single partition metric sample.
+   * @throws UnknownVersionException if the bytes are of an unsupported version.
+   */
+  public void reset(byte[] bytes) throws UnknownVersionException {
+    _buffer = ByteBuffer.wrap(bytes);
+    _version = _buffer.get();
+    _sampleIndex = 0;
+    if (_version == MetricSampleBatchSerde.PARTITION_SAMPLE_BATCH_VERSION) {
+      resetBatch();
+    } else if (_version >= PartitionMetricSample.MIN_SUPPORTED_VERSION
+               && _version <= PartitionMetricSample.LATEST_SUPPORTED_VERSION) {
+      _numSamples = 1;
+    } else {
+      _numSamples = 0;
+      throw new UnknownVersionException("Unsupported partition metric sample version: " + _version);
+    }
+  }
+
+  /**
+   * Move to the next sample.
+   *
+   * @return True if there is a next sample, false if all the samples have been read.
+   */
+  public boolean next() {
+    if (_sampleIndex >= _numSamples) {
+      return false;
+    }
+    Arrays.fill(_valuesByMetricId, Double.NaN);
+    if (_version == MetricSampleBatchSerde.PARTITION_SAMPLE_BATCH_VERSION) {
+      readBatchSample();
+    } else {
+      readSingleSample();
+    }
+    _sampleIndex++;
+    return true;
+  }
+
+  /**
+   * @return The id of the broker from which the metrics of the current sample are from.
+   */
+  public int brokerId() {
+    return _brokerId;
+  }
+
+  /**
+   * @return The topic of the current sample.
+   */
+  public String topic() {
+    return _topic;
+  }
+
+  /**
+   * @return The partition of the current sample.
+   */
+  public int partition() {
+    return _partition;
+  }
+
+  /**
+   * @return The sample time of the current sample.
+   */
+  public long sampleTime() {
+    return _sampleTime;
+  }
+
+  /**
+   * @return The metric values of the current sample indexed by metric id, {@link Double#NaN} if the sample does not have
+   * the metric. The array is reused for all the samples.
+   */
+  public double[] valuesByMetricId() {
+    return _valuesByMetricId;
+  }
+
+  private void resetBatch() {
+    _numSamples = ByteUtils.readVarint(_buffer);
+    int numMetrics = ByteUtils.readVarint(_buffer);
+    if (_metricIds.length != numMetrics) {
+      _metricIds = new short[numMetrics];
+    }
+    for (int i = 0; i < numMetrics; i++) {
+      // Fails on the metrics that are not defined.
+      _metricIds[i] = METRIC_DEF.metricInfo(_buffer.getShort()).id();
+    }
+    _dictionary = MetricSampleBatchSerde.readDictionary(_buffer);
+    // Skip the varint columns to find where each column starts.
+    _dictionaryIndexPosition = _buffer.position();
+    _brokerIdPosition = skipVarints(_numSamples);
+    _partitionPosition = skipVarints(_numSamples);
+    skipVarints(_numSamples);
+    _baseSampleTime = _buffer.getLong();
+    _sampleTimePosition = _buffer.position();
+    for (int i = 0; i < _numSamples; i++) {
+      ByteUtils.readVarlong(_buffer);
+    }
+    _metricValuesPosition = _buffer.position();
+    if (_buffer.remaining() < numMetrics * _numSamples * Double.BYTES) {
+      throw new IllegalArgumentException("The partition metric sample batch of " + _numSamples + " samples and "
+                                         + numMetrics + " metrics is truncated.");
+    }
+  }
+
+  private int skipVarints(int numVarints) {
+    for (int i = 0; i < numVarints; i++) {
+      ByteUtils.readVarint(_buffer);
+    }
+    return _buffer.position();
+  }
+
+  private void readBatchSample() {
+    _buffer.position(_dictionaryIndexPosition);
+    _topic = _dictionary[ByteUtils.readVarint(_buffer)];
+    _dictionaryIndexPosition = _buffer.position();
+    _buffer.position(_brokerIdPosition);
+    _brokerId = ByteUtils.readVarint(_buffer);
+    _brokerIdPosition = _buffer.position();
+    _buffer.position(_partitionPosition);
+    _partition = ByteUtils.readVarint(_buffer);
+    _partitionPosition = _buffer.position();
+    _buffer.position(_sampleTimePosition);
+    _sampleTime = _baseSampleTime + ByteUtils.readVarlong(_buffer);
+    _sampleTimePosition = _buffer.position();
+    // The values of each metric are stored in a column of all the samples.
+    for (int i = 0; i < _metricIds.length; i++) {
+      _valuesByMetricId[_metricIds[i]] =
+          _buffer.getDouble(_metricValuesPosition + (i * _numSamples + _sampleIndex) * Double.BYTES);
+    }
+  }
+
+  private void readSingleSample() {
+    // See PartitionMetricSample#toBytes() for the format.
+    int numMetrics = _version == 0 ? NUM_V0_SINGLE_SAMPLE_METRICS : SINGLE_SAMPLE_METRIC_IDS.length;
+    int sampleTimePosition = SINGLE_SAMPLE_METRICS_POSITION + numMetrics * Double.BYTES;
+    int partitionPosition = sampleTimePosition + Long.BYTES;
+    int topicPosition = partitionPosition + Integer.BYTES;
+    _brokerId = _buffer.getInt(1);
+    for (int i = 0; i < numMetrics; i++) {
+      _valuesByMetricId[SINGLE_SAMPLE_METRIC_IDS[i]] = _buffer.getDouble(SINGLE_SAMPLE_METRICS_POSITION + i * Double.BYTES);
+    }
+    _sampleTime = _buffer.getLong(sampleTimePosition);
+    _partition = _buffer.getInt(partitionPosition);
+    _topic = new String(_buffer.array(), topicPosition, _buffer.limit() - topicPosition, UTF_8);
+  }
+}
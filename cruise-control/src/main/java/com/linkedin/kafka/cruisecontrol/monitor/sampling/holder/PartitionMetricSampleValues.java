@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+
+
+/**
+ * A compact holder of the partition metric samples read by a {@link PartitionMetricSampleReader}. The sample times and
+ * the metric values of all the samples are kept in primitive arrays, so no {@link PartitionMetricSample} is created
+ * for each of them. The holder is not thread safe.
+ */
+public class PartitionMetricSampleValues {
+  private static final int NUM_METRICS = KafkaMetricDef.commonMetricDef().size();
+  private final List<PartitionEntity> _entities;
+  private long[] _sampleTimes;
+  // The metric values of the i-th sample are at [i * NUM_METRICS, (i + 1) * NUM_METRICS), indexed by metric id.
+  private double[] _values;
+
+  public PartitionMetricSampleValues() {
+    _entities = new ArrayList<>();
+    _sampleTimes = new long[0];
+    _values = new double[0];
+  }
+
+  /**
+   * Add all the remaining samples of the given reader.
+   *
+   * @param reader The reader that has been reset with the serialized partition metric samples to add.
+   * @return The number of samples added.
+   */
+  public int addAll(PartitionMetricSampleReader reader) {
+    int numSamples = 0;
+    while (reader.next()) {
+      add(new PartitionEntity(new TopicPartition(reader.topic(), reader.partition())), reader.sampleTime(),
+          reader.valuesByMetricId());
+      numSamples++;
+    }
+    return numSamples;
+  }
+
+  private void add(PartitionEntity entity, long sampleTime, double[] valuesByMetricId) {
+    int index = _entities.size();
+    if (index == _sampleTimes.length) {
+      int capacity = Math.max(16, index * 2);
+      _sampleTimes = Arrays.copyOf(_sampleTimes, capacity);
+      _values = Arrays.copyOf(_values, capacity * NUM_METRICS);
+    }
+    _entities.add(entity);
+    _sampleTimes[index] = sampleTime;
+    System.arraycopy(valuesByMetricId, 0, _values, index * NUM_METRICS, NUM_METRICS);
+  }
+
+  /**
+   * @return The number of samples in this holder.
+   */
+  public int size() {
+    return _entities.size();
+  }
+
+  /**
+   * @param index The index of the sample.
+   * @return The entity of the sample.
+   */
+  public PartitionEntity entity(int index) {
+    return _entities.get(index);
+  }
+
+  /**
+   * @param index The index of the sample.
+   * @return The sample time of the sample.
+   */
+  public long sampleTime(int index) {
+    return _sampleTimes[index];
+  }
+
+  /**
+   * Copy the metric values of a sample to the given array.
+   *
+   * @param index The index of the sample.
+   * @param valuesByMetricId The array to copy the metric values to, indexed by metric id.
+   */
+  public void copyValues(int index, double[] valuesByMetricId) {
+    System.arraycopy(_values, index * NUM_METRICS, valuesByMetricId, 0, NUM_METRICS);
+  }
+}
@@ -7,25 +7,37 @@ package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.CruiseControlMetric;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
-import java.util.HashMap;
-import java.util.Map;
 
 
 /**
- * A class that helps store all the {@link CruiseControlMetric} by their {@link RawMetricType}.
+ * A class that helps store all the {@link CruiseControlMetric} of a {@link RawMetricType.MetricScope} by their
+ * {@link RawMetricType}. The value holders are kept in an array indexed by the position of the raw metric type in its
+ * scope, which avoids hashing and boxing on the metric processing path and keeps a partition holder to a single slot.
  */
 class RawMetricsHolder {
-  private final Map<RawMetricType, ValueHolder> _rawMetricsByType = new HashMap<>();
+  // The index of each raw metric type in its scope, by raw metric type id.
+  private static final int[] INDEX_IN_SCOPE = new int[RawMetricType.allMetricTypes().size()];
+  // The number of raw metric types in each scope, by scope ordinal.
+  private static final int[] NUM_METRIC_TYPES_IN_SCOPE = new int[RawMetricType.MetricScope.values().length];
+  static {
+    for (RawMetricType rawMetricType : RawMetricType.allMetricTypes()) {
+      INDEX_IN_SCOPE[rawMetricType.id()] = NUM_METRIC_TYPES_IN_SCOPE[rawMetricType.metricScope().ordinal()]++;
+    }
+  }
+  private final RawMetricType.MetricScope _scope;
+  private final ValueHolder[] _rawMetricsByIndex;
+
+  RawMetricsHolder(RawMetricType.MetricScope scope) {
+    _scope = scope;
+    _rawMetricsByIndex = new ValueHolder[NUM_METRIC_TYPES_IN_SCOPE[scope.ordinal()]];
+  }
 
   /**
    * Record a cruise control metric value.
    * @param ccm the {@link CruiseControlMetric} to record.
    */
   void recordCruiseControlMetric(CruiseControlMetric ccm) {
-    RawMetricType rawMetricType = ccm.rawMetricType();
-    ValueHolder
-        valueHolder = _rawMetricsByType.computeIfAbsent(rawMetricType, mt -> getValueHolderFor(rawMetricType));
-    valueHolder.recordValue(ccm.value(), ccm.time());
+    valueHolder(ccm.rawMetricType()).recordValue(ccm.value(), ccm.time());
   }
 
   /**
@@ -38,12 +50,9 @@ class RawMetricsHolder {
    * @param time the time to set
    */
   void setRawMetricValue(RawMetricType rawMetricType, double value, long time) {
-    _rawMetricsByType.compute(rawMetricType, (type, vh) -> {
-      ValueHolder valueHolder = vh == null ? getValueHolderFor(rawMetricType) : vh;
-      valueHolder.reset();
-      valueHolder.recordValue(value, time);
-      return valueHolder;
-    });
+    ValueHolder valueHolder = valueHolder(rawMetricType);
+    valueHolder.reset();
+    valueHolder.recordValue(value, time);
   }
 
   /**
@@ -52,7 +61,21 @@ class RawMetricsHolder {
    * @return The value of the given raw metric type.
    */
   ValueHolder metricValue(RawMetricType rawMetricType) {
-    return _rawMetricsByType.get(rawMetricType);
+    return rawMetricType.metricScope() == _scope ? _rawMetricsByIndex[INDEX_IN_SCOPE[rawMetricType.id()]] : null;
+  }
+
+  private ValueHolder valueHolder(RawMetricType rawMetricType) {
+    if (rawMetricType.metricScope() != _scope) {
+      throw new IllegalArgumentException(String.format("Cannot record %s metric %s in a %s metrics holder.",
+                                                       rawMetricType.metricScope(), rawMetricType, _scope));
+    }
+    int index = INDEX_IN_SCOPE[rawMetricType.id()];
+    ValueHolder valueHolder = _rawMetricsByIndex[index];
+    if (valueHolder == null) {
+      valueHolder = getValueHolderFor(rawMetricType);
+      _rawMetricsByIndex[index] = valueHolder;
+    }
+    return valueHolder;
   }
 
   private static ValueHolder getValueHolderFor(RawMetricType rawMetricType) {
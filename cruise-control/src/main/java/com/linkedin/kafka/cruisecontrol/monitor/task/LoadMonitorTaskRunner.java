@@ -14,6 +14,7 @@ import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
 import com.linkedin.kafka.cruisecontrol.executor.Executor;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.SampleStore;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
 import java.util.concurrent.Executors;
@@ -39,6 +40,8 @@ public class LoadMonitorTaskRunner {
   private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
   private final MetadataClient _metadataClient;
   private final SampleStore _sampleStore;
+  // The checkpoint manager of the metric sample aggregators, null if checkpointing is disabled.
+  private final AggregatorCheckpointManager _aggregatorCheckpointManager;
   private final ScheduledExecutorService _samplingScheduler;
   private final long _samplingIntervalMs;
   // The following two configuration is actually for MetricSampleAggregator, the MetricFetcherManager uses it to
@@ -114,6 +117,13 @@ public class LoadMonitorTaskRunner {
     _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
     _metadataClient = metadataClient;
     _sampleStore = config.getConfiguredInstance(MonitorConfig.SAMPLE_STORE_CLASS_CONFIG, SampleStore.class);
+    String checkpointDir = config.getString(MonitorConfig.METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_DIR_CONFIG);
+    long checkpointIntervalMs = config.getLong(MonitorConfig.METRIC_SAMPLE_AGGREGATOR_CHECKPOINT_INTERVAL_MS_CONFIG);
+    _aggregatorCheckpointManager = checkpointDir == null || checkpointDir.isEmpty()
+                                   ? null
+                                   : new AggregatorCheckpointManager(checkpointDir, checkpointIntervalMs,
+                                                                     partitionMetricSampleAggregator,
+                                                                     brokerMetricSampleAggregator, time);
     long samplingIntervalMs = config.getLong(MonitorConfig.METRIC_SAMPLING_INTERVAL_MS_CONFIG);
 
     _samplingScheduler =
@@ -198,6 +208,7 @@ public class LoadMonitorTaskRunner {
       _samplingScheduler.submit(new SampleLoadingTask(_sampleStore,
                                                       _partitionMetricSampleAggregator,
                                                       _brokerMetricSampleAggregator,
+                                                      _aggregatorCheckpointManager,
                                                       this,
                                                       _executor));
     } else {
@@ -246,7 +257,8 @@ public class LoadMonitorTaskRunner {
       loadSamples();
     }
     _samplingScheduler.scheduleAtFixedRate(new SamplingTask(_samplingIntervalMs, _metadataClient,
-                                                            this, _metricFetcherManager, _sampleStore, _time),
+                                                            this, _metricFetcherManager, _sampleStore,
+                                                            _aggregatorCheckpointManager, _time),
                                            0L,
                                            _samplingIntervalMs,
                                            TimeUnit.MILLISECONDS);
@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.monitor.task;
 import com.linkedin.kafka.cruisecontrol.executor.Executor;
 import com.linkedin.kafka.cruisecontrol.model.ModelParameters;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.SampleStore;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
 
@@ -17,17 +18,20 @@ public class SampleLoadingTask implements Runnable {
   private final SampleStore _sampleStore;
   private final KafkaPartitionMetricSampleAggregator _partitionMetricSampleAggregator;
   private final KafkaBrokerMetricSampleAggregator _brokerMetricSampleAggregator;
+  private final AggregatorCheckpointManager _aggregatorCheckpointManager;
   private final LoadMonitorTaskRunner _loadMonitorTaskRunner;
   private final Executor _executor;
 
   SampleLoadingTask(SampleStore sampleStore,
                     KafkaPartitionMetricSampleAggregator partitionMetricSampleAggregator,
                     KafkaBrokerMetricSampleAggregator brokerMetricSampleAggregator,
+                    AggregatorCheckpointManager aggregatorCheckpointManager,
                     LoadMonitorTaskRunner loadMonitorTaskRunner,
                     Executor executor) {
     _sampleStore = sampleStore;
     _partitionMetricSampleAggregator = partitionMetricSampleAggregator;
     _brokerMetricSampleAggregator = brokerMetricSampleAggregator;
+    _aggregatorCheckpointManager = aggregatorCheckpointManager;
     _loadMonitorTaskRunner = loadMonitorTaskRunner;
     if (executor == null) {
       throw new IllegalArgumentException("Executor is not provided.");
@@ -38,8 +42,12 @@ public class SampleLoadingTask implements Runnable {
   @Override
   public void run() {
     try {
+      // Restore the aggregators from the latest checkpoint (if any) so only the newer samples need to be loaded.
+      long checkpointTimeMs = _aggregatorCheckpointManager == null ? AggregatorCheckpointManager.NO_CHECKPOINT
+                                                                   : _aggregatorCheckpointManager.restore();
       _sampleStore.loadSamples(new SampleStore.SampleLoader(_partitionMetricSampleAggregator,
-                                                            _brokerMetricSampleAggregator));
+                                                            _brokerMetricSampleAggregator,
+                                                            checkpointTimeMs));
       ModelParameters.updateModelCoefficient();
     } finally {
       // If Cruise Control has triggered operations before loading is finished, transfer monitor state to paused state;
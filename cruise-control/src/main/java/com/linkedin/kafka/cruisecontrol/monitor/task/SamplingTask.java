@@ -7,6 +7,7 @@ package com.linkedin.kafka.cruisecontrol.monitor.task;
 import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.SampleStore;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager;
 import java.util.concurrent.TimeoutException;
 import org.apache.kafka.common.utils.Time;
 import org.slf4j.Logger;
@@ -24,6 +25,7 @@ class SamplingTask implements Runnable {
   private final LoadMonitorTaskRunner _loadMonitorTaskRunner;
   private final MetricFetcherManager _metricFetcherManager;
   private final SampleStore _sampleStore;
+  private final AggregatorCheckpointManager _aggregatorCheckpointManager;
   private long _lastSamplingPeriodEndTimeMs;
 
   SamplingTask(long samplingIntervalMs,
@@ -31,6 +33,7 @@ class SamplingTask implements Runnable {
                LoadMonitorTaskRunner loadMonitorTaskRunner,
                MetricFetcherManager metricFetcherManager,
                SampleStore sampleStore,
+               AggregatorCheckpointManager aggregatorCheckpointManager,
                Time time) {
     _samplingIntervalMs = samplingIntervalMs;
     _time = time;
@@ -38,6 +41,7 @@ class SamplingTask implements Runnable {
     _loadMonitorTaskRunner = loadMonitorTaskRunner;
     _metricFetcherManager = metricFetcherManager;
     _sampleStore = sampleStore;
+    _aggregatorCheckpointManager = aggregatorCheckpointManager;
     _lastSamplingPeriodEndTimeMs = _time.milliseconds() - _samplingIntervalMs;
   }
 
@@ -67,6 +71,9 @@ class SamplingTask implements Runnable {
             throw new TimeoutException();
           }
         } while (hasSamplingError);
+        if (_aggregatorCheckpointManager != null) {
+          _aggregatorCheckpointManager.maybeCheckpoint(_lastSamplingPeriodEndTimeMs);
+        }
       } catch (TimeoutException e) {
         LOG.warn("Sampling did not finish in {} ms, skipping this sampling interval.", _samplingIntervalMs);
         // Advance the last sampling period end time.
@@ -104,6 +104,12 @@ object ExecutorUtils {
     setAsJavaSet(kafkaZkClient.getPartitionReassignment.keys.toSet)
   }
 
+  def partitionReassignments(kafkaZkClient: KafkaZkClient): util.Map[TopicPartition, util.List[Integer]] = {
+    mapAsJavaMap(kafkaZkClient.getPartitionReassignment.map { case (tp, replicas) =>
+      tp -> seqAsJavaList(replicas.map(i => i : Integer))
+    })
+  }
+
   def ongoingLeaderElection(kafkaZkClient: KafkaZkClient): util.Set[TopicPartition] = {
     setAsJavaSet(kafkaZkClient.getPreferredReplicaElection)
   }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.config;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCAbstractZookeeperTestHarness;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import kafka.server.ConfigType;
+import kafka.zk.ConfigEntityZNode;
+import kafka.zk.KafkaZkClient;
+import org.apache.kafka.common.config.TopicConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link KafkaTopicConfigProvider}.
+ */
+public class KafkaTopicConfigProviderTest extends CCAbstractZookeeperTestHarness {
+  private static final String TOPIC0 = "topic0";
+  private static final String TOPIC1 = "topic1";
+  private static final long WAIT_TIMEOUT_MS = 10000L;
+  private KafkaZkClient _kafkaZkClient;
+
+  /**
+   * Setup the unit test.
+   */
+  @Before
+  public void setUp() {
+    super.setUp();
+    _kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zkConnect(), "KafkaTopicConfigProviderTest", "test", false);
+    _kafkaZkClient.createTopLevelPaths();
+  }
+
+  /**
+   * Teardown the unit test.
+   */
+  @After
+  public void tearDown() {
+    KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(_kafkaZkClient);
+    super.tearDown();
+  }
+
+  @Test
+  public void testTopicConfigsFollowZooKeeperChanges() throws InterruptedException {
+    setTopicRetentionMs(TOPIC0, "1", false);
+    KafkaTopicConfigProvider provider = new KafkaTopicConfigProvider();
+    provider.configure(providerConfigs());
+    try {
+      assertEquals("1", provider.topicConfigs(TOPIC0).getProperty(TopicConfig.RETENTION_MS_CONFIG));
+      Map<String, Properties> allTopicConfigs = provider.allTopicConfigs();
+      assertEquals(1, allTopicConfigs.size());
+      // The returned configs are copies of the cached configs.
+      provider.topicConfigs(TOPIC0).setProperty(TopicConfig.RETENTION_MS_CONFIG, "0");
+      provider.allTopicConfigs().get(TOPIC0).setProperty(TopicConfig.RETENTION_MS_CONFIG, "0");
+      assertEquals("1", provider.topicConfigs(TOPIC0).getProperty(TopicConfig.RETENTION_MS_CONFIG));
+
+      // Config change of an existing topic.
+      setTopicRetentionMs(TOPIC0, "2", true);
+      waitUntil(() -> "2".equals(provider.topicConfigs(TOPIC0).getProperty(TopicConfig.RETENTION_MS_CONFIG)));
+      // A refresh does not change the configs returned before it.
+      assertEquals(1, allTopicConfigs.size());
+      assertEquals("1", allTopicConfigs.get(TOPIC0).getProperty(TopicConfig.RETENTION_MS_CONFIG));
+      // Topic creation.
+      setTopicRetentionMs(TOPIC1, "3", false);
+      waitUntil(() -> provider.allTopicConfigs().containsKey(TOPIC1));
+      assertEquals("3", provider.topicConfigs(TOPIC1).getProperty(TopicConfig.RETENTION_MS_CONFIG));
+      // Topic deletion.
+      _kafkaZkClient.deleteRecursive(ConfigEntityZNode.path(ConfigType.Topic(), TOPIC1), _kafkaZkClient.deleteRecursive$default$2());
+      waitUntil(() -> !provider.allTopicConfigs().containsKey(TOPIC1));
+      assertTrue(provider.topicConfigs(TOPIC1).isEmpty());
+      assertEquals("2", provider.topicConfigs(TOPIC0).getProperty(TopicConfig.RETENTION_MS_CONFIG));
+    } finally {
+      provider.close();
+    }
+  }
+
+  @Test
+  public void testChangedTopic() {
+    assertEquals(TOPIC0, KafkaTopicConfigProvider.changedTopic(
+        "{\"version\":2,\"entity_path\":\"topics/topic0\"}".getBytes(StandardCharsets.UTF_8)));
+    assertEquals(TOPIC0, KafkaTopicConfigProvider.changedTopic(
+        "{\"version\":1,\"entity_type\":\"topics\",\"entity_name\":\"topic0\"}".getBytes(StandardCharsets.UTF_8)));
+    assertNull(KafkaTopicConfigProvider.changedTopic(
+        "{\"version\":2,\"entity_path\":\"brokers/0\"}".getBytes(StandardCharsets.UTF_8)));
+    assertNull(KafkaTopicConfigProvider.changedTopic(
+        "{\"version\":1,\"entity_type\":\"clients\",\"entity_name\":\"topic0\"}".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void setTopicRetentionMs(String topic, String retentionMs, boolean notify) {
+    Properties topicConfigs = new Properties();
+    topicConfigs.setProperty(TopicConfig.RETENTION_MS_CONFIG, retentionMs);
+    _kafkaZkClient.setOrCreateEntityConfigs(ConfigType.Topic(), topic, topicConfigs);
+    if (notify) {
+      _kafkaZkClient.createConfigChangeNotification(ConfigType.Topic() + "/" + topic);
+    }
+  }
+
+  private Map<String, Object> providerConfigs() {
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(ExecutorConfig.ZOOKEEPER_CONNECT_CONFIG, zkConnect());
+    configs.put(ExecutorConfig.ZOOKEEPER_SECURITY_ENABLED_CONFIG, false);
+    configs.put(KafkaTopicConfigProvider.CLUSTER_CONFIGS_FILE,
+                KafkaTopicConfigProviderTest.class.getClassLoader().getResource("DefaultClusterConfigs.json").getFile());
+    return configs;
+  }
+
+  private static void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+    long deadlineMs = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+    while (!condition.get()) {
+      assertFalse("Timed out waiting for the topic configs to be updated.", System.currentTimeMillis() > deadlineMs);
+      Thread.sleep(10);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.detector;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.AggregatedMetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricSampleAggregationResult;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.MetricValues;
+import com.linkedin.cruisecontrol.monitor.sampling.aggregator.ValuesAndExtrapolations;
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControl;
+import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
+import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.Cluster;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link GoalViolationDetectionTrigger}.
+ */
+public class GoalViolationDetectionTriggerTest {
+  private static final double LOAD_CHANGE_THRESHOLD = 0.1;
+  private static final long MAX_DETECTION_INTERVAL_MS = 100000L;
+  private static final BrokerEntity BROKER = new BrokerEntity("host", 0);
+
+  @Test
+  public void testShouldTriggerDetection() {
+    KafkaCruiseControl mockKafkaCruiseControl = EasyMock.mock(KafkaCruiseControl.class);
+    LoadMonitor mockLoadMonitor = EasyMock.mock(LoadMonitor.class);
+    GoalViolationDetector mockGoalViolationDetector = EasyMock.mock(GoalViolationDetector.class);
+    EasyMock.expect(mockKafkaCruiseControl.loadMonitor()).andReturn(mockLoadMonitor).anyTimes();
+
+    // The first check always triggers the detection.
+    expectCheck(mockLoadMonitor, 0, Collections.singletonList(0L), 100.0);
+    // Nothing has changed.
+    expectCheck(mockLoadMonitor, 0, Collections.singletonList(0L), Double.NaN);
+    // A new window rolled out, but the load change is below the threshold.
+    expectCheck(mockLoadMonitor, 0, Arrays.asList(0L, 1L), 105.0);
+    // A new window rolled out, and the load change is above the threshold.
+    expectCheck(mockLoadMonitor, 0, Arrays.asList(0L, 1L, 2L), 120.0);
+    // The cluster generation changed.
+    expectCheck(mockLoadMonitor, 1, Arrays.asList(0L, 1L, 2L), Double.NaN);
+    // The maximum detection interval has elapsed.
+    expectCheck(mockLoadMonitor, 1, Arrays.asList(0L, 1L, 2L), Double.NaN);
+    EasyMock.replay(mockKafkaCruiseControl, mockLoadMonitor, mockGoalViolationDetector);
+
+    GoalViolationDetectionTrigger trigger = new GoalViolationDetectionTrigger(mockGoalViolationDetector,
+                                                                              mockKafkaCruiseControl,
+                                                                              LOAD_CHANGE_THRESHOLD,
+                                                                              MAX_DETECTION_INTERVAL_MS);
+    assertTrue(trigger.shouldTriggerDetection(0L));
+    assertFalse(trigger.shouldTriggerDetection(1L));
+    assertFalse(trigger.shouldTriggerDetection(2L));
+    assertTrue(trigger.shouldTriggerDetection(3L));
+    assertTrue(trigger.shouldTriggerDetection(4L));
+    assertTrue(trigger.shouldTriggerDetection(4L + MAX_DETECTION_INTERVAL_MS));
+    EasyMock.verify(mockKafkaCruiseControl, mockLoadMonitor, mockGoalViolationDetector);
+  }
+
+  @Test
+  public void testRunTriggersDetection() {
+    KafkaCruiseControl mockKafkaCruiseControl = EasyMock.mock(KafkaCruiseControl.class);
+    LoadMonitor mockLoadMonitor = EasyMock.mock(LoadMonitor.class);
+    GoalViolationDetector mockGoalViolationDetector = EasyMock.mock(GoalViolationDetector.class);
+    EasyMock.expect(mockKafkaCruiseControl.loadMonitor()).andReturn(mockLoadMonitor).anyTimes();
+    EasyMock.expect(mockKafkaCruiseControl.timeMs()).andReturn(0L);
+    EasyMock.expect(mockKafkaCruiseControl.timeMs()).andReturn(1L);
+    EasyMock.expect(mockKafkaCruiseControl.timeMs()).andReturn(MAX_DETECTION_INTERVAL_MS);
+    expectCheck(mockLoadMonitor, 0, Collections.singletonList(0L), 100.0);
+    expectCheck(mockLoadMonitor, 0, Collections.singletonList(0L), Double.NaN);
+    expectCheck(mockLoadMonitor, 0, Collections.singletonList(0L), Double.NaN);
+    // The detector runs on the first check and after the maximum detection interval, but not in between.
+    mockGoalViolationDetector.run();
+    EasyMock.expectLastCall().times(2);
+    EasyMock.replay(mockKafkaCruiseControl, mockLoadMonitor, mockGoalViolationDetector);
+
+    GoalViolationDetectionTrigger trigger = new GoalViolationDetectionTrigger(mockGoalViolationDetector,
+                                                                              mockKafkaCruiseControl,
+                                                                              LOAD_CHANGE_THRESHOLD,
+                                                                              MAX_DETECTION_INTERVAL_MS);
+    trigger.run();
+    trigger.run();
+    trigger.run();
+    EasyMock.verify(mockKafkaCruiseControl, mockLoadMonitor, mockGoalViolationDetector);
+  }
+
+  @Test
+  public void testMaxLoadChange() {
+    Map<Integer, double[]> baseline = new HashMap<>();
+    baseline.put(0, new double[]{10.0, 0.0, 100.0, 50.0});
+    baseline.put(1, new double[]{20.0, 0.0, 100.0, 50.0});
+
+    Map<Integer, double[]> current = new HashMap<>();
+    current.put(0, new double[]{10.0, 0.0, 100.0, 50.0});
+    current.put(1, new double[]{20.0, 0.0, 100.0, 50.0});
+    assertEquals(0.0, GoalViolationDetectionTrigger.maxLoadChange(baseline, current), 0.0);
+
+    current.put(1, new double[]{25.0, 0.0, 80.0, 50.0});
+    assertEquals(0.2, GoalViolationDetectionTrigger.maxLoadChange(baseline, current), 1E-9);
+
+    current.put(0, new double[]{10.0, 1.0, 100.0, 50.0});
+    assertEquals(1.0, GoalViolationDetectionTrigger.maxLoadChange(baseline, current), 0.0);
+
+    // A broker without a baseline is a full change.
+    current.clear();
+    current.put(2, new double[]{10.0, 0.0, 100.0, 50.0});
+    assertEquals(1.0, GoalViolationDetectionTrigger.maxLoadChange(baseline, current), 0.0);
+  }
+
+  /**
+   * Expect one check of the trigger.
+   *
+   * @param mockLoadMonitor The mock load monitor.
+   * @param clusterGeneration The cluster generation to return.
+   * @param windows The available broker metric windows to return.
+   * @param brokerMetricValue The value of all the broker metrics in the newest window, or {@link Double#NaN} if the
+   *                          broker metrics are not expected to be aggregated.
+   */
+  private static void expectCheck(LoadMonitor mockLoadMonitor, int clusterGeneration, List<Long> windows, double brokerMetricValue) {
+    EasyMock.expect(mockLoadMonitor.refreshClusterAndGeneration())
+            .andReturn(new MetadataClient.ClusterAndGeneration(Cluster.empty(), clusterGeneration));
+    EasyMock.expect(mockLoadMonitor.availableBrokerMetricWindows()).andReturn(windows);
+    if (!Double.isNaN(brokerMetricValue)) {
+      EasyMock.expect(mockLoadMonitor.brokerMetrics()).andReturn(brokerMetrics(brokerMetricValue));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MetricSampleAggregationResult<String, BrokerEntity> brokerMetrics(double value) {
+    Map<Short, MetricValues> valuesByMetricId = new HashMap<>();
+    for (MetricInfo info : KafkaMetricDef.brokerMetricDef().all()) {
+      MetricValues metricValues = new MetricValues(1);
+      metricValues.set(0, value);
+      valuesByMetricId.put(info.id(), metricValues);
+    }
+    ValuesAndExtrapolations valuesAndExtrapolations =
+        new ValuesAndExtrapolations(new AggregatedMetricValues(valuesByMetricId), Collections.emptyMap());
+    MetricSampleAggregationResult<String, BrokerEntity> result = EasyMock.mock(MetricSampleAggregationResult.class);
+    EasyMock.expect(result.valuesAndExtrapolations()).andReturn(Collections.singletonMap(BROKER, valuesAndExtrapolations));
+    EasyMock.replay(result);
+    return result;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Unit test for {@link ConcurrencyAdjuster}.
+ */
+public class ConcurrencyAdjusterTest {
+  private static final String TOPIC = "topic";
+  private static final Node NODE0 = new Node(0, "host0", 0);
+  private static final Node NODE1 = new Node(1, "host1", 0);
+  private static final TopicPartition TP0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition TP1 = new TopicPartition(TOPIC, 1);
+
+  @Test
+  public void testAdditiveIncreaseMultiplicativeDecrease() {
+    ConcurrencyAdjuster adjuster = new ConcurrencyAdjuster(config(2, 6));
+    Cluster healthyCluster = cluster(false);
+    Set<TopicPartition> noPartitionInMovement = Collections.emptySet();
+
+    // Increase only if the concurrency limits the execution.
+    assertEquals(5, adjuster.adjustedConcurrency(5, healthyCluster, noPartitionInMovement, false, false));
+    assertEquals(6, adjuster.adjustedConcurrency(5, healthyCluster, noPartitionInMovement, false, true));
+    // Never increase above the maximum.
+    assertEquals(6, adjuster.adjustedConcurrency(6, healthyCluster, noPartitionInMovement, false, true));
+    // Decrease on failed movements, but never below the minimum.
+    assertEquals(3, adjuster.adjustedConcurrency(6, healthyCluster, noPartitionInMovement, true, true));
+    assertEquals(2, adjuster.adjustedConcurrency(3, healthyCluster, noPartitionInMovement, true, true));
+    // Decrease on under replicated partitions that are not being moved.
+    Cluster unhealthyCluster = cluster(true);
+    assertEquals(3, adjuster.adjustedConcurrency(6, unhealthyCluster, noPartitionInMovement, false, true));
+    assertEquals(6, adjuster.adjustedConcurrency(5, unhealthyCluster, Collections.singleton(TP1), false, true));
+  }
+
+  @Test
+  public void testNumUnderReplicatedPartitions() {
+    assertEquals(0, ConcurrencyAdjuster.numUnderReplicatedPartitions(cluster(false), Collections.emptySet()));
+    assertEquals(1, ConcurrencyAdjuster.numUnderReplicatedPartitions(cluster(true), Collections.emptySet()));
+    assertEquals(1, ConcurrencyAdjuster.numUnderReplicatedPartitions(cluster(true), Collections.singleton(TP0)));
+    assertEquals(0, ConcurrencyAdjuster.numUnderReplicatedPartitions(cluster(true), Collections.singleton(TP1)));
+  }
+
+  private static KafkaCruiseControlConfig config(int minConcurrency, int maxConcurrency) {
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_ENABLED_CONFIG, "true");
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_MIN_PARTITION_MOVEMENTS_PER_BROKER_CONFIG, Integer.toString(minConcurrency));
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_MAX_PARTITION_MOVEMENTS_PER_BROKER_CONFIG, Integer.toString(maxConcurrency));
+    return new KafkaCruiseControlConfig(props);
+  }
+
+  /**
+   * @param isTp1UnderReplicated True to make {@link #TP1} under replicated, false otherwise.
+   * @return A cluster with two brokers and two partitions.
+   */
+  private static Cluster cluster(boolean isTp1UnderReplicated) {
+    Node[] replicas = new Node[]{NODE0, NODE1};
+    PartitionInfo tp0 = new PartitionInfo(TOPIC, 0, NODE0, replicas, replicas);
+    PartitionInfo tp1 = new PartitionInfo(TOPIC, 1, NODE1, replicas, isTp1UnderReplicated ? new Node[]{NODE1} : replicas);
+    return new Cluster("id", Arrays.asList(NODE0, NODE1), Arrays.asList(tp0, tp1), Collections.emptySet(), Collections.emptySet());
+  }
+}
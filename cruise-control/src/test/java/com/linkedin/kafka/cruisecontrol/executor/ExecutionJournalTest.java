@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.MockTime;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit test for {@link ExecutionJournal}.
+ */
+public class ExecutionJournalTest {
+  private static final String TOPIC = "topic";
+  private static final TopicPartition T0P0 = new TopicPartition(TOPIC, 0);
+  private static final TopicPartition T0P1 = new TopicPartition(TOPIC, 1);
+  private static final TopicPartition T0P2 = new TopicPartition(TOPIC, 2);
+  private static final TopicPartition T0P3 = new TopicPartition(TOPIC, 3);
+  private static final Node NODE0 = new Node(0, "host0", 100);
+  private static final Node NODE1 = new Node(1, "host1", 100);
+  private static final ReplicaPlacementInfo R0 = new ReplicaPlacementInfo(0);
+  private static final ReplicaPlacementInfo R1 = new ReplicaPlacementInfo(1);
+  private File _journalDir;
+
+  /**
+   * Create a temporary directory for the journal.
+   */
+  @Before
+  public void setUp() throws IOException {
+    _journalDir = Files.createTempDirectory("execution-journal").toFile();
+  }
+
+  /**
+   * Delete the temporary directory of the journal.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Utils.delete(_journalDir);
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    ExecutionJournal journal = new ExecutionJournal(_journalDir.getAbsolutePath(), new MockTime());
+    assertNull(journal.read());
+
+    ExecutionProposal intraBrokerProposal = new ExecutionProposal(T0P1, 20, new ReplicaPlacementInfo(0, "/d0"),
+                                                                  Collections.singletonList(new ReplicaPlacementInfo(0, "/d0")),
+                                                                  Collections.singletonList(new ReplicaPlacementInfo(0, "/d1")));
+    List<ExecutionProposal> proposals = Arrays.asList(new ExecutionProposal(T0P0, 10, R0, Collections.singletonList(R0),
+                                                                            Collections.singletonList(R1)),
+                                                      intraBrokerProposal);
+    Set<Integer> demotedBrokers = Collections.singleton(1);
+    Map<String, Set<String>> throttledReplicas = Collections.singletonMap(TOPIC, new HashSet<>(Arrays.asList("0:0", "0:1")));
+    journal.write(new ExecutionJournal.Entry("uuid", null, null, null, demotedBrokers, null, proposals,
+                                             new HashSet<>(Arrays.asList(0, 1)), throttledReplicas), Collections.emptyMap());
+
+    ExecutionJournal.Entry entry = journal.read();
+    assertEquals("uuid", entry.uuid());
+    assertNull(entry.reason());
+    assertNull(entry.replicationThrottle());
+    assertNull(entry.brokersToSkipConcurrencyCheck());
+    assertEquals(demotedBrokers, entry.demotedBrokers());
+    assertNull(entry.removedBrokers());
+    assertEquals(proposals.size(), entry.proposals().size());
+    for (int i = 0; i < proposals.size(); i++) {
+      ExecutionProposal expected = proposals.get(i);
+      ExecutionProposal actual = entry.proposals().get(i);
+      assertEquals(expected.topicPartition(), actual.topicPartition());
+      assertEquals(expected.partitionSize(), actual.partitionSize());
+      assertEquals(expected.oldLeader(), actual.oldLeader());
+      assertEquals(expected.oldReplicas(), actual.oldReplicas());
+      assertEquals(expected.newReplicas(), actual.newReplicas());
+    }
+    assertEquals(intraBrokerProposal.replicasToMoveBetweenDisksByBroker(),
+                 entry.proposals().get(1).replicasToMoveBetweenDisksByBroker());
+    assertEquals(new HashSet<>(Arrays.asList(0, 1)), entry.throttledBrokers());
+    assertEquals(throttledReplicas, entry.throttledReplicasByTopic());
+
+    // A newer entry replaces the previous one.
+    journal.write(new ExecutionJournal.Entry("uuid", "reason", 100L, Collections.singleton(0), null, Collections.emptySet(),
+                                             Collections.emptyList(), Collections.emptySet(), Collections.emptyMap()),
+                  Collections.emptyMap());
+    entry = journal.read();
+    assertEquals("reason", entry.reason());
+    assertEquals(100L, entry.replicationThrottle().longValue());
+    assertEquals(Collections.singleton(0), entry.brokersToSkipConcurrencyCheck());
+    assertNull(entry.demotedBrokers());
+    assertTrue(entry.removedBrokers().isEmpty());
+    assertTrue(entry.proposals().isEmpty());
+
+    journal.delete();
+    assertNull(journal.read());
+    assertFalse(new File(_journalDir, ExecutionJournal.JOURNAL_FILE_NAME).exists());
+    assertFalse(new File(_journalDir, ExecutionJournal.PROGRESS_FILE_NAME).exists());
+  }
+
+  @Test
+  public void testAppendProgress() throws IOException {
+    ExecutionJournal journal = new ExecutionJournal(_journalDir.getAbsolutePath(), new MockTime());
+    // The partition T0P0 has an inter-broker replica movement and a leadership movement.
+    ExecutionProposal proposal0 = new ExecutionProposal(T0P0, 10, R0, Collections.singletonList(R0), Collections.singletonList(R1));
+    ExecutionProposal proposal1 = new ExecutionProposal(T0P1, 10, R0, Collections.singletonList(R0), Collections.singletonList(R1));
+    journal.write(new ExecutionJournal.Entry("uuid", null, null, null, null, null, Arrays.asList(proposal0, proposal1),
+                                             Collections.emptySet(), Collections.emptyMap()), Collections.singletonMap(T0P0, 2));
+    long planSize = Files.size(new File(_journalDir, ExecutionJournal.JOURNAL_FILE_NAME).toPath());
+
+    Map<String, Set<String>> throttledReplicas = Collections.singletonMap(TOPIC, Collections.singleton("0:0"));
+    journal.append(Arrays.asList(T0P0, T0P1), Collections.emptyList(), Collections.singleton(0), throttledReplicas);
+    journal.append(Collections.emptyList(), Arrays.asList(T0P0, T0P1), null, null);
+    // The progress is appended without rewriting the plan.
+    assertEquals(planSize, Files.size(new File(_journalDir, ExecutionJournal.JOURNAL_FILE_NAME).toPath()));
+
+    // The proposal of T0P1 has finished, while the proposal of T0P0 still has an unfinished task.
+    ExecutionJournal.Entry entry = journal.read();
+    assertEquals(1, entry.proposals().size());
+    assertEquals(T0P0, entry.proposals().get(0).topicPartition());
+    assertEquals(Collections.singleton(0), entry.throttledBrokers());
+    assertEquals(throttledReplicas, entry.throttledReplicasByTopic());
+
+    // A partially written record, e.g. due to a crash, is ignored.
+    Path progressFile = new File(_journalDir, ExecutionJournal.PROGRESS_FILE_NAME).toPath();
+    Files.write(progressFile, new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+    entry = journal.read();
+    assertEquals(1, entry.proposals().size());
+    assertEquals(Collections.singleton(0), entry.throttledBrokers());
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    ExecutionJournal journal = new ExecutionJournal(_journalDir.getAbsolutePath(), new MockTime());
+    List<ExecutionProposal> proposals = new ArrayList<>();
+    for (int partition = 0; partition <= ExecutionJournal.MIN_NUM_RECORDS_TO_COMPACT; partition++) {
+      proposals.add(new ExecutionProposal(new TopicPartition(TOPIC, partition), 10, R0, Collections.singletonList(R0),
+                                          Collections.singletonList(R1)));
+    }
+    journal.write(new ExecutionJournal.Entry("uuid", null, null, null, null, null, proposals, Collections.emptySet(),
+                                             Collections.emptyMap()), Collections.emptyMap());
+    Path progressFile = new File(_journalDir, ExecutionJournal.PROGRESS_FILE_NAME).toPath();
+    long emptyProgressSize = Files.size(progressFile);
+
+    // Finish all but the last proposal.
+    for (ExecutionProposal proposal : proposals.subList(0, proposals.size() - 1)) {
+      journal.append(Collections.emptyList(), Collections.singletonList(proposal.topicPartition()), null, null);
+    }
+    assertTrue(Files.size(progressFile) > emptyProgressSize);
+    journal.append(Collections.emptyList(), Collections.emptyList(), Collections.singleton(1), Collections.emptyMap());
+    // The journal is compacted once it has more progress records than proposals.
+    assertEquals(emptyProgressSize, Files.size(progressFile));
+    ExecutionJournal.Entry entry = journal.read();
+    assertEquals(1, entry.proposals().size());
+    assertEquals(proposals.get(proposals.size() - 1).topicPartition(), entry.proposals().get(0).topicPartition());
+    assertEquals(Collections.singleton(1), entry.throttledBrokers());
+
+    // The progress appended after the compaction applies to the compacted plan.
+    journal.append(Collections.emptyList(), Collections.singletonList(entry.proposals().get(0).topicPartition()), null, null);
+    assertTrue(journal.read().proposals().isEmpty());
+  }
+
+  @Test
+  public void testIgnoreProgressOfAnotherPlan() throws IOException {
+    ExecutionJournal journal = new ExecutionJournal(_journalDir.getAbsolutePath(), new MockTime());
+    ExecutionJournal.Entry plan = new ExecutionJournal.Entry("uuid", null, null, null, null, null, Collections.singletonList(
+        new ExecutionProposal(T0P0, 10, R0, Collections.singletonList(R0), Collections.singletonList(R1))),
+                                                             Collections.emptySet(), Collections.emptyMap());
+    journal.write(plan, Collections.emptyMap());
+    journal.append(Collections.emptyList(), Collections.singletonList(T0P0), null, null);
+    assertTrue(journal.read().proposals().isEmpty());
+    Path progressFile = new File(_journalDir, ExecutionJournal.PROGRESS_FILE_NAME).toPath();
+    byte[] progressOfFirstPlan = Files.readAllBytes(progressFile);
+
+    // E.g. a crash while replacing the plan, after the plan is replaced but before the progress file is started over.
+    journal.write(plan, Collections.emptyMap());
+    Files.write(progressFile, progressOfFirstPlan);
+    assertEquals(1, journal.read().proposals().size());
+  }
+
+  @Test
+  public void testReadCorruptedJournal() throws IOException {
+    ExecutionJournal journal = new ExecutionJournal(_journalDir.getAbsolutePath(), new MockTime());
+    Path journalFile = new File(_journalDir, ExecutionJournal.JOURNAL_FILE_NAME).toPath();
+    Files.write(journalFile, new byte[]{1, 2, 3, 4});
+    assertNull(journal.read());
+  }
+
+  @Test
+  public void testRemainingProposals() {
+    // Completed: both the replicas and the leader match the proposal.
+    ExecutionProposal completed = new ExecutionProposal(T0P0, 10, R0, Arrays.asList(R0, R1), Arrays.asList(R1, R0));
+    // Leadership pending: the replicas match the proposal but the leader has not moved yet.
+    ExecutionProposal leaderPending = new ExecutionProposal(T0P1, 10, R0, Arrays.asList(R0, R1), Arrays.asList(R1, R0));
+    // In-flight: the partition is still being reassigned from [0] to [1].
+    ExecutionProposal inFlight = new ExecutionProposal(T0P2, 10, R0, Collections.singletonList(R0),
+                                                       Collections.singletonList(R1));
+    // Deleted: the partition no longer exists.
+    ExecutionProposal deleted = new ExecutionProposal(T0P3, 10, R0, Collections.singletonList(R0),
+                                                      Collections.singletonList(R1));
+
+    Node[] replicas = {NODE1, NODE0};
+    Node[] inFlightReplicas = {NODE0, NODE1};
+    Cluster cluster = new Cluster("id", Arrays.asList(NODE0, NODE1),
+                                  Arrays.asList(new PartitionInfo(TOPIC, 0, NODE1, replicas, replicas),
+                                                new PartitionInfo(TOPIC, 1, NODE0, replicas, replicas),
+                                                new PartitionInfo(TOPIC, 2, NODE0, inFlightReplicas, new Node[]{NODE0})),
+                                  Collections.emptySet(), Collections.emptySet());
+
+    List<ExecutionProposal> remaining =
+        ExecutionJournal.remainingProposals(Arrays.asList(completed, leaderPending, inFlight, deleted), cluster);
+    assertEquals(2, remaining.size());
+
+    ExecutionProposal remainingLeaderPending = remaining.get(0);
+    assertEquals(T0P1, remainingLeaderPending.topicPartition());
+    assertEquals(R0, remainingLeaderPending.oldLeader());
+    assertEquals(Arrays.asList(R1, R0), remainingLeaderPending.oldReplicas());
+    assertFalse(remainingLeaderPending.hasReplicaAction());
+
+    ExecutionProposal remainingInFlight = remaining.get(1);
+    assertEquals(T0P2, remainingInFlight.topicPartition());
+    assertEquals(Arrays.asList(R0, R1), remainingInFlight.oldReplicas());
+    assertEquals(Collections.singletonList(R1), remainingInFlight.newReplicas());
+    assertTrue(remainingInFlight.replicasToAdd().isEmpty());
+    assertEquals(0, remainingInFlight.interBrokerDataToMoveInMB());
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCAbstractZookeeperTestHarness;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import kafka.zk.KafkaZkClient;
+import kafka.zk.ZkVersion;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link ExecutionProgressWatcher}.
+ */
+public class ExecutionProgressWatcherTest extends CCAbstractZookeeperTestHarness {
+  private static final long SHORT_WAIT_MS = 100L;
+  private static final long LONG_WAIT_MS = 10000L;
+  private KafkaZkClient _kafkaZkClient;
+
+  /**
+   * Setup the unit test.
+   */
+  @Before
+  public void setUp() {
+    super.setUp();
+    _kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zkConnect(), "ExecutionProgressWatcherTest", "test", false);
+    _kafkaZkClient.createTopLevelPaths();
+  }
+
+  /**
+   * Teardown the unit test.
+   */
+  @After
+  public void tearDown() {
+    KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(_kafkaZkClient);
+    super.tearDown();
+  }
+
+  @Test
+  public void testWakeUpOnLeadershipMovementProgress() {
+    ExecutionProgressWatcher watcher = new ExecutionProgressWatcher(_kafkaZkClient);
+    try {
+      watcher.watch();
+      assertFalse(watcher.awaitProgress(SHORT_WAIT_MS));
+
+      // Starting leadership movements is not a progress.
+      ExecutionProposal proposal = new ExecutionProposal(new TopicPartition("topic", 0), 0, new ReplicaPlacementInfo(0),
+                                                         Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+                                                         Arrays.asList(new ReplicaPlacementInfo(1), new ReplicaPlacementInfo(0)));
+      ExecutionTask task = new ExecutionTask(0, proposal, ExecutionTask.TaskType.LEADER_ACTION, LONG_WAIT_MS);
+      ExecutorUtils.executePreferredLeaderElection(_kafkaZkClient, Collections.singletonList(task));
+      assertFalse(watcher.awaitProgress(SHORT_WAIT_MS));
+
+      // The controller deletes the zNode once the leadership movements are completed.
+      _kafkaZkClient.deletePreferredReplicaElection(ZkVersion.MatchAnyVersion());
+      assertTrue(watcher.awaitProgress(LONG_WAIT_MS));
+      assertFalse(watcher.awaitProgress(SHORT_WAIT_MS));
+    } finally {
+      watcher.close();
+    }
+  }
+
+  @Test
+  public void testWakeUp() {
+    ExecutionProgressWatcher watcher = new ExecutionProgressWatcher(_kafkaZkClient);
+    try {
+      watcher.watch();
+      watcher.wakeUp();
+      assertTrue(watcher.awaitProgress(LONG_WAIT_MS));
+      assertFalse(watcher.awaitProgress(SHORT_WAIT_MS));
+    } finally {
+      watcher.close();
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+
+/**
+ * Unit test for {@link ExecutionSimulator}.
+ */
+public class ExecutionSimulatorTest {
+  private static final String TOPIC = "topic";
+  private static final double BANDWIDTH_IN_MB_PER_SEC = 10.0;
+  private static final long LEADERSHIP_MOVEMENT_LATENCY_MS = 1000L;
+  private static final List<Node> NODES = Arrays.asList(new Node(0, "host0", 100), new Node(1, "host1", 100),
+                                                        new Node(2, "host2", 100));
+  private static final KafkaCruiseControlConfig CONFIG =
+      new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties());
+
+  @Test
+  public void testInterBrokerReplicaMovements() {
+    // Broker 0 sends 100 MB to broker 1 and 100 MB to broker 2.
+    List<ExecutionProposal> proposals = Arrays.asList(proposal(0, 100, Collections.singletonList(0), Collections.singletonList(1)),
+                                                      proposal(1, 100, Collections.singletonList(0), Collections.singletonList(2)));
+    ExecutionSimulator simulator = new ExecutionSimulator(CONFIG, Collections.emptyMap(), BANDWIDTH_IN_MB_PER_SEC, null,
+                                                          LEADERSHIP_MOVEMENT_LATENCY_MS);
+
+    // One movement at a time at the full bandwidth.
+    ExecutionSimulator.SimulationResult result = simulator.simulate(proposals, cluster(proposals), null, 1, null);
+    assertEquals(2, result.numInterBrokerReplicaMovements());
+    assertEquals(20000L, result.interBrokerReplicaMovementDurationMs());
+    // The leaderships move to the destination brokers in a single batch.
+    assertEquals(2, result.numLeadershipMovements());
+    assertEquals(20000L + LEADERSHIP_MOVEMENT_LATENCY_MS, result.durationMs());
+    assertEquals(1, result.peakNumInterBrokerReplicaMovementsByBroker().get(0).intValue());
+    assertEquals(BANDWIDTH_IN_MB_PER_SEC, result.peakMovementRateInMBPerSecByBroker().get(0), 1e-9);
+
+    // Both movements share the bandwidth of broker 0.
+    result = simulator.simulate(proposals, cluster(proposals), null, 2, null);
+    assertEquals(20000L, result.interBrokerReplicaMovementDurationMs());
+    assertEquals(2, result.peakNumInterBrokerReplicaMovementsByBroker().get(0).intValue());
+    assertEquals(1, result.peakNumInterBrokerReplicaMovementsByBroker().get(1).intValue());
+    assertEquals(BANDWIDTH_IN_MB_PER_SEC, result.peakMovementRateInMBPerSecByBroker().get(0), 1e-9);
+    assertEquals(BANDWIDTH_IN_MB_PER_SEC / 2, result.peakMovementRateInMBPerSecByBroker().get(1), 1e-9);
+
+    // The replication throttle caps the bandwidth of the brokers.
+    simulator = new ExecutionSimulator(CONFIG, Collections.emptyMap(), BANDWIDTH_IN_MB_PER_SEC, 5L * 1024 * 1024,
+                                       LEADERSHIP_MOVEMENT_LATENCY_MS);
+    result = simulator.simulate(proposals, cluster(proposals), null, 2, null);
+    assertEquals(40000L, result.interBrokerReplicaMovementDurationMs());
+  }
+
+  @Test
+  public void testTail() {
+    // Nine 10 MB movements and a 100 MB movement from broker 0 to broker 1.
+    List<ExecutionProposal> proposals = new ArrayList<>();
+    for (int partition = 0; partition < 10; partition++) {
+      proposals.add(proposal(partition, partition == 0 ? 100 : 10, Collections.singletonList(0), Collections.singletonList(1)));
+    }
+    ExecutionSimulator simulator = new ExecutionSimulator(CONFIG, Collections.emptyMap(), BANDWIDTH_IN_MB_PER_SEC, null,
+                                                          LEADERSHIP_MOVEMENT_LATENCY_MS);
+
+    // The small movements finish after 10 seconds, then the large movement moves its last 90 MB alone.
+    ExecutionSimulator.SimulationResult result = simulator.simulate(proposals, cluster(proposals), null, 10, null);
+    assertEquals(19000L, result.interBrokerReplicaMovementDurationMs());
+    assertEquals(9000L, result.tailDurationMs());
+  }
+
+  @Test
+  public void testLeadershipMovements() {
+    List<ExecutionProposal> proposals = Arrays.asList(proposal(0, 100, Arrays.asList(0, 1), Arrays.asList(1, 0)),
+                                                      proposal(1, 100, Arrays.asList(0, 2), Arrays.asList(2, 0)),
+                                                      proposal(2, 100, Arrays.asList(1, 2), Arrays.asList(2, 1)));
+    ExecutionSimulator simulator = new ExecutionSimulator(CONFIG, Collections.emptyMap(), BANDWIDTH_IN_MB_PER_SEC, null,
+                                                          LEADERSHIP_MOVEMENT_LATENCY_MS);
+
+    ExecutionSimulator.SimulationResult result = simulator.simulate(proposals, cluster(proposals), null, null, 2);
+    // Reordering the replicas moves no data.
+    assertEquals(3, result.numInterBrokerReplicaMovements());
+    assertEquals(0L, result.interBrokerReplicaMovementDurationMs());
+    assertEquals(3, result.numLeadershipMovements());
+    // Two batches of leadership movements.
+    assertEquals(2 * LEADERSHIP_MOVEMENT_LATENCY_MS, result.leadershipMovementDurationMs());
+    assertEquals(2 * LEADERSHIP_MOVEMENT_LATENCY_MS, result.durationMs());
+  }
+
+  @Test
+  public void testIntraBrokerReplicaMovements() {
+    // Broker 0 sends a 100 MB partition to broker 1, and moves the replica of another 100 MB partition between disks.
+    List<ExecutionProposal> proposals = Arrays.asList(
+        proposal(0, 100, Collections.singletonList(0), Collections.singletonList(1)),
+        new ExecutionProposal(new TopicPartition(TOPIC, 1), 100, new ReplicaPlacementInfo(0, "/d0"),
+                              Collections.singletonList(new ReplicaPlacementInfo(0, "/d0")),
+                              Collections.singletonList(new ReplicaPlacementInfo(0, "/d1"))));
+    ExecutionSimulator simulator = new ExecutionSimulator(CONFIG, Collections.emptyMap(), BANDWIDTH_IN_MB_PER_SEC, null,
+                                                          LEADERSHIP_MOVEMENT_LATENCY_MS);
+
+    // The intra-broker replica movement is not simulated.
+    ExecutionSimulator.SimulationResult result = simulator.simulate(proposals, cluster(proposals), null, 2, null);
+    assertEquals(1, result.numInterBrokerReplicaMovements());
+    assertEquals(10000L, result.interBrokerReplicaMovementDurationMs());
+    assertEquals(BANDWIDTH_IN_MB_PER_SEC, result.peakMovementRateInMBPerSecByBroker().get(0), 1e-9);
+  }
+
+  @Test
+  public void testVirtualTimeWaitObject() throws InterruptedException {
+    ExecutionSimulator.VirtualTime time = new ExecutionSimulator.VirtualTime();
+    Object lock = new Object();
+
+    // The clock advances until the condition holds.
+    time.waitObject(lock, () -> time.milliseconds() >= 100L, 1000L);
+    assertEquals(100L, time.milliseconds());
+
+    // The clock advances to the deadline if the condition never holds.
+    try {
+      time.waitObject(lock, () -> false, 1000L);
+      fail("Should have timed out.");
+    } catch (TimeoutException e) {
+      assertEquals(1100L, time.milliseconds());
+    }
+  }
+
+  private static ExecutionProposal proposal(int partition, long sizeInMB, List<Integer> oldReplicas, List<Integer> newReplicas) {
+    return new ExecutionProposal(new TopicPartition(TOPIC, partition), sizeInMB, new ReplicaPlacementInfo(oldReplicas.get(0)),
+                                 replicas(oldReplicas), replicas(newReplicas));
+  }
+
+  private static List<ReplicaPlacementInfo> replicas(List<Integer> brokerIds) {
+    List<ReplicaPlacementInfo> replicas = new ArrayList<>(brokerIds.size());
+    brokerIds.forEach(brokerId -> replicas.add(new ReplicaPlacementInfo(brokerId)));
+    return replicas;
+  }
+
+  private static Cluster cluster(List<ExecutionProposal> proposals) {
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (ExecutionProposal proposal : proposals) {
+      Node[] replicas = proposal.oldReplicas().stream().map(r -> NODES.get(r.brokerId())).toArray(Node[]::new);
+      partitions.add(new PartitionInfo(TOPIC, proposal.partitionId(), replicas[0], replicas, replicas));
+    }
+    return new Cluster("id", NODES, partitions, Collections.emptySet(), Collections.emptySet());
+  }
+}
@@ -24,6 +24,9 @@ import org.junit.Test;
 
 import static com.linkedin.kafka.cruisecontrol.executor.ExecutionTask.State.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 
 public class ExecutionTaskManagerTest {
@@ -82,6 +85,52 @@ public class ExecutionTaskManagerTest {
     }
   }
 
+  @Test
+  public void testPublishedExecutionTasksSummary() {
+    TopicPartition tp = new TopicPartition("topic", 0);
+    ExecutionTaskManager taskManager = new ExecutionTaskManager(null, new MetricRegistry(), new SystemTime(),
+            new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+    ReplicaPlacementInfo r0 = new ReplicaPlacementInfo(0);
+    ReplicaPlacementInfo r1 = new ReplicaPlacementInfo(1);
+    ReplicaPlacementInfo r2 = new ReplicaPlacementInfo(2);
+    ExecutionProposal proposal = new ExecutionProposal(tp, 10, r2, Arrays.asList(r0, r2), Arrays.asList(r2, r1));
+    taskManager.addExecutionProposals(Collections.singletonList(proposal), Collections.emptySet(),
+                                      generateExpectedCluster(proposal, tp), null);
+    Set<ExecutionTask.TaskType> types = Collections.singleton(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION);
+
+    Map<ExecutionTask.State, Set<ExecutionTask>> tasksByState =
+        taskManager.getExecutionTasksSummary(types).filteredTasksByState().get(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION);
+    assertEquals(1, tasksByState.get(PENDING).size());
+    // Unchanged non-pending task sets are not copied again.
+    ExecutionTaskTracker.ExecutionTasksSummary unchangedSummary = taskManager.getExecutionTasksSummary(types);
+    Map<ExecutionTask.State, Set<ExecutionTask>> unchangedTasksByState =
+        unchangedSummary.filteredTasksByState().get(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION);
+    assertSame(tasksByState.get(IN_PROGRESS), unchangedTasksByState.get(IN_PROGRESS));
+    assertSame(unchangedTasksByState, unchangedSummary.filteredTasksByState().get(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION));
+
+    // The published task sets are immutable and are not affected by the later state changes, even if the pending tasks
+    // are asked for after the changes.
+    ExecutionTaskTracker.ExecutionTasksSummary summaryBeforeChange = taskManager.getExecutionTasksSummary(types);
+    List<ExecutionTask> tasks = taskManager.getInterBrokerReplicaMovementTasks();
+    taskManager.markTasksInProgress(tasks);
+    Map<ExecutionTask.State, Set<ExecutionTask>> tasksByStateBeforeChange =
+        summaryBeforeChange.filteredTasksByState().get(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION);
+    assertEquals(tasks.get(0), tasksByStateBeforeChange.get(PENDING).iterator().next());
+    assertTrue(tasksByStateBeforeChange.get(IN_PROGRESS).isEmpty());
+    Map<ExecutionTask.State, Set<ExecutionTask>> updatedTasksByState =
+        taskManager.getExecutionTasksSummary(types).filteredTasksByState().get(ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION);
+    assertEquals(1, tasksByState.get(PENDING).size());
+    assertNotSame(tasksByState.get(PENDING), updatedTasksByState.get(PENDING));
+    assertTrue(updatedTasksByState.get(PENDING).isEmpty());
+    assertEquals(1, updatedTasksByState.get(IN_PROGRESS).size());
+    assertSame(tasksByState.get(DEAD), updatedTasksByState.get(DEAD));
+    assertEquals(1, taskManager.numInExecutionTasks());
+
+    taskManager.clear();
+    assertEquals(0, taskManager.numInExecutionTasks());
+    assertEquals(0, taskManager.numRemainingInterBrokerPartitionMovements());
+  }
+
   private void verifyStateChangeSequence(List<ExecutionTask.State> stateSequence,
                                          ExecutionTask task,
                                          ExecutionTaskManager taskManager) {
@@ -154,5 +203,6 @@ public class ExecutionTaskManagerTest {
         throw new IllegalArgumentException("Invalid state " + state);
     }
     assertEquals(state, task.state());
+    assertEquals(state == IN_PROGRESS || state == ABORTING ? 1 : 0, taskManager.numInExecutionTasks());
   }
 }
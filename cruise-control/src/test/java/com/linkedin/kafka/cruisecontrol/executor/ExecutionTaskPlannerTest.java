@@ -289,6 +289,54 @@ public class ExecutionTaskPlannerTest {
     assertEquals(0, planner.remainingIntraBrokerReplicaMovements().size());
   }
 
+  @Test
+  public void testGetIntraBrokerPartitionMovementTasksWithDiskConcurrency() throws Exception {
+    ReplicaPlacementInfo r0d0 = new ReplicaPlacementInfo(0, "d0");
+    ReplicaPlacementInfo r0d1 = new ReplicaPlacementInfo(0, "d1");
+    ReplicaPlacementInfo r0d2 = new ReplicaPlacementInfo(0, "d2");
+    ReplicaPlacementInfo r0d3 = new ReplicaPlacementInfo(0, "d3");
+    // Movements d0 -> d1, d0 -> d2 and d2 -> d3 on broker 0, in execution order.
+    List<ExecutionProposal> proposals = Arrays.asList(
+        new ExecutionProposal(new TopicPartition(TOPIC2, 0), 4, r0d0, Collections.singletonList(r0d0), Collections.singletonList(r0d1)),
+        new ExecutionProposal(new TopicPartition(TOPIC2, 1), 4, r0d0, Collections.singletonList(r0d0), Collections.singletonList(r0d2)),
+        new ExecutionProposal(new TopicPartition(TOPIC2, 2), 4, r0d2, Collections.singletonList(r0d2), Collections.singletonList(r0d3)));
+
+    Constructor<DescribeReplicaLogDirsResult> constructor1 = DescribeReplicaLogDirsResult.class.getDeclaredConstructor(Map.class);
+    constructor1.setAccessible(true);
+    Constructor<ReplicaLogDirInfo> constructor2 =
+        ReplicaLogDirInfo.class.getDeclaredConstructor(String.class, long.class, String.class, long.class);
+    constructor2.setAccessible(true);
+    Map<TopicPartitionReplica, KafkaFuture<ReplicaLogDirInfo>> futureByReplica = new HashMap<>();
+    for (ExecutionProposal proposal : proposals) {
+      futureByReplica.put(new TopicPartitionReplica(TOPIC2, proposal.partitionId(), 0),
+                          completedFuture(constructor2.newInstance(proposal.oldLeader().logdir(), 0L, null, -1L)));
+    }
+    AdminClient mockAdminClient = EasyMock.mock(AdminClient.class);
+    EasyMock.expect(mockAdminClient.describeReplicaLogDirs(anyObject()))
+            .andReturn(constructor1.newInstance(futureByReplica))
+            .anyTimes();
+    EasyMock.replay(mockAdminClient);
+
+    ExecutionTaskPlanner planner =
+        new ExecutionTaskPlanner(mockAdminClient, new KafkaCruiseControlConfig(KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties()));
+    planner.addExecutionProposals(proposals, Cluster.empty(), null);
+    assertEquals(3, planner.remainingIntraBrokerReplicaMovements().size());
+
+    // The second movement waits for the disk d0 of the first movement, while the third movement runs on disjoint disks.
+    List<ExecutionTask> tasks = planner.getIntraBrokerReplicaMovementTasks(Collections.singletonMap(0, 3), Collections.emptyMap(), 1);
+    assertEquals(2, tasks.size());
+    assertEquals(proposals.get(0), tasks.get(0).proposal());
+    assertEquals(proposals.get(2), tasks.get(1).proposal());
+    // No slot is available until the movements from the disk d0 are completed.
+    assertEquals(0, planner.getIntraBrokerReplicaMovementTasks(Collections.singletonMap(0, 3),
+                                                               Collections.singletonMap(0, Collections.singletonMap("d0", 1)),
+                                                               1).size());
+    tasks = planner.getIntraBrokerReplicaMovementTasks(Collections.singletonMap(0, 3),
+                                                       Collections.singletonMap(0, Collections.singletonMap("d2", 1)), 2);
+    assertEquals(1, tasks.size());
+    assertEquals(proposals.get(1), tasks.get(0).proposal());
+  }
+
   @Test
   public void testClear() {
     List<ExecutionProposal> proposals = new ArrayList<>();
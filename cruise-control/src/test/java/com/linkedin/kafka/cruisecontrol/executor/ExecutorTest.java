@@ -17,19 +17,28 @@ import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCKafkaIntegration
 import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
 import com.linkedin.kafka.cruisecontrol.detector.AnomalyDetector;
 import com.linkedin.kafka.cruisecontrol.monitor.LoadMonitor;
+import com.linkedin.kafka.cruisecontrol.monitor.LogDirInfoCache;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.NoopSampler;
 import com.linkedin.kafka.cruisecontrol.monitor.task.LoadMonitorTaskRunner;
 import com.linkedin.kafka.cruisecontrol.servlet.CruiseControlEndPoint;
 import com.linkedin.kafka.cruisecontrol.servlet.UserTaskManager;
+import java.io.File;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import kafka.zk.KafkaZkClient;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.AdminClientConfig;
@@ -42,6 +51,7 @@ import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.utils.MockTime;
 import org.apache.kafka.common.utils.SystemTime;
 import org.apache.kafka.common.utils.Time;
+import org.apache.kafka.common.utils.Utils;
 import org.easymock.Capture;
 import org.easymock.CaptureType;
 import org.easymock.EasyMock;
@@ -55,6 +65,8 @@ import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC2;
 import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC3;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.easymock.EasyMock.isA;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -100,6 +112,180 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
     }
   }
 
+  @Test
+  public void testPipelinedLeadershipMovement() throws InterruptedException, OngoingExecutionException {
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+                                                                              "ExecutorTestMetricGroup",
+                                                                              "PipelinedLeadershipMovement",
+                                                                              false);
+    try {
+      List<ExecutionProposal> proposalsToExecute = new ArrayList<>();
+      List<ExecutionProposal> proposalsToCheck = new ArrayList<>();
+      populateProposals(proposalsToExecute, proposalsToCheck);
+      Properties props = getExecutorProperties();
+      props.setProperty(ExecutorConfig.PIPELINED_LEADERSHIP_MOVEMENT_ENABLED_CONFIG, "true");
+      executeAndVerifyProposals(kafkaZkClient, proposalsToExecute, proposalsToCheck, props);
+      verifyLeadershipMovementPipeline(props);
+    } finally {
+      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(kafkaZkClient);
+    }
+  }
+
+  /**
+   * Execute leadership movements in a pipeline with a window of two in-flight movements, where the first started movement
+   * only completes once all the other movements have completed. The metadata is faked so that a movement completes as soon as
+   * its preferred leader election is started.
+   */
+  private void verifyLeadershipMovementPipeline(Properties props) throws InterruptedException, OngoingExecutionException {
+    final int numPartitions = 4;
+    final int leadershipMovementConcurrency = 2;
+    AdminClient adminClient = KafkaCruiseControlUtils.createAdminClient(Collections.singletonMap(
+        AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker(0).plaintextAddr()));
+    try {
+      adminClient.createTopics(Collections.singleton(new NewTopic(TOPIC2, numPartitions, (short) 2)));
+    } finally {
+      KafkaCruiseControlUtils.closeAdminClientWithTimeout(adminClient);
+    }
+    Node node0 = new Node(0, "host0", 100);
+    Node node1 = new Node(1, "host1", 100);
+    Node[] replicas = {node0, node1};
+    // The leader of each partition moves from broker 1 to broker 0.
+    Map<TopicPartition, PartitionInfo> partitionInfoByTp = new ConcurrentHashMap<>();
+    List<ExecutionProposal> proposalsToExecute = new ArrayList<>();
+    for (int partition = 0; partition < numPartitions; partition++) {
+      TopicPartition tp = new TopicPartition(TOPIC2, partition);
+      partitionInfoByTp.put(tp, new PartitionInfo(TOPIC2, partition, node1, replicas, replicas));
+      proposalsToExecute.add(new ExecutionProposal(tp, 0, new ReplicaPlacementInfo(1),
+                                                   Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+                                                   Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1))));
+    }
+    AtomicReference<TopicPartition> slowTp = new AtomicReference<>();
+    Supplier<Cluster> clusterSupplier = () -> new Cluster("id", Arrays.asList(node0, node1), partitionInfoByTp.values(),
+                                                          Collections.emptySet(), Collections.emptySet());
+    MetadataClient mockMetadataClient = EasyMock.createMock(MetadataClient.class);
+    EasyMock.expect(mockMetadataClient.refreshMetadata())
+            .andAnswer(() -> new MetadataClient.ClusterAndGeneration(clusterSupplier.get(), 0)).anyTimes();
+    EasyMock.expect(mockMetadataClient.cluster()).andAnswer(clusterSupplier::get).anyTimes();
+    EasyMock.replay(mockMetadataClient);
+
+    Executor executor = new Executor(new KafkaCruiseControlConfig(props), new SystemTime(), new MetricRegistry(),
+                                     mockMetadataClient, DEMOTION_HISTORY_RETENTION_TIME_MS, REMOVAL_HISTORY_RETENTION_TIME_MS,
+                                     null, getMockUserTaskManager(RANDOM_UUID), getMockAnomalyDetector(RANDOM_UUID));
+    executor.setExecutionMode(false);
+    List<Set<TopicPartition>> elections = new CopyOnWriteArrayList<>();
+    executor.setLeaderElectionObserver(tasks -> {
+      slowTp.compareAndSet(null, tasks.get(0).proposal().topicPartition());
+      Set<TopicPartition> electedPartitions = new HashSet<>();
+      for (ExecutionTask task : tasks) {
+        TopicPartition tp = task.proposal().topicPartition();
+        electedPartitions.add(tp);
+        if (!tp.equals(slowTp.get())) {
+          partitionInfoByTp.put(tp, new PartitionInfo(TOPIC2, tp.partition(), node0, replicas, replicas));
+        }
+      }
+      elections.add(electedPartitions);
+      // The slow movement completes once all the other movements have completed.
+      if (elections.stream().flatMap(Set::stream).distinct().count() == numPartitions) {
+        partitionInfoByTp.put(slowTp.get(), new PartitionInfo(TOPIC2, slowTp.get().partition(), node0, replicas, replicas));
+      }
+    });
+
+    executor.executeProposals(proposalsToExecute, Collections.emptySet(), null, getMockLoadMonitor(), null, null,
+                              leadershipMovementConcurrency, null, null, null, true, RANDOM_UUID, () -> "");
+    waitUntilExecutionFinishes(executor);
+
+    // All the leadership movements have completed.
+    for (PartitionInfo partitionInfo : partitionInfoByTp.values()) {
+      assertEquals(0, partitionInfo.leader().id());
+    }
+    // The number of in-flight movements of an election never exceeds the window.
+    assertTrue(elections.size() > 1);
+    for (Set<TopicPartition> electedPartitions : elections) {
+      assertTrue("Election " + electedPartitions + " exceeds the window.", electedPartitions.size() <= leadershipMovementConcurrency);
+    }
+    // New movements are started while the slow movement of the first election is still in flight.
+    assertTrue(elections.get(0).contains(slowTp.get()));
+    Set<TopicPartition> startedPartitions = new HashSet<>(elections.get(0));
+    boolean startedWithInFlightMovement = false;
+    for (Set<TopicPartition> electedPartitions : elections.subList(1, elections.size())) {
+      if (electedPartitions.contains(slowTp.get()) && !startedPartitions.containsAll(electedPartitions)) {
+        startedWithInFlightMovement = true;
+      }
+      startedPartitions.addAll(electedPartitions);
+    }
+    assertTrue("No election started new movements along with an in-flight one: " + elections, startedWithInFlightMovement);
+  }
+
+  @Test
+  public void testResumeJournaledExecution() throws Exception {
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+                                                                              "ExecutorTestMetricGroup",
+                                                                              "ResumeJournaledExecution",
+                                                                              false);
+    File journalDir = Files.createTempDirectory("execution-journal").toFile();
+    try {
+      List<ExecutionProposal> proposalsToExecute = new ArrayList<>();
+      List<ExecutionProposal> proposalsToCheck = new ArrayList<>();
+      populateProposals(proposalsToExecute, proposalsToCheck);
+      // Journal the proposals as if Cruise Control was restarted right after starting the execution.
+      ExecutionJournal journal = new ExecutionJournal(journalDir.getAbsolutePath(), new SystemTime());
+      journal.write(new ExecutionJournal.Entry(RANDOM_UUID, "test", null, null, null, null, proposalsToExecute,
+                                               Collections.emptySet(), Collections.emptyMap()), Collections.emptyMap());
+
+      Properties props = getExecutorProperties();
+      props.setProperty(ExecutorConfig.EXECUTION_JOURNAL_DIR_CONFIG, journalDir.getAbsolutePath());
+      ExecutorNotifier mockExecutorNotifier = EasyMock.createNiceMock(ExecutorNotifier.class);
+      EasyMock.replay(mockExecutorNotifier);
+      Executor executor = new Executor(new KafkaCruiseControlConfig(props), new SystemTime(), new MetricRegistry(), null,
+                                       DEMOTION_HISTORY_RETENTION_TIME_MS, REMOVAL_HISTORY_RETENTION_TIME_MS,
+                                       mockExecutorNotifier, null, getMockAnomalyDetector(RANDOM_UUID));
+      executor.setExecutionMode(false);
+
+      assertTrue(executor.resumeJournaledExecution(getMockLoadMonitor()));
+      waitUntilExecutionFinishes(executor);
+
+      for (ExecutionProposal proposal : proposalsToCheck) {
+        TopicPartition tp = proposal.topicPartition();
+        for (ReplicaPlacementInfo r : proposal.newReplicas()) {
+          assertTrue("The partition should have moved for " + tp,
+                     kafkaZkClient.getReplicasForPartition(tp).contains(r.brokerId()));
+        }
+        assertEquals("The leader should have moved for " + tp,
+                     proposal.newLeader().brokerId(), kafkaZkClient.getLeaderForPartition(tp).get());
+      }
+      // The journal is deleted once the resumed execution finishes, so it is not resumed again.
+      assertNull(journal.read());
+      assertFalse(executor.resumeJournaledExecution(getMockLoadMonitor()));
+    } finally {
+      KafkaCruiseControlUtils.closeKafkaZkClientWithTimeout(kafkaZkClient);
+      Utils.delete(journalDir);
+    }
+  }
+
+  @Test
+  public void testRequestedConcurrencyStopsConcurrencyAdjuster() throws InterruptedException, OngoingExecutionException {
+    List<ExecutionProposal> proposalsToExecute = new ArrayList<>();
+    populateProposals(proposalsToExecute, new ArrayList<>());
+    Properties props = getExecutorProperties();
+    props.setProperty(ExecutorConfig.CONCURRENCY_ADJUSTER_ENABLED_CONFIG, "true");
+    ExecutorNotifier mockExecutorNotifier = EasyMock.createNiceMock(ExecutorNotifier.class);
+    UserTaskManager mockUserTaskManager = EasyMock.createNiceMock(UserTaskManager.class);
+    EasyMock.replay(mockExecutorNotifier, mockUserTaskManager);
+    Executor executor = new Executor(new KafkaCruiseControlConfig(props), new SystemTime(), new MetricRegistry(), null,
+                                     DEMOTION_HISTORY_RETENTION_TIME_MS, REMOVAL_HISTORY_RETENTION_TIME_MS,
+                                     mockExecutorNotifier, mockUserTaskManager, getMockAnomalyDetector(RANDOM_UUID));
+    executor.setExecutionMode(false);
+
+    executor.executeProposals(proposalsToExecute, Collections.emptySet(), null, getMockLoadMonitor(), null,
+                              null, null, null, null, null, true, RANDOM_UUID, () -> "");
+    assertTrue(executor.isConcurrencyAdjusterActive());
+    // A concurrency change by the user disables the adjuster for the rest of the execution.
+    executor.setRequestedInterBrokerPartitionMovementConcurrency(3);
+    assertFalse(executor.isConcurrencyAdjusterActive());
+    waitUntilExecutionFinishes(executor);
+    assertFalse(executor.isConcurrencyAdjusterActive());
+  }
+
   @Test
   public void testBrokerDiesWhenMovePartitions() throws Exception {
     KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
@@ -172,6 +358,7 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
     expectLastCall().anyTimes();
     mockLoadMonitor.resumeMetricSampling(isA(String.class));
     expectLastCall().anyTimes();
+    EasyMock.expect(mockLoadMonitor.logDirInfoCache()).andReturn(EasyMock.createNiceMock(LogDirInfoCache.class)).anyTimes();
     EasyMock.replay(mockLoadMonitor);
 
     Collection<ExecutionProposal> proposalsToExecute = Collections.singletonList(proposal);
@@ -193,7 +380,8 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
                               RANDOM_UUID,
                               () -> "");
     // Wait until the execution to start so the task timestamp is set to time.milliseconds.
-    while (executor.state().state() != ExecutorState.State.LEADER_MOVEMENT_TASK_IN_PROGRESS) {
+    while (executor.state().state() != ExecutorState.State.LEADER_MOVEMENT_TASK_IN_PROGRESS
+           || executor.inExecutionTasks().isEmpty()) {
       Thread.sleep(10);
     }
     // Sleep over 180000 (the hard coded timeout) with some margin for inter-thread synchronization.
@@ -331,7 +519,15 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
                                          Collection<ExecutionProposal> proposalsToExecute,
                                          Collection<ExecutionProposal> proposalsToCheck)
       throws OngoingExecutionException {
-    KafkaCruiseControlConfig configs = new KafkaCruiseControlConfig(getExecutorProperties());
+    executeAndVerifyProposals(kafkaZkClient, proposalsToExecute, proposalsToCheck, getExecutorProperties());
+  }
+
+  private void executeAndVerifyProposals(KafkaZkClient kafkaZkClient,
+                                         Collection<ExecutionProposal> proposalsToExecute,
+                                         Collection<ExecutionProposal> proposalsToCheck,
+                                         Properties props)
+      throws OngoingExecutionException {
+    KafkaCruiseControlConfig configs = new KafkaCruiseControlConfig(props);
     UserTaskManager.UserTaskInfo mockUserTaskInfo = EasyMock.mock(UserTaskManager.UserTaskInfo.class);
     UserTaskManager mockUserTaskManager = EasyMock.mock(UserTaskManager.class);
     ExecutorNotifier mockExecutorNotifier = EasyMock.mock(ExecutorNotifier.class);
@@ -351,15 +547,7 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
                                      REMOVAL_HISTORY_RETENTION_TIME_MS, mockExecutorNotifier, mockUserTaskManager,
                                      getMockAnomalyDetector(RANDOM_UUID));
     executor.setExecutionMode(false);
-    LoadMonitor mockLoadMonitor = EasyMock.mock(LoadMonitor.class);
-    EasyMock.expect(mockLoadMonitor.taskRunnerState())
-            .andReturn(LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.RUNNING)
-            .anyTimes();
-    mockLoadMonitor.pauseMetricSampling(isA(String.class));
-    expectLastCall().anyTimes();
-    mockLoadMonitor.resumeMetricSampling(isA(String.class));
-    expectLastCall().anyTimes();
-    EasyMock.replay(mockLoadMonitor);
+    LoadMonitor mockLoadMonitor = getMockLoadMonitor();
 
     executor.executeProposals(proposalsToExecute, Collections.emptySet(), null, mockLoadMonitor, null,
                               null, null, null,
@@ -396,6 +584,20 @@ public class ExecutorTest extends CCKafkaIntegrationTestHarness {
     }
   }
 
+  private LoadMonitor getMockLoadMonitor() {
+    LoadMonitor mockLoadMonitor = EasyMock.mock(LoadMonitor.class);
+    EasyMock.expect(mockLoadMonitor.taskRunnerState())
+            .andReturn(LoadMonitorTaskRunner.LoadMonitorTaskRunnerState.RUNNING)
+            .anyTimes();
+    mockLoadMonitor.pauseMetricSampling(isA(String.class));
+    expectLastCall().anyTimes();
+    mockLoadMonitor.resumeMetricSampling(isA(String.class));
+    expectLastCall().anyTimes();
+    EasyMock.expect(mockLoadMonitor.logDirInfoCache()).andReturn(EasyMock.createNiceMock(LogDirInfoCache.class)).anyTimes();
+    EasyMock.replay(mockLoadMonitor);
+    return mockLoadMonitor;
+  }
+
   private void waitUntilExecutionFinishes(Executor executor) {
     long now = System.currentTimeMillis();
     while ((executor.hasOngoingExecution() || executor.state().state() != ExecutorState.State.NO_TASK_IN_PROGRESS)
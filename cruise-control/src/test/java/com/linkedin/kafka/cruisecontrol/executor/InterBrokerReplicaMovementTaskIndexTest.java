@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor;
+
+import com.linkedin.kafka.cruisecontrol.executor.strategy.BaseReplicaMovementStrategy;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+
+/**
+ * Unit test for {@link InterBrokerReplicaMovementTaskIndex}.
+ */
+public class InterBrokerReplicaMovementTaskIndexTest {
+  private static final String TOPIC = "topic";
+  private static final long ALERTING_THRESHOLD_MS = 100L;
+  // Tasks of broker 0, in execution order.
+  private static final ExecutionTask TASK0 = task(0, 0, 1);
+  private static final ExecutionTask TASK1 = task(1, 0, 2);
+  private static final ExecutionTask TASK2 = task(2, 3, 0);
+  private static final ExecutionTask TASK3 = task(3, 0, 1);
+
+  @Test
+  public void testFirstExecutableTask() {
+    InterBrokerReplicaMovementTaskIndex index = new InterBrokerReplicaMovementTaskIndex(
+        new BaseReplicaMovementStrategy().applyStrategy(new HashSet<>(Arrays.asList(TASK0, TASK1, TASK2, TASK3)), Cluster.empty()));
+
+    assertEquals(TASK0, index.firstExecutableTask(0, b -> true, tp -> true));
+    // Skip the tasks with an unavailable partner broker.
+    assertEquals(TASK1, index.firstExecutableTask(0, b -> b != 1, tp -> true));
+    assertEquals(TASK2, index.firstExecutableTask(0, b -> b == 3, tp -> true));
+    assertNull(index.firstExecutableTask(0, b -> false, tp -> true));
+    // Skip the tasks with an unavailable partition.
+    assertEquals(TASK3, index.firstExecutableTask(0, b -> b == 1, tp -> tp.partition() != 0));
+    // Removed tasks are not executable anymore.
+    index.remove(TASK0);
+    assertEquals(TASK1, index.firstExecutableTask(0, b -> true, tp -> true));
+    assertEquals(TASK3, index.firstExecutableTask(1, b -> true, tp -> true));
+    assertNull(index.firstExecutableTask(4, b -> true, tp -> true));
+  }
+
+  private static ExecutionTask task(int partition, int sourceBrokerId, int destinationBrokerId) {
+    ReplicaPlacementInfo source = new ReplicaPlacementInfo(sourceBrokerId);
+    ExecutionProposal proposal = new ExecutionProposal(new TopicPartition(TOPIC, partition), 1L, source,
+                                                       Collections.singletonList(source),
+                                                       Collections.singletonList(new ReplicaPlacementInfo(destinationBrokerId)));
+    return new ExecutionTask(partition, proposal, ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION, ALERTING_THRESHOLD_MS);
+  }
+}
@@ -5,6 +5,7 @@
 package com.linkedin.kafka.cruisecontrol.executor;
 
 import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUtils;
+import com.linkedin.kafka.cruisecontrol.common.Resource;
 import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCKafkaIntegrationTestHarness;
 import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
 import kafka.server.ConfigType;
@@ -21,7 +22,9 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -100,6 +103,13 @@ public class ReplicationThrottleHelperTest extends CCKafkaIntegrationTestHarness
     assertEquals(expectedString, brokerConfig.getProperty(ReplicationThrottleHelper.FOLLOWER_THROTTLED_RATE));
   }
 
+  private void assertExpectedThrottledRatesForBroker(KafkaZkClient kafkaZkClient, int broker, long expectedLeaderRate,
+                                                    long expectedFollowerRate) {
+    Properties brokerConfig = kafkaZkClient.getEntityConfigs(ConfigType.Broker(), String.valueOf(broker));
+    assertEquals(String.valueOf(expectedLeaderRate), brokerConfig.getProperty(ReplicationThrottleHelper.LEADER_THROTTLED_RATE));
+    assertEquals(String.valueOf(expectedFollowerRate), brokerConfig.getProperty(ReplicationThrottleHelper.FOLLOWER_THROTTLED_RATE));
+  }
+
   private void assertExpectedThrottledReplicas(KafkaZkClient kafkaZkClient, String topic, String expectedReplicas) {
     Properties topicConfig = kafkaZkClient.getEntityConfigs(ConfigType.Topic(), topic);
     assertEquals(expectedReplicas, topicConfig.getProperty(ReplicationThrottleHelper.LEADER_THROTTLED_REPLICAS));
@@ -269,6 +279,165 @@ public class ReplicationThrottleHelperTest extends CCKafkaIntegrationTestHarness
     assertExpectedThrottledReplicas(kafkaZkClient, TOPIC0, null);
   }
 
+  @Test
+  public void testPerBrokerThrottleRates() {
+    createTopics();
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+        "ReplicationThrottleHelperTestMetricGroup",
+        "PerBrokerThrottleRates",
+            false);
+
+    final long throttleRate = 100L;
+    final long broker0LeaderThrottleRate = 300L;
+    final long broker2FollowerThrottleRate = 400L;
+
+    ReplicationThrottleHelper throttleHelper = new ReplicationThrottleHelper(kafkaZkClient, throttleRate,
+        Collections.singletonMap(0, broker0LeaderThrottleRate), Collections.singletonMap(2, broker2FollowerThrottleRate));
+    ExecutionProposal proposal = new ExecutionProposal(
+        new TopicPartition(TOPIC0, 0),
+        100,
+        new ReplicaPlacementInfo(0),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(2)));
+
+    throttleHelper.setThrottles(Collections.singletonList(proposal));
+
+    // Brokers without a throttle of their own use the given throttle.
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 0, broker0LeaderThrottleRate, throttleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 1, throttleRate);
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 2, throttleRate, broker2FollowerThrottleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 3, null);
+
+    throttleHelper.clearThrottles(Collections.singletonList(completedTaskForProposal(0, proposal)), Collections.emptyList());
+    Arrays.asList(0, 1, 2, 3).forEach((i) -> assertExpectedThrottledRateForBroker(kafkaZkClient, i, null));
+  }
+
+  @Test
+  public void testRestoreThrottlesRemovedOutsideCruiseControl() {
+    createTopics();
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+        "ReplicationThrottleHelperTestMetricGroup",
+        "RestoreThrottlesRemovedOutsideCruiseControl",
+            false);
+
+    final long throttleRate = 100L;
+    final long changedThrottleRate = 500L;
+
+    ReplicationThrottleHelper throttleHelper = new ReplicationThrottleHelper(kafkaZkClient, throttleRate);
+    ExecutionProposal proposal = new ExecutionProposal(
+        new TopicPartition(TOPIC0, 0),
+        100,
+        new ReplicaPlacementInfo(0),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(2)));
+
+    ExecutionProposal proposal2 = new ExecutionProposal(
+        new TopicPartition(TOPIC0, 1),
+        100,
+        new ReplicaPlacementInfo(0),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(3)),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(2)));
+
+    throttleHelper.setThrottles(Collections.singletonList(proposal));
+    // Remove the throttles of broker 1 and of the topic, and change the throttle of broker 2 behind the back of the
+    // throttle helper.
+    AdminZkClient adminZkClient = new AdminZkClient(kafkaZkClient);
+    ExecutorUtils.changeBrokerConfig(adminZkClient, 1, new Properties());
+    Properties broker2Config = new Properties();
+    broker2Config.setProperty(ReplicationThrottleHelper.LEADER_THROTTLED_RATE, String.valueOf(changedThrottleRate));
+    broker2Config.setProperty(ReplicationThrottleHelper.FOLLOWER_THROTTLED_RATE, String.valueOf(changedThrottleRate));
+    ExecutorUtils.changeBrokerConfig(adminZkClient, 2, broker2Config);
+    ExecutorUtils.changeTopicConfig(adminZkClient, TOPIC0, new Properties());
+
+    // The removed throttles of the in-flight movements are set again, and the changed throttle is kept.
+    throttleHelper.setThrottles(Collections.singletonList(proposal2));
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 0, throttleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 1, throttleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 2, changedThrottleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 3, throttleRate);
+    assertExpectedThrottledReplicas(kafkaZkClient, TOPIC0, "0:0,0:1,0:2,1:0,1:2,1:3");
+
+    throttleHelper.clearThrottles(Arrays.asList(completedTaskForProposal(0, proposal), completedTaskForProposal(1, proposal2)),
+                                  Collections.emptyList());
+    Arrays.asList(0, 1, 2, 3).forEach((i) -> assertExpectedThrottledRateForBroker(kafkaZkClient, i, null));
+    assertExpectedThrottledReplicas(kafkaZkClient, TOPIC0, null);
+  }
+
+  @Test
+  public void testThrottleRatesFollowInFlightMovements() {
+    createTopics();
+    KafkaZkClient kafkaZkClient = KafkaCruiseControlUtils.createKafkaZkClient(zookeeper().connectionString(),
+        "ReplicationThrottleHelperTestMetricGroup",
+        "ThrottleRatesFollowInFlightMovements",
+            false);
+
+    final long maxThrottleRate = 1000L;
+    final long broker0LeaderThrottleRate = 300L;
+    final long minThrottleRate = 200L;
+    Map<Integer, Long> leaderThrottleRateByBroker = new HashMap<>();
+    Map<Integer, Long> followerThrottleRateByBroker = new HashMap<>();
+    for (int brokerId = 0; brokerId < clusterSize(); brokerId++) {
+      leaderThrottleRateByBroker.put(brokerId, maxThrottleRate);
+      followerThrottleRateByBroker.put(brokerId, maxThrottleRate);
+    }
+    leaderThrottleRateByBroker.put(0, broker0LeaderThrottleRate);
+
+    ReplicationThrottleHelper throttleHelper = new ReplicationThrottleHelper(kafkaZkClient, null, leaderThrottleRateByBroker,
+                                                                             followerThrottleRateByBroker, minThrottleRate);
+    // Broker 0 sends the data of both movements, to broker 2 and broker 3.
+    ExecutionProposal proposal = new ExecutionProposal(
+        new TopicPartition(TOPIC0, 0),
+        100,
+        new ReplicaPlacementInfo(0),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(2)));
+
+    ExecutionProposal proposal2 = new ExecutionProposal(
+        new TopicPartition(TOPIC0, 1),
+        100,
+        new ReplicaPlacementInfo(0),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(1)),
+        Arrays.asList(new ReplicaPlacementInfo(0), new ReplicaPlacementInfo(3)));
+
+    throttleHelper.setThrottles(Arrays.asList(proposal, proposal2));
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 0, broker0LeaderThrottleRate, maxThrottleRate);
+    // Broker 1 neither sends nor receives data, but its throttles apply to the replication of the moved partitions.
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 1, maxThrottleRate, maxThrottleRate);
+    // Each receiver gets half of the leader throttle of broker 0, but at least the minimum throttle rate.
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 2, maxThrottleRate, minThrottleRate);
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 3, maxThrottleRate, minThrottleRate);
+
+    // Once the first movement finishes, the remaining receiver gets all of the leader throttle of broker 0.
+    throttleHelper.clearThrottles(Collections.singletonList(completedTaskForProposal(0, proposal)),
+                                  Collections.singletonList(inProgressTaskForProposal(1, proposal2)));
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 0, broker0LeaderThrottleRate, maxThrottleRate);
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 1, maxThrottleRate, maxThrottleRate);
+    assertExpectedThrottledRateForBroker(kafkaZkClient, 2, null);
+    assertExpectedThrottledRatesForBroker(kafkaZkClient, 3, maxThrottleRate, broker0LeaderThrottleRate);
+
+    throttleHelper.clearThrottles(Collections.singletonList(completedTaskForProposal(1, proposal2)), Collections.emptyList());
+    Arrays.asList(0, 1, 2, 3).forEach((i) -> assertExpectedThrottledRateForBroker(kafkaZkClient, i, null));
+  }
+
+  @Test
+  public void testThrottleRateByBroker() {
+    final long minThrottleRate = 1024L;
+    Map<Integer, double[]> spareNetworkCapacityByBroker = new HashMap<>();
+    double[] broker0SpareNetworkCapacity = new double[Resource.cachedValues().size()];
+    broker0SpareNetworkCapacity[Resource.NW_IN.id()] = 10.0;
+    broker0SpareNetworkCapacity[Resource.NW_OUT.id()] = 0.5;
+    spareNetworkCapacityByBroker.put(0, broker0SpareNetworkCapacity);
+
+    Map<Integer, Long> followerThrottleRateByBroker =
+        ReplicationThrottleHelper.throttleRateByBroker(spareNetworkCapacityByBroker, Resource.NW_IN, minThrottleRate);
+    Map<Integer, Long> leaderThrottleRateByBroker =
+        ReplicationThrottleHelper.throttleRateByBroker(spareNetworkCapacityByBroker, Resource.NW_OUT, minThrottleRate);
+    // The spare network capacity is in KB/s.
+    assertEquals(Collections.singletonMap(0, 10240L), followerThrottleRateByBroker);
+    // The throttle rate is at least the minimum throttle rate.
+    assertEquals(Collections.singletonMap(0, minThrottleRate), leaderThrottleRateByBroker);
+  }
+
   @Test
   public void testRemoveReplicasFromConfigTest() {
     Set<String> replicas = new LinkedHashSet<>();
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.executor.strategy;
+
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionProposal;
+import com.linkedin.kafka.cruisecontrol.executor.ExecutionTask;
+import com.linkedin.kafka.cruisecontrol.model.ReplicaPlacementInfo;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Unit test for {@link PrioritizeBottleneckBrokerReplicaMovementStrategy}.
+ */
+public class PrioritizeBottleneckBrokerReplicaMovementStrategyTest {
+  private static final String TOPIC = "topic";
+  private static final long ALERTING_THRESHOLD_MS = 100L;
+  // Broker 0 is the bottleneck broker with 6 MB to move out, brokers 1 and 3 each have 5 MB and broker 2 has 2 MB to move.
+  private static final ExecutionTask TASK0 = task(0, 2L, 0, 1);
+  private static final ExecutionTask TASK1 = task(1, 2L, 0, 2);
+  private static final ExecutionTask TASK2 = task(2, 3L, 3, 1);
+  private static final ExecutionTask TASK3 = task(3, 2L, 0, 3);
+  private static final Set<ExecutionTask> TASKS = new HashSet<>(Arrays.asList(TASK0, TASK1, TASK2, TASK3));
+
+  @Test
+  public void testBottleneckBrokerFirst() {
+    ReplicaMovementStrategy strategy = new PrioritizeBottleneckBrokerReplicaMovementStrategy();
+    strategy.prepare(TASKS, Cluster.empty());
+    // The smaller tasks of the bottleneck broker go before the larger task of the other brokers.
+    assertEquals(1, strategy.taskComparator(Cluster.empty()).compare(TASK2, TASK0));
+    assertEquals(1, strategy.taskComparator(Cluster.empty()).compare(TASK2, TASK3));
+  }
+
+  @Test
+  public void testChainedStrategyResolvesTies() {
+    // Tasks of broker 0 tie on the bottleneck broker and the size, so the chained strategy must break the ties.
+    ReplicaMovementStrategy strategy =
+        new PrioritizeBottleneckBrokerReplicaMovementStrategy().chain(new BaseReplicaMovementStrategy());
+    Map<Integer, SortedSet<ExecutionTask>> tasksByBrokerId = strategy.applyStrategy(TASKS, Cluster.empty());
+
+    assertEquals(Arrays.asList(TASK0, TASK1, TASK3), Arrays.asList(tasksByBrokerId.get(0).toArray()));
+    assertEquals(Arrays.asList(TASK0, TASK2), Arrays.asList(tasksByBrokerId.get(1).toArray()));
+    assertEquals(Collections.singletonList(TASK1), Arrays.asList(tasksByBrokerId.get(2).toArray()));
+    assertEquals(Arrays.asList(TASK3, TASK2), Arrays.asList(tasksByBrokerId.get(3).toArray()));
+  }
+
+  /**
+   * @param partition The partition of the task.
+   * @param sizeInMB The size of the partition in MB.
+   * @param sourceBrokerId The broker to move the single replica of the partition out of.
+   * @param destinationBrokerId The broker to move the single replica of the partition to.
+   * @return An inter-broker replica movement task of a single replica partition.
+   */
+  private static ExecutionTask task(int partition, long sizeInMB, int sourceBrokerId, int destinationBrokerId) {
+    ReplicaPlacementInfo source = new ReplicaPlacementInfo(sourceBrokerId);
+    ExecutionProposal proposal = new ExecutionProposal(new TopicPartition(TOPIC, partition), sizeInMB, source,
+                                                       Collections.singletonList(source),
+                                                       Collections.singletonList(new ReplicaPlacementInfo(destinationBrokerId)));
+    return new ExecutionTask(partition, proposal, ExecutionTask.TaskType.INTER_BROKER_REPLICA_ACTION, ALERTING_THRESHOLD_MS);
+  }
+}
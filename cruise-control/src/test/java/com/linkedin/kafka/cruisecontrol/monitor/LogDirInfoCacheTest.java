@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor;
+
+import com.linkedin.kafka.cruisecontrol.common.MetadataClient;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.DescribeLogDirsResult;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.internals.KafkaFutureImpl;
+import org.apache.kafka.common.protocol.Errors;
+import org.apache.kafka.common.requests.DescribeLogDirsResponse;
+import org.apache.kafka.common.utils.MockTime;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link LogDirInfoCache}.
+ */
+public class LogDirInfoCacheTest {
+  private static final long TTL_MS = 1000L;
+  private static final long RESPONSE_TIMEOUT_MS = 100L;
+  private static final Cluster CLUSTER = new Cluster("id", Arrays.asList(new Node(0, "host0", 0), new Node(1, "host1", 0)),
+                                                     Collections.emptyList(), Collections.emptySet(), Collections.emptySet());
+
+  @Test
+  public void testReuseUntilExpiredOrMetadataChanged() {
+    AdminClient mockAdminClient = EasyMock.mock(AdminClient.class);
+    EasyMock.expect(mockAdminClient.describeLogDirs(EasyMock.anyObject())).andReturn(describeLogDirsResult(true, true)).times(3);
+    EasyMock.replay(mockAdminClient);
+
+    MockTime time = new MockTime(0L);
+    LogDirInfoCache cache = new LogDirInfoCache(mockAdminClient, time, TTL_MS, RESPONSE_TIMEOUT_MS);
+    assertEquals(2, cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 0)).size());
+    // Reused within the ttl and the same cluster generation.
+    time.sleep(TTL_MS - 1);
+    assertEquals(2, cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 0)).size());
+    // Described again after the ttl.
+    time.sleep(1);
+    assertEquals(2, cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 0)).size());
+    // Described again after the cluster generation changed.
+    assertEquals(2, cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 1)).size());
+    EasyMock.verify(mockAdminClient);
+  }
+
+  @Test
+  public void testFailedBrokerDoesNotFailOtherBrokers() {
+    AdminClient mockAdminClient = EasyMock.mock(AdminClient.class);
+    EasyMock.expect(mockAdminClient.describeLogDirs(EasyMock.anyObject())).andReturn(describeLogDirsResult(true, true));
+    // Broker 1 fails to respond after its cached logdir information expires.
+    EasyMock.expect(mockAdminClient.describeLogDirs(EasyMock.anyObject())).andReturn(describeLogDirsResult(true, false)).times(2);
+    EasyMock.replay(mockAdminClient);
+
+    MockTime time = new MockTime(0L);
+    LogDirInfoCache cache = new LogDirInfoCache(mockAdminClient, time, TTL_MS, RESPONSE_TIMEOUT_MS);
+    cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 0));
+    time.sleep(TTL_MS);
+    // The expired logdir information of broker 1 is used because the cluster generation has not changed.
+    Map<Integer, Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirInfo =
+        cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 0));
+    assertEquals(2, logDirInfo.size());
+    // Broker 1 is left out once the cluster generation has changed.
+    logDirInfo = cache.logDirInfo(new MetadataClient.ClusterAndGeneration(CLUSTER, 1));
+    assertEquals(1, logDirInfo.size());
+    assertTrue(logDirInfo.containsKey(0));
+    EasyMock.verify(mockAdminClient);
+  }
+
+  private static DescribeLogDirsResult describeLogDirsResult(boolean broker0Responds, boolean broker1Responds) {
+    Map<Integer, KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>>> futureByBroker = new HashMap<>();
+    futureByBroker.put(0, logDirInfoFuture(broker0Responds));
+    futureByBroker.put(1, logDirInfoFuture(broker1Responds));
+    try {
+      // Reflectively set DescribeLogDirsResult's constructor from package private to public.
+      Constructor<DescribeLogDirsResult> constructor = DescribeLogDirsResult.class.getDeclaredConstructor(Map.class);
+      constructor.setAccessible(true);
+      return constructor.newInstance(futureByBroker);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static KafkaFuture<Map<String, DescribeLogDirsResponse.LogDirInfo>> logDirInfoFuture(boolean responds) {
+    KafkaFutureImpl<Map<String, DescribeLogDirsResponse.LogDirInfo>> future = new KafkaFutureImpl<>();
+    if (responds) {
+      future.complete(Collections.singletonMap("/tmp/kafka-logs",
+                                               new DescribeLogDirsResponse.LogDirInfo(Errors.NONE, Collections.emptyMap())));
+    } else {
+      future.completeExceptionally(new TimeoutException());
+    }
+    return future;
+  }
+}
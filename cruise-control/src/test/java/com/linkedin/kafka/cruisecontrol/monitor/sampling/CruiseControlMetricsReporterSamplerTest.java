@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.kafka.cruisecontrol.config.BrokerCapacityConfigResolver;
+import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.CruiseControlMetricsReporterConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.BrokerMetric;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.MetricSerde;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.MetricFetcherManager.BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for the streaming mode of {@link CruiseControlMetricsReporterSampler}.
+ */
+public class CruiseControlMetricsReporterSamplerTest {
+  private static final String TOPIC = CruiseControlMetricsReporterConfig.DEFAULT_CRUISE_CONTROL_METRICS_TOPIC;
+  private static final TopicPartition TP = new TopicPartition(TOPIC, 0);
+  // The reporter max block and linger times are set to 0, so only the acceptable network delay is left.
+  private static final long ACCEPTABLE_PRODUCE_DELAY_MS = 100L;
+  private static final long MAX_BUFFERED_MS = 10000L;
+  private static final long SAMPLING_PERIOD_MS = 5000L;
+  private static final long WAIT_TIMEOUT_MS = 30000L;
+  private static final int BROKER_ID = 0;
+  private MockConsumer<String, byte[]> _metricConsumer;
+  private MockConsumer<String, byte[]> _streamingConsumer;
+  private CruiseControlMetricsReporterSampler _sampler;
+  private long _numRecords;
+
+  /**
+   * Set up the consumers of the sampler.
+   */
+  @Before
+  public void setUp() {
+    _metricConsumer = new MockConsumer<>(OffsetResetStrategy.LATEST);
+    _metricConsumer.updatePartitions(TOPIC, Collections.singletonList(new PartitionInfo(TOPIC, 0, null, null, null)));
+    _metricConsumer.updateEndOffsets(Collections.singletonMap(TP, 0L));
+    _streamingConsumer = new MockConsumer<String, byte[]>(OffsetResetStrategy.LATEST) {
+      @Override
+      public ConsumerRecords<String, byte[]> poll(Duration timeout) {
+        ConsumerRecords<String, byte[]> records = super.poll(timeout);
+        if (records.isEmpty()) {
+          // Avoid spinning as the mock consumer returns immediately.
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException ie) {
+            // let it go
+          }
+        }
+        return records;
+      }
+    };
+    _streamingConsumer.updateBeginningOffsets(Collections.singletonMap(TP, 0L));
+    _streamingConsumer.updateEndOffsets(Collections.singletonMap(TP, 0L));
+    _numRecords = 0L;
+  }
+
+  /**
+   * Close the sampler.
+   */
+  @After
+  public void tearDown() {
+    if (_sampler != null) {
+      _sampler.close();
+    }
+  }
+
+  @Test
+  public void testStreamedMetricsOfSamplingPeriod() throws Exception {
+    long coverageStartMs = startStreaming();
+    long startTimeMs = coverageStartMs + SAMPLING_PERIOD_MS;
+    long endTimeMs = startTimeMs + SAMPLING_PERIOD_MS;
+    // Too old to be included in the sampling period.
+    addMetric(startTimeMs - ACCEPTABLE_PRODUCE_DELAY_MS - 1);
+    // Within the sampling period, given the acceptable produce delay.
+    addMetric(startTimeMs - ACCEPTABLE_PRODUCE_DELAY_MS);
+    addMetric(endTimeMs - 1);
+    // At or after the end time of the sampling period, so they are left for the next sampling period.
+    addMetric(endTimeMs);
+    addMetric(endTimeMs + 1000L);
+
+    assertEquals(2, _sampler.addStreamedMetrics(startTimeMs, endTimeMs, System.currentTimeMillis() + WAIT_TIMEOUT_MS));
+    // The metrics of the previous sampling period have been drained, and the too old metric has been discarded.
+    assertEquals(2, _sampler.addStreamedMetrics(endTimeMs, endTimeMs + SAMPLING_PERIOD_MS,
+                                                System.currentTimeMillis() + WAIT_TIMEOUT_MS));
+    assertEquals(0, _sampler.addStreamedMetrics(startTimeMs, endTimeMs + SAMPLING_PERIOD_MS,
+                                                System.currentTimeMillis() + WAIT_TIMEOUT_MS));
+  }
+
+  @Test
+  public void testWaitForStreamingToCatchUp() throws Exception {
+    long coverageStartMs = startStreaming();
+    long startTimeMs = coverageStartMs + SAMPLING_PERIOD_MS;
+    long endTimeMs = startTimeMs + SAMPLING_PERIOD_MS;
+
+    // The metric is appended to the metrics reporter topic before the sampling, but streamed later on.
+    _metricConsumer.updateEndOffsets(Collections.singletonMap(TP, 1L));
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      executor.schedule(() -> _streamingConsumer.addRecord(record(startTimeMs)), 500L, TimeUnit.MILLISECONDS);
+      assertEquals(1, _sampler.addStreamedMetrics(startTimeMs, endTimeMs, System.currentTimeMillis() + WAIT_TIMEOUT_MS));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // The streaming consumer never catches up, so the sampling gives up waiting at the timeout.
+    _metricConsumer.updateEndOffsets(Collections.singletonMap(TP, _numRecords + 1));
+    long timeoutMs = System.currentTimeMillis() + 500L;
+    assertEquals(0, _sampler.addStreamedMetrics(startTimeMs, endTimeMs, timeoutMs));
+    assertTrue(System.currentTimeMillis() >= timeoutMs);
+  }
+
+  @Test
+  public void testFallBackToSeekingMetrics() throws Exception {
+    long coverageStartMs = startStreaming();
+    // The sampling period starts before the streaming consumer started.
+    assertFalse(_sampler.canSampleFromStreamedMetrics(coverageStartMs + ACCEPTABLE_PRODUCE_DELAY_MS - 1));
+    assertTrue(_sampler.canSampleFromStreamedMetrics(coverageStartMs + ACCEPTABLE_PRODUCE_DELAY_MS));
+
+    // Buffering a metric far after the others drops the metrics that are more than the max buffered time older.
+    addMetric(coverageStartMs + 1000L);
+    long latestMetricTimeMs = coverageStartMs + 6 * MAX_BUFFERED_MS;
+    addMetric(latestMetricTimeMs);
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+    while (_sampler.streamingCoverageStartMs() == coverageStartMs && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    long newCoverageStartMs = _sampler.streamingCoverageStartMs();
+    assertNotEquals(coverageStartMs, newCoverageStartMs);
+    assertTrue(newCoverageStartMs > latestMetricTimeMs - MAX_BUFFERED_MS - 1000L);
+    assertTrue(newCoverageStartMs <= latestMetricTimeMs - MAX_BUFFERED_MS);
+    // The sampling periods starting before the dropped metrics have to seek in the metrics reporter topic.
+    assertFalse(_sampler.canSampleFromStreamedMetrics(coverageStartMs + ACCEPTABLE_PRODUCE_DELAY_MS));
+    assertTrue(_sampler.canSampleFromStreamedMetrics(newCoverageStartMs + ACCEPTABLE_PRODUCE_DELAY_MS));
+    assertEquals(1, _sampler.addStreamedMetrics(coverageStartMs, latestMetricTimeMs + 1,
+                                                System.currentTimeMillis() + WAIT_TIMEOUT_MS));
+  }
+
+  @Test
+  public void testNoStreamingIfDisabled() {
+    _sampler = sampler(false);
+    assertFalse(_sampler.canSampleFromStreamedMetrics(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testCloseStreamingConsumerAfterStreamingStops() throws Exception {
+    startStreaming();
+    _sampler.close();
+    _sampler = null;
+    assertTrue(_streamingConsumer.closed());
+    assertTrue(_metricConsumer.closed());
+  }
+
+  /**
+   * Create a sampler with streaming enabled and wait for the streaming consumer to get its initial position.
+   *
+   * @return The time from which all the metrics are streamed.
+   */
+  private long startStreaming() throws InterruptedException {
+    _sampler = sampler(true);
+    long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MS;
+    while (_sampler.streamingCoverageStartMs() == Long.MAX_VALUE && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertNotEquals(Long.MAX_VALUE, _sampler.streamingCoverageStartMs());
+    return _sampler.streamingCoverageStartMs();
+  }
+
+  private CruiseControlMetricsReporterSampler sampler(boolean streamingEnabled) {
+    Deque<Consumer<String, byte[]>> consumers = new ArrayDeque<>(Arrays.asList(_metricConsumer, _streamingConsumer));
+    CruiseControlMetricsReporterSampler sampler = new CruiseControlMetricsReporterSampler() {
+      @Override
+      Consumer<String, byte[]> createConsumer(Properties consumerProps) {
+        return consumers.pop();
+      }
+    };
+    Map<String, Object> configs = new HashMap<>();
+    configs.put(MonitorConfig.NUM_METRIC_FETCHERS_CONFIG, 1);
+    configs.put(BROKER_CAPACITY_CONFIG_RESOLVER_OBJECT_CONFIG, EasyMock.mock(BrokerCapacityConfigResolver.class));
+    configs.put(MonitorConfig.SAMPLING_ALLOW_CPU_CAPACITY_ESTIMATION_CONFIG, true);
+    configs.put(CruiseControlMetricsReporterSampler.METRIC_REPORTER_SAMPLER_BOOTSTRAP_SERVERS, "localhost:9092");
+    configs.put(MonitorConfig.RECONNECT_BACKOFF_MS_CONFIG, "50");
+    configs.put(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_REPORTER_MAX_BLOCK_MS_CONFIG, "0");
+    configs.put(CruiseControlMetricsReporterConfig.CRUISE_CONTROL_METRICS_REPORTER_LINGER_MS_CONFIG, "0");
+    configs.put(CruiseControlMetricsReporterSampler.METRIC_REPORTER_SAMPLER_STREAMING_ENABLED, Boolean.toString(streamingEnabled));
+    configs.put(CruiseControlMetricsReporterSampler.METRIC_REPORTER_SAMPLER_STREAMING_MAX_BUFFERED_MS, Long.toString(MAX_BUFFERED_MS));
+    sampler.configure(configs);
+    return sampler;
+  }
+
+  /**
+   * Append a metric with the given time to the metrics reporter topic.
+   *
+   * @param timeMs The time of the metric.
+   */
+  private void addMetric(long timeMs) {
+    _streamingConsumer.addRecord(record(timeMs));
+    _metricConsumer.updateEndOffsets(Collections.singletonMap(TP, _numRecords));
+  }
+
+  private ConsumerRecord<String, byte[]> record(long timeMs) {
+    BrokerMetric metric = new BrokerMetric(RawMetricType.ALL_TOPIC_BYTES_IN, timeMs, BROKER_ID, 1.0);
+    return new ConsumerRecord<>(TOPIC, TP.partition(), _numRecords++, null, MetricSerde.toBytes(metric));
+  }
+}
@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.Optional;
 import org.apache.kafka.clients.Metadata;
 import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.internals.ClusterResourceListeners;
@@ -115,4 +116,35 @@ public class DefaultMetricSamplerPartitionAssignorTest {
             "more than the partition number of the biggest topic, which is " + maxNumPartitionsForTopic,
         avgAssignedPartitionsPerFetcher - minAssignedNumPartitionsForFetcher <= maxNumPartitionsForTopic);
   }
+
+  @Test
+  public void testMultiFetcherAssignment() {
+    int numFetchers = 2;
+    Node[] nodes = nodes();
+    Set<PartitionInfo> partitions = new HashSet<>();
+    for (int i = 0; i < NUM_TOPICS; i++) {
+      for (int j = 0; j < 10; j++) {
+        // Leave some of the partitions without a leader.
+        Node leader = j == 0 ? null : nodes[(i + j) % nodes.length];
+        partitions.add(new PartitionInfo(TOPIC_PREFIX + i, j, leader, nodes, nodes));
+      }
+    }
+    Cluster cluster = new Cluster("cluster", Arrays.asList(nodes), partitions, Collections.emptySet(), Collections.emptySet());
+
+    MetricSamplerPartitionAssignor assignor = new DefaultMetricSamplerPartitionAssignor();
+    List<Set<TopicPartition>> assignments = assignor.assignPartitions(cluster, numFetchers);
+    assertEquals(numFetchers, assignments.size());
+
+    Set<TopicPartition> uniqueAssignedPartitions = new HashSet<>();
+    for (int fetcherId = 0; fetcherId < numFetchers; fetcherId++) {
+      for (TopicPartition tp : assignments.get(fetcherId)) {
+        assertTrue("Partition " + tp + " is assigned to more than one fetcher.", uniqueAssignedPartitions.add(tp));
+        Node leader = cluster.leaderFor(tp);
+        if (leader != null) {
+          assertEquals("Partitions should be assigned to the fetcher of their leader.", fetcherId, leader.id() % numFetchers);
+        }
+      }
+    }
+    assertEquals(partitions.size(), uniqueAssignedPartitions.size());
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.ExecutorConfig;
+import com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCEmbeddedBroker;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.utils.CCKafkaIntegrationTestHarness;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.clients.Metadata;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.getMetadata;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Integration test for {@link KafkaSampleStore}.
+ */
+public class KafkaSampleStoreTest extends CCKafkaIntegrationTestHarness {
+  private static final String PARTITION_SAMPLE_TOPIC = "__partition_samples";
+  private static final String BROKER_SAMPLE_TOPIC = "__broker_samples";
+  private static final int NUM_PARTITIONS = 10;
+  private static final long WAIT_FOR_EVICTION_MS = 30000L;
+  private KafkaCruiseControlConfig _config;
+
+  /**
+   * Start the brokers and create a config pointing the sample store to them.
+   */
+  @Before
+  public void setUp() {
+    super.setUp();
+    _brokers.values().forEach(CCEmbeddedBroker::startup);
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(MonitorConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers());
+    props.setProperty(ExecutorConfig.ZOOKEEPER_CONNECT_CONFIG, zkConnect());
+    props.setProperty(KafkaSampleStore.PARTITION_METRIC_SAMPLE_STORE_TOPIC_CONFIG, PARTITION_SAMPLE_TOPIC);
+    props.setProperty(KafkaSampleStore.BROKER_METRIC_SAMPLE_STORE_TOPIC_CONFIG, BROKER_SAMPLE_TOPIC);
+    props.setProperty(KafkaSampleStore.PARTITION_SAMPLE_STORE_TOPIC_PARTITION_COUNT_CONFIG, "1");
+    props.setProperty(KafkaSampleStore.BROKER_SAMPLE_STORE_TOPIC_PARTITION_COUNT_CONFIG, "1");
+    props.setProperty(KafkaSampleStore.SAMPLE_STORE_MAX_SAMPLES_PER_RECORD_CONFIG, "3");
+    props.setProperty(KafkaSampleStore.NUM_SAMPLE_LOADING_THREADS_CONFIG, "2");
+    _config = new KafkaCruiseControlConfig(props);
+  }
+
+  /**
+   * Shut down the brokers.
+   */
+  @After
+  public void tearDown() {
+    _brokers.values().forEach(CCEmbeddedBroker::shutdown);
+    _brokers.values().forEach(CCEmbeddedBroker::awaitShutdown);
+    super.tearDown();
+  }
+
+  @Test
+  public void testStoreEvictAndLoadSamples() throws InterruptedException {
+    long now = System.currentTimeMillis();
+    long windowMs = _config.getLong(MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG);
+    int numWindows = _config.getInt(MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG);
+    long staleSampleTimeMs = now - 2 * (numWindows + 1) * windowMs;
+
+    KafkaSampleStore sampleStore = new KafkaSampleStore();
+    sampleStore.configure(_config.mergedConfigValues());
+    try {
+      sampleStore.storeSamples(new MetricSampler.Samples(partitionSamples(staleSampleTimeMs), Collections.emptySet()));
+      sampleStore.storeSamples(new MetricSampler.Samples(partitionSamples(now), brokerSamples(now)));
+
+      // Only the records of the stale samples should be evicted. The eviction is retried until the deletion succeeds,
+      // e.g. the deletion fails if the leader of the sample store topic is not elected yet.
+      long evictionTimeMs = staleSampleTimeMs + 1;
+      long deadline = System.currentTimeMillis() + WAIT_FOR_EVICTION_MS;
+      while (sampleStore._partitionSampleEvictionTimeMs.get() < evictionTimeMs && System.currentTimeMillis() < deadline) {
+        sampleStore.evictSamplesBefore(evictionTimeMs, evictionTimeMs);
+        Thread.sleep(100);
+      }
+      assertEquals(evictionTimeMs, sampleStore._partitionSampleEvictionTimeMs.get());
+      assertEquals((NUM_PARTITIONS + 2) / 3, beginningOffset(new TopicPartition(PARTITION_SAMPLE_TOPIC, 0)));
+    } finally {
+      sampleStore.close();
+    }
+
+    Metadata metadata = getMetadata(Collections.emptySet());
+    KafkaPartitionMetricSampleAggregator partitionAggregator = new KafkaPartitionMetricSampleAggregator(_config, metadata);
+    KafkaBrokerMetricSampleAggregator brokerAggregator = new KafkaBrokerMetricSampleAggregator(_config);
+    KafkaSampleStore loadingSampleStore = new KafkaSampleStore();
+    loadingSampleStore.configure(_config.mergedConfigValues());
+    try {
+      loadingSampleStore.loadSamples(new SampleStore.SampleLoader(partitionAggregator, brokerAggregator));
+      assertEquals(NUM_PARTITIONS, partitionAggregator.numSamples());
+      assertEquals(2, brokerAggregator.numSamples());
+      assertTrue(loadingSampleStore.sampleLoadingProgress() >= 1.0);
+    } finally {
+      loadingSampleStore.close();
+    }
+  }
+
+  private long beginningOffset(TopicPartition tp) {
+    Properties props = new Properties();
+    props.setProperty(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers());
+    try (KafkaConsumer<byte[], byte[]> consumer =
+             new KafkaConsumer<>(props, new ByteArrayDeserializer(), new ByteArrayDeserializer())) {
+      return consumer.beginningOffsets(Collections.singleton(tp)).get(tp);
+    }
+  }
+
+  private static Set<PartitionMetricSample> partitionSamples(long sampleTimeMs) {
+    Set<PartitionMetricSample> samples = new HashSet<>();
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      PartitionMetricSample sample = new PartitionMetricSample(0, new TopicPartition("topic", i));
+      for (MetricInfo metricInfo : KafkaMetricDef.commonMetricDef().all()) {
+        sample.record(metricInfo, i);
+      }
+      sample.close(sampleTimeMs);
+      samples.add(sample);
+    }
+    return samples;
+  }
+
+  private static Set<BrokerMetricSample> brokerSamples(long sampleTimeMs) {
+    Set<BrokerMetricSample> samples = new HashSet<>();
+    for (int brokerId = 0; brokerId < 2; brokerId++) {
+      BrokerMetricSample sample;
+      try {
+        sample = new BrokerMetricSample("localhost", brokerId, BrokerMetricSample.LATEST_SUPPORTED_VERSION);
+      } catch (UnknownVersionException e) {
+        throw new IllegalStateException(e);
+      }
+      for (MetricInfo metricInfo : KafkaMetricDef.brokerMetricDef().all()) {
+        sample.record(metricInfo, brokerId);
+      }
+      sample.close(sampleTimeMs);
+      samples.add(sample);
+    }
+    return samples;
+  }
+}
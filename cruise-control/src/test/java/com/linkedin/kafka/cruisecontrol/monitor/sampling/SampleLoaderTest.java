@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling;
+
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaBrokerMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.KafkaPartitionMetricSampleAggregator;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.MetricSampleBatchSerde;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSampleReader;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSampleValues;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.BROKER_METRICS_WINDOW_MS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.NUM_BROKER_METRICS_WINDOWS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.getMetadata;
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * Unit test for {@link SampleStore.SampleLoader}.
+ */
+public class SampleLoaderTest {
+  private static final int NUM_WINDOWS = 5;
+  private static final long WINDOW_MS = 1000L;
+  private static final long CHECKPOINT_TIME_MS = 3 * WINDOW_MS;
+  // Samples before, at and after the checkpoint time. Only the last one is newer than the checkpoint.
+  private static final List<Long> SAMPLE_TIMES = Arrays.asList(CHECKPOINT_TIME_MS - WINDOW_MS, CHECKPOINT_TIME_MS,
+                                                               CHECKPOINT_TIME_MS + 1);
+  private static final TopicPartition TP = new TopicPartition(TOPIC0, 0);
+
+  @Test
+  public void testLoadSamplesAfterCheckpoint() {
+    TestSampleLoader sampleLoader = new TestSampleLoader(CHECKPOINT_TIME_MS);
+    sampleLoader.loadSamples(new MetricSampler.Samples(partitionSamples(), brokerSamples()));
+
+    // Only the samples newer than the checkpoint are added to the aggregators.
+    assertEquals(1, sampleLoader.partitionSampleCount());
+    assertEquals(1, sampleLoader.brokerSampleCount());
+    // All the broker metric samples still train the linear regression model, as the checkpoint does not include its
+    // training data.
+    assertEquals(SAMPLE_TIMES.size(), sampleLoader._metricObservations.size());
+  }
+
+  @Test
+  public void testLoadSamplesWithoutCheckpoint() {
+    TestSampleLoader sampleLoader = new TestSampleLoader(AggregatorCheckpointManager.NO_CHECKPOINT);
+    sampleLoader.loadSamples(new MetricSampler.Samples(partitionSamples(), brokerSamples()));
+
+    assertEquals(SAMPLE_TIMES.size(), sampleLoader.partitionSampleCount());
+    assertEquals(SAMPLE_TIMES.size(), sampleLoader.brokerSampleCount());
+    assertEquals(SAMPLE_TIMES.size(), sampleLoader._metricObservations.size());
+  }
+
+  @Test
+  public void testLoadPartitionSamplesAfterCheckpoint() throws UnknownVersionException {
+    PartitionMetricSampleReader reader = new PartitionMetricSampleReader();
+    reader.reset(MetricSampleBatchSerde.partitionSamplesToBytes(new ArrayList<>(partitionSamples())));
+    PartitionMetricSampleValues values = new PartitionMetricSampleValues();
+    assertEquals(SAMPLE_TIMES.size(), values.addAll(reader));
+
+    TestSampleLoader sampleLoader = new TestSampleLoader(CHECKPOINT_TIME_MS);
+    sampleLoader.loadPartitionSamples(values);
+    assertEquals(1, sampleLoader.partitionSampleCount());
+
+    sampleLoader = new TestSampleLoader(AggregatorCheckpointManager.NO_CHECKPOINT);
+    sampleLoader.loadPartitionSamples(values);
+    assertEquals(SAMPLE_TIMES.size(), sampleLoader.partitionSampleCount());
+  }
+
+  private static Set<PartitionMetricSample> partitionSamples() {
+    Set<PartitionMetricSample> samples = new HashSet<>();
+    for (long sampleTimeMs : SAMPLE_TIMES) {
+      PartitionMetricSample sample = new PartitionMetricSample(0, TP);
+      for (MetricInfo metricInfo : KafkaMetricDef.commonMetricDef().all()) {
+        sample.record(metricInfo, 1.0);
+      }
+      sample.close(sampleTimeMs);
+      samples.add(sample);
+    }
+    return samples;
+  }
+
+  private static Set<BrokerMetricSample> brokerSamples() {
+    Set<BrokerMetricSample> samples = new HashSet<>();
+    for (long sampleTimeMs : SAMPLE_TIMES) {
+      BrokerMetricSample sample;
+      try {
+        sample = new BrokerMetricSample("localhost", 0, BrokerMetricSample.LATEST_SUPPORTED_VERSION);
+      } catch (UnknownVersionException e) {
+        throw new IllegalStateException(e);
+      }
+      for (MetricInfo metricInfo : KafkaMetricDef.brokerMetricDef().all()) {
+        sample.record(metricInfo, 1.0);
+      }
+      sample.close(sampleTimeMs);
+      samples.add(sample);
+    }
+    return samples;
+  }
+
+  private static KafkaCruiseControlConfig config() {
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(PARTITION_METRICS_WINDOW_MS_CONFIG, Long.toString(WINDOW_MS));
+    props.setProperty(NUM_PARTITION_METRICS_WINDOWS_CONFIG, Integer.toString(NUM_WINDOWS));
+    props.setProperty(BROKER_METRICS_WINDOW_MS_CONFIG, Long.toString(WINDOW_MS));
+    props.setProperty(NUM_BROKER_METRICS_WINDOWS_CONFIG, Integer.toString(NUM_WINDOWS));
+    return new KafkaCruiseControlConfig(props);
+  }
+
+  /**
+   * A sample loader that keeps the training data of the linear regression model instead of training the model.
+   */
+  private static class TestSampleLoader extends SampleStore.SampleLoader {
+    private final List<BrokerMetricSample> _metricObservations = new ArrayList<>();
+
+    TestSampleLoader(long checkpointTimeMs) {
+      super(new KafkaPartitionMetricSampleAggregator(config(), getMetadata(Collections.singleton(TP))),
+            new KafkaBrokerMetricSampleAggregator(config()), checkpointTimeMs);
+    }
+
+    @Override
+    void addMetricObservation(Collection<BrokerMetricSample> brokerMetricSamples) {
+      _metricObservations.addAll(brokerMetricSamples);
+    }
+  }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator;
+
+import com.linkedin.cruisecontrol.CruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.KafkaCruiseControlUnitTestUtils;
+import com.linkedin.kafka.cruisecontrol.config.KafkaCruiseControlConfig;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.BrokerEntity;
+import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionEntity;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.kafka.clients.Metadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.utils.MockTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.common.TestConstants.TOPIC0;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.BROKER_METRICS_WINDOW_MS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.MIN_SAMPLES_PER_BROKER_METRICS_WINDOW_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.MIN_SAMPLES_PER_PARTITION_METRICS_WINDOW_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.NUM_BROKER_METRICS_WINDOWS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.NUM_PARTITION_METRICS_WINDOWS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.config.constants.MonitorConfig.PARTITION_METRICS_WINDOW_MS_CONFIG;
+import static com.linkedin.kafka.cruisecontrol.monitor.MonitorUnitTestUtils.getMetadata;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager.CHECKPOINT_FILE_NAME;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager.LATEST_SUPPORTED_VERSION;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager.MAGIC;
+import static com.linkedin.kafka.cruisecontrol.monitor.sampling.aggregator.AggregatorCheckpointManager.NO_CHECKPOINT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link AggregatorCheckpointManager}.
+ */
+public class AggregatorCheckpointManagerTest {
+  private static final int NUM_WINDOWS = 5;
+  private static final long WINDOW_MS = 1000L;
+  private static final int MIN_SAMPLES_PER_WINDOW = 2;
+  private static final long CHECKPOINT_INTERVAL_MS = 60000L;
+  private static final long CHECKPOINT_TIME_MS = (NUM_WINDOWS + 1) * WINDOW_MS;
+  private static final TopicPartition TP = new TopicPartition(TOPIC0, 0);
+  private Path _checkpointDir;
+  private Path _checkpointFile;
+
+  /**
+   * Create the checkpoint directory.
+   */
+  @Before
+  public void setUp() throws IOException {
+    _checkpointDir = Files.createTempDirectory("aggregator-checkpoint");
+    _checkpointFile = _checkpointDir.resolve(CHECKPOINT_FILE_NAME);
+  }
+
+  /**
+   * Delete the checkpoint directory.
+   */
+  @After
+  public void tearDown() throws IOException {
+    FileUtils.deleteDirectory(_checkpointDir.toFile());
+  }
+
+  @Test
+  public void testCheckpointAndRestore() throws IOException {
+    KafkaCruiseControlConfig config = config(NUM_WINDOWS);
+    KafkaPartitionMetricSampleAggregator partitionAggregator = populatedPartitionAggregator(config);
+    KafkaBrokerMetricSampleAggregator brokerAggregator = populatedBrokerAggregator(config);
+    checkpointManager(partitionAggregator, brokerAggregator, new MockTime()).checkpoint(CHECKPOINT_TIME_MS);
+
+    KafkaPartitionMetricSampleAggregator restoredPartitionAggregator = partitionAggregator(config);
+    KafkaBrokerMetricSampleAggregator restoredBrokerAggregator = new KafkaBrokerMetricSampleAggregator(config);
+    assertEquals(CHECKPOINT_TIME_MS,
+                 checkpointManager(restoredPartitionAggregator, restoredBrokerAggregator, new MockTime()).restore());
+    assertEquals(partitionAggregator.numSamples(), restoredPartitionAggregator.numSamples());
+    assertEquals(partitionAggregator.availableWindows(), restoredPartitionAggregator.availableWindows());
+    assertEquals(brokerAggregator.numSamples(), restoredBrokerAggregator.numSamples());
+    assertEquals(brokerAggregator.availableWindows(), restoredBrokerAggregator.availableWindows());
+  }
+
+  @Test
+  public void testRestoreWithoutCheckpoint() {
+    assertRestoreClearsAggregators(config(NUM_WINDOWS));
+  }
+
+  @Test
+  public void testRestoreCorruptedCheckpoint() throws IOException {
+    writeCheckpoint(config(NUM_WINDOWS));
+    byte[] bytes = Files.readAllBytes(_checkpointFile);
+    Arrays.fill(bytes, bytes.length / 2, bytes.length, (byte) 0xFF);
+    Files.write(_checkpointFile, bytes);
+    assertRestoreClearsAggregators(config(NUM_WINDOWS));
+  }
+
+  @Test
+  public void testRestoreTruncatedCheckpoint() throws IOException {
+    writeCheckpoint(config(NUM_WINDOWS));
+    byte[] bytes = Files.readAllBytes(_checkpointFile);
+    Files.write(_checkpointFile, Arrays.copyOf(bytes, bytes.length / 2));
+    assertRestoreClearsAggregators(config(NUM_WINDOWS));
+  }
+
+  @Test
+  public void testRestoreCheckpointWithUnsupportedMagic() throws IOException {
+    writeCheckpointHeader(MAGIC + 1, LATEST_SUPPORTED_VERSION);
+    assertRestoreClearsAggregators(config(NUM_WINDOWS));
+  }
+
+  @Test
+  public void testRestoreCheckpointWithUnsupportedVersion() throws IOException {
+    writeCheckpointHeader(MAGIC, (byte) (LATEST_SUPPORTED_VERSION + 1));
+    assertRestoreClearsAggregators(config(NUM_WINDOWS));
+  }
+
+  @Test
+  public void testRestoreCheckpointWithMismatchedWindows() throws IOException {
+    writeCheckpoint(config(NUM_WINDOWS));
+    assertRestoreClearsAggregators(config(NUM_WINDOWS + 1));
+
+    // The partition metric sample aggregator is restored before the broker metric sample aggregator is found mismatched.
+    Properties props = properties(NUM_WINDOWS);
+    props.setProperty(NUM_BROKER_METRICS_WINDOWS_CONFIG, Integer.toString(NUM_WINDOWS + 1));
+    assertRestoreClearsAggregators(new KafkaCruiseControlConfig(props));
+  }
+
+  @Test
+  public void testMaybeCheckpointRespectsInterval() {
+    KafkaCruiseControlConfig config = config(NUM_WINDOWS);
+    MockTime time = new MockTime();
+    AggregatorCheckpointManager checkpointManager =
+        checkpointManager(populatedPartitionAggregator(config), populatedBrokerAggregator(config), time);
+
+    assertFalse(checkpointManager.maybeCheckpoint(CHECKPOINT_TIME_MS));
+    time.sleep(CHECKPOINT_INTERVAL_MS - 1);
+    assertFalse(checkpointManager.maybeCheckpoint(CHECKPOINT_TIME_MS));
+    assertFalse(Files.exists(_checkpointFile));
+
+    time.sleep(1);
+    assertTrue(checkpointManager.maybeCheckpoint(CHECKPOINT_TIME_MS));
+    assertTrue(Files.exists(_checkpointFile));
+    assertFalse(checkpointManager.maybeCheckpoint(CHECKPOINT_TIME_MS + WINDOW_MS));
+
+    // The interval restarts from the last checkpoint.
+    time.sleep(CHECKPOINT_INTERVAL_MS);
+    assertTrue(checkpointManager.maybeCheckpoint(CHECKPOINT_TIME_MS + WINDOW_MS));
+    assertEquals(CHECKPOINT_TIME_MS + WINDOW_MS,
+                 checkpointManager(partitionAggregator(config), new KafkaBrokerMetricSampleAggregator(config), time).restore());
+  }
+
+  /**
+   * Restore the checkpoint into populated aggregators with the given config, and verify that nothing is restored and
+   * both aggregators are cleared.
+   *
+   * @param config The config of the aggregators to restore the checkpoint into.
+   */
+  private void assertRestoreClearsAggregators(KafkaCruiseControlConfig config) {
+    KafkaPartitionMetricSampleAggregator partitionAggregator = populatedPartitionAggregator(config);
+    KafkaBrokerMetricSampleAggregator brokerAggregator = populatedBrokerAggregator(config);
+    assertTrue(partitionAggregator.numSamples() > 0);
+    assertTrue(brokerAggregator.numSamples() > 0);
+
+    assertEquals(NO_CHECKPOINT, checkpointManager(partitionAggregator, brokerAggregator, new MockTime()).restore());
+    assertEquals(0, partitionAggregator.numSamples());
+    assertEquals(0, brokerAggregator.numSamples());
+  }
+
+  private void writeCheckpoint(KafkaCruiseControlConfig config) throws IOException {
+    checkpointManager(populatedPartitionAggregator(config), populatedBrokerAggregator(config), new MockTime())
+        .checkpoint(CHECKPOINT_TIME_MS);
+  }
+
+  private void writeCheckpointHeader(int magic, byte version) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(_checkpointFile)))) {
+      out.writeInt(magic);
+      out.writeByte(version);
+      out.writeLong(CHECKPOINT_TIME_MS);
+    }
+  }
+
+  private AggregatorCheckpointManager checkpointManager(KafkaPartitionMetricSampleAggregator partitionAggregator,
+                                                        KafkaBrokerMetricSampleAggregator brokerAggregator,
+                                                        MockTime time) {
+    return new AggregatorCheckpointManager(_checkpointDir.toString(), CHECKPOINT_INTERVAL_MS, partitionAggregator,
+                                           brokerAggregator, time);
+  }
+
+  private static KafkaPartitionMetricSampleAggregator partitionAggregator(KafkaCruiseControlConfig config) {
+    Metadata metadata = getMetadata(Collections.singleton(TP));
+    return new KafkaPartitionMetricSampleAggregator(config, metadata);
+  }
+
+  private static KafkaPartitionMetricSampleAggregator populatedPartitionAggregator(KafkaCruiseControlConfig config) {
+    KafkaPartitionMetricSampleAggregator aggregator = partitionAggregator(config);
+    CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator,
+                                                        new PartitionEntity(TP), 0, WINDOW_MS,
+                                                        KafkaMetricDef.commonMetricDef());
+    return aggregator;
+  }
+
+  private static KafkaBrokerMetricSampleAggregator populatedBrokerAggregator(KafkaCruiseControlConfig config) {
+    KafkaBrokerMetricSampleAggregator aggregator = new KafkaBrokerMetricSampleAggregator(config);
+    CruiseControlUnitTestUtils.populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, aggregator,
+                                                        new BrokerEntity("localhost", 0), 0, WINDOW_MS,
+                                                        KafkaMetricDef.brokerMetricDef());
+    return aggregator;
+  }
+
+  private static KafkaCruiseControlConfig config(int numWindows) {
+    return new KafkaCruiseControlConfig(properties(numWindows));
+  }
+
+  private static Properties properties(int numWindows) {
+    Properties props = KafkaCruiseControlUnitTestUtils.getKafkaCruiseControlProperties();
+    props.setProperty(PARTITION_METRICS_WINDOW_MS_CONFIG, Long.toString(WINDOW_MS));
+    props.setProperty(NUM_PARTITION_METRICS_WINDOWS_CONFIG, Integer.toString(numWindows));
+    props.setProperty(MIN_SAMPLES_PER_PARTITION_METRICS_WINDOW_CONFIG, Integer.toString(MIN_SAMPLES_PER_WINDOW));
+    props.setProperty(BROKER_METRICS_WINDOW_MS_CONFIG, Long.toString(WINDOW_MS));
+    props.setProperty(NUM_BROKER_METRICS_WINDOWS_CONFIG, Integer.toString(numWindows));
+    props.setProperty(MIN_SAMPLES_PER_BROKER_METRICS_WINDOW_CONFIG, Integer.toString(MIN_SAMPLES_PER_WINDOW));
+    return props;
+  }
+}
@@ -20,18 +20,23 @@ import com.linkedin.kafka.cruisecontrol.monitor.ModelCompletenessRequirements;
 import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionEntity;
 import com.linkedin.kafka.cruisecontrol.monitor.sampling.holder.PartitionMetricSample;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.SortedSet;
+import org.apache.commons.io.FileUtils;
 import org.apache.kafka.clients.Metadata;
 import org.apache.kafka.common.Cluster;
 import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.protocol.Errors;
 import org.apache.kafka.common.record.RecordBatch;
 import org.apache.kafka.common.requests.MetadataResponse;
+import org.apache.kafka.common.utils.MockTime;
 import org.junit.Test;
 
 import java.util.Collections;
@@ -112,6 +117,45 @@ public class KafkaPartitionMetricSampleAggregatorTest {
     assertEquals(NUM_WINDOWS, metricSampleAggregator.availableWindows().size());
   }
 
+  @Test
+  public void testCheckpointAndRestore() throws NotEnoughValidWindowsException, IOException {
+    KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(getLoadMonitorProperties());
+    Metadata metadata = getMetadata(Collections.singleton(TP));
+    KafkaPartitionMetricSampleAggregator metricSampleAggregator = new KafkaPartitionMetricSampleAggregator(config, metadata);
+    populateSampleAggregator(NUM_WINDOWS + 1, MIN_SAMPLES_PER_WINDOW, metricSampleAggregator);
+
+    Path checkpointDir = Files.createTempDirectory("aggregator-checkpoint");
+    try {
+      long checkpointTimeMs = (NUM_WINDOWS + 1) * WINDOW_MS;
+      new AggregatorCheckpointManager(checkpointDir.toString(), 0L, metricSampleAggregator,
+                                      new KafkaBrokerMetricSampleAggregator(config), new MockTime()).checkpoint(checkpointTimeMs);
+
+      KafkaPartitionMetricSampleAggregator restoredAggregator = new KafkaPartitionMetricSampleAggregator(config, metadata);
+      AggregatorCheckpointManager checkpointManager =
+          new AggregatorCheckpointManager(checkpointDir.toString(), 0L, restoredAggregator,
+                                          new KafkaBrokerMetricSampleAggregator(config), new MockTime());
+      assertEquals(checkpointTimeMs, checkpointManager.restore());
+
+      assertEquals(metricSampleAggregator.numSamples(), restoredAggregator.numSamples());
+      assertEquals(metricSampleAggregator.availableWindows(), restoredAggregator.availableWindows());
+      ValuesAndExtrapolations expected =
+          metricSampleAggregator.aggregate(metadata.fetch(), Long.MAX_VALUE, new OperationProgress()).valuesAndExtrapolations().get(PE);
+      ValuesAndExtrapolations restored =
+          restoredAggregator.aggregate(metadata.fetch(), Long.MAX_VALUE, new OperationProgress()).valuesAndExtrapolations().get(PE);
+      assertNotNull(restored);
+      assertEquals(expected.windows(), restored.windows());
+      assertEquals(expected.extrapolations(), restored.extrapolations());
+      for (short metricId : expected.metricValues().metricIds()) {
+        for (int i = 0; i < NUM_WINDOWS; i++) {
+          assertEquals(expected.metricValues().valuesFor(metricId).get(i), restored.metricValues().valuesFor(metricId).get(i), 0.0);
+        }
+      }
+      assertEquals(NUM_WINDOWS, restoredAggregator.validWindows(metadata.fetch(), 1.0).size());
+    } finally {
+      FileUtils.deleteDirectory(checkpointDir.toFile());
+    }
+  }
+
   @Test
   public void testAggregateWithUpdatedCluster() throws NotEnoughValidWindowsException {
     KafkaCruiseControlConfig config = new KafkaCruiseControlConfig(getLoadMonitorProperties());
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.PartitionMetric;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.metric.TopicMetric;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType.PARTITION_SIZE;
+import static com.linkedin.kafka.cruisecontrol.metricsreporter.metric.RawMetricType.TOPIC_BYTES_IN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * Unit test for {@link BrokerLoad}.
+ */
+public class BrokerLoadTest {
+  private static final String TOPIC = "topic";
+  private static final int NUM_PARTITIONS = 100;
+  private static final long TIME = 1000L;
+  private static final double BYTES_IN_MB = 1024.0 * 1024.0;
+
+  @Test
+  public void testRecordSparsePartitionMetrics() {
+    BrokerLoad brokerLoad = new BrokerLoad();
+    assertFalse(brokerLoad.allDotHandledTopicMetricsAvailable(TOPIC));
+    // Partitions hosted by a broker are usually sparse in the partition numbers of the topic.
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      brokerLoad.recordMetric(new PartitionMetric(PARTITION_SIZE, TIME, 0, TOPIC, i * 7, i * BYTES_IN_MB));
+    }
+    brokerLoad.recordMetric(new TopicMetric(TOPIC_BYTES_IN, TIME, 0, TOPIC, 1024.0));
+
+    assertTrue(brokerLoad.allDotHandledTopicMetricsAvailable(TOPIC));
+    for (int i = 0; i < NUM_PARTITIONS; i++) {
+      assertEquals(i, brokerLoad.partitionMetric(TOPIC, i * 7, PARTITION_SIZE), 1E-6);
+      assertTrue(brokerLoad.partitionMetricAvailable(new TopicPartition(TOPIC, i * 7), PARTITION_SIZE));
+    }
+    assertNull(brokerLoad.partitionMetric(TOPIC, 1, PARTITION_SIZE));
+    assertFalse(brokerLoad.partitionMetricAvailable(new TopicPartition(TOPIC, 1), PARTITION_SIZE));
+    assertEquals(1.0, brokerLoad.topicMetrics(TOPIC, TOPIC_BYTES_IN), 1E-6);
+    assertEquals(NUM_PARTITIONS * (NUM_PARTITIONS - 1) / 2, brokerLoad.diskUsage(), 1E-6);
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * The unit test for {@link MetricSampleBatchSerde}
+ */
+public class MetricSampleBatchSerdeTest {
+  private static final long SAMPLE_TIME = 1000000L;
+
+  @Test
+  public void testPartitionSampleBatchSerde() throws UnknownVersionException {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    List<PartitionMetricSample> samples = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      PartitionMetricSample sample = new PartitionMetricSample(i % 3, new TopicPartition("topic" + (i % 2), i));
+      sample.record(metricDef.metricInfo(CPU_USAGE.name()), i);
+      sample.record(metricDef.metricInfo(DISK_USAGE.name()), i + 0.1);
+      sample.record(metricDef.metricInfo(LEADER_BYTES_IN.name()), i + 0.2);
+      sample.record(metricDef.metricInfo(LEADER_BYTES_OUT.name()), i + 0.3);
+      sample.record(metricDef.metricInfo(PRODUCE_RATE.name()), i + 0.4);
+      sample.record(metricDef.metricInfo(FETCH_RATE.name()), i + 0.5);
+      sample.record(metricDef.metricInfo(MESSAGE_IN_RATE.name()), i + 0.6);
+      sample.record(metricDef.metricInfo(REPLICATION_BYTES_IN_RATE.name()), i + 0.7);
+      sample.record(metricDef.metricInfo(REPLICATION_BYTES_OUT_RATE.name()), i + 0.8);
+      sample.close(SAMPLE_TIME + i);
+      samples.add(sample);
+    }
+    byte[] bytes = MetricSampleBatchSerde.partitionSamplesToBytes(samples);
+    assertTrue(MetricSampleBatchSerde.isPartitionSampleBatch(bytes));
+    assertFalse(MetricSampleBatchSerde.isPartitionSampleBatch(samples.get(0).toBytes()));
+
+    List<PartitionMetricSample> deserializedSamples = MetricSampleBatchSerde.partitionSamplesFromBytes(bytes);
+    assertEquals(samples.size(), deserializedSamples.size());
+    for (int i = 0; i < samples.size(); i++) {
+      PartitionMetricSample sample = samples.get(i);
+      PartitionMetricSample deserializedSample = deserializedSamples.get(i);
+      assertEquals(sample.brokerId(), deserializedSample.brokerId());
+      assertEquals(sample.entity().tp(), deserializedSample.entity().tp());
+      assertEquals(sample.sampleTime(), deserializedSample.sampleTime());
+      assertEquals(sample.allMetricValues(), deserializedSample.allMetricValues());
+    }
+  }
+
+  @Test
+  public void testBrokerSampleBatchSerde() throws UnknownVersionException {
+    MetricDef brokerMetricDef = KafkaMetricDef.brokerMetricDef();
+    List<BrokerMetricSample> samples = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      byte version = i == 0 ? BrokerMetricSample.MIN_SUPPORTED_VERSION : BrokerMetricSample.LATEST_SUPPORTED_VERSION;
+      BrokerMetricSample sample = new BrokerMetricSample("host" + i, i, version);
+      double value = i;
+      for (MetricInfo metricInfo : brokerMetricDef.all()) {
+        sample.record(metricInfo, value);
+        value += 1;
+      }
+      sample.close(SAMPLE_TIME - i);
+      samples.add(sample);
+    }
+    byte[] bytes = MetricSampleBatchSerde.brokerSamplesToBytes(samples);
+    assertTrue(MetricSampleBatchSerde.isBrokerSampleBatch(bytes));
+    assertFalse(MetricSampleBatchSerde.isBrokerSampleBatch(samples.get(0).toBytes()));
+
+    List<BrokerMetricSample> deserializedSamples = MetricSampleBatchSerde.brokerSamplesFromBytes(bytes);
+    assertEquals(samples.size(), deserializedSamples.size());
+    for (int i = 0; i < samples.size(); i++) {
+      BrokerMetricSample sample = samples.get(i);
+      BrokerMetricSample deserializedSample = deserializedSamples.get(i);
+      assertEquals(sample.entity(), deserializedSample.entity());
+      assertEquals(sample.deserializationVersion(), deserializedSample.deserializationVersion());
+      assertEquals(sample.sampleTime(), deserializedSample.sampleTime());
+      assertEquals(sample.allMetricValues(), deserializedSample.allMetricValues());
+    }
+  }
+
+  @Test
+  public void testBatchIsSmallerThanIndividualSamples() {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    List<PartitionMetricSample> samples = new ArrayList<>();
+    int individualSize = 0;
+    for (int i = 0; i < 100; i++) {
+      PartitionMetricSample sample = new PartitionMetricSample(0, new TopicPartition("a-rather-long-topic-name", i));
+      for (MetricInfo metricInfo : metricDef.all()) {
+        sample.record(metricInfo, i);
+      }
+      sample.close(SAMPLE_TIME);
+      samples.add(sample);
+      individualSize += sample.toBytes().length;
+    }
+    assertTrue(MetricSampleBatchSerde.partitionSamplesToBytes(samples).length < individualSize);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 LinkedIn Corp. Licensed under the BSD 2-Clause License (the "License"). See License in the project root for license information.
+ */
+
+package com.linkedin.kafka.cruisecontrol.monitor.sampling.holder;
+
+import com.linkedin.cruisecontrol.metricdef.MetricDef;
+import com.linkedin.cruisecontrol.metricdef.MetricInfo;
+import com.linkedin.kafka.cruisecontrol.metricsreporter.exception.UnknownVersionException;
+import com.linkedin.kafka.cruisecontrol.monitor.metricdefinition.KafkaMetricDef;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * The unit test for {@link PartitionMetricSampleReader}
+ */
+public class PartitionMetricSampleReaderTest {
+  private static final long SAMPLE_TIME = 1000000L;
+
+  @Test
+  public void testReadPartitionSampleBatch() throws UnknownVersionException {
+    List<PartitionMetricSample> samples = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      samples.add(sample(i % 3, new TopicPartition("topic" + (i % 2), i), i, SAMPLE_TIME + i));
+    }
+    PartitionMetricSampleReader reader = new PartitionMetricSampleReader();
+    reader.reset(MetricSampleBatchSerde.partitionSamplesToBytes(samples));
+    for (PartitionMetricSample sample : samples) {
+      assertTrue(reader.next());
+      assertSampleRead(sample, reader);
+    }
+    assertFalse(reader.next());
+
+    // The reader can be reused for another record.
+    reader.reset(MetricSampleBatchSerde.partitionSamplesToBytes(samples.subList(0, 1)));
+    assertTrue(reader.next());
+    assertSampleRead(samples.get(0), reader);
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void testReadSinglePartitionSample() throws UnknownVersionException {
+    PartitionMetricSample sample = sample(1, new TopicPartition("topic", 2), 3, SAMPLE_TIME);
+    PartitionMetricSampleReader reader = new PartitionMetricSampleReader();
+    reader.reset(sample.toBytes());
+    assertTrue(reader.next());
+    assertSampleRead(sample, reader);
+    assertFalse(reader.next());
+  }
+
+  @Test
+  public void testDecodeToPartitionMetricSampleValues() throws UnknownVersionException {
+    List<PartitionMetricSample> samples = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      samples.add(sample(i % 3, new TopicPartition("topic" + (i % 2), i), i, SAMPLE_TIME + i));
+    }
+    PartitionMetricSampleReader reader = new PartitionMetricSampleReader();
+    PartitionMetricSampleValues values = new PartitionMetricSampleValues();
+    reader.reset(MetricSampleBatchSerde.partitionSamplesToBytes(samples.subList(0, 19)));
+    assertEquals(19, values.addAll(reader));
+    reader.reset(samples.get(19).toBytes());
+    assertEquals(1, values.addAll(reader));
+
+    assertEquals(samples.size(), values.size());
+    double[] valuesByMetricId = new double[KafkaMetricDef.commonMetricDef().size()];
+    for (int i = 0; i < samples.size(); i++) {
+      PartitionMetricSample sample = samples.get(i);
+      assertEquals(sample.entity(), values.entity(i));
+      assertEquals(sample.sampleTime(), values.sampleTime(i));
+      values.copyValues(i, valuesByMetricId);
+      for (MetricInfo metricInfo : KafkaMetricDef.commonMetricDef().all()) {
+        assertEquals(sample.metricValue(metricInfo.id()), valuesByMetricId[metricInfo.id()], 0.0);
+      }
+    }
+  }
+
+  @Test(expected = UnknownVersionException.class)
+  public void testReadUnknownVersion() throws UnknownVersionException {
+    new PartitionMetricSampleReader().reset(new byte[]{-1});
+  }
+
+  private static PartitionMetricSample sample(int brokerId, TopicPartition tp, double value, long sampleTime) {
+    PartitionMetricSample sample = new PartitionMetricSample(brokerId, tp);
+    for (MetricInfo metricInfo : KafkaMetricDef.commonMetricDef().all()) {
+      sample.record(metricInfo, value + metricInfo.id() * 0.1);
+    }
+    sample.close(sampleTime);
+    return sample;
+  }
+
+  private static void assertSampleRead(PartitionMetricSample sample, PartitionMetricSampleReader reader) {
+    MetricDef metricDef = KafkaMetricDef.commonMetricDef();
+    assertEquals(sample.brokerId(), reader.brokerId());
+    assertEquals(sample.entity().tp(), new TopicPartition(reader.topic(), reader.partition()));
+    assertEquals(sample.sampleTime(), reader.sampleTime());
+    for (MetricInfo metricInfo : metricDef.all()) {
+      assertEquals(sample.metricValue(metricInfo.id()), reader.valuesByMetricId()[metricInfo.id()], 0.0);
+    }
+  }
+}